@@ -17,7 +17,6 @@
  */
 package org.wso2.carbon.identity.account.suspension.notification.task;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +34,7 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceException;
 import org.wso2.carbon.identity.governance.IdentityMgtConstants;
 import org.wso2.carbon.user.api.Tenant;
@@ -47,12 +47,24 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AccountValidatorThread implements Runnable {
 
     private static final Log log = LogFactory.getLog(AccountValidatorThread.class);
+    private static final long TENANT_TASK_POLL_INTERVAL = 1000L; // In milliseconds
 
     public AccountValidatorThread() {
 
@@ -65,6 +77,11 @@ public class AccountValidatorThread implements Runnable {
             log.debug("Idle account suspension task started.");
         }
 
+        // Run the task only from master node in cluster setup.
+        if (isMasterNodeExclusiveExecutionEnabled() && !isHazelcastMasterNode()) {
+            return;
+        }
+
         RealmService realmService = NotificationTaskDataHolder.getInstance().getRealmService();
 
         Tenant[] tenants = new Tenant[0];
@@ -75,23 +92,206 @@ public class AccountValidatorThread implements Runnable {
             log.error("Error occurred while retrieving tenants", e);
         }
 
-        handleTask(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
-
+        List<String> tenantDomains = new ArrayList<>(tenants.length + 1);
+        tenantDomains.add(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
         for (Tenant tenant : tenants) {
-            handleTask(tenant.getDomain());
+            tenantDomains.add(tenant.getDomain());
+        }
+        handleTasks(tenantDomains);
+    }
+
+    /**
+     * Handle the task of the given tenants on a bounded pool. Each tenant is a single task in a first in, first out
+     * queue, so the tenants are started in the given order and a tenant with many users only occupies one thread.
+     *
+     * @param tenantDomains Domains of the tenants, in the order of execution.
+     */
+    private void handleTasks(List<String> tenantDomains) {
+
+        handleTasks(tenantDomains, ExecutorConfigUtil.getPositiveIntProperty(NotificationConstants
+                        .TENANT_TASK_POOL_SIZE, NotificationConstants.DEFAULT_TENANT_TASK_POOL_SIZE),
+                TimeUnit.MINUTES.toNanos(ExecutorConfigUtil.getPositiveIntProperty(NotificationConstants
+                        .TENANT_TASK_TIMEOUT, NotificationConstants.DEFAULT_TENANT_TASK_TIMEOUT)));
+    }
+
+    /**
+     * Handle the task of the given tenants on a pool of the given size. A tenant which runs longer than the timeout
+     * is cancelled. As the cancelled task may not respond to the interruption, a replacement thread is added to the
+     * pool while the cancelled task is still running, so a hanging user store of a tenant does not hold back the
+     * remaining tenants. The pool grows up to twice the given size, and the remaining tenants are skipped if all
+     * the threads of the grown pool are held by timed out tasks.
+     *
+     * @param tenantDomains Domains of the tenants, in the order of execution.
+     * @param poolSize      Number of tenants handled concurrently.
+     * @param timeoutNanos  Time after which the task of a tenant is cancelled.
+     * @return Number of tenants whose task completed.
+     */
+    int handleTasks(List<String> tenantDomains, int poolSize, long timeoutNanos) {
+
+        int maxPoolSize = poolSize * 2;
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "AccountValidatorThread-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<Boolean>, TenantTask> pendingTasks = new LinkedHashMap<>();
+        for (String tenantDomain : tenantDomains) {
+            TenantTask tenantTask = new TenantTask(tenantDomain);
+            pendingTasks.put(completionService.submit(tenantTask), tenantTask);
+        }
+
+        int completedCount = 0;
+        List<String> failedTenants = new ArrayList<>();
+        List<TenantTask> timedOutTasks = new ArrayList<>();
+        List<String> skippedTenants = new ArrayList<>();
+        try {
+            while (!pendingTasks.isEmpty()) {
+                Future<Boolean> future = completionService.poll(TENANT_TASK_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (future != null) {
+                    // Cancelled tasks are also returned by the completion service after they are removed.
+                    TenantTask tenantTask = pendingTasks.remove(future);
+                    if (tenantTask != null) {
+                        if (isCompleted(future, tenantTask.tenantDomain)) {
+                            completedCount++;
+                        } else {
+                            failedTenants.add(tenantTask.tenantDomain);
+                        }
+                        logProgress(tenantDomains.size(), completedCount, failedTenants, timedOutTasks);
+                    }
+                }
+                cancelTimedOutTasks(pendingTasks, timeoutNanos, timedOutTasks);
+                int runningTimedOutCount = getRunningCount(timedOutTasks);
+                resizePool(executor, Math.min(poolSize + runningTimedOutCount, maxPoolSize));
+                if (runningTimedOutCount >= maxPoolSize) {
+                    skipPendingTasks(pendingTasks, skippedTenants);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Idle account suspension task was interrupted. Pending tenants: " + pendingTasks.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failedTenants.isEmpty() && timedOutTasks.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Idle account suspension task completed for " + completedCount + " tenants.");
+            }
+        } else {
+            log.warn("Idle account suspension task completed for " + completedCount + " of " + tenantDomains.size()
+                    + " tenants. Failed tenants: " + failedTenants + ". Timed out tenants: "
+                    + getTenantDomains(timedOutTasks, false) + ". Timed out tenants which are still running: "
+                    + getTenantDomains(timedOutTasks, true) + ". Skipped tenants: " + skippedTenants);
+        }
+        return completedCount;
+    }
+
+    private void cancelTimedOutTasks(Map<Future<Boolean>, TenantTask> pendingTasks, long timeoutNanos,
+                                     List<TenantTask> timedOutTasks) {
+
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Future<Boolean>, TenantTask>> iterator = pendingTasks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Future<Boolean>, TenantTask> pendingTask = iterator.next();
+            TenantTask tenantTask = pendingTask.getValue();
+            if (!tenantTask.started || now - tenantTask.startTime < timeoutNanos) {
+                continue;
+            }
+            pendingTask.getKey().cancel(true);
+            iterator.remove();
+            timedOutTasks.add(tenantTask);
+            log.error("Idle account suspension task for tenant: " + tenantTask.tenantDomain
+                    + " did not complete within " + TimeUnit.NANOSECONDS.toSeconds(timeoutNanos)
+                    + " seconds and was cancelled.");
+        }
+    }
+
+    /**
+     * Skip the tenants which are not started yet, as all the threads of the pool are held by timed out tasks.
+     */
+    private void skipPendingTasks(Map<Future<Boolean>, TenantTask> pendingTasks, List<String> skippedTenants) {
+
+        int skippedCount = 0;
+        Iterator<Map.Entry<Future<Boolean>, TenantTask>> iterator = pendingTasks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Future<Boolean>, TenantTask> pendingTask = iterator.next();
+            if (!pendingTask.getValue().started && pendingTask.getKey().cancel(false)) {
+                iterator.remove();
+                skippedTenants.add(pendingTask.getValue().tenantDomain);
+                skippedCount++;
+            }
+        }
+        if (skippedCount > 0) {
+            log.error("All the threads of the idle account suspension task are held by timed out tenants. Skipped " +
+                    skippedCount + " tenants.");
+        }
+    }
+
+    /**
+     * Resize the pool. A timed out task which is still running holds its thread, hence the pool is grown by the
+     * number of such tasks and shrunk back as they complete.
+     */
+    private void resizePool(ThreadPoolExecutor executor, int poolSize) {
+
+        if (poolSize > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(poolSize);
+            executor.setCorePoolSize(poolSize);
+        } else if (poolSize < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(poolSize);
+            executor.setMaximumPoolSize(poolSize);
+        }
+    }
+
+    private int getRunningCount(List<TenantTask> tenantTasks) {
+
+        int runningCount = 0;
+        for (TenantTask tenantTask : tenantTasks) {
+            if (!tenantTask.finished) {
+                runningCount++;
+            }
+        }
+        return runningCount;
+    }
+
+    private List<String> getTenantDomains(List<TenantTask> tenantTasks, boolean running) {
+
+        List<String> tenantDomains = new ArrayList<>();
+        for (TenantTask tenantTask : tenantTasks) {
+            if (!running || !tenantTask.finished) {
+                tenantDomains.add(tenantTask.tenantDomain);
+            }
         }
+        return tenantDomains;
+    }
+
+    private boolean isCompleted(Future<Boolean> future, String tenantDomain) throws InterruptedException {
 
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            log.error("Error occurred while handling idle account suspension task for tenant: " + tenantDomain,
+                    e.getCause());
+            return false;
+        }
     }
 
-    private void handleTask(String tenantDomain) {
+    private void logProgress(int tenantCount, int completedCount, List<String> failedTenants,
+                             List<TenantTask> timedOutTasks) {
 
         if (log.isDebugEnabled()) {
-            log.debug("Handling idle account suspension task for tenant: " + tenantDomain);
+            log.debug("Idle account suspension task progress: " + completedCount + " completed, "
+                    + failedTenants.size() + " failed and " + timedOutTasks.size() + " timed out of "
+                    + tenantCount + " tenants.");
         }
+    }
 
-        // Run the task only from master node in cluster setup.
-        if (isMasterNodeExclusiveExecutionEnabled() && !isHazelcastMasterNode()) {
-            return;
+    private boolean handleTask(String tenantDomain) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Handling idle account suspension task for tenant: " + tenantDomain);
         }
 
         Property[] identityProperties;
@@ -117,7 +317,7 @@ public class AccountValidatorThread implements Runnable {
                     isEnabled = Boolean.parseBoolean(identityProperty.getValue());
 
                     if (!isEnabled) {
-                        return;
+                        return true;
                     }
                 }
 
@@ -157,20 +357,22 @@ public class AccountValidatorThread implements Runnable {
             }
 
             if (!isEnabled) {
-                return;
+                return true;
             }
 
             notifyUsers(tenantDomain, suspensionDelay, notificationDelays);
 
             lockAccounts(tenantDomain, suspensionDelay);
+            return true;
 
         } catch (IdentityGovernanceException e) {
-            log.error("Error occurred while loading governance configuration for tenants", e);
+            log.error("Error occurred while loading governance configuration for tenant: " + tenantDomain, e);
         } catch (IdentityException e) {
-            log.error("Unable to disable user accounts", e);
+            log.error("Unable to disable user accounts of tenant: " + tenantDomain, e);
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
+        return false;
     }
 
     /**
@@ -200,21 +402,19 @@ public class AccountValidatorThread implements Runnable {
     private void notifyUsers(String tenantDomain, long suspensionDelay, long[] notificationDelays) {
         EmailUtil util = new EmailUtil();
         for (long delay : notificationDelays) {
-            List<NotificationReceiver> receivers = null;
             try {
-                receivers = NotificationReceiversRetrievalManager.getReceivers(delay, tenantDomain, suspensionDelay);
+                // The receivers are notified as they are retrieved, without holding all of them in memory.
+                NotificationReceiversRetrievalManager.processReceivers(delay, tenantDomain, suspensionDelay,
+                        receiver -> {
+                            if (log.isDebugEnabled()) {
+                                log.debug("Sending notification to: " + IdentityUtil.addDomainToName(
+                                        receiver.getUsername(), receiver.getUserStoreDomain()) + "@" + tenantDomain);
+                            }
+                            util.sendEmail(receiver);
+                        });
             } catch (AccountSuspensionNotificationException e) {
                 log.error("Error occurred while retrieving notification receivers", e);
             }
-            if (CollectionUtils.isNotEmpty(receivers)) {
-                for (NotificationReceiver receiver : receivers) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Sending notification to: " + IdentityUtil.addDomainToName(receiver.getUsername(),
-                                receiver.getUserStoreDomain()) + "@" + tenantDomain);
-                    }
-                    util.sendEmail(receiver);
-                }
-            }
         }
     }
 
@@ -224,59 +424,69 @@ public class AccountValidatorThread implements Runnable {
      * @throws IdentityException
      */
     private void lockAccounts(String tenantDomain, long suspensionDelay) throws IdentityException {
-        List<NotificationReceiver> receivers = null;
+
+        RealmService realmService = NotificationTaskDataHolder.getInstance().getRealmService();
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+
+        UserRealm userRealm;
+        try {
+            userRealm = (UserRealm) realmService.getTenantUserRealm(tenantId);
+        } catch (UserStoreException e) {
+            throw new IdentityException("Failed retrieve the user realm for tenant: " + tenantDomain, e);
+        }
+
+        UserStoreManager userStoreManager;
         try {
-            receivers = NotificationReceiversRetrievalManager.getReceivers(suspensionDelay, tenantDomain,
-                    suspensionDelay);
+            userStoreManager = userRealm.getUserStoreManager();
+        } catch (org.wso2.carbon.user.core.UserStoreException e) {
+            throw new IdentityException("Failed retrieve the user store manager for tenant: " + tenantDomain, e);
+        }
 
+        try {
+            // The accounts are locked as they are retrieved, without holding all of them in memory.
+            NotificationReceiversRetrievalManager.processReceivers(suspensionDelay, tenantDomain, suspensionDelay,
+                    receiver -> {
+                        try {
+                            lockAccount(receiver, tenantDomain, userStoreManager);
+                        } catch (IdentityException e) {
+                            throw new AccountSuspensionNotificationException(e.getMessage(), e);
+                        }
+                    });
         } catch (AccountSuspensionNotificationException e) {
+            if (e.getCause() instanceof IdentityException) {
+                throw (IdentityException) e.getCause();
+            }
             throw IdentityException.error("Error occurred while retrieving users for account disable", e);
         }
-        if (receivers.size() > 0) {
-            for (NotificationReceiver receiver : receivers) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Locking idle account: " + IdentityUtil.addDomainToName(receiver.getUsername(),
-                            receiver.getUserStoreDomain()) + "@" + tenantDomain);
-                }
-                RealmService realmService = NotificationTaskDataHolder.getInstance().getRealmService();
-                int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-
-                UserRealm userRealm;
-                try {
-                    userRealm = (UserRealm) realmService.getTenantUserRealm(tenantId);
-                } catch (UserStoreException e) {
-                    throw new IdentityException("Failed retrieve the user realm for tenant: " + tenantDomain, e);
-                }
+    }
 
-                UserStoreManager userStoreManager;
-                try {
-                    userStoreManager = userRealm.getUserStoreManager();
-                } catch (org.wso2.carbon.user.core.UserStoreException e) {
-                    throw new IdentityException("Failed retrieve the user store manager for tenant: " + tenantDomain,
-                            e);
-                }
+    private void lockAccount(NotificationReceiver receiver, String tenantDomain, UserStoreManager userStoreManager)
+            throws IdentityException {
 
-                Map<String, String> updatedClaims = new HashMap<>();
-                updatedClaims.put(NotificationConstants.ACCOUNT_LOCKED_CLAIM, Boolean.TRUE.toString());
-                updatedClaims.put(NotificationConstants.ACCOUNT_LOCKED_REASON_CLAIM,
-                        IdentityMgtConstants.LockedReason.IDLE_ACCOUNT.toString());
-                updatedClaims.put(NotificationConstants.PASSWORD_RESET_FAIL_ATTEMPTS_CLAIM, "0");
-                try {
-                    userStoreManager.setUserClaimValues(IdentityUtil.addDomainToName(receiver.getUsername(),
-                            receiver.getUserStoreDomain()), updatedClaims, UserCoreConstants.DEFAULT_PROFILE);
-                } catch (org.wso2.carbon.user.core.UserStoreException e) {
-                    throw new IdentityException("Failed to update claim values for user: " + IdentityUtil
-                            .addDomainToName(receiver.getUsername(), receiver.getUserStoreDomain()) + " in tenant: " +
-                            tenantDomain);
-                }
+        if (log.isDebugEnabled()) {
+            log.debug("Locking idle account: " + IdentityUtil.addDomainToName(receiver.getUsername(),
+                    receiver.getUserStoreDomain()) + "@" + tenantDomain);
+        }
 
-                User user = new User();
-                user.setUserName(receiver.getUsername());
-                user.setTenantDomain(tenantDomain);
-                user.setUserStoreDomain(receiver.getUserStoreDomain());
-                triggerNotification(user);
-            }
+        Map<String, String> updatedClaims = new HashMap<>();
+        updatedClaims.put(NotificationConstants.ACCOUNT_LOCKED_CLAIM, Boolean.TRUE.toString());
+        updatedClaims.put(NotificationConstants.ACCOUNT_LOCKED_REASON_CLAIM,
+                IdentityMgtConstants.LockedReason.IDLE_ACCOUNT.toString());
+        updatedClaims.put(NotificationConstants.PASSWORD_RESET_FAIL_ATTEMPTS_CLAIM, "0");
+        try {
+            userStoreManager.setUserClaimValues(IdentityUtil.addDomainToName(receiver.getUsername(),
+                    receiver.getUserStoreDomain()), updatedClaims, UserCoreConstants.DEFAULT_PROFILE);
+        } catch (org.wso2.carbon.user.core.UserStoreException e) {
+            throw new IdentityException("Failed to update claim values for user: " + IdentityUtil
+                    .addDomainToName(receiver.getUsername(), receiver.getUserStoreDomain()) + " in tenant: " +
+                    tenantDomain);
         }
+
+        User user = new User();
+        user.setUserName(receiver.getUsername());
+        user.setTenantDomain(tenantDomain);
+        user.setUserStoreDomain(receiver.getUserStoreDomain());
+        triggerNotification(user);
     }
 
     private String[] getPropertyNames() {
@@ -303,4 +513,33 @@ public class AccountValidatorThread implements Runnable {
                     user.toFullQualifiedUsername(), e);
         }
     }
+
+    /**
+     * Task of a single tenant, which records when it was started so that it can be timed out, and when it finished
+     * so that a timed out task which still holds its thread is known.
+     */
+    private class TenantTask implements Callable<Boolean> {
+
+        private final String tenantDomain;
+        private volatile boolean started;
+        private volatile long startTime;
+        private volatile boolean finished;
+
+        private TenantTask(String tenantDomain) {
+
+            this.tenantDomain = tenantDomain;
+        }
+
+        @Override
+        public Boolean call() {
+
+            startTime = System.nanoTime();
+            started = true;
+            try {
+                return handleTask(tenantDomain);
+            } finally {
+                finished = true;
+            }
+        }
+    }
 }
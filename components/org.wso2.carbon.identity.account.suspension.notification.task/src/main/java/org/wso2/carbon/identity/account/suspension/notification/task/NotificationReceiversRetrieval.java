@@ -28,6 +28,27 @@ public interface NotificationReceiversRetrieval {
     public List<NotificationReceiver> getNotificationReceivers(long lookupMin, long lookupMax,
             long delayForSuspension, String tenantDomain) throws AccountSuspensionNotificationException;
 
+    /**
+     * Pass the notification receivers to the given consumer as they are retrieved, so that the receivers of a large
+     * user store are not held in memory at once.
+     *
+     * @param lookupMin          Start of the last login time range.
+     * @param lookupMax          End of the last login time range.
+     * @param delayForSuspension Number of days after the last login at which the account is suspended.
+     * @param tenantDomain       Tenant domain.
+     * @param receiverConsumer   Consumer of the notification receivers.
+     * @throws AccountSuspensionNotificationException If an error occurred while retrieving or consuming the receivers.
+     */
+    default void getNotificationReceivers(long lookupMin, long lookupMax, long delayForSuspension, String tenantDomain,
+                                          NotificationReceiverConsumer receiverConsumer)
+            throws AccountSuspensionNotificationException {
+
+        for (NotificationReceiver receiver : getNotificationReceivers(lookupMin, lookupMax, delayForSuspension,
+                tenantDomain)) {
+            receiverConsumer.accept(receiver);
+        }
+    }
+
     void init(RealmConfiguration realmConfiguration);
 
 
@@ -21,8 +21,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.account.suspension.notification.task.exception.AccountSuspensionNotificationException;
 import org.wso2.carbon.identity.account.suspension.notification.task.internal.NotificationTaskDataHolder;
+import org.wso2.carbon.identity.account.suspension.notification.task.jdbc.JDBCNotificationReceiversRetrieval;
 import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationReceiver;
 import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationReceiversRetrievalUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 
 import java.text.ParseException;
 import java.util.Calendar;
@@ -39,10 +41,30 @@ public class NotificationReceiversRetrievalManager {
     public static List<NotificationReceiver> getReceivers(long delay, String tenantDomain, long delayForSuspension)
             throws AccountSuspensionNotificationException {
 
+        List<NotificationReceiver> receivers = new ArrayList<>();
+        processReceivers(delay, tenantDomain, delayForSuspension, receivers::add);
+        return receivers;
+    }
+
+    /**
+     * Pass the notification receivers of all the user stores of the tenant to the given consumer as they are
+     * retrieved.
+     *
+     * @param delay              Number of days since the last login of the receivers.
+     * @param tenantDomain       Tenant domain.
+     * @param delayForSuspension Number of days after the last login at which the account is suspended.
+     * @param receiverConsumer   Consumer of the notification receivers.
+     * @throws AccountSuspensionNotificationException If an error occurred while retrieving or consuming the receivers.
+     */
+    public static void processReceivers(long delay, String tenantDomain, long delayForSuspension,
+                                        NotificationReceiverConsumer receiverConsumer)
+            throws AccountSuspensionNotificationException {
+
         Set<String> userStoreDomains = NotificationReceiversRetrievalUtil.
                 getSuspensionNotificationEnabledUserStores(tenantDomain);
-
-        List<NotificationReceiver> receivers = new ArrayList<>();
+        // Release the connection pools of the user stores which are removed or no longer enabled for the task.
+        JDBCNotificationReceiversRetrieval.removeDataSources(IdentityTenantUtil.getTenantId(tenantDomain),
+                userStoreDomains);
 
         for (String userStoreDomain : userStoreDomains) {
             if (log.isDebugEnabled()) {
@@ -61,13 +83,10 @@ public class NotificationReceiversRetrievalManager {
                             + "trigger time", e);
                 }
                 long lookupMax = lookupMin + TimeUnit.DAYS.toMillis(1);
-                List<NotificationReceiver> newReceivers = notificationReceiversRetrieval
-                        .getNotificationReceivers(lookupMin, lookupMax, delayForSuspension, tenantDomain);
-                receivers.addAll(newReceivers);
+                notificationReceiversRetrieval.getNotificationReceivers(lookupMin, lookupMax, delayForSuspension,
+                        tenantDomain, receiverConsumer);
             }
         }
-
-        return receivers;
     }
 
     private static Calendar getCurrentExecutionTime(Date triggerTime) {
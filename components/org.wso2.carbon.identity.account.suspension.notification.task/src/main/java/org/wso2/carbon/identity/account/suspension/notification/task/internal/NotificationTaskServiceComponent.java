@@ -23,11 +23,14 @@ import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.identity.account.suspension.notification.task.NotificationReceiversRetrievalFactory;
 import org.wso2.carbon.identity.account.suspension.notification.task.handler.AccountSuspensionNotificationHandler;
+import org.wso2.carbon.identity.account.suspension.notification.task.jdbc.JDBCNotificationReceiversRetrieval;
 import org.wso2.carbon.identity.account.suspension.notification.task.jdbc.JDBCNotificationReceiversRetrievalFactory;
 import org.wso2.carbon.identity.account.suspension.notification.task.ldap.LDAPNotificationReceiversRetrievalFactory;
+import org.wso2.carbon.identity.account.suspension.notification.task.listener.NotificationTaskTenantMgtListener;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
 import org.wso2.carbon.identity.event.services.IdentityEventService;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
+import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
 import org.wso2.carbon.user.core.UserStoreException;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.osgi.service.component.annotations.Activate;
@@ -67,11 +70,15 @@ public class NotificationTaskServiceComponent {
                 JDBCNotificationReceiversRetrievalFactory();
         bundleContext.registerService(NotificationReceiversRetrievalFactory.class.getName(),
                 jdbcNotificationReceiversRetrievalFactory, null);
+        bundleContext.registerService(TenantMgtListener.class.getName(), new NotificationTaskTenantMgtListener(),
+                null);
     }
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
 
+        JDBCNotificationReceiversRetrieval.removeAllDataSources();
+
         if (log.isDebugEnabled()) {
             log.debug("Notification bundle de-activated");
         }
@@ -33,26 +33,39 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.user.api.RealmConfiguration;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.UserCoreConstants;
-import org.wso2.carbon.user.core.UserStoreManager;
 import org.wso2.carbon.user.core.claim.ClaimManager;
+import org.wso2.carbon.user.core.jdbc.JDBCRealmConstants;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.util.DatabaseUtil;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.sql.DataSource;
 
 public class JDBCNotificationReceiversRetrieval implements NotificationReceiversRetrieval {
 
     private static final Log log = LogFactory.getLog(JDBCNotificationReceiversRetrieval.class);
+    private static final String HASHING_ALGORITHM = "SHA-256";
+    private static final Map<String, UserStoreDataSource> dataSources = new ConcurrentHashMap<>();
     private RealmConfiguration realmConfiguration = null;
 
     @Override
@@ -92,49 +105,53 @@ public class JDBCNotificationReceiversRetrieval implements NotificationReceivers
                         lookupMax, delayForSuspension, realmService, tenantDomain, userStoreDomain);
             }
 
-            String lastLoginClaim = NotificationConstants.LAST_LOGIN_TIME;
-            String lastLoginTimeAttribute = claimManager.getAttributeName(userStoreDomain, lastLoginClaim);
+            String lastLoginTimeAttribute = claimManager.getAttributeName(userStoreDomain,
+                    NotificationConstants.LAST_LOGIN_TIME);
+
+            String firstNameAttribute = claimManager.getAttributeName(userStoreDomain,
+                    NotificationConstants.FIRST_NAME_CLAIM);
+            String emailAttribute = claimManager.getAttributeName(userStoreDomain, NotificationConstants.EMAIL_CLAIM);
+            int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
 
             try (Connection dbConnection = getDBConnection(realmConfiguration)) {
-                String sqlStmt = NotificationConstants.GET_USERS_FILTERED_BY_LAST_LOGIN_TIME;
+                // The claims of the users are joined into the query, hence the receivers are read with one query
+                // regardless of the number of users.
+                String sqlStmt = NotificationConstants.GET_USERS_WITH_CLAIMS_FILTERED_BY_LAST_LOGIN_TIME;
                 try (PreparedStatement prepStmt = dbConnection.prepareStatement(sqlStmt)) {
 
                     prepStmt.setString(1, lastLoginTimeAttribute);
-                    prepStmt.setString(2, String.valueOf(lookupMin));
-                    prepStmt.setString(3, String.valueOf(lookupMax));
+                    prepStmt.setString(2, UserCoreConstants.DEFAULT_PROFILE);
                     // As UM_TENANT_ID is integer, this has to be set as an int to work with postgres.
-                    prepStmt.setInt(4, IdentityTenantUtil.getTenantId(tenantDomain));
-                    prepStmt.setInt(5, IdentityTenantUtil.getTenantId(tenantDomain));
+                    prepStmt.setInt(3, tenantId);
+                    prepStmt.setString(4, firstNameAttribute);
+                    prepStmt.setString(5, UserCoreConstants.DEFAULT_PROFILE);
+                    prepStmt.setInt(6, tenantId);
+                    prepStmt.setString(7, emailAttribute);
+                    prepStmt.setString(8, UserCoreConstants.DEFAULT_PROFILE);
+                    prepStmt.setInt(9, tenantId);
+                    prepStmt.setString(10, String.valueOf(lookupMin));
+                    prepStmt.setString(11, String.valueOf(lookupMax));
+                    prepStmt.setInt(12, tenantId);
 
                     try (ResultSet resultSet = prepStmt.executeQuery()) {
 
+                        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
+                        Set<String> userNames = new HashSet<>();
                         while (resultSet.next()) {
                             String userName = resultSet.getString(1);
 
-                            if (StringUtils.isNotBlank(userName)) {
-
-                                String[] claims = new String[3];
-                                claims[0] = NotificationConstants.FIRST_NAME_CLAIM;
-                                claims[1] = NotificationConstants.EMAIL_CLAIM;
-                                claims[2] = lastLoginClaim;
-
-                                UserStoreManager userStoreManager =
-                                        (UserStoreManager) realmService.getTenantUserRealm(IdentityTenantUtil
-                                                .getTenantId(tenantDomain)).getUserStoreManager();
-
-                                Map<String, String> map =
-                                        userStoreManager.getUserClaimValues(IdentityUtil.addDomainToName
-                                                (userName, userStoreDomain), claims, null);
+                            // A multi valued attribute returns a row per value, hence the first row is used.
+                            if (StringUtils.isNotBlank(userName) && userNames.add(userName)) {
 
                                 NotificationReceiver receiver = new NotificationReceiver();
-                                receiver.setEmail(map.get(NotificationConstants.EMAIL_CLAIM));
+                                receiver.setEmail(resultSet.getString(4));
                                 receiver.setUsername(userName);
-                                receiver.setFirstName(map.get(NotificationConstants.FIRST_NAME_CLAIM));
+                                receiver.setFirstName(resultSet.getString(3));
                                 receiver.setUserStoreDomain(userStoreDomain);
 
-                                long lastLoginTime = Long.parseLong(map.get(lastLoginClaim));
+                                long lastLoginTime = Long.parseLong(resultSet.getString(2));
                                 long expireDate = lastLoginTime + TimeUnit.DAYS.toMillis(delayForSuspension);
-                                receiver.setExpireDate(new SimpleDateFormat("dd-MM-yyyy").format(new Date(expireDate)));
+                                receiver.setExpireDate(dateFormat.format(new Date(expireDate)));
                                 users.add(receiver);
                             }
                         }
@@ -157,7 +174,7 @@ public class JDBCNotificationReceiversRetrieval implements NotificationReceivers
     private Connection getDBConnection(RealmConfiguration realmConfiguration) throws SQLException, UserStoreException {
 
         Connection dbConnection = null;
-        DataSource dataSource = DatabaseUtil.createUserStoreDataSource(realmConfiguration);
+        DataSource dataSource = getDataSource(realmConfiguration);
 
         if (dataSource != null) {
             dbConnection = DatabaseUtil.getDBConnection(dataSource);
@@ -176,4 +193,154 @@ public class JDBCNotificationReceiversRetrieval implements NotificationReceivers
         dbConnection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
         return dbConnection;
     }
+
+    /**
+     * Get the data source of the user store. A data source creates a connection pool, hence the data source of a
+     * user store is created once and reused until the connection properties of the user store are changed. The pool
+     * of a replaced data source is closed.
+     *
+     * @param realmConfiguration Realm configuration of the user store.
+     * @return Data source of the user store, or null if the user store does not define a data source.
+     */
+    private static DataSource getDataSource(RealmConfiguration realmConfiguration) {
+
+        String userStoreDomain = realmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig
+                .PROPERTY_DOMAIN_NAME);
+        String dataSourceKey = realmConfiguration.getTenantId() + UserCoreConstants.DOMAIN_SEPARATOR +
+                userStoreDomain;
+        // Only a hash of the password is kept, to detect a password change without holding the password.
+        String connectionProperties = realmConfiguration.getUserStoreProperty(JDBCRealmConstants.DATASOURCE) + "|" +
+                realmConfiguration.getUserStoreProperty(JDBCRealmConstants.URL) + "|" +
+                realmConfiguration.getUserStoreProperty(JDBCRealmConstants.USER_NAME) + "|" +
+                hash(realmConfiguration.getUserStoreProperty(JDBCRealmConstants.PASSWORD));
+        List<DataSource> replacedDataSources = new ArrayList<>(1);
+        UserStoreDataSource userStoreDataSource = dataSources.compute(dataSourceKey, (key, existingDataSource) -> {
+            if (existingDataSource != null &&
+                    existingDataSource.connectionProperties.equals(connectionProperties)) {
+                return existingDataSource;
+            }
+            if (existingDataSource != null) {
+                replacedDataSources.add(existingDataSource.dataSource);
+            }
+            DataSource dataSource = DatabaseUtil.createUserStoreDataSource(realmConfiguration);
+            return dataSource != null ? new UserStoreDataSource(realmConfiguration.getTenantId(), userStoreDomain,
+                    connectionProperties, dataSource) : null;
+        });
+        replacedDataSources.forEach(JDBCNotificationReceiversRetrieval::closeDataSource);
+        return userStoreDataSource != null ? userStoreDataSource.dataSource : null;
+    }
+
+    /**
+     * Remove and close the data sources of the user stores of a tenant.
+     *
+     * @param tenantId Tenant id.
+     */
+    public static void removeDataSources(int tenantId) {
+
+        removeDataSources(tenantId, null);
+    }
+
+    /**
+     * Remove and close the data sources of the user stores of a tenant which are not in the given user stores. Used
+     * to release the connection pools of the user stores which are removed, or no longer have the idle account
+     * suspension notifications enabled.
+     *
+     * @param tenantId         Tenant id.
+     * @param userStoreDomains Domains of the user stores whose data sources are kept, or null to remove all the data
+     *                         sources of the tenant.
+     */
+    public static void removeDataSources(int tenantId, Collection<String> userStoreDomains) {
+
+        Set<String> retainedDomains = new HashSet<>();
+        if (userStoreDomains != null) {
+            for (String userStoreDomain : userStoreDomains) {
+                retainedDomains.add(StringUtils.upperCase(userStoreDomain, Locale.ENGLISH));
+            }
+        }
+        for (Map.Entry<String, UserStoreDataSource> entry : dataSources.entrySet()) {
+            UserStoreDataSource userStoreDataSource = entry.getValue();
+            if (userStoreDataSource.tenantId == tenantId && !retainedDomains.contains(
+                    StringUtils.upperCase(userStoreDataSource.userStoreDomain, Locale.ENGLISH)) &&
+                    dataSources.remove(entry.getKey(), userStoreDataSource)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Removing the data source of the user store: " + userStoreDataSource.userStoreDomain +
+                            " of the tenant: " + tenantId);
+                }
+                closeDataSource(userStoreDataSource.dataSource);
+            }
+        }
+    }
+
+    /**
+     * Remove and close the data sources of all the user stores.
+     */
+    public static void removeAllDataSources() {
+
+        for (Map.Entry<String, UserStoreDataSource> entry : dataSources.entrySet()) {
+            if (dataSources.remove(entry.getKey(), entry.getValue())) {
+                closeDataSource(entry.getValue().dataSource);
+            }
+        }
+    }
+
+    /**
+     * Close the connection pool of a data source. The pooled data sources of the user stores are not closeable
+     * through the DataSource interface, hence their close method is invoked when the data source is not
+     * AutoCloseable. Connections in use are closed as they are returned to the pool.
+     *
+     * @param dataSource Data source to close.
+     */
+    private static void closeDataSource(DataSource dataSource) {
+
+        try {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+                return;
+            }
+            Method closeMethod = dataSource.getClass().getMethod("close");
+            closeMethod.invoke(dataSource);
+        } catch (NoSuchMethodException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Data source: " + dataSource.getClass().getName() + " does not have a close method.");
+            }
+        } catch (InvocationTargetException e) {
+            log.warn("Error while closing the user store data source.", e.getCause());
+        } catch (Exception e) {
+            log.warn("Error while closing the user store data source.", e);
+        }
+    }
+
+    private static String hash(String value) {
+
+        if (value == null) {
+            return StringUtils.EMPTY;
+        }
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(HASHING_ALGORITHM);
+            return Base64.getEncoder().encodeToString(messageDigest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException("Error while hashing the user store connection properties.", e);
+        }
+    }
+
+    /**
+     * Data source of a user store, along with the connection properties it was created with.
+     */
+    private static class UserStoreDataSource {
+
+        private final int tenantId;
+        private final String userStoreDomain;
+        private final String connectionProperties;
+        private final DataSource dataSource;
+
+        private UserStoreDataSource(int tenantId, String userStoreDomain, String connectionProperties,
+                                    DataSource dataSource) {
+
+            this.tenantId = tenantId;
+            this.userStoreDomain = userStoreDomain;
+            this.connectionProperties = connectionProperties;
+            this.dataSource = dataSource;
+        }
+    }
 }
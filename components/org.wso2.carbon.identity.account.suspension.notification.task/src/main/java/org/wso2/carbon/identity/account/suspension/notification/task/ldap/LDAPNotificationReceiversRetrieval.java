@@ -20,6 +20,7 @@ package org.wso2.carbon.identity.account.suspension.notification.task.ldap;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.account.suspension.notification.task.NotificationReceiverConsumer;
 import org.wso2.carbon.identity.account.suspension.notification.task.NotificationReceiversRetrieval;
 import org.wso2.carbon.identity.account.suspension.notification.task.exception.AccountSuspensionNotificationException;
 import org.wso2.carbon.identity.account.suspension.notification.task.internal.NotificationTaskDataHolder;
@@ -28,6 +29,7 @@ import org.wso2.carbon.identity.account.suspension.notification.task.util.Notifi
 import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationReceiversRetrievalUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
 import org.wso2.carbon.user.api.RealmConfiguration;
 import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.UserStoreConfigConstants;
@@ -39,9 +41,17 @@ import org.wso2.carbon.user.core.service.RealmService;
 
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
+import javax.naming.SizeLimitExceededException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
 import javax.naming.directory.DirContext;
 import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.time.OffsetDateTime;
@@ -66,6 +76,14 @@ public class LDAPNotificationReceiversRetrieval implements NotificationReceivers
             long delayForSuspension, String tenantDomain) throws AccountSuspensionNotificationException {
 
         List<NotificationReceiver> users = new ArrayList<NotificationReceiver>();
+        getNotificationReceivers(lookupMin, lookupMax, delayForSuspension, tenantDomain, users::add);
+        return users;
+    }
+
+    @Override
+    public void getNotificationReceivers(long lookupMin, long lookupMax, long delayForSuspension, String tenantDomain,
+                                         NotificationReceiverConsumer receiverConsumer)
+            throws AccountSuspensionNotificationException {
 
         if (realmConfiguration != null) {
             String ldapSearchBase = realmConfiguration.getUserStoreProperty(LDAPConstants.USER_SEARCH_BASE);
@@ -90,8 +108,12 @@ public class LDAPNotificationReceiversRetrieval implements NotificationReceivers
                         log.debug("Property " + NotificationConstants.USE_IDENTITY_CLAIM_FOR_LAST_LOGIN_TIME +
                                 " is enabled in identity.xml file. Hence treating last login time as identity claim.");
                     }
-                    return NotificationReceiversRetrievalUtil.getNotificationReceiversFromIdentityClaim(lookupMin,
-                            lookupMax, delayForSuspension, realmService, tenantDomain, userStoreDomain);
+                    for (NotificationReceiver receiver : NotificationReceiversRetrievalUtil
+                            .getNotificationReceiversFromIdentityClaim(lookupMin, lookupMax, delayForSuspension,
+                                    realmService, tenantDomain, userStoreDomain)) {
+                        receiverConsumer.accept(receiver);
+                    }
+                    return;
                 }
 
                 String lastLoginClaim = NotificationConstants.LAST_LOGIN_TIME;
@@ -116,31 +138,57 @@ public class LDAPNotificationReceiversRetrieval implements NotificationReceivers
                 searchControls.setSearchScope(SearchControls.SUBTREE_SCOPE);
                 searchControls.setReturningAttributes(returnedAttrs);
 
-                NamingEnumeration<SearchResult> results = ctx.search(ldapSearchBase, searchFilter, searchControls);
-
-                if (log.isDebugEnabled()) {
-                    log.debug("LDAP user list retrieved.");
+                int pageSize = ExecutorConfigUtil.getPositiveIntProperty(NotificationConstants.LDAP_SEARCH_PAGE_SIZE,
+                        NotificationConstants.DEFAULT_LDAP_SEARCH_PAGE_SIZE);
+                int receiverCount = 0;
+                int pageCount = 0;
+                try {
+                    byte[] cookie = null;
+                    do {
+                        if (ctx instanceof LdapContext) {
+                            // Read the users page by page, so that the size limit of the server does not truncate
+                            // the users. A server which does not support paging returns all the users at once.
+                            ((LdapContext) ctx).setRequestControls(new Control[]{
+                                    new PagedResultsControl(pageSize, cookie, Control.NONCRITICAL)});
+                        }
+                        List<NotificationReceiver> pageReceivers = new ArrayList<>();
+                        NamingEnumeration<SearchResult> results = ctx.search(ldapSearchBase, searchFilter,
+                                searchControls);
+                        try {
+                            while (results.hasMore()) {
+                                SearchResult result = results.next();
+                                pageReceivers.add(buildReceiver(result.getAttributes(), usernameMapAttribute,
+                                        firstNameMapAttribute, emailMapAttribute, lastLoginTimeAttribute,
+                                        userStoreDomain, delayForSuspension));
+                            }
+                        } catch (SizeLimitExceededException e) {
+                            log.warn("Size limit of the LDAP server was exceeded while retrieving the notification "
+                                    + "receivers of user store: " + userStoreDomain + ". Only "
+                                    + (receiverCount + pageReceivers.size()) + " receivers were retrieved.");
+                        } finally {
+                            results.close();
+                        }
+                        pageCount++;
+                        cookie = ctx instanceof LdapContext ?
+                                getPagedResultsCookie(((LdapContext) ctx).getResponseControls()) : null;
+
+                        // The consumer may write to the user store, e.g. to lock the accounts, hence the receivers
+                        // are handed over only once the results of the page are read and closed.
+                        for (NotificationReceiver receiver : pageReceivers) {
+                            receiverConsumer.accept(receiver);
+                            receiverCount++;
+                        }
+                    } while (cookie != null && cookie.length > 0);
+                } finally {
+                    ctx.close();
                 }
 
-                while (results.hasMoreElements()) {
-                    SearchResult result = results.nextElement();
-
-                    NotificationReceiver receiver = new NotificationReceiver();
-                    receiver.setEmail((String) result.getAttributes().get(emailMapAttribute).get());
-                    receiver.setUsername((String) result.getAttributes().get(usernameMapAttribute).get());
-                    receiver.setFirstName((String) result.getAttributes().get(firstNameMapAttribute).get());
-                    receiver.setUserStoreDomain(userStoreDomain);
-
-                    String lastLoginTimeValue = result.getAttributes().get(lastLoginTimeAttribute).get().toString();
-                    long lastLoginTime = convertToWSO2DateFormat(lastLoginTimeValue);
-                    long expireDate = lastLoginTime + TimeUnit.DAYS.toMillis(delayForSuspension);
-                    receiver.setExpireDate(new SimpleDateFormat("dd-MM-yyyy").format(new Date(expireDate)));
-
-                    if (log.isDebugEnabled()) {
-                        log.debug("Expire date was set to: " + receiver.getExpireDate());
-                    }
-                    users.add(receiver);
+                if (log.isDebugEnabled()) {
+                    log.debug("LDAP user list retrieved. " + receiverCount + " users were retrieved in " + pageCount
+                            + " pages.");
                 }
+            } catch (IOException e) {
+                throw new AccountSuspensionNotificationException("Failed to create the paged results control.", e);
             } catch (NamingException e) {
                 throw new AccountSuspensionNotificationException("Failed to filter users from LDAP user store.", e);
             } catch (UserStoreException e) {
@@ -150,56 +198,52 @@ public class LDAPNotificationReceiversRetrieval implements NotificationReceivers
                         + "tenant:" + tenantDomain, e);
             }
         }
-        return users;
     }
 
-    /**
-     * Convert Active Directory date format (Generalized Time) to WSO2 format.
-     * @param date Date formatted in Active Directory date format.
-     * @return Date formatted in WSO2 date format.
-     */
-    private long convertToWSO2DateFormat(String date) {
-
-        // If the user-store uses a different timestamp than WSO2 format.
-        String dateTimeFormat = realmConfiguration.getUserStoreProperty(UserStoreConfigConstants.dateAndTimePattern);
-        if(StringUtils.isNotEmpty(dateTimeFormat)){
-            DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormat);
-            OffsetDateTime offsetDateTime = OffsetDateTime.parse(date, dateTimeFormatter);
-            Instant instant = offsetDateTime.toInstant();
-            return instant.toEpochMilli();
+    private NotificationReceiver buildReceiver(Attributes attributes, String usernameMapAttribute,
+                                               String firstNameMapAttribute, String emailMapAttribute,
+                                               String lastLoginTimeAttribute, String userStoreDomain,
+                                               long delayForSuspension) throws NamingException {
+
+        NotificationReceiver receiver = new NotificationReceiver();
+        receiver.setEmail(getAttributeValue(attributes, emailMapAttribute));
+        receiver.setUsername(getAttributeValue(attributes, usernameMapAttribute));
+        receiver.setFirstName(getAttributeValue(attributes, firstNameMapAttribute));
+        receiver.setUserStoreDomain(userStoreDomain);
+
+        String lastLoginTimeValue = attributes.get(lastLoginTimeAttribute).get().toString();
+        long lastLoginTime = convertToWSO2DateFormat(lastLoginTimeValue);
+        long expireDate = lastLoginTime + TimeUnit.DAYS.toMillis(delayForSuspension);
+        receiver.setExpireDate(new SimpleDateFormat("dd-MM-yyyy").format(new Date(expireDate)));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Expire date was set to: " + receiver.getExpireDate());
         }
-        return  Long.parseLong(date);
+        return receiver;
+    }
+
+    private String getAttributeValue(Attributes attributes, String attributeName) throws NamingException {
+
+        Attribute attribute = attributes.get(attributeName);
+        return attribute != null && attribute.get() != null ? attribute.get().toString() : null;
     }
 
     /**
-     * Construct the search filter according to timestamps defined in the user-store configuration.
-     * @param lookupMin Search start time.
-     * @param lookupMax Search end time.
-     * @param lastLoginTimeAttribute Last login time.
-     * @return Constructed search filter.
+     * Get the cookie of the next page from the response controls of a paged search.
+     *
+     * @param responseControls Response controls of the search.
+     * @return Cookie of the next page, or null if there are no more pages.
      */
-    protected String getSearchFilter(long lookupMin, long lookupMax, String lastLoginTimeAttribute) {
-
-        // The lastLoginTimeAttribute is the mapped LDAP attribute for LastLoginTime claim.
-        String searchFilter = "(&(" + lastLoginTimeAttribute + ">=" + lookupMin + ")(|(!(" +
-                lastLoginTimeAttribute + ">=" + lookupMax + "))(" + lastLoginTimeAttribute + "="
-                + lookupMax + ")))";
-
-        // If the user-store uses a different timestamp than WSO2 format.
-        String timeStampFormat = realmConfiguration.getUserStoreProperty(UserStoreConfigConstants.dateAndTimePattern);
-        if (StringUtils.isNotEmpty(timeStampFormat)) {
-
-            String lookUpMinDate = new SimpleDateFormat(timeStampFormat).format(new Date(lookupMin));
-            String lookUpMaxDate = new SimpleDateFormat(timeStampFormat).format(new Date(lookupMax));
-            searchFilter = "(&(" + lastLoginTimeAttribute + ">=" + lookUpMinDate + ")(|(!(" +
-                    lastLoginTimeAttribute + ">=" + lookUpMaxDate + "))(" + lastLoginTimeAttribute + "="
-                    + lookUpMaxDate + ")))";
-        }
+    private byte[] getPagedResultsCookie(Control[] responseControls) {
 
-        if (log.isDebugEnabled()) {
-            log.debug("Retrieving LDAP user list for searchFilter: " + searchFilter);
+        if (responseControls == null) {
+            return null;
         }
-        return searchFilter;
+        for (Control responseControl : responseControls) {
+            if (responseControl instanceof PagedResultsResponseControl) {
+                return ((PagedResultsResponseControl) responseControl).getCookie();
+            }
+        }
+        return null;
     }
-
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.account.suspension.notification.task.listener;
+
+import org.wso2.carbon.identity.account.suspension.notification.task.jdbc.JDBCNotificationReceiversRetrieval;
+import org.wso2.carbon.identity.core.AbstractIdentityTenantMgtListener;
+import org.wso2.carbon.stratos.common.exception.StratosException;
+
+/**
+ * Tenant management listener of the idle account suspension notifications.
+ */
+public class NotificationTaskTenantMgtListener extends AbstractIdentityTenantMgtListener {
+
+    private static final int EXEC_ORDER = 42;
+
+    /**
+     * Get the execution order of the listener.
+     *
+     * @return int The order of the listener.
+     */
+    @Override
+    public int getListenerOrder() {
+
+        return EXEC_ORDER;
+    }
+
+    /**
+     * Close the connection pools of the user stores of the tenant before the tenant is deleted.
+     *
+     * @param tenantId The id of the tenant.
+     * @throws StratosException
+     */
+    @Override
+    public void onPreDelete(int tenantId) throws StratosException {
+
+        JDBCNotificationReceiversRetrieval.removeDataSources(tenantId);
+    }
+}
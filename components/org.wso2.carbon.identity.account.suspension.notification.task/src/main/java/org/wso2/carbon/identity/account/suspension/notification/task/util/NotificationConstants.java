@@ -28,6 +28,12 @@ public class NotificationConstants {
     public static final String SUSPENSION_NOTIFICATION_DELAYS="suspension.notification.delays";
     public static final String USE_IDENTITY_CLAIM_FOR_LAST_LOGIN_TIME = "AccountSuspension.UseIdentityClaims";
     public static final String EXECUTE_TASK_IN_MASTER_NODE = "AccountSuspension.ExecuteTaskOnMasterNode";
+    public static final String TENANT_TASK_POOL_SIZE = "AccountSuspension.TenantTaskPoolSize";
+    public static final String TENANT_TASK_TIMEOUT = "AccountSuspension.TenantTaskTimeout";
+    public static final int DEFAULT_TENANT_TASK_POOL_SIZE = 4;
+    public static final int DEFAULT_TENANT_TASK_TIMEOUT = 30; // In minutes
+    public static final String LDAP_SEARCH_PAGE_SIZE = "AccountSuspension.LDAPSearchPageSize";
+    public static final int DEFAULT_LDAP_SEARCH_PAGE_SIZE = 1000;
     public static final String TRIGGER_TIME_FORMAT = "HH:mm:ss";
     public static final long SCHEDULER_DELAY = 24; // In hours
     public static final String SUSPENSION_NOTIFICATION_THREAD_POOL_SIZE = "suspension.notification.thread.pool.size";
@@ -37,6 +43,16 @@ public class NotificationConstants {
     + "= ? AND UM_USER_ATTRIBUTE.UM_ATTR_VALUE BETWEEN ? AND ? AND UM_USER_ATTRIBUTE.UM_TENANT_ID=? AND "
     + "UM_USER.UM_TENANT_ID=?";
 
+    public static final String GET_USERS_WITH_CLAIMS_FILTERED_BY_LAST_LOGIN_TIME = "SELECT UM_USER.UM_USER_NAME, "
+            + "LAST_LOGIN.UM_ATTR_VALUE, FIRST_NAME.UM_ATTR_VALUE, EMAIL.UM_ATTR_VALUE FROM UM_USER "
+            + "INNER JOIN UM_USER_ATTRIBUTE LAST_LOGIN ON LAST_LOGIN.UM_USER_ID = UM_USER.UM_ID AND "
+            + "LAST_LOGIN.UM_ATTR_NAME = ? AND LAST_LOGIN.UM_PROFILE_ID = ? AND LAST_LOGIN.UM_TENANT_ID = ? "
+            + "LEFT OUTER JOIN UM_USER_ATTRIBUTE FIRST_NAME ON FIRST_NAME.UM_USER_ID = UM_USER.UM_ID AND "
+            + "FIRST_NAME.UM_ATTR_NAME = ? AND FIRST_NAME.UM_PROFILE_ID = ? AND FIRST_NAME.UM_TENANT_ID = ? "
+            + "LEFT OUTER JOIN UM_USER_ATTRIBUTE EMAIL ON EMAIL.UM_USER_ID = UM_USER.UM_ID AND "
+            + "EMAIL.UM_ATTR_NAME = ? AND EMAIL.UM_PROFILE_ID = ? AND EMAIL.UM_TENANT_ID = ? "
+            + "WHERE LAST_LOGIN.UM_ATTR_VALUE BETWEEN ? AND ? AND UM_USER.UM_TENANT_ID = ?";
+
     public static final String GET_USERS_FILTERED_BY_LAST_LOGIN_TIME_IDENTITY_CLAIM = "SELECT USER_NAME, DATA_VALUE " +
             "FROM IDN_IDENTITY_USER_DATA WHERE DATA_KEY = ? AND DATA_VALUE BETWEEN ? AND ? AND TENANT_ID = ?";
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.account.suspension.notification.task;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.identity.account.suspension.notification.task.internal.NotificationTaskDataHolder;
+import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationConstants;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.IdentityGovernanceService;
+import org.wso2.carbon.user.api.Tenant;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.tenant.TenantManager;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the handling of the idle account suspension task of the tenants on a bounded pool.
+ */
+public class AccountValidatorThreadTest {
+
+    private static final int TENANT_COUNT = 1000;
+    private static final int POOL_SIZE = 8;
+    private static final String HANGING_TENANT_PREFIX = "hanging";
+    private static final long TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final Set<String> handledTenants = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger concurrentTaskCount = new AtomicInteger();
+    private final AtomicInteger maxConcurrentTaskCount = new AtomicInteger();
+    private CountDownLatch hangingTenantsReleased;
+    private MockedStatic<IdentityUtil> identityUtil;
+    private RealmService previousRealmService;
+    private IdentityGovernanceService previousIdentityGovernanceService;
+
+    @BeforeClass
+    public void setUpClass() {
+
+        String carbonHome = Paths.get(System.getProperty("user.dir"), "src", "test", "resources").toString();
+        System.setProperty(CarbonBaseConstants.CARBON_HOME, carbonHome);
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        handledTenants.clear();
+        concurrentTaskCount.set(0);
+        maxConcurrentTaskCount.set(0);
+        hangingTenantsReleased = new CountDownLatch(1);
+
+        Tenant[] tenants = new Tenant[TENANT_COUNT];
+        for (int i = 0; i < TENANT_COUNT; i++) {
+            tenants[i] = new Tenant();
+            tenants[i].setId(i + 1);
+            tenants[i].setDomain("tenant" + (i + 1) + ".com");
+        }
+        TenantManager tenantManager = mock(TenantManager.class);
+        when(tenantManager.getAllTenants()).thenReturn(tenants);
+        when(tenantManager.getTenantId(anyString())).thenAnswer(invocation -> {
+            String tenantDomain = invocation.getArgument(0);
+            return MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(tenantDomain) ?
+                    MultitenantConstants.SUPER_TENANT_ID : Math.abs(tenantDomain.hashCode()) + 1;
+        });
+        RealmService realmService = mock(RealmService.class);
+        when(realmService.getTenantManager()).thenReturn(tenantManager);
+
+        IdentityGovernanceService identityGovernanceService = mock(IdentityGovernanceService.class);
+        when(identityGovernanceService.getConfiguration(any(String[].class), anyString())).thenAnswer(invocation -> {
+            String tenantDomain = invocation.getArgument(1);
+            int taskCount = concurrentTaskCount.incrementAndGet();
+            maxConcurrentTaskCount.accumulateAndGet(taskCount, Math::max);
+            try {
+                if (tenantDomain.startsWith(HANGING_TENANT_PREFIX)) {
+                    awaitIgnoringInterrupts(hangingTenantsReleased);
+                } else {
+                    Thread.sleep(2);
+                }
+                handledTenants.add(tenantDomain);
+            } finally {
+                concurrentTaskCount.decrementAndGet();
+            }
+            Property enabled = new Property();
+            enabled.setName(NotificationConstants.SUSPENSION_NOTIFICATION_ENABLED);
+            enabled.setValue(Boolean.FALSE.toString());
+            return new Property[]{enabled};
+        });
+
+        previousRealmService = NotificationTaskDataHolder.getInstance().getRealmService();
+        previousIdentityGovernanceService = NotificationTaskDataHolder.getInstance().getIdentityGovernanceService();
+        NotificationTaskDataHolder.getInstance().setRealmService(realmService);
+        NotificationTaskDataHolder.getInstance().setIdentityGovernanceService(identityGovernanceService);
+        // The tenant ids are resolved in the pool threads, where static mocks are not visible.
+        IdentityTenantUtil.setRealmService(realmService);
+
+        identityUtil = mockStatic(IdentityUtil.class);
+        identityUtil.when(() -> IdentityUtil.getProperty(NotificationConstants.TENANT_TASK_POOL_SIZE))
+                .thenReturn(String.valueOf(POOL_SIZE));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        hangingTenantsReleased.countDown();
+        identityUtil.close();
+        NotificationTaskDataHolder.getInstance().setRealmService(previousRealmService);
+        NotificationTaskDataHolder.getInstance().setIdentityGovernanceService(previousIdentityGovernanceService);
+    }
+
+    @Test
+    public void testThousandTenantsHandledOnBoundedPool() {
+
+        new AccountValidatorThread().run();
+
+        assertEquals(handledTenants.size(), TENANT_COUNT + 1);
+        assertTrue(handledTenants.contains(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        assertTrue(handledTenants.contains("tenant" + TENANT_COUNT + ".com"));
+        assertTrue(maxConcurrentTaskCount.get() <= POOL_SIZE,
+                "Tenants handled concurrently: " + maxConcurrentTaskCount.get());
+    }
+
+    @Test
+    public void testTimedOutTenantDoesNotHoldBackRemainingTenants() {
+
+        List<String> tenantDomains = new ArrayList<>();
+        tenantDomains.add(HANGING_TENANT_PREFIX + ".com");
+        for (int i = 1; i < 20; i++) {
+            tenantDomains.add("tenant" + i + ".com");
+        }
+
+        int completedCount = new AccountValidatorThread().handleTasks(tenantDomains, 1, TIMEOUT_NANOS);
+
+        // The hanging tenant ignores the interruption, hence a replacement thread handles the remaining tenants.
+        assertEquals(completedCount, 19);
+        assertEquals(handledTenants.size(), 19);
+        assertFalse(handledTenants.contains(HANGING_TENANT_PREFIX + ".com"));
+    }
+
+    @Test
+    public void testPoolGrowthCappedForHangingTenants() {
+
+        List<String> tenantDomains = new ArrayList<>(Arrays.asList(HANGING_TENANT_PREFIX + "1.com",
+                HANGING_TENANT_PREFIX + "2.com", HANGING_TENANT_PREFIX + "3.com"));
+        for (int i = 1; i < 10; i++) {
+            tenantDomains.add("tenant" + i + ".com");
+        }
+
+        int completedCount = new AccountValidatorThread().handleTasks(tenantDomains, 1, TIMEOUT_NANOS);
+
+        // The pool grows to twice its size at most, and the tenants are skipped once all its threads hang.
+        assertEquals(completedCount, 0);
+        assertTrue(handledTenants.isEmpty());
+        assertEquals(maxConcurrentTaskCount.get(), 2);
+    }
+
+    private static void awaitIgnoringInterrupts(CountDownLatch latch) {
+
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // A hanging user store does not respond to the cancellation of the task.
+            }
+        }
+    }
+}
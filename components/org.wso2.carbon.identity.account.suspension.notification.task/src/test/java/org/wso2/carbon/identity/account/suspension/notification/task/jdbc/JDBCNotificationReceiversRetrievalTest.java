@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.account.suspension.notification.task.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.account.suspension.notification.task.internal.NotificationTaskDataHolder;
+import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationConstants;
+import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationReceiver;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.claim.ClaimManager;
+import org.wso2.carbon.user.core.jdbc.JDBCRealmConstants;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.util.DatabaseUtil;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests for the retrieval of the notification receivers from a JDBC user store backed by an H2 database.
+ */
+public class JDBCNotificationReceiversRetrievalTest {
+
+    private static final String DB_URL = "jdbc:h2:mem:notification_receivers;DB_CLOSE_DELAY=-1";
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final int TENANT_ID = -1234;
+    private static final int OTHER_TENANT_ID = 1;
+    private static final int USER_COUNT = 50000;
+    private static final int DUE_USER_COUNT = 20000;
+    private static final long FIRST_LAST_LOGIN_TIME = 1700000000000L;
+    private static final long DELAY_FOR_SUSPENSION = 90;
+    private static final String LAST_LOGIN_ATTRIBUTE = "lastLoginTime";
+    private static final String FIRST_NAME_ATTRIBUTE = "givenName";
+    private static final String EMAIL_ATTRIBUTE = "mail";
+
+    private final AtomicInteger dataSourceCount = new AtomicInteger();
+    private final AtomicInteger closedDataSourceCount = new AtomicInteger();
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private MockedStatic<DatabaseUtil> databaseUtil;
+    private MockedStatic<IdentityTenantUtil> identityTenantUtil;
+    private MockedStatic<IdentityUtil> identityUtil;
+    private UserRealm userRealm;
+    private RealmService previousRealmService;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        String scriptPath = Paths.get(System.getProperty("user.dir"), "src", "test", "resources", "dbscripts",
+                "h2.sql").toString();
+        try (Connection connection = DriverManager.getConnection(DB_URL)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("RUNSCRIPT FROM '" + scriptPath + "'");
+            }
+            connection.setAutoCommit(false);
+            addUsers(connection, TENANT_ID, "user", USER_COUNT);
+            // Users of another tenant, which are due at the same time.
+            addUsers(connection, OTHER_TENANT_ID, "tenantUser", 10);
+            connection.commit();
+        }
+    }
+
+    @AfterClass
+    public void tearDownClass() throws Exception {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        dataSourceCount.set(0);
+        closedDataSourceCount.set(0);
+        statementCount.set(0);
+
+        ClaimManager claimManager = mock(ClaimManager.class);
+        when(claimManager.getAttributeName(anyString(), anyString())).thenAnswer(invocation -> {
+            String claimURI = invocation.getArgument(1);
+            if (NotificationConstants.LAST_LOGIN_TIME.equals(claimURI)) {
+                return LAST_LOGIN_ATTRIBUTE;
+            } else if (NotificationConstants.FIRST_NAME_CLAIM.equals(claimURI)) {
+                return FIRST_NAME_ATTRIBUTE;
+            } else if (NotificationConstants.EMAIL_CLAIM.equals(claimURI)) {
+                return EMAIL_ATTRIBUTE;
+            }
+            return null;
+        });
+        userRealm = mock(UserRealm.class);
+        when(userRealm.getClaimManager()).thenReturn(claimManager);
+        RealmService realmService = mock(RealmService.class);
+        when(realmService.getTenantUserRealm(anyInt())).thenReturn(userRealm);
+        previousRealmService = NotificationTaskDataHolder.getInstance().getRealmService();
+        NotificationTaskDataHolder.getInstance().setRealmService(realmService);
+
+        databaseUtil = mockStatic(DatabaseUtil.class);
+        databaseUtil.when(() -> DatabaseUtil.createUserStoreDataSource(any(RealmConfiguration.class)))
+                .thenAnswer(invocation -> {
+                    dataSourceCount.incrementAndGet();
+                    return createCountingDataSource();
+                });
+        databaseUtil.when(() -> DatabaseUtil.getDBConnection(any(DataSource.class)))
+                .thenAnswer(invocation -> ((DataSource) invocation.getArgument(0)).getConnection());
+        identityTenantUtil = mockStatic(IdentityTenantUtil.class);
+        identityTenantUtil.when(() -> IdentityTenantUtil.getTenantId(TENANT_DOMAIN)).thenReturn(TENANT_ID);
+        identityUtil = mockStatic(IdentityUtil.class);
+        identityUtil.when(() -> IdentityUtil.getProperty(NotificationConstants.USE_IDENTITY_CLAIM_FOR_LAST_LOGIN_TIME))
+                .thenReturn("false");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        JDBCNotificationReceiversRetrieval.removeAllDataSources();
+        databaseUtil.close();
+        identityTenantUtil.close();
+        identityUtil.close();
+        NotificationTaskDataHolder.getInstance().setRealmService(previousRealmService);
+    }
+
+    @Test
+    public void testReceiversReadWithSingleQuery() throws Exception {
+
+        JDBCNotificationReceiversRetrieval retrieval = createRetrieval(createRealmConfiguration("JDBC_SINGLE_QUERY",
+                "jdbc:h2:user_store"));
+
+        List<NotificationReceiver> receivers = retrieval.getNotificationReceivers(FIRST_LAST_LOGIN_TIME,
+                FIRST_LAST_LOGIN_TIME + DUE_USER_COUNT - 1, DELAY_FOR_SUSPENSION, TENANT_DOMAIN);
+
+        assertEquals(receivers.size(), DUE_USER_COUNT);
+        assertEquals(statementCount.get(), 1);
+        verify(userRealm, never()).getUserStoreManager();
+
+        Map<String, NotificationReceiver> receiversByName = new HashMap<>();
+        for (NotificationReceiver receiver : receivers) {
+            receiversByName.put(receiver.getUsername(), receiver);
+        }
+        // Every 10th user has an email in another profile as well, which does not duplicate the user.
+        assertEquals(receiversByName.size(), DUE_USER_COUNT);
+        NotificationReceiver receiver = receiversByName.get("user5");
+        assertEquals(receiver.getEmail(), "user5@wso2.com");
+        assertEquals(receiver.getFirstName(), "First5");
+        assertEquals(receiver.getUserStoreDomain(), "JDBC_SINGLE_QUERY");
+        assertEquals(receiver.getExpireDate(), new SimpleDateFormat("dd-MM-yyyy").format(
+                new Date(FIRST_LAST_LOGIN_TIME + 5 + TimeUnit.DAYS.toMillis(DELAY_FOR_SUSPENSION))));
+        assertEquals(receiversByName.get("user10").getEmail(), "user10@wso2.com");
+        // Every 100th user does not have an email.
+        assertNull(receiversByName.get("user100").getEmail());
+        assertEquals(receiversByName.get("user100").getFirstName(), "First100");
+        assertNull(receiversByName.get("user" + DUE_USER_COUNT));
+        assertNull(receiversByName.get("tenantUser1"));
+    }
+
+    @Test
+    public void testDataSourceReusedAcrossRetrievals() throws Exception {
+
+        RealmConfiguration realmConfiguration = createRealmConfiguration("JDBC_REUSED_DATA_SOURCE",
+                "jdbc:h2:user_store");
+        Set<Integer> receiverCounts = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            // The retrieval is created for each lookup, as done by the notification receivers retrieval manager.
+            receiverCounts.add(createRetrieval(realmConfiguration).getNotificationReceivers(FIRST_LAST_LOGIN_TIME,
+                    FIRST_LAST_LOGIN_TIME + 99, DELAY_FOR_SUSPENSION, TENANT_DOMAIN).size());
+        }
+
+        assertEquals(receiverCounts.size(), 1);
+        assertEquals(receiverCounts.iterator().next().intValue(), 100);
+        assertEquals(dataSourceCount.get(), 1);
+        assertEquals(statementCount.get(), 5);
+    }
+
+    @Test
+    public void testDataSourceRecreatedWhenConnectionPropertiesChange() throws Exception {
+
+        createRetrieval(createRealmConfiguration("JDBC_CHANGED_DATA_SOURCE", "jdbc:h2:user_store"))
+                .getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION,
+                        TENANT_DOMAIN);
+        createRetrieval(createRealmConfiguration("JDBC_CHANGED_DATA_SOURCE", "jdbc:h2:changed_user_store"))
+                .getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION,
+                        TENANT_DOMAIN);
+        createRetrieval(createRealmConfiguration("JDBC_CHANGED_DATA_SOURCE", "jdbc:h2:changed_user_store"))
+                .getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION,
+                        TENANT_DOMAIN);
+
+        assertEquals(dataSourceCount.get(), 2);
+        // The pool of the replaced data source is closed.
+        assertEquals(closedDataSourceCount.get(), 1);
+    }
+
+    @Test
+    public void testDataSourceRecreatedWhenPasswordChanges() throws Exception {
+
+        createRetrieval(createRealmConfiguration("JDBC_CHANGED_PASSWORD", "jdbc:h2:user_store", "password"))
+                .getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION,
+                        TENANT_DOMAIN);
+        createRetrieval(createRealmConfiguration("JDBC_CHANGED_PASSWORD", "jdbc:h2:user_store", "password"))
+                .getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION,
+                        TENANT_DOMAIN);
+        assertEquals(dataSourceCount.get(), 1);
+
+        createRetrieval(createRealmConfiguration("JDBC_CHANGED_PASSWORD", "jdbc:h2:user_store", "changed"))
+                .getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION,
+                        TENANT_DOMAIN);
+        assertEquals(dataSourceCount.get(), 2);
+        assertEquals(closedDataSourceCount.get(), 1);
+    }
+
+    @Test
+    public void testDataSourcesRemovedWithUserStoreAndTenant() throws Exception {
+
+        RealmConfiguration retainedRealmConfiguration = createRealmConfiguration("JDBC_RETAINED_DATA_SOURCE",
+                "jdbc:h2:user_store");
+        createRetrieval(retainedRealmConfiguration).getNotificationReceivers(FIRST_LAST_LOGIN_TIME,
+                FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION, TENANT_DOMAIN);
+        createRetrieval(createRealmConfiguration("JDBC_REMOVED_DATA_SOURCE", "jdbc:h2:user_store"))
+                .getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION,
+                        TENANT_DOMAIN);
+        assertEquals(dataSourceCount.get(), 2);
+
+        // The data sources of other tenants are not affected.
+        JDBCNotificationReceiversRetrieval.removeDataSources(OTHER_TENANT_ID);
+        assertEquals(closedDataSourceCount.get(), 0);
+
+        // A removed user store is no longer among the user stores of the tenant.
+        JDBCNotificationReceiversRetrieval.removeDataSources(TENANT_ID,
+                Collections.singleton("jdbc_retained_data_source"));
+        assertEquals(closedDataSourceCount.get(), 1);
+        createRetrieval(retainedRealmConfiguration).getNotificationReceivers(FIRST_LAST_LOGIN_TIME,
+                FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION, TENANT_DOMAIN);
+        assertEquals(dataSourceCount.get(), 2);
+
+        // Deleting the tenant closes the remaining data source.
+        JDBCNotificationReceiversRetrieval.removeDataSources(TENANT_ID);
+        assertEquals(closedDataSourceCount.get(), 2);
+    }
+
+    private static JDBCNotificationReceiversRetrieval createRetrieval(RealmConfiguration realmConfiguration) {
+
+        JDBCNotificationReceiversRetrieval retrieval = new JDBCNotificationReceiversRetrieval();
+        retrieval.init(realmConfiguration);
+        return retrieval;
+    }
+
+    private static RealmConfiguration createRealmConfiguration(String userStoreDomain, String url) {
+
+        return createRealmConfiguration(userStoreDomain, url, null);
+    }
+
+    private static RealmConfiguration createRealmConfiguration(String userStoreDomain, String url, String password) {
+
+        RealmConfiguration realmConfiguration = mock(RealmConfiguration.class);
+        when(realmConfiguration.getTenantId()).thenReturn(TENANT_ID);
+        when(realmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME))
+                .thenReturn(userStoreDomain);
+        when(realmConfiguration.getUserStoreProperty(JDBCRealmConstants.URL)).thenReturn(url);
+        when(realmConfiguration.getUserStoreProperty(JDBCRealmConstants.PASSWORD)).thenReturn(password);
+        return realmConfiguration;
+    }
+
+    /**
+     * Create a data source of the H2 database, which counts the statements prepared on its connections and the times
+     * its pool is closed.
+     */
+    private DataSource createCountingDataSource() {
+
+        JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL(DB_URL);
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{DataSource.class, AutoCloseable.class},
+                (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> {
+                    if ("close".equals(dataSourceMethod.getName())) {
+                        closedDataSourceCount.incrementAndGet();
+                        return null;
+                    }
+                    Object result = invoke(h2DataSource, dataSourceMethod, dataSourceArgs);
+                    if (!(result instanceof Connection)) {
+                        return result;
+                    }
+                    Connection connection = (Connection) result;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                            (connectionProxy, method, args) -> {
+                                if ("prepareStatement".equals(method.getName())) {
+                                    statementCount.incrementAndGet();
+                                }
+                                return invoke(connection, method, args);
+                            });
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void addUsers(Connection connection, int tenantId, String usernamePrefix, int userCount)
+            throws Exception {
+
+        try (PreparedStatement userStatement = connection.prepareStatement("INSERT INTO UM_USER (UM_ID, " +
+                "UM_USER_ID, UM_USER_NAME, UM_USER_PASSWORD, UM_CHANGED_TIME, UM_TENANT_ID) VALUES (?, ?, ?, ?, ?, " +
+                "?)");
+             PreparedStatement attributeStatement = connection.prepareStatement("INSERT INTO UM_USER_ATTRIBUTE " +
+                     "(UM_ATTR_NAME, UM_ATTR_VALUE, UM_PROFILE_ID, UM_USER_ID, UM_TENANT_ID) VALUES (?, ?, ?, ?, " +
+                     "?)")) {
+            Timestamp changedTime = new Timestamp(System.currentTimeMillis());
+            for (int i = 0; i < userCount; i++) {
+                int userId = i + 1;
+                userStatement.setInt(1, userId);
+                userStatement.setString(2, tenantId + "-" + i);
+                userStatement.setString(3, usernamePrefix + i);
+                userStatement.setString(4, "password");
+                userStatement.setTimestamp(5, changedTime);
+                userStatement.setInt(6, tenantId);
+                userStatement.addBatch();
+
+                addAttribute(attributeStatement, LAST_LOGIN_ATTRIBUTE, String.valueOf(FIRST_LAST_LOGIN_TIME + i),
+                        UserCoreConstants.DEFAULT_PROFILE, userId, tenantId);
+                addAttribute(attributeStatement, FIRST_NAME_ATTRIBUTE, "First" + i,
+                        UserCoreConstants.DEFAULT_PROFILE, userId, tenantId);
+                if (i % 100 != 0) {
+                    addAttribute(attributeStatement, EMAIL_ATTRIBUTE, usernamePrefix + i + "@wso2.com",
+                            UserCoreConstants.DEFAULT_PROFILE, userId, tenantId);
+                }
+                if (i % 10 == 0) {
+                    addAttribute(attributeStatement, EMAIL_ATTRIBUTE, usernamePrefix + i + "@work.com", "work",
+                            userId, tenantId);
+                }
+                if (i % 1000 == 999) {
+                    userStatement.executeBatch();
+                    attributeStatement.executeBatch();
+                }
+            }
+            userStatement.executeBatch();
+            attributeStatement.executeBatch();
+        }
+    }
+
+    private static void addAttribute(PreparedStatement attributeStatement, String attributeName,
+                                     String attributeValue, String profile, int userId, int tenantId)
+            throws Exception {
+
+        attributeStatement.setString(1, attributeName);
+        attributeStatement.setString(2, attributeValue);
+        attributeStatement.setString(3, profile);
+        attributeStatement.setInt(4, userId);
+        attributeStatement.setInt(5, tenantId);
+        attributeStatement.addBatch();
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.account.suspension.notification.task.ldap;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.listener.interceptor.InMemoryInterceptedSearchRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.controls.SimplePagedResultsControl;
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.account.suspension.notification.task.exception.AccountSuspensionNotificationException;
+import org.wso2.carbon.identity.account.suspension.notification.task.internal.NotificationTaskDataHolder;
+import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationConstants;
+import org.wso2.carbon.identity.account.suspension.notification.task.util.NotificationReceiver;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.claim.ClaimManager;
+import org.wso2.carbon.user.core.ldap.LDAPConnectionContext;
+import org.wso2.carbon.user.core.ldap.LDAPConstants;
+import org.wso2.carbon.user.core.service.RealmService;
+
+import java.text.SimpleDateFormat;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.naming.Context;
+import javax.naming.ldap.InitialLdapContext;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for the paged retrieval of the notification receivers from an in-memory LDAP server.
+ */
+public class LDAPNotificationReceiversRetrievalTest {
+
+    private static final String BASE_DN = "dc=wso2,dc=org";
+    private static final String USER_SEARCH_BASE = "ou=Users," + BASE_DN;
+    private static final String BIND_DN = "cn=admin";
+    private static final String BIND_PASSWORD = "admin";
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String USER_STORE_DOMAIN = "LDAP";
+    private static final int TENANT_ID = -1234;
+    private static final int USER_COUNT = 200000;
+    private static final int NOT_DUE_USER_COUNT = 1000;
+    private static final int PAGE_SIZE = 5000;
+    private static final long FIRST_LAST_LOGIN_TIME = 1700000000000L;
+    private static final long DELAY_FOR_SUSPENSION = 90;
+    private static final String LAST_LOGIN_ATTRIBUTE = "carLicense";
+
+    private final AtomicInteger pagedSearchCount = new AtomicInteger();
+    private InMemoryDirectoryServer directoryServer;
+    private MockedStatic<IdentityTenantUtil> identityTenantUtil;
+    private MockedStatic<IdentityUtil> identityUtil;
+    private MockedConstruction<LDAPConnectionContext> ldapConnectionContext;
+    private RealmService previousRealmService;
+    private LDAPNotificationReceiversRetrieval retrieval;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE_DN);
+        config.addAdditionalBindCredentials(BIND_DN, BIND_PASSWORD);
+        config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("default", 0));
+        config.setSchema(null);
+        config.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor() {
+            @Override
+            public void processSearchRequest(InMemoryInterceptedSearchRequest request) {
+
+                if (request.getRequest().hasControl(SimplePagedResultsControl.PAGED_RESULTS_OID)) {
+                    pagedSearchCount.incrementAndGet();
+                }
+            }
+        });
+        directoryServer = new InMemoryDirectoryServer(config);
+        directoryServer.add("dn: " + BASE_DN, "objectClass: top", "objectClass: domain", "dc: wso2");
+        directoryServer.add("dn: " + USER_SEARCH_BASE, "objectClass: top", "objectClass: organizationalUnit",
+                "ou: Users");
+        for (int i = 0; i < USER_COUNT; i++) {
+            addUser("user" + i, FIRST_LAST_LOGIN_TIME + i, i % 1000 != 0);
+        }
+        // Users who logged in before the lookup range.
+        for (int i = 0; i < NOT_DUE_USER_COUNT; i++) {
+            addUser("activeUser" + i, FIRST_LAST_LOGIN_TIME - 1 - i, true);
+        }
+        directoryServer.startListening();
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+
+        directoryServer.shutDown(true);
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        pagedSearchCount.set(0);
+
+        ClaimManager claimManager = mock(ClaimManager.class);
+        Map<String, String> attributeNames = new HashMap<>();
+        attributeNames.put(NotificationConstants.USERNAME_CLAIM, "uid");
+        attributeNames.put(NotificationConstants.FIRST_NAME_CLAIM, "givenName");
+        attributeNames.put(NotificationConstants.EMAIL_CLAIM, "mail");
+        attributeNames.put(NotificationConstants.LAST_LOGIN_TIME, LAST_LOGIN_ATTRIBUTE);
+        when(claimManager.getAttributeName(anyString(), anyString()))
+                .thenAnswer(invocation -> attributeNames.get((String) invocation.getArgument(1)));
+        UserRealm userRealm = mock(UserRealm.class);
+        when(userRealm.getClaimManager()).thenReturn(claimManager);
+        RealmService realmService = mock(RealmService.class);
+        when(realmService.getTenantUserRealm(anyInt())).thenReturn(userRealm);
+        previousRealmService = NotificationTaskDataHolder.getInstance().getRealmService();
+        NotificationTaskDataHolder.getInstance().setRealmService(realmService);
+
+        identityTenantUtil = mockStatic(IdentityTenantUtil.class);
+        identityTenantUtil.when(() -> IdentityTenantUtil.getTenantId(TENANT_DOMAIN)).thenReturn(TENANT_ID);
+        identityUtil = mockStatic(IdentityUtil.class);
+        identityUtil.when(() -> IdentityUtil.getProperty(NotificationConstants.USE_IDENTITY_CLAIM_FOR_LAST_LOGIN_TIME))
+                .thenReturn("false");
+        identityUtil.when(() -> IdentityUtil.getProperty(NotificationConstants.LDAP_SEARCH_PAGE_SIZE))
+                .thenReturn(String.valueOf(PAGE_SIZE));
+        ldapConnectionContext = mockConstruction(LDAPConnectionContext.class,
+                (context, constructionContext) -> when(context.getContext()).thenAnswer(invocation -> {
+                    Hashtable<String, String> environment = new Hashtable<>();
+                    environment.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
+                    environment.put(Context.PROVIDER_URL, "ldap://localhost:" + directoryServer.getListenPort());
+                    environment.put(Context.SECURITY_AUTHENTICATION, "simple");
+                    environment.put(Context.SECURITY_PRINCIPAL, BIND_DN);
+                    environment.put(Context.SECURITY_CREDENTIALS, BIND_PASSWORD);
+                    return new InitialLdapContext(environment, null);
+                }));
+
+        RealmConfiguration realmConfiguration = mock(RealmConfiguration.class);
+        when(realmConfiguration.getUserStoreProperty(LDAPConstants.USER_SEARCH_BASE)).thenReturn(USER_SEARCH_BASE);
+        when(realmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME))
+                .thenReturn(USER_STORE_DOMAIN);
+        retrieval = new LDAPNotificationReceiversRetrieval();
+        retrieval.init(realmConfiguration);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        ldapConnectionContext.close();
+        identityTenantUtil.close();
+        identityUtil.close();
+        NotificationTaskDataHolder.getInstance().setRealmService(previousRealmService);
+    }
+
+    @Test
+    public void testReceiversStreamedPageByPage() throws Exception {
+
+        BitSet receivedUsers = new BitSet(USER_COUNT);
+        AtomicInteger receiverCount = new AtomicInteger();
+        AtomicInteger firstReceiverPage = new AtomicInteger();
+        Map<String, NotificationReceiver> sampleReceivers = new HashMap<>();
+
+        retrieval.getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + USER_COUNT,
+                DELAY_FOR_SUSPENSION, TENANT_DOMAIN, receiver -> {
+                    if (receiverCount.getAndIncrement() == 0) {
+                        firstReceiverPage.set(pagedSearchCount.get());
+                    }
+                    receivedUsers.set(Integer.parseInt(receiver.getUsername().substring("user".length())));
+                    if ("user42".equals(receiver.getUsername()) || "user1000".equals(receiver.getUsername())) {
+                        sampleReceivers.put(receiver.getUsername(), receiver);
+                    }
+                });
+
+        assertEquals(receiverCount.get(), USER_COUNT);
+        assertEquals(receivedUsers.cardinality(), USER_COUNT);
+        // The first receiver is passed on before the remaining pages are requested.
+        assertEquals(firstReceiverPage.get(), 1);
+        assertTrue(pagedSearchCount.get() >= USER_COUNT / PAGE_SIZE,
+                "Users were retrieved in " + pagedSearchCount.get() + " pages.");
+
+        NotificationReceiver receiver = sampleReceivers.get("user42");
+        assertEquals(receiver.getEmail(), "user42@wso2.com");
+        assertEquals(receiver.getFirstName(), "First user42");
+        assertEquals(receiver.getUserStoreDomain(), USER_STORE_DOMAIN);
+        assertEquals(receiver.getExpireDate(), new SimpleDateFormat("dd-MM-yyyy").format(
+                new Date(FIRST_LAST_LOGIN_TIME + 42 + TimeUnit.DAYS.toMillis(DELAY_FOR_SUSPENSION))));
+        assertNull(sampleReceivers.get("user1000").getEmail());
+    }
+
+    @Test
+    public void testReceiversOfLookupRange() throws Exception {
+
+        List<NotificationReceiver> receivers = retrieval.getNotificationReceivers(FIRST_LAST_LOGIN_TIME - 10,
+                FIRST_LAST_LOGIN_TIME + 9, DELAY_FOR_SUSPENSION, TENANT_DOMAIN);
+
+        // The last 10 users before the first due user and the first 10 due users.
+        assertEquals(receivers.size(), 20);
+        assertEquals(pagedSearchCount.get(), 1);
+    }
+
+    @Test
+    public void testConsumerErrorStopsRetrieval() {
+
+        AtomicInteger receiverCount = new AtomicInteger();
+        try {
+            retrieval.getNotificationReceivers(FIRST_LAST_LOGIN_TIME, FIRST_LAST_LOGIN_TIME + USER_COUNT,
+                    DELAY_FOR_SUSPENSION, TENANT_DOMAIN, receiver -> {
+                        if (receiverCount.incrementAndGet() == 10) {
+                            throw new AccountSuspensionNotificationException("Notification failed.");
+                        }
+                    });
+            fail("The error of the consumer should be thrown.");
+        } catch (AccountSuspensionNotificationException e) {
+            assertEquals(e.getMessage(), "Notification failed.");
+        }
+        assertEquals(receiverCount.get(), 10);
+        assertEquals(pagedSearchCount.get(), 1);
+    }
+
+    private void addUser(String username, long lastLoginTime, boolean withEmail) throws Exception {
+
+        Entry entry = new Entry("uid=" + username + "," + USER_SEARCH_BASE);
+        entry.addAttribute("objectClass", "top", "person", "inetOrgPerson");
+        entry.addAttribute("uid", username);
+        entry.addAttribute("givenName", "First " + username);
+        entry.addAttribute(LAST_LOGIN_ATTRIBUTE, String.valueOf(lastLoginTime));
+        if (withEmail) {
+            entry.addAttribute("mail", username + "@wso2.com");
+        }
+        directoryServer.add(entry);
+    }
+}
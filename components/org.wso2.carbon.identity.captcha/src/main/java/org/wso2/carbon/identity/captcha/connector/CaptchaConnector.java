@@ -21,6 +21,8 @@ package org.wso2.carbon.identity.captcha.connector;
 import org.wso2.carbon.identity.captcha.exception.CaptchaException;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 
+import java.util.Set;
+
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 
@@ -35,6 +37,18 @@ public interface CaptchaConnector {
 
     boolean canHandle(ServletRequest servletRequest, ServletResponse servletResponse) throws CaptchaException;
 
+    /**
+     * Get the request paths which the connector can handle. The captcha filter consults the connector only for the
+     * requests to these paths.
+     *
+     * @return Request paths handled by the connector, or null if the connector is not bound to request paths and
+     * hence is consulted for every request.
+     */
+    default Set<String> getHandledPaths() {
+
+        return null;
+    }
+
     CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse) throws
             CaptchaException;
 
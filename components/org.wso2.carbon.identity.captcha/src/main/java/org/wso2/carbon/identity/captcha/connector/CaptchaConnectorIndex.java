@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.connector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routing index of the captcha connectors, which maps a request path to the connectors that can handle the requests
+ * to the path. Connectors which are not bound to request paths are candidates of every request. The index is
+ * immutable and is rebuilt when the connectors change.
+ */
+public class CaptchaConnectorIndex {
+
+    private final Map<String, List<CaptchaConnector>> connectorsOfPaths;
+    private final List<CaptchaConnector> pathIndependentConnectors;
+
+    /**
+     * Build the index of the given connectors. The candidate connectors of a path keep the order of the given
+     * connectors.
+     *
+     * @param captchaConnectors Registered captcha connectors.
+     */
+    public CaptchaConnectorIndex(Collection<CaptchaConnector> captchaConnectors) {
+
+        List<CaptchaConnector> pathIndependentConnectorList = new ArrayList<>();
+        Map<CaptchaConnector, Set<String>> handledPathsOfConnectors = new LinkedHashMap<>();
+        Set<String> paths = new LinkedHashSet<>();
+        for (CaptchaConnector captchaConnector : captchaConnectors) {
+            Set<String> handledPaths = captchaConnector.getHandledPaths();
+            handledPathsOfConnectors.put(captchaConnector, handledPaths);
+            if (handledPaths == null) {
+                pathIndependentConnectorList.add(captchaConnector);
+            } else {
+                paths.addAll(handledPaths);
+            }
+        }
+
+        Map<String, List<CaptchaConnector>> connectorsOfPathMap = new HashMap<>();
+        for (String path : paths) {
+            List<CaptchaConnector> connectorsOfPath = new ArrayList<>();
+            for (Map.Entry<CaptchaConnector, Set<String>> entry : handledPathsOfConnectors.entrySet()) {
+                if (entry.getValue() == null || entry.getValue().contains(path)) {
+                    connectorsOfPath.add(entry.getKey());
+                }
+            }
+            connectorsOfPathMap.put(path, Collections.unmodifiableList(connectorsOfPath));
+        }
+        this.connectorsOfPaths = connectorsOfPathMap;
+        this.pathIndependentConnectors = Collections.unmodifiableList(pathIndependentConnectorList);
+    }
+
+    /**
+     * Get the connectors which can handle the requests to the given path.
+     *
+     * @param path Request path.
+     * @return Candidate connectors of the path, in the order of the registration.
+     */
+    public List<CaptchaConnector> getCandidateConnectors(String path) {
+
+        if (path == null) {
+            return pathIndependentConnectors;
+        }
+        List<CaptchaConnector> connectorsOfPath = connectorsOfPaths.get(path);
+        return connectorsOfPath != null ? connectorsOfPath : pathIndependentConnectors;
+    }
+}
@@ -42,6 +42,8 @@ public class CaptchaPreValidationResponse {
 
     private HttpServletRequest wrappedHttpServletRequest;
 
+    private boolean requestBodyLimitExceeded;
+
     public boolean isCaptchaValidationRequired() {
         return captchaValidationRequired;
     }
@@ -103,4 +105,12 @@ public class CaptchaPreValidationResponse {
     public void setWrappedHttpServletRequest(HttpServletRequest wrappedHttpServletRequest) {
         this.wrappedHttpServletRequest = wrappedHttpServletRequest;
     }
+
+    public boolean isRequestBodyLimitExceeded() {
+        return requestBodyLimitExceeded;
+    }
+
+    public void setRequestBodyLimitExceeded(boolean requestBodyLimitExceeded) {
+        this.requestBodyLimitExceeded = requestBodyLimitExceeded;
+    }
 }
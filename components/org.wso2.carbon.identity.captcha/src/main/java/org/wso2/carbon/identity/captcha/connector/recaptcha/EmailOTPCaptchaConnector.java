@@ -47,6 +47,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import static org.wso2.carbon.identity.captcha.util.CaptchaConstants.SSO_LOGIN_RECAPTCHA_CONNECTOR_NAME;
 
@@ -117,6 +118,12 @@ public class EmailOTPCaptchaConnector extends AbstractReCaptchaConnector {
         return isEmailRecaptchaEnabled(servletRequest);
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return CaptchaUtil.getPaths(SECURED_DESTINATIONS);
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse)
             throws CaptchaException {
@@ -27,8 +27,10 @@ import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
 import org.wso2.carbon.identity.captcha.util.CaptchaUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -74,6 +76,12 @@ public class LiteUserSelfSignUpReCaptchaConnector extends AbstractReCaptchaConne
                 SELF_REGISTRATION_RECAPTCHA_ENABLE);
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return Collections.singleton(LITE_USER_REGISTRATION_URL);
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse)
             throws CaptchaException {
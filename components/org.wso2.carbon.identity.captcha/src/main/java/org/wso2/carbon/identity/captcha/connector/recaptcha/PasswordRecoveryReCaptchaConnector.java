@@ -31,6 +31,7 @@ import org.wso2.carbon.identity.captcha.connector.CaptchaPostValidationResponse;
 import org.wso2.carbon.identity.captcha.connector.CaptchaPreValidationResponse;
 import org.wso2.carbon.identity.captcha.exception.CaptchaClientException;
 import org.wso2.carbon.identity.captcha.exception.CaptchaException;
+import org.wso2.carbon.identity.captcha.exception.CaptchaRequestBodyLimitExceededException;
 import org.wso2.carbon.identity.captcha.exception.CaptchaServerException;
 import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
 import org.wso2.carbon.identity.captcha.util.CaptchaHttpServletRequestWrapper;
@@ -49,9 +50,12 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
@@ -109,6 +113,13 @@ public class PasswordRecoveryReCaptchaConnector extends AbstractReCaptchaConnect
                         CaptchaUtil.isPathAvailable(path, RECOVER_PASSWORD_URL));
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return new HashSet<>(Arrays.asList(ACCOUNT_SECURITY_QUESTION_URL, ACCOUNT_SECURITY_QUESTIONS_URL,
+                ACCOUNT_VALIDATE_ANSWER_URL, RECOVER_PASSWORD_URL));
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse) throws CaptchaException {
 
@@ -133,8 +144,17 @@ public class PasswordRecoveryReCaptchaConnector extends AbstractReCaptchaConnect
         // Handle recover with security questions option.
         HttpServletRequest httpServletRequestWrapper;
         try {
-            httpServletRequestWrapper = new CaptchaHttpServletRequestWrapper((HttpServletRequest) servletRequest);
+            // Reuse the body buffered by the captcha filter, if the request is already wrapped.
+            if (servletRequest instanceof CaptchaHttpServletRequestWrapper) {
+                httpServletRequestWrapper = (HttpServletRequest) servletRequest;
+            } else {
+                httpServletRequestWrapper = new CaptchaHttpServletRequestWrapper((HttpServletRequest) servletRequest);
+            }
             preValidationResponse.setWrappedHttpServletRequest(httpServletRequestWrapper);
+        } catch (CaptchaRequestBodyLimitExceededException e) {
+            log.warn("Rejected the request to: " + pathUrl + ". " + e.getMessage());
+            preValidationResponse.setRequestBodyLimitExceeded(true);
+            return preValidationResponse;
         } catch (IOException e) {
             log.error("Error occurred while wrapping ServletRequest.", e);
             return preValidationResponse;
@@ -34,8 +34,10 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class handle the resend confirmation ReCaptcha.
@@ -76,6 +78,12 @@ public class ResendConfirmationReCaptchaConnector extends AbstractReCaptchaConne
                 RESEND_CONFIRMATION_RECAPTCHA_ENABLE);
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return Collections.singleton(RESEND_CONFIRMATION_URL);
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse)
             throws CaptchaException {
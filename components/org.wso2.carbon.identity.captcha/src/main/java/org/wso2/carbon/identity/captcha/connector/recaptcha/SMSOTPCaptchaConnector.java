@@ -48,6 +48,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.wso2.carbon.identity.captcha.util.CaptchaConstants.SSO_LOGIN_RECAPTCHA_CONNECTOR_NAME;
 
@@ -113,6 +114,12 @@ public class SMSOTPCaptchaConnector extends AbstractReCaptchaConnector {
         return isSmsRecaptchaEnabled(servletRequest);
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return CaptchaUtil.getPaths(SECURED_DESTINATIONS);
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse)
             throws CaptchaException {
@@ -47,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
@@ -111,6 +112,12 @@ public class SSOLoginReCaptchaConfig extends AbstractReCaptchaConnector implemen
         return true;
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return CaptchaUtil.getPaths(SECURED_DESTINATIONS);
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse)
             throws CaptchaException {
@@ -30,7 +30,10 @@ import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
 import org.wso2.carbon.identity.captcha.util.CaptchaUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -92,6 +95,12 @@ public class SelfSignUpReCaptchaConnector extends AbstractReCaptchaConnector {
                 PROPERTY_ENABLE_RECAPTCHA);
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return new HashSet<>(Arrays.asList(SELF_REGISTRATION_INITIATE_URL, SELF_REGISTRATION_URL));
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse)
             throws CaptchaException {
@@ -30,6 +30,9 @@ import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
 import org.wso2.carbon.identity.captcha.util.CaptchaUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 
+import java.util.Collections;
+import java.util.Set;
+
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
@@ -74,6 +77,12 @@ public class UsernameRecoveryReCaptchaConnector extends AbstractReCaptchaConnect
                 PROPERTY_USERNAME_RECAPTCHA_ENABLE);
     }
 
+    @Override
+    public Set<String> getHandledPaths() {
+
+        return Collections.singleton(RECOVER_USERNAME_URL);
+    }
+
     @Override
     public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest, ServletResponse servletResponse)
             throws CaptchaException {
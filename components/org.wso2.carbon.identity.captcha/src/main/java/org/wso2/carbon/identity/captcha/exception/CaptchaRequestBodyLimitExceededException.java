@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the body of a request to a captcha protected endpoint exceeds the configured maximum size. This is an
+ * {@link IOException}, since it is raised while reading the request body.
+ */
+public class CaptchaRequestBodyLimitExceededException extends IOException {
+
+    private static final long serialVersionUID = 5283920541872398412L;
+
+    public CaptchaRequestBodyLimitExceededException(String message) {
+
+        super(message);
+    }
+}
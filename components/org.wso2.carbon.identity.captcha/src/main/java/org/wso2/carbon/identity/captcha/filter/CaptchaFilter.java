@@ -29,6 +29,7 @@ import org.wso2.carbon.identity.captcha.connector.CaptchaPostValidationResponse;
 import org.wso2.carbon.identity.captcha.connector.CaptchaPreValidationResponse;
 import org.wso2.carbon.identity.captcha.exception.CaptchaClientException;
 import org.wso2.carbon.identity.captcha.exception.CaptchaException;
+import org.wso2.carbon.identity.captcha.exception.CaptchaRequestBodyLimitExceededException;
 import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
 import org.wso2.carbon.identity.captcha.util.CaptchaHttpServletRequestWrapper;
 import org.wso2.carbon.identity.captcha.util.CaptchaHttpServletResponseWrapper;
@@ -66,6 +67,8 @@ public class CaptchaFilter implements Filter {
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
             throws IOException, ServletException {
 
+        CaptchaHttpServletRequestWrapper requestWrapper = null;
+        CaptchaPreValidationResponse captchaPreValidationResponse = null;
         try {
 
             if (!CaptchaDataHolder.getInstance().isReCaptchaEnabled()) {
@@ -73,19 +76,29 @@ public class CaptchaFilter implements Filter {
                 return;
             }
 
+            String currentPath = null;
             // Wrap Servlet request for password recovery flow as the data are in POST body of request.
             // May need multiple reads of request body value from connectors.
             if (servletRequest instanceof HttpServletRequest) {
-                String currentPath = ((HttpServletRequest) servletRequest).getRequestURI();
+                currentPath = ((HttpServletRequest) servletRequest).getRequestURI();
 
                 if (StringUtils.isNotBlank(currentPath) &&
-                        CaptchaUtil.isPathAvailable(currentPath, CaptchaDataHolder.getInstance()
-                                .getReCaptchaRequestWrapUrls())) {
-                    servletRequest = new CaptchaHttpServletRequestWrapper((HttpServletRequest) servletRequest);
+                        CaptchaDataHolder.getInstance().getReCaptchaRequestWrapPaths().contains(currentPath)) {
+                    try {
+                        requestWrapper = new CaptchaHttpServletRequestWrapper((HttpServletRequest) servletRequest);
+                    } catch (CaptchaRequestBodyLimitExceededException e) {
+                        log.warn("Rejected the request to: " + currentPath + ". " + e.getMessage());
+                        ((HttpServletResponse) servletResponse).sendError(
+                                HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                        return;
+                    }
+                    servletRequest = requestWrapper;
                 }
             }
 
-            List<CaptchaConnector> captchaConnectors = CaptchaDataHolder.getInstance().getCaptchaConnectors();
+            // Only the connectors which can handle the requests to the current path are consulted.
+            List<CaptchaConnector> captchaConnectors = CaptchaDataHolder.getInstance().getCaptchaConnectorIndex()
+                    .getCandidateConnectors(currentPath);
 
             CaptchaConnector selectedCaptchaConnector = null;
             for (CaptchaConnector captchaConnector : captchaConnectors) {
@@ -101,8 +114,7 @@ public class CaptchaFilter implements Filter {
             }
 
             // Check whether captcha is required or will reach to the max failed attempts with the current attempt.
-            CaptchaPreValidationResponse captchaPreValidationResponse = selectedCaptchaConnector
-                    .preValidate(servletRequest, servletResponse);
+            captchaPreValidationResponse = selectedCaptchaConnector.preValidate(servletRequest, servletResponse);
 
             if (captchaPreValidationResponse == null) {
                 // Captcha connector failed to response. Default is success.
@@ -110,6 +122,12 @@ public class CaptchaFilter implements Filter {
                 return;
             }
 
+            if (captchaPreValidationResponse.isRequestBodyLimitExceeded()) {
+                // The connector could not buffer the request body within the configured limits.
+                ((HttpServletResponse) servletResponse).sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+
             HttpServletRequest httpRequest = (HttpServletRequest) servletRequest;
             HttpServletResponse httpResponse = (HttpServletResponse) servletResponse;
 
@@ -186,6 +204,16 @@ public class CaptchaFilter implements Filter {
             log.error("Error occurred in processing captcha.", e);
             ((HttpServletResponse) servletResponse).sendRedirect(CaptchaUtil.getErrorPage("Server Error", "Something " +
                     "went wrong. Please try again"));
+        } finally {
+            // Delete the buffered request bodies once the request is served.
+            if (requestWrapper != null) {
+                requestWrapper.close();
+            }
+            if (captchaPreValidationResponse != null && captchaPreValidationResponse
+                    .getWrappedHttpServletRequest() instanceof CaptchaHttpServletRequestWrapper) {
+                ((CaptchaHttpServletRequestWrapper) captchaPreValidationResponse.getWrappedHttpServletRequest())
+                        .close();
+            }
         }
     }
 
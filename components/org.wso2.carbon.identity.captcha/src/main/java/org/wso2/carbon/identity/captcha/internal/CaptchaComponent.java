@@ -116,6 +116,7 @@ public class CaptchaComponent {
     @Deactivate
     protected void deactivate(ComponentContext context) {
 
+        CaptchaUtil.closeCaptchaHttpClient();
         if (log.isDebugEnabled()) {
             log.debug("Captcha Component is de-activated");
         }
@@ -134,7 +135,7 @@ public class CaptchaComponent {
 
     protected void unsetCaptchaConnector(CaptchaConnector captchaConnector) {
 
-        CaptchaDataHolder.getInstance().getCaptchaConnectors().remove(captchaConnector);
+        CaptchaDataHolder.getInstance().removeCaptchaConnector(captchaConnector);
     }
 
     @Reference(
@@ -154,7 +155,7 @@ public class CaptchaComponent {
     protected void unsetIdentityGovernanceConnector(IdentityConnectorConfig identityConnectorConfig) {
 
         if (identityConnectorConfig instanceof CaptchaConnector) {
-            CaptchaDataHolder.getInstance().getCaptchaConnectors().remove(identityConnectorConfig);
+            CaptchaDataHolder.getInstance().removeCaptchaConnector((CaptchaConnector) identityConnectorConfig);
         }
     }
 
@@ -19,14 +19,22 @@
 package org.wso2.carbon.identity.captcha.internal;
 
 import org.wso2.carbon.identity.captcha.connector.CaptchaConnector;
+import org.wso2.carbon.identity.captcha.connector.CaptchaConnectorIndex;
+import org.wso2.carbon.identity.captcha.util.CaptchaConstants;
+import org.wso2.carbon.identity.captcha.util.CaptchaHttpClient;
+import org.wso2.carbon.identity.captcha.util.CaptchaUtil;
+import org.wso2.carbon.identity.captcha.util.FailedLoginAttemptCounter;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 import org.wso2.carbon.identity.handler.event.account.lock.service.AccountLockService;
 import org.wso2.carbon.user.core.service.RealmService;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Captcha Data Holder.
@@ -55,6 +63,12 @@ public class CaptchaDataHolder {
 
     private String reCaptchaRequestWrapUrls;
 
+    private Set<String> reCaptchaRequestWrapPaths = Collections.emptySet();
+
+    private int reCaptchaRequestBodyMaxSize = CaptchaConstants.DEFAULT_RE_CAPTCHA_REQUEST_BODY_MAX_SIZE;
+
+    private int reCaptchaRequestBodyMemoryThreshold = CaptchaConstants.DEFAULT_RE_CAPTCHA_REQUEST_BODY_MEMORY_THRESHOLD;
+
     // Threshold for score in reCAPTCHA v3.
     private double reCaptchaScoreThreshold;
 
@@ -67,7 +81,9 @@ public class CaptchaDataHolder {
 
     private AccountLockService accountLockService;
 
-    private List<CaptchaConnector> captchaConnectors = new ArrayList<>();
+    private List<CaptchaConnector> captchaConnectors = new CopyOnWriteArrayList<>();
+
+    private volatile CaptchaConnectorIndex captchaConnectorIndex = new CaptchaConnectorIndex(captchaConnectors);
 
     private Map<String, String> ssoLoginReCaptchaConnectorPropertyMap = new HashMap<>();
 
@@ -79,6 +95,10 @@ public class CaptchaDataHolder {
 
     private List<String> reCaptchaBypassedApiEndpoints = new ArrayList<>();
 
+    private volatile CaptchaHttpClient captchaHttpClient;
+
+    private volatile FailedLoginAttemptCounter failedLoginAttemptCounter;
+
     private CaptchaDataHolder() {
 
     }
@@ -161,6 +181,32 @@ public class CaptchaDataHolder {
 
     public void setReCaptchaRequestWrapUrls(String reCaptchaRequestWrapUrls) {
         this.reCaptchaRequestWrapUrls = reCaptchaRequestWrapUrls;
+        this.reCaptchaRequestWrapPaths = CaptchaUtil.getPaths(reCaptchaRequestWrapUrls);
+    }
+
+    public Set<String> getReCaptchaRequestWrapPaths() {
+
+        return reCaptchaRequestWrapPaths;
+    }
+
+    public int getReCaptchaRequestBodyMaxSize() {
+
+        return reCaptchaRequestBodyMaxSize;
+    }
+
+    public void setReCaptchaRequestBodyMaxSize(int reCaptchaRequestBodyMaxSize) {
+
+        this.reCaptchaRequestBodyMaxSize = reCaptchaRequestBodyMaxSize;
+    }
+
+    public int getReCaptchaRequestBodyMemoryThreshold() {
+
+        return reCaptchaRequestBodyMemoryThreshold;
+    }
+
+    public void setReCaptchaRequestBodyMemoryThreshold(int reCaptchaRequestBodyMemoryThreshold) {
+
+        this.reCaptchaRequestBodyMemoryThreshold = reCaptchaRequestBodyMemoryThreshold;
     }
 
     public double getReCaptchaScoreThreshold() {
@@ -238,8 +284,33 @@ public class CaptchaDataHolder {
         return captchaConnectors;
     }
 
-    public void addCaptchaConnector(CaptchaConnector captchaConnector) {
+    public synchronized void addCaptchaConnector(CaptchaConnector captchaConnector) {
         this.captchaConnectors.add(captchaConnector);
+        refreshCaptchaConnectorIndex();
+    }
+
+    public synchronized void removeCaptchaConnector(CaptchaConnector captchaConnector) {
+
+        this.captchaConnectors.remove(captchaConnector);
+        refreshCaptchaConnectorIndex();
+    }
+
+    /**
+     * Get the routing index of the registered captcha connectors.
+     *
+     * @return Captcha connector index.
+     */
+    public CaptchaConnectorIndex getCaptchaConnectorIndex() {
+
+        return captchaConnectorIndex;
+    }
+
+    /**
+     * Rebuild the routing index of the captcha connectors, e.g. when the request paths of the connectors change.
+     */
+    public synchronized void refreshCaptchaConnectorIndex() {
+
+        this.captchaConnectorIndex = new CaptchaConnectorIndex(captchaConnectors);
     }
 
     public void setRealmService(RealmService realmService) {
@@ -280,4 +351,24 @@ public class CaptchaDataHolder {
 
         this.reCaptchaBypassedApiEndpoints = reCaptchaBypassedApiEndpoints;
     }
+
+    public CaptchaHttpClient getCaptchaHttpClient() {
+
+        return captchaHttpClient;
+    }
+
+    public void setCaptchaHttpClient(CaptchaHttpClient captchaHttpClient) {
+
+        this.captchaHttpClient = captchaHttpClient;
+    }
+
+    public FailedLoginAttemptCounter getFailedLoginAttemptCounter() {
+
+        return failedLoginAttemptCounter;
+    }
+
+    public void setFailedLoginAttemptCounter(FailedLoginAttemptCounter failedLoginAttemptCounter) {
+
+        this.failedLoginAttemptCounter = failedLoginAttemptCounter;
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.internal.cache;
+
+import org.wso2.carbon.identity.core.cache.BaseCache;
+
+/**
+ * Cache of the users without failed login attempts, which is used for the captcha enforcement decisions. Removing
+ * an entry invalidates the entry in the other nodes of the cluster.
+ */
+public class FailedLoginAttemptCache extends BaseCache<FailedLoginAttemptCacheKey, FailedLoginAttemptCacheEntry> {
+
+    private static final String FAILED_LOGIN_ATTEMPT_CACHE = "CaptchaFailedLoginAttemptCache";
+    private static volatile FailedLoginAttemptCache instance;
+
+    public FailedLoginAttemptCache() {
+
+        super(FAILED_LOGIN_ATTEMPT_CACHE);
+    }
+
+    public static FailedLoginAttemptCache getInstance() {
+
+        if (instance == null) {
+            synchronized (FailedLoginAttemptCache.class) {
+                if (instance == null) {
+                    instance = new FailedLoginAttemptCache();
+                }
+            }
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.internal.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+/**
+ * Entry of a user without failed login attempts, along with the time at which it was read from the store.
+ */
+public class FailedLoginAttemptCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = -6804390726211570442L;
+    private final long cachedTime;
+
+    public FailedLoginAttemptCacheEntry() {
+
+        this.cachedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Check whether the entry is older than the given time to live.
+     *
+     * @param timeToLiveMillis Time to live in milliseconds.
+     * @return True if the entry should not be served anymore.
+     */
+    public boolean isStale(long timeToLiveMillis) {
+
+        return System.currentTimeMillis() - cachedTime > timeToLiveMillis;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.internal.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheKey;
+
+/**
+ * Key for the FailedLoginAttemptCache, contains the user name and the claim of the failed attempts.
+ */
+public class FailedLoginAttemptCacheKey extends CacheKey {
+
+    private static final long serialVersionUID = 2741865430287716350L;
+    private final String userName;
+    private final String claimUri;
+
+    public FailedLoginAttemptCacheKey(String userName, String claimUri) {
+
+        this.userName = userName;
+        this.claimUri = claimUri;
+    }
+
+    public String getUserName() {
+
+        return userName;
+    }
+
+    public String getClaimUri() {
+
+        return claimUri;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        FailedLoginAttemptCacheKey that = (FailedLoginAttemptCacheKey) o;
+
+        return userName.equals(that.userName) && claimUri.equals(that.claimUri);
+    }
+
+    @Override
+    public int hashCode() {
+
+        int result = super.hashCode();
+        result = 31 * result + userName.hashCode();
+        result = 31 * result + claimUri.hashCode();
+        return result;
+    }
+}
@@ -81,6 +81,40 @@ public class CaptchaConstants {
     public static final String RE_CAPTCHA_TYPE_ENTERPRISE = "recaptcha-enterprise";
     public static final String RE_CAPTCHA_BYPASSED_API_ENDPOINTS = "recaptcha.bypassed.api.endpoints";
 
+    // HTTP client configs used for the reCAPTCHA verification requests.
+    public static final String RE_CAPTCHA_HTTP_MAX_CONNECTIONS = "recaptcha.http.max.connections";
+    public static final String RE_CAPTCHA_HTTP_MAX_CONNECTIONS_PER_ROUTE = "recaptcha.http.max.connections.per.route";
+    public static final String RE_CAPTCHA_HTTP_CONNECT_TIMEOUT = "recaptcha.http.connect.timeout";
+    public static final String RE_CAPTCHA_HTTP_READ_TIMEOUT = "recaptcha.http.read.timeout";
+    public static final String RE_CAPTCHA_HTTP_CONNECTION_REQUEST_TIMEOUT = "recaptcha.http.connection.request.timeout";
+    public static final String RE_CAPTCHA_HTTP_IDLE_TIMEOUT = "recaptcha.http.idle.timeout";
+
+    // Default values of the HTTP client configs. Timeouts are in milliseconds.
+    public static final int DEFAULT_RE_CAPTCHA_HTTP_MAX_CONNECTIONS = 100;
+    public static final int DEFAULT_RE_CAPTCHA_HTTP_MAX_CONNECTIONS_PER_ROUTE = 50;
+    public static final int DEFAULT_RE_CAPTCHA_HTTP_CONNECT_TIMEOUT = 5000;
+    public static final int DEFAULT_RE_CAPTCHA_HTTP_READ_TIMEOUT = 10000;
+    public static final int DEFAULT_RE_CAPTCHA_HTTP_CONNECTION_REQUEST_TIMEOUT = 5000;
+    public static final int DEFAULT_RE_CAPTCHA_HTTP_IDLE_TIMEOUT = 30000;
+
+    // Limits of the buffered bodies of the captcha protected requests, in bytes.
+    public static final String RE_CAPTCHA_REQUEST_BODY_MAX_SIZE = "recaptcha.request.body.max.size";
+    public static final String RE_CAPTCHA_REQUEST_BODY_MEMORY_THRESHOLD = "recaptcha.request.body.memory.threshold";
+    public static final int DEFAULT_RE_CAPTCHA_REQUEST_BODY_MAX_SIZE = 1024 * 1024;
+    public static final int DEFAULT_RE_CAPTCHA_REQUEST_BODY_MEMORY_THRESHOLD = 64 * 1024;
+
+    // Time in milliseconds for which the cached users without failed login attempts are served before reading the
+    // store.
+    public static final String RE_CAPTCHA_FAILED_LOGIN_ATTEMPTS_CACHE_TIMEOUT =
+            "recaptcha.failed.login.attempts.cache.timeout";
+    public static final int DEFAULT_RE_CAPTCHA_FAILED_LOGIN_ATTEMPTS_CACHE_TIMEOUT = 300000;
+
+    // Claims of the failed attempts maintained by the account lock handler and the OTP authenticators.
+    public static final String FAILED_LOGIN_ATTEMPTS_CLAIM = "http://wso2.org/claims/identity/failedLoginAttempts";
+    public static final String FAILED_EMAIL_OTP_ATTEMPTS_CLAIM =
+            "http://wso2.org/claims/identity/failedEmailOtpAttempts";
+    public static final String FAILED_SMS_OTP_ATTEMPTS_CLAIM = "http://wso2.org/claims/identity/failedSmsOtpAttempts";
+
     // Default value for threshold for score in reCAPTCHA v3.
     public static final double CAPTCHA_V3_DEFAULT_THRESHOLD = 0.5;
 
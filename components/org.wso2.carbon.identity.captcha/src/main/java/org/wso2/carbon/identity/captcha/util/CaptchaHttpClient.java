@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.util;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.DefaultHostnameVerifier;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.ssl.SSLBufferMode;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLSession;
+
+/**
+ * HTTP client shared by the reCAPTCHA verification requests. The connections to the verification endpoint are pooled,
+ * hence the verifications reuse the established connections instead of paying a TLS handshake per request.
+ */
+public class CaptchaHttpClient implements Closeable {
+
+    private static final Log log = LogFactory.getLog(CaptchaHttpClient.class);
+    private static final String HOSTNAME_VERIFIER = "httpclient.hostnameVerifier";
+    private static final String HOSTNAME_VERIFIER_ALLOW_ALL = "AllowAll";
+    private static final String HOSTNAME_VERIFIER_DEFAULT_AND_LOCALHOST = "DefaultAndLocalhost";
+    private static final String[] LOCALHOSTS = {"localhost", "127.0.0.1", "::1"};
+    // Number of the requests in flight, or CLOSED once the client is closed.
+    private static final int CLOSED = -1;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private volatile boolean closeRequested;
+
+    /**
+     * Create the HTTP client with the given captcha configs. Configs which are not given fall back to the defaults.
+     *
+     * @param properties Captcha configs.
+     */
+    public CaptchaHttpClient(Properties properties) {
+
+        int maxConnections = ExecutorConfigUtil.getPositiveIntProperty(properties,
+                CaptchaConstants.RE_CAPTCHA_HTTP_MAX_CONNECTIONS,
+                CaptchaConstants.DEFAULT_RE_CAPTCHA_HTTP_MAX_CONNECTIONS);
+        int maxConnectionsPerRoute = ExecutorConfigUtil.getPositiveIntProperty(properties,
+                CaptchaConstants.RE_CAPTCHA_HTTP_MAX_CONNECTIONS_PER_ROUTE,
+                CaptchaConstants.DEFAULT_RE_CAPTCHA_HTTP_MAX_CONNECTIONS_PER_ROUTE);
+        int connectTimeout = ExecutorConfigUtil.getPositiveIntProperty(properties,
+                CaptchaConstants.RE_CAPTCHA_HTTP_CONNECT_TIMEOUT,
+                CaptchaConstants.DEFAULT_RE_CAPTCHA_HTTP_CONNECT_TIMEOUT);
+        int readTimeout = ExecutorConfigUtil.getPositiveIntProperty(properties,
+                CaptchaConstants.RE_CAPTCHA_HTTP_READ_TIMEOUT,
+                CaptchaConstants.DEFAULT_RE_CAPTCHA_HTTP_READ_TIMEOUT);
+        int connectionRequestTimeout = ExecutorConfigUtil.getPositiveIntProperty(properties,
+                CaptchaConstants.RE_CAPTCHA_HTTP_CONNECTION_REQUEST_TIMEOUT,
+                CaptchaConstants.DEFAULT_RE_CAPTCHA_HTTP_CONNECTION_REQUEST_TIMEOUT);
+        int idleTimeout = ExecutorConfigUtil.getPositiveIntProperty(properties,
+                CaptchaConstants.RE_CAPTCHA_HTTP_IDLE_TIMEOUT,
+                CaptchaConstants.DEFAULT_RE_CAPTCHA_HTTP_IDLE_TIMEOUT);
+
+        // The TLS strategy is set on the connection manager itself, since a connection manager given to the client
+        // builder replaces the socket factory and the hostname verifier configured on the builder.
+        connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setTlsSocketStrategy(createTlsStrategy())
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(Math.min(maxConnectionsPerRoute, maxConnections))
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .build())
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                .build();
+        httpClient = HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeout))
+                .build();
+
+        if (log.isDebugEnabled()) {
+            log.debug("reCaptcha HTTP client created with max connections: " + maxConnections +
+                    ", max connections per route: " + maxConnectionsPerRoute + ", connect timeout: " +
+                    connectTimeout + "ms, read timeout: " + readTimeout + "ms, idle timeout: " + idleTimeout + "ms.");
+        }
+    }
+
+    /**
+     * Execute the given request with a pooled connection. The connection is released back to the pool once the
+     * response is handled.
+     *
+     * @param request         Request to execute.
+     * @param responseHandler Handler of the response.
+     * @param <T>             Type of the handled response.
+     * @return Handled response.
+     * @throws IOException           If an error occurred while executing the request.
+     * @throws IllegalStateException If the client is already closed.
+     */
+    public <T> T execute(ClassicHttpRequest request, HttpClientResponseHandler<? extends T> responseHandler)
+            throws IOException {
+
+        if (!acquire()) {
+            throw new IllegalStateException("reCaptcha HTTP client is closed.");
+        }
+        try {
+            return httpClient.execute(request, responseHandler);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Get the statistics of the connection pool.
+     *
+     * @return Total statistics of the connection pool.
+     */
+    public PoolStats getPoolStats() {
+
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Check whether the client is closed.
+     *
+     * @return True if the client no longer accepts requests.
+     */
+    public boolean isClosed() {
+
+        return activeRequests.get() == CLOSED;
+    }
+
+    /**
+     * Close the client. The requests in flight are completed with the pooled connections, and the pool is shut down
+     * once the last of them completes.
+     */
+    @Override
+    public void close() {
+
+        closeRequested = true;
+        if (activeRequests.compareAndSet(0, CLOSED)) {
+            shutdown();
+        }
+    }
+
+    private boolean acquire() {
+
+        while (true) {
+            int count = activeRequests.get();
+            if (count == CLOSED) {
+                return false;
+            }
+            if (activeRequests.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+
+        if (activeRequests.decrementAndGet() == 0 && closeRequested && activeRequests.compareAndSet(0, CLOSED)) {
+            shutdown();
+        }
+    }
+
+    private void shutdown() {
+
+        httpClient.close(CloseMode.GRACEFUL);
+        connectionManager.close(CloseMode.GRACEFUL);
+        if (log.isDebugEnabled()) {
+            log.debug("reCaptcha HTTP client closed.");
+        }
+    }
+
+    /**
+     * Create the TLS strategy of the verification connections with the system SSL context and the hostname
+     * verifier configured for the server through the httpclient.hostnameVerifier system property.
+     *
+     * @return TLS strategy.
+     */
+    private static DefaultClientTlsStrategy createTlsStrategy() {
+
+        return new DefaultClientTlsStrategy(SSLContexts.createSystemDefault(),
+                split(System.getProperty("https.protocols")), split(System.getProperty("https.cipherSuites")),
+                SSLBufferMode.STATIC, createHostnameVerifier());
+    }
+
+    private static HostnameVerifier createHostnameVerifier() {
+
+        String hostnameVerifier = System.getProperty(HOSTNAME_VERIFIER);
+        if (HOSTNAME_VERIFIER_ALLOW_ALL.equals(hostnameVerifier)) {
+            return NoopHostnameVerifier.INSTANCE;
+        }
+        DefaultHostnameVerifier defaultHostnameVerifier = new DefaultHostnameVerifier();
+        if (HOSTNAME_VERIFIER_DEFAULT_AND_LOCALHOST.equals(hostnameVerifier)) {
+            return (String host, SSLSession session) -> ArrayUtils.contains(LOCALHOSTS, host) ||
+                    defaultHostnameVerifier.verify(host, session);
+        }
+        return defaultHostnameVerifier;
+    }
+
+    private static String[] split(String value) {
+
+        return StringUtils.isBlank(value) ? null : StringUtils.stripAll(value.split(","));
+    }
+}
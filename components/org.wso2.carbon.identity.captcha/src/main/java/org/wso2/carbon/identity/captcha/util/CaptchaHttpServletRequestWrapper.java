@@ -18,34 +18,108 @@
 
 package org.wso2.carbon.identity.captcha.util;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.captcha.exception.CaptchaRequestBodyLimitExceededException;
+import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
 
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Captcha Response Wrapper.
+ * Captcha Request Wrapper, which buffers the request body so that the body can be read by the captcha connectors and
+ * replayed to the downstream consumers.
+ *
+ * The body is kept in memory up to the configured memory threshold and is spilled to a temporary file beyond that.
+ * Bodies larger than the configured maximum size are rejected. The form parameters of the body are parsed on demand
+ * by streaming through the buffered body, hence only the values of the requested parameters are kept in memory.
+ * The wrapper must be closed once the request is served, to delete the temporary file.
  */
-public class CaptchaHttpServletRequestWrapper extends HttpServletRequestWrapper {
+public class CaptchaHttpServletRequestWrapper extends HttpServletRequestWrapper implements Closeable {
+
+    private static final Log log = LogFactory.getLog(CaptchaHttpServletRequestWrapper.class);
+    private static final String FORM_URL_ENCODED_CONTENT_TYPE = "application/x-www-form-urlencoded";
+    private static final String TEMP_FILE_PREFIX = "captcha-request-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final FileAttribute<Set<PosixFilePermission>> OWNER_ONLY_PERMISSIONS =
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_PARAMETER_NAME_LENGTH = 1024;
 
+    private final List<InputStream> openedStreams = new ArrayList<>();
+    private final Map<String, List<String>> bodyParameters = new HashMap<>();
     private byte[] body;
+    private File spillFile;
+    private long bodySize;
+    private Map<String, String[]> parameterMap;
 
     public CaptchaHttpServletRequestWrapper(HttpServletRequest httpServletRequest) throws IOException {
+
+        this(httpServletRequest, CaptchaDataHolder.getInstance().getReCaptchaRequestBodyMaxSize(),
+                CaptchaDataHolder.getInstance().getReCaptchaRequestBodyMemoryThreshold());
+    }
+
+    /**
+     * Wrap the given request, buffering its body within the given limits.
+     *
+     * @param httpServletRequest Request to wrap.
+     * @param maxBodySize        Maximum size of the body in bytes. Larger bodies are rejected.
+     * @param memoryThreshold    Size in bytes up to which the body is kept in memory.
+     * @throws CaptchaRequestBodyLimitExceededException If the body is larger than the maximum size.
+     * @throws IOException                              If an error occurred while reading the body.
+     */
+    public CaptchaHttpServletRequestWrapper(HttpServletRequest httpServletRequest, long maxBodySize,
+                                            int memoryThreshold) throws IOException {
+
         super(httpServletRequest);
-        // Read the request body and save it as a byte array
-        InputStream is = super.getInputStream();
-        body = IOUtils.toByteArray(is);
+        if (httpServletRequest.getContentLength() > maxBodySize) {
+            throw new CaptchaRequestBodyLimitExceededException("Request body of " +
+                    httpServletRequest.getContentLength() + " bytes exceeds the maximum size: " + maxBodySize);
+        }
+        bufferBody(super.getInputStream(), maxBodySize, memoryThreshold);
     }
 
     @Override
     public ServletInputStream getInputStream() throws IOException {
-        return new ServletInputStreamImpl(new ByteArrayInputStream(body));
+
+        InputStream in = openBody();
+        if (spillFile != null) {
+            // Streams of the temporary file are closed with the wrapper, if the consumer does not close them.
+            synchronized (this) {
+                openedStreams.add(in);
+            }
+        }
+        return new ServletInputStreamImpl(in);
     }
 
     @Override
@@ -55,6 +129,295 @@ public class CaptchaHttpServletRequestWrapper extends HttpServletRequestWrapper
         return new BufferedReader(new InputStreamReader(getInputStream(), enc));
     }
 
+    @Override
+    public String getParameter(String name) {
+
+        String value = super.getParameter(name);
+        if (value != null) {
+            return value;
+        }
+        List<String> values = getBodyParameterValues(name);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+
+        List<String> values = new ArrayList<>();
+        String[] requestValues = super.getParameterValues(name);
+        if (requestValues != null) {
+            Collections.addAll(values, requestValues);
+        }
+        values.addAll(getBodyParameterValues(name));
+        return values.isEmpty() ? null : values.toArray(new String[0]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Map<String, String[]> getParameterMap() {
+
+        if (parameterMap != null) {
+            return parameterMap;
+        }
+        Map<String, List<String>> parameters = new LinkedHashMap<>();
+        Map<String, String[]> requestParameters = super.getParameterMap();
+        if (requestParameters != null) {
+            for (Map.Entry<String, String[]> entry : requestParameters.entrySet()) {
+                List<String> values = new ArrayList<>();
+                Collections.addAll(values, entry.getValue());
+                parameters.put(entry.getKey(), values);
+            }
+        }
+        if (isFormUrlEncoded()) {
+            Map<String, List<String>> allBodyParameters = new LinkedHashMap<>();
+            parseBodyParameters(null, allBodyParameters);
+            for (Map.Entry<String, List<String>> entry : allBodyParameters.entrySet()) {
+                parameters.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
+            }
+        }
+        Map<String, String[]> mergedParameters = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : parameters.entrySet()) {
+            mergedParameters.put(entry.getKey(), entry.getValue().toArray(new String[0]));
+        }
+        parameterMap = Collections.unmodifiableMap(mergedParameters);
+        return parameterMap;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    /**
+     * Get the size of the buffered body.
+     *
+     * @return Size of the body in bytes.
+     */
+    public long getBodySize() {
+
+        return bodySize;
+    }
+
+    /**
+     * Check whether the body is spilled to a temporary file.
+     *
+     * @return True if the body is kept in a temporary file.
+     */
+    public boolean isBodySpilledToFile() {
+
+        return spillFile != null;
+    }
+
+    /**
+     * Get the temporary file of the body.
+     *
+     * @return Temporary file, or null if the body is kept in memory.
+     */
+    File getSpillFile() {
+
+        return spillFile;
+    }
+
+    /**
+     * Get the size of the body kept in memory.
+     *
+     * @return Size of the in-memory body in bytes.
+     */
+    int getInMemoryBodySize() {
+
+        return body == null ? 0 : body.length;
+    }
+
+    /**
+     * Close the streams opened on the buffered body and delete the temporary file of the body.
+     */
+    @Override
+    public synchronized void close() {
+
+        for (InputStream openedStream : openedStreams) {
+            try {
+                openedStream.close();
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error while closing the buffered request body stream.", e);
+                }
+            }
+        }
+        openedStreams.clear();
+        deleteSpillFile();
+    }
+
+    private void bufferBody(InputStream in, long maxBodySize, int memoryThreshold) throws IOException {
+
+        ByteArrayOutputStream memoryBuffer = new ByteArrayOutputStream(Math.min(memoryThreshold, BUFFER_SIZE));
+        OutputStream fileBuffer = null;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bodySize += read;
+                if (bodySize > maxBodySize) {
+                    throw new CaptchaRequestBodyLimitExceededException("Request body exceeds the maximum size: " +
+                            maxBodySize);
+                }
+                if (fileBuffer == null && bodySize > memoryThreshold) {
+                    spillFile = createSpillFile();
+                    fileBuffer = new FileOutputStream(spillFile);
+                    memoryBuffer.writeTo(fileBuffer);
+                    memoryBuffer = null;
+                }
+                if (fileBuffer != null) {
+                    fileBuffer.write(buffer, 0, read);
+                } else {
+                    memoryBuffer.write(buffer, 0, read);
+                }
+            }
+        } catch (IOException e) {
+            closeQuietly(fileBuffer);
+            deleteSpillFile();
+            throw e;
+        }
+        if (fileBuffer != null) {
+            fileBuffer.close();
+            if (log.isDebugEnabled()) {
+                log.debug("Request body of " + bodySize + " bytes is spilled to a temporary file.");
+            }
+        } else {
+            body = memoryBuffer.toByteArray();
+        }
+    }
+
+    /**
+     * Create the temporary file of the body, readable and writable only by the owner, since the body may carry
+     * credentials.
+     */
+    private static File createSpillFile() throws IOException {
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, OWNER_ONLY_PERMISSIONS).toFile();
+        }
+        // Temporary files are created in the private temporary directory of the user on the other file systems.
+        return Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX).toFile();
+    }
+
+    private InputStream openBody() throws IOException {
+
+        if (spillFile == null) {
+            return new ByteArrayInputStream(body != null ? body : new byte[0]);
+        }
+        return new BufferedInputStream(new FileInputStream(spillFile), BUFFER_SIZE);
+    }
+
+    private synchronized List<String> getBodyParameterValues(String name) {
+
+        if (name == null || !isFormUrlEncoded()) {
+            return Collections.emptyList();
+        }
+        List<String> values = bodyParameters.get(name);
+        if (values == null) {
+            Map<String, List<String>> parsedParameters = new HashMap<>();
+            parseBodyParameters(name, parsedParameters);
+            values = parsedParameters.containsKey(name) ? parsedParameters.get(name) : Collections.emptyList();
+            bodyParameters.put(name, values);
+        }
+        return values;
+    }
+
+    /**
+     * Parse the form parameters of the body by streaming through it. Only the values of the parameter with the
+     * given name are kept, or the values of all the parameters if the name is null.
+     */
+    private void parseBodyParameters(String parameterName, Map<String, List<String>> parameters) {
+
+        String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+        ByteArrayOutputStream name = new ByteArrayOutputStream();
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        boolean readingName = true;
+        boolean keepValue = false;
+        boolean nameTooLong = false;
+        try (InputStream in = openBody()) {
+            int current;
+            do {
+                current = in.read();
+                if (current == '&' || current == -1) {
+                    if (readingName && !nameTooLong && name.size() > 0) {
+                        // Parameter without a value.
+                        String decodedName = decode(name, encoding);
+                        keepValue = decodedName != null && (parameterName == null ||
+                                parameterName.equals(decodedName));
+                        if (keepValue) {
+                            parameters.computeIfAbsent(decodedName, key -> new ArrayList<>()).add("");
+                        }
+                    } else if (keepValue) {
+                        String decodedValue = decode(value, encoding);
+                        if (decodedValue != null) {
+                            parameters.computeIfAbsent(decode(name, encoding), key -> new ArrayList<>())
+                                    .add(decodedValue);
+                        }
+                    }
+                    name.reset();
+                    value.reset();
+                    readingName = true;
+                    keepValue = false;
+                    nameTooLong = false;
+                } else if (readingName && current == '=') {
+                    readingName = false;
+                    String decodedName = nameTooLong ? null : decode(name, encoding);
+                    keepValue = decodedName != null && (parameterName == null || parameterName.equals(decodedName));
+                } else if (readingName) {
+                    if (name.size() < MAX_PARAMETER_NAME_LENGTH) {
+                        name.write(current);
+                    } else {
+                        nameTooLong = true;
+                    }
+                } else if (keepValue) {
+                    value.write(current);
+                }
+            } while (current != -1);
+        } catch (IOException e) {
+            log.error("Error while parsing the parameters of the request body.", e);
+        }
+    }
+
+    private boolean isFormUrlEncoded() {
+
+        String contentType = getContentType();
+        return contentType != null && StringUtils.startsWithIgnoreCase(contentType.trim(),
+                FORM_URL_ENCODED_CONTENT_TYPE);
+    }
+
+    private static String decode(ByteArrayOutputStream encoded, String encoding) {
+
+        try {
+            return URLDecoder.decode(encoded.toString(encoding), encoding);
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Ignoring the malformed parameter of the request body.", e);
+            }
+            return null;
+        }
+    }
+
+    private void deleteSpillFile() {
+
+        if (spillFile != null && spillFile.exists() && !spillFile.delete()) {
+            log.warn("Unable to delete the temporary file of the request body: " + spillFile.getAbsolutePath());
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Ignore, since the original error is thrown.
+        }
+    }
+
     private class ServletInputStreamImpl extends ServletInputStream {
 
         private InputStream is;
@@ -67,6 +430,24 @@ public class CaptchaHttpServletRequestWrapper extends HttpServletRequestWrapper
             return is.read();
         }
 
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            return is.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+
+            return is.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            is.close();
+        }
+
         public boolean markSupported() {
             return false;
         }
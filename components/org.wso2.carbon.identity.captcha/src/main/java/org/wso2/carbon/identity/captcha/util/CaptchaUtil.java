@@ -28,7 +28,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.io.entity.StringEntity;
@@ -48,6 +48,7 @@ import org.wso2.carbon.identity.captcha.exception.CaptchaException;
 import org.wso2.carbon.identity.captcha.exception.CaptchaServerException;
 import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceException;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 import org.wso2.carbon.user.api.UserStoreException;
@@ -55,7 +56,6 @@ import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.UserRealm;
 import org.wso2.carbon.user.core.UserStoreManager;
 import org.wso2.carbon.user.core.service.RealmService;
-import org.wso2.carbon.utils.httpclient5.HTTPClientUtils;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 import org.wso2.securevault.SecretResolver;
@@ -73,10 +73,14 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletRequest;
 
@@ -92,6 +96,10 @@ import static org.wso2.carbon.identity.captcha.util.CaptchaConstants.SSO_LOGIN_R
 public class CaptchaUtil {
 
     private static final Log log = LogFactory.getLog(CaptchaUtil.class);
+    private static final int MAX_CACHED_SECURED_PATH_LISTS = 100;
+    private static final Map<String, Set<String>> securedPathSets = new ConcurrentHashMap<>();
+    private static final String[] FAILED_ATTEMPTS_CLAIMS = {CaptchaConstants.FAILED_LOGIN_ATTEMPTS_CLAIM,
+            CaptchaConstants.FAILED_EMAIL_OTP_ATTEMPTS_CLAIM, CaptchaConstants.FAILED_SMS_OTP_ATTEMPTS_CLAIM};
 
     public static void buildReCaptchaFilterProperties() {
 
@@ -137,15 +145,32 @@ public class CaptchaUtil {
 
     public static boolean isPathAvailable(String currentPath, String securedPaths) {
 
-        if (!StringUtils.isBlank(securedPaths)) {
-            String[] paths = securedPaths.split(",");
-            for (String path : paths) {
-                if (currentPath.equals(path)) {
-                    return true;
-                }
+        if (StringUtils.isBlank(securedPaths)) {
+            return false;
+        }
+        Set<String> paths = securedPathSets.get(securedPaths);
+        if (paths == null) {
+            paths = getPaths(securedPaths);
+            // The secured paths are the configured path lists, hence the cache stays small.
+            if (securedPathSets.size() < MAX_CACHED_SECURED_PATH_LISTS) {
+                securedPathSets.put(securedPaths, paths);
             }
         }
-        return false;
+        return paths.contains(currentPath);
+    }
+
+    /**
+     * Get the paths of the given comma separated path list.
+     *
+     * @param securedPaths Comma separated path list.
+     * @return Paths of the path list.
+     */
+    public static Set<String> getPaths(String securedPaths) {
+
+        if (StringUtils.isBlank(securedPaths)) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(securedPaths.split(","))));
     }
 
     public static String getUpdatedUrl(String url, Map<String, String> attributes) {
@@ -288,13 +313,8 @@ public class CaptchaUtil {
         }
 
         JsonObject jsonResponse;
-        try (CloseableHttpClient httpclient = HTTPClientUtils.createClientWithCustomHostnameVerifier().build()) {
-            jsonResponse = httpclient.execute(httpPost, response -> {
-                try (InputStream in = response.getEntity().getContent()) {
-                    JsonElement jsonElement = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8));
-                    return jsonElement.getAsJsonObject();
-                }
-            });
+        try {
+            jsonResponse = executeVerificationRequest(httpPost);
         } catch (IOException e) {
             throw new CaptchaServerException("Unable to get the verification response.", e);
         }
@@ -313,6 +333,73 @@ public class CaptchaUtil {
         return true;
     }
 
+    private static JsonObject executeVerificationRequest(HttpPost httpPost) throws IOException {
+
+        CaptchaHttpClient captchaHttpClient = getCaptchaHttpClient();
+        try {
+            return captchaHttpClient.execute(httpPost, CaptchaUtil::parseVerificationResponse);
+        } catch (IllegalStateException e) {
+            if (!captchaHttpClient.isClosed()) {
+                throw e;
+            }
+            // The client was replaced by a config reload after it was obtained, hence retry with the new client.
+            return getCaptchaHttpClient().execute(httpPost, CaptchaUtil::parseVerificationResponse);
+        }
+    }
+
+    private static JsonObject parseVerificationResponse(ClassicHttpResponse response) throws IOException {
+
+        try (InputStream in = response.getEntity().getContent()) {
+            JsonElement jsonElement = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return jsonElement.getAsJsonObject();
+        }
+    }
+
+    /**
+     * Create the pooled HTTP client used for the reCaptcha verifications with the given configs, replacing the
+     * existing client. The new client is published before the existing one is closed, and the existing client
+     * completes the verifications in flight before its connections are released.
+     *
+     * @param properties Captcha configs.
+     */
+    public static synchronized void initCaptchaHttpClient(Properties properties) {
+
+        CaptchaHttpClient previousHttpClient = CaptchaDataHolder.getInstance().getCaptchaHttpClient();
+        CaptchaDataHolder.getInstance().setCaptchaHttpClient(new CaptchaHttpClient(properties));
+        if (previousHttpClient != null) {
+            previousHttpClient.close();
+        }
+    }
+
+    /**
+     * Close the pooled HTTP client used for the reCaptcha verifications, once the verifications in flight complete.
+     */
+    public static synchronized void closeCaptchaHttpClient() {
+
+        CaptchaHttpClient captchaHttpClient = CaptchaDataHolder.getInstance().getCaptchaHttpClient();
+        CaptchaDataHolder.getInstance().setCaptchaHttpClient(null);
+        if (captchaHttpClient != null) {
+            captchaHttpClient.close();
+        }
+    }
+
+    private static CaptchaHttpClient getCaptchaHttpClient() {
+
+        CaptchaHttpClient captchaHttpClient = CaptchaDataHolder.getInstance().getCaptchaHttpClient();
+        if (captchaHttpClient != null) {
+            return captchaHttpClient;
+        }
+        synchronized (CaptchaUtil.class) {
+            captchaHttpClient = CaptchaDataHolder.getInstance().getCaptchaHttpClient();
+            if (captchaHttpClient == null) {
+                // The captcha configs are not loaded, hence use the default configs.
+                captchaHttpClient = new CaptchaHttpClient(new Properties());
+                CaptchaDataHolder.getInstance().setCaptchaHttpClient(captchaHttpClient);
+            }
+            return captchaHttpClient;
+        }
+    }
+
     private static HttpPost createReCaptchaEnterpriseVerificationHttpPost(String reCaptchaResponse) {
 
         HttpPost httpPost;
@@ -466,6 +553,17 @@ public class CaptchaUtil {
 
         int maxAttempts = Integer.parseInt(maxAttemptsStr);
 
+        String tenantAwareUsername = MultitenantUtils.getTenantAwareUsername(usernameWithDomain);
+        FailedLoginAttemptCounter failedLoginAttemptCounter =
+                CaptchaDataHolder.getInstance().getFailedLoginAttemptCounter();
+        if (failedLoginAttemptCounter != null) {
+            Integer failedAttempts = failedLoginAttemptCounter.getFailedAttempts(tenantAwareUsername, tenantDomain,
+                    failedAttemptsClaim);
+            if (failedAttempts != null) {
+                return failedAttempts >= maxAttempts;
+            }
+        }
+
         RealmService realmService = CaptchaDataHolder.getInstance().getRealmService();
         int tenantId;
         try {
@@ -501,11 +599,11 @@ public class CaptchaUtil {
                 if (log.isDebugEnabled()) {
                     log.debug("User store manager cannot be found for the user.");
                 }
-                // Invalid user. User cannot be found in any user store.
+                // Invalid user. User cannot be found in any user store. Such users are not counted, since any
+                // user name can be tried.
                 return false;
             }
-            claimValues = userStoreManager.getUserClaimValues(MultitenantUtils
-                            .getTenantAwareUsername(usernameWithDomain),
+            claimValues = userStoreManager.getUserClaimValues(tenantAwareUsername,
                     new String[]{failedAttemptsClaim}, UserCoreConstants.DEFAULT_PROFILE);
         } catch (org.wso2.carbon.user.core.UserStoreException e) {
             if (log.isDebugEnabled()) {
@@ -519,10 +617,67 @@ public class CaptchaUtil {
         if (NumberUtils.isNumber(claimValues.get(failedAttemptsClaim))) {
             currentAttempts = Integer.parseInt(claimValues.get(failedAttemptsClaim));
         }
+        if (failedLoginAttemptCounter != null) {
+            failedLoginAttemptCounter.setFailedAttempts(tenantAwareUsername, tenantDomain, failedAttemptsClaim,
+                    currentAttempts);
+        }
 
         return currentAttempts >= maxAttempts;
     }
 
+    /**
+     * Clear the failed login attempts of the user in the failed login attempt counter of every node of the cluster,
+     * hence they are read from the store on the next decision. Used when the user fails an authentication, since the
+     * failed attempt claims are then changed in the store.
+     *
+     * @param user User who failed the authentication.
+     */
+    public static void clearFailedLoginAttempts(User user) {
+
+        FailedLoginAttemptCounter failedLoginAttemptCounter =
+                CaptchaDataHolder.getInstance().getFailedLoginAttemptCounter();
+        if (failedLoginAttemptCounter == null || user == null || StringUtils.isBlank(user.getUserName())) {
+            return;
+        }
+        String userName = getFailedLoginAttemptCounterUserName(user);
+        clearFailedLoginAttempts(failedLoginAttemptCounter, userName, user.getTenantDomain());
+        clearUnqualifiedFailedLoginAttempts(failedLoginAttemptCounter, user, userName);
+    }
+
+    private static String getFailedLoginAttemptCounterUserName(User user) {
+
+        String userStoreDomain = user.getUserStoreDomain();
+        if (StringUtils.isBlank(userStoreDomain) ||
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME.equalsIgnoreCase(userStoreDomain)) {
+            return user.getUserName();
+        }
+        return userStoreDomain + UserCoreConstants.DOMAIN_SEPARATOR + user.getUserName();
+    }
+
+    /**
+     * Clear the counts kept under the user name without the domain, for the users of the secondary user stores. The
+     * captcha decisions may refer to these users without the domain, hence such a count may belong to the user.
+     *
+     * @param failedLoginAttemptCounter Failed login attempt counter.
+     * @param user                      User.
+     * @param counterUserName           User name under which the counts of the user are kept.
+     */
+    private static void clearUnqualifiedFailedLoginAttempts(FailedLoginAttemptCounter failedLoginAttemptCounter,
+                                                            User user, String counterUserName) {
+
+        if (!counterUserName.equals(user.getUserName())) {
+            clearFailedLoginAttempts(failedLoginAttemptCounter, user.getUserName(), user.getTenantDomain());
+        }
+    }
+
+    private static void clearFailedLoginAttempts(FailedLoginAttemptCounter failedLoginAttemptCounter,
+                                                 String userName, String tenantDomain) {
+
+        for (String failedAttemptsClaim : FAILED_ATTEMPTS_CLAIMS) {
+            failedLoginAttemptCounter.clearFailedAttempts(userName, tenantDomain, failedAttemptsClaim);
+        }
+    }
+
     /**
      * Resolve the user store manager for the user.
      *
@@ -596,6 +751,13 @@ public class CaptchaUtil {
             throw new RuntimeException(getValidationErrorMessage(CaptchaConstants.RE_CAPTCHA_REQUEST_WRAP_URLS));
         }
         CaptchaDataHolder.getInstance().setReCaptchaRequestWrapUrls(reCaptchaRequestWrapUrls);
+        CaptchaDataHolder.getInstance().setReCaptchaRequestBodyMaxSize(ExecutorConfigUtil.getPositiveIntProperty(
+                properties, CaptchaConstants.RE_CAPTCHA_REQUEST_BODY_MAX_SIZE,
+                CaptchaConstants.DEFAULT_RE_CAPTCHA_REQUEST_BODY_MAX_SIZE));
+        CaptchaDataHolder.getInstance().setReCaptchaRequestBodyMemoryThreshold(
+                ExecutorConfigUtil.getPositiveIntProperty(properties,
+                        CaptchaConstants.RE_CAPTCHA_REQUEST_BODY_MEMORY_THRESHOLD,
+                        CaptchaConstants.DEFAULT_RE_CAPTCHA_REQUEST_BODY_MEMORY_THRESHOLD));
 
         String reCaptchaBypassedApiEndpointsString = properties.getProperty(
                 CaptchaConstants.RE_CAPTCHA_BYPASSED_API_ENDPOINTS);
@@ -618,6 +780,14 @@ public class CaptchaUtil {
                 properties.getProperty(CaptchaConstants.FORCEFULLY_ENABLED_RECAPTCHA_FOR_ALL_TENANTS);
         CaptchaDataHolder.getInstance().setForcefullyEnabledRecaptchaForAllTenants(
                 Boolean.parseBoolean(forcefullyEnableRecaptchaForAllTenants));
+
+        initCaptchaHttpClient(properties);
+        CaptchaDataHolder.getInstance().setFailedLoginAttemptCounter(new FailedLoginAttemptCounter(
+                ExecutorConfigUtil.getPositiveIntProperty(properties,
+                        CaptchaConstants.RE_CAPTCHA_FAILED_LOGIN_ATTEMPTS_CACHE_TIMEOUT,
+                        CaptchaConstants.DEFAULT_RE_CAPTCHA_FAILED_LOGIN_ATTEMPTS_CACHE_TIMEOUT)));
+        // Connectors may derive their request paths from the configs.
+        CaptchaDataHolder.getInstance().refreshCaptchaConnectorIndex();
     }
 
     /**
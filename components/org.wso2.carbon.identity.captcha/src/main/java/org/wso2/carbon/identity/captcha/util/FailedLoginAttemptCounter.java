@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.util;
+
+import org.wso2.carbon.identity.captcha.internal.cache.FailedLoginAttemptCache;
+import org.wso2.carbon.identity.captcha.internal.cache.FailedLoginAttemptCacheEntry;
+import org.wso2.carbon.identity.captcha.internal.cache.FailedLoginAttemptCacheKey;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+/**
+ * Counter of the failed login attempts of the users, used for the captcha enforcement decisions without reading the
+ * user stores. Only the users without failed login attempts are kept, in a cache which is invalidated across the
+ * cluster, hence the counts of the users with failed attempts are always read from the store:
+ * <ul>
+ * <li>A user is cached when the failed attempt claim is read as zero on a captcha decision of an existing user.
+ * Users which are not found in the user stores are not cached.</li>
+ * <li>A failed authentication removes the user from the cache in every node of the cluster, hence the next decision
+ * of any node reads the count from the store.</li>
+ * <li>Users are served only for the configured time to live after caching, and are then read from the store again,
+ * which bounds the drift caused by the claim updates made outside the authentication flow.</li>
+ * </ul>
+ */
+public class FailedLoginAttemptCounter {
+
+    private final FailedLoginAttemptCache cache;
+    private final long timeToLiveMillis;
+
+    /**
+     * Create a counter backed by the failed login attempt cache.
+     *
+     * @param timeToLiveMillis Time in milliseconds for which a user is served after it is cached.
+     */
+    public FailedLoginAttemptCounter(long timeToLiveMillis) {
+
+        this(FailedLoginAttemptCache.getInstance(), timeToLiveMillis);
+    }
+
+    /**
+     * Create a counter backed by the given cache.
+     *
+     * @param cache            Cache of the users without failed login attempts.
+     * @param timeToLiveMillis Time in milliseconds for which a user is served after it is cached.
+     */
+    public FailedLoginAttemptCounter(FailedLoginAttemptCache cache, long timeToLiveMillis) {
+
+        this.cache = cache;
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * Get the failed login attempts of the user.
+     *
+     * @param userName     Tenant aware user name, optionally qualified with the user store domain.
+     * @param tenantDomain Tenant domain of the user.
+     * @param claimUri     Claim of the failed attempts.
+     * @return Zero if the user is known to have no failed login attempts, or null if the count should be read from
+     * the store.
+     */
+    public Integer getFailedAttempts(String userName, String tenantDomain, String claimUri) {
+
+        FailedLoginAttemptCacheKey key = buildKey(userName, claimUri);
+        FailedLoginAttemptCacheEntry entry = cache.getValueFromCache(key, tenantDomain);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isStale(timeToLiveMillis)) {
+            cache.clearCacheEntry(key, tenantDomain);
+            return null;
+        }
+        return 0;
+    }
+
+    /**
+     * Set the failed login attempts of the user, read from the store. The user is cached only if there are no failed
+     * login attempts, since the counts of the users with failed attempts are read from the store on every decision.
+     *
+     * @param userName       Tenant aware user name, optionally qualified with the user store domain.
+     * @param tenantDomain   Tenant domain of the user.
+     * @param claimUri       Claim of the failed attempts.
+     * @param failedAttempts Failed login attempts.
+     */
+    public void setFailedAttempts(String userName, String tenantDomain, String claimUri, int failedAttempts) {
+
+        if (failedAttempts == 0) {
+            cache.addToCache(buildKey(userName, claimUri), new FailedLoginAttemptCacheEntry(), tenantDomain);
+        }
+    }
+
+    /**
+     * Remove the failed login attempts of the user from every node of the cluster, hence they are read from the store
+     * on the next decision.
+     *
+     * @param userName     Tenant aware user name, optionally qualified with the user store domain.
+     * @param tenantDomain Tenant domain of the user.
+     * @param claimUri     Claim of the failed attempts.
+     */
+    public void clearFailedAttempts(String userName, String tenantDomain, String claimUri) {
+
+        cache.clearCacheEntry(buildKey(userName, claimUri), tenantDomain);
+    }
+
+    /**
+     * Build the cache key of the user. Users of the primary user store are keyed without the domain, as the captcha
+     * decisions refer to them with or without the domain.
+     *
+     * @param userName Tenant aware user name, optionally qualified with the user store domain.
+     * @param claimUri Claim of the failed attempts.
+     * @return Cache key.
+     */
+    private static FailedLoginAttemptCacheKey buildKey(String userName, String claimUri) {
+
+        String counterUserName = userName;
+        int separatorIndex = userName.indexOf(UserCoreConstants.DOMAIN_SEPARATOR);
+        if (separatorIndex > 0 && UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME
+                .equalsIgnoreCase(userName.substring(0, separatorIndex))) {
+            counterUserName = userName.substring(separatorIndex + 1);
+        }
+        return new FailedLoginAttemptCacheKey(counterUserName, claimUri);
+    }
+}
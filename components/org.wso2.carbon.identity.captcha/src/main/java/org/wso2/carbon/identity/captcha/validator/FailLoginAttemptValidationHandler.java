@@ -109,6 +109,8 @@ public class FailLoginAttemptValidationHandler extends AbstractEventHandler {
                             currentAuthenticator);
                 }
 
+                // The failed attempt changes the count in the store, hence it is read again by every node.
+                CaptchaUtil.clearFailedLoginAttempts(failedUser);
                 try {
                     if (CaptchaUtil.isMaximumFailedLoginAttemptsReached(username, failedUser.getTenantDomain())) {
                         CaptchaConstants.setEnableSecurityMechanism("enable");
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.connector;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.captcha.filter.CaptchaFilter;
+import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
+import org.wso2.carbon.identity.captcha.util.CaptchaUtil;
+import org.wso2.carbon.identity.governance.IdentityGovernanceService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests of the routing index of the captcha connectors.
+ */
+public class CaptchaConnectorIndexTest {
+
+    private static final int CONNECTOR_COUNT = 20;
+    private static final int PATHS_PER_CONNECTOR = 5;
+    private static final int SECURED_PATH_COUNT = CONNECTOR_COUNT * PATHS_PER_CONNECTOR / 2;
+    private static final int REQUEST_COUNT = 10_000;
+    private static final String UNMATCHED_PATH = "/api/server/v1/applications";
+
+    private final AtomicLong canHandleCount = new AtomicLong();
+    private List<CaptchaConnector> captchaConnectors;
+    private boolean previousReCaptchaEnabled;
+
+    @BeforeMethod
+    public void setUp() {
+
+        canHandleCount.set(0);
+        // 20 connectors with 100 configured paths, where each of the 50 distinct paths is secured by 2 connectors.
+        captchaConnectors = new ArrayList<>();
+        for (int i = 0; i < CONNECTOR_COUNT; i++) {
+            List<String> paths = new ArrayList<>();
+            for (int j = 0; j < PATHS_PER_CONNECTOR; j++) {
+                paths.add(getPath((i * PATHS_PER_CONNECTOR + j) % SECURED_PATH_COUNT));
+            }
+            captchaConnectors.add(new PathBasedConnector(i, String.join(",", paths)));
+        }
+        previousReCaptchaEnabled = CaptchaDataHolder.getInstance().isReCaptchaEnabled();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        for (CaptchaConnector captchaConnector : captchaConnectors) {
+            CaptchaDataHolder.getInstance().removeCaptchaConnector(captchaConnector);
+        }
+        CaptchaDataHolder.getInstance().setReCaptchaEnabled(previousReCaptchaEnabled);
+    }
+
+    @Test
+    public void testCandidateConnectorsOfPaths() {
+
+        CaptchaConnector pathIndependentConnector = new PathIndependentConnector();
+        List<CaptchaConnector> connectors = new ArrayList<>(captchaConnectors);
+        connectors.add(5, pathIndependentConnector);
+        CaptchaConnectorIndex captchaConnectorIndex = new CaptchaConnectorIndex(connectors);
+
+        // Path 3 is secured by the connectors 0 and 10.
+        assertEquals(captchaConnectorIndex.getCandidateConnectors(getPath(3)),
+                Arrays.asList(captchaConnectors.get(0), pathIndependentConnector, captchaConnectors.get(10)));
+        assertEquals(captchaConnectorIndex.getCandidateConnectors(UNMATCHED_PATH),
+                Collections.singletonList(pathIndependentConnector));
+        assertEquals(captchaConnectorIndex.getCandidateConnectors(null),
+                Collections.singletonList(pathIndependentConnector));
+        assertTrue(new CaptchaConnectorIndex(captchaConnectors).getCandidateConnectors(UNMATCHED_PATH).isEmpty());
+    }
+
+    @Test
+    public void testIndexSelectsSameConnectorsAsLinearScan() throws Exception {
+
+        CaptchaConnectorIndex captchaConnectorIndex = new CaptchaConnectorIndex(captchaConnectors);
+        for (int i = 0; i < SECURED_PATH_COUNT * 2; i++) {
+            HttpServletRequest request = new PathRequest(getPath(i));
+            List<CaptchaConnector> expectedConnectors = new ArrayList<>();
+            for (CaptchaConnector captchaConnector : captchaConnectors) {
+                if (captchaConnector.canHandle(request, null)) {
+                    expectedConnectors.add(captchaConnector);
+                }
+            }
+            assertEquals(captchaConnectorIndex.getCandidateConnectors(getPath(i)), expectedConnectors);
+        }
+    }
+
+    @Test
+    public void testFilterSkipsConnectorsOfOtherPaths() throws Exception {
+
+        CaptchaDataHolder.getInstance().setReCaptchaEnabled(true);
+        for (CaptchaConnector captchaConnector : captchaConnectors) {
+            CaptchaDataHolder.getInstance().addCaptchaConnector(captchaConnector);
+        }
+        HttpServletRequest request = new PathRequest(UNMATCHED_PATH);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+
+        new CaptchaFilter().doFilter(request, response, filterChain);
+
+        verify(filterChain, times(1)).doFilter(request, response);
+        assertEquals(canHandleCount.get(), 0);
+
+        // The index is updated when a connector is removed.
+        CaptchaDataHolder.getInstance().removeCaptchaConnector(captchaConnectors.get(0));
+        assertEquals(CaptchaDataHolder.getInstance().getCaptchaConnectorIndex().getCandidateConnectors(getPath(3)),
+                Collections.singletonList(captchaConnectors.get(10)));
+    }
+
+    @Test
+    public void testIndexConsultsOnlyCandidateConnectors() throws Exception {
+
+        HttpServletRequest[] requests = new HttpServletRequest[SECURED_PATH_COUNT * 4];
+        for (int i = 0; i < requests.length; i++) {
+            // Half of the requests are to paths which are not secured by any connector.
+            requests[i] = new PathRequest(i % 2 == 0 ? getPath((i / 2) % SECURED_PATH_COUNT) :
+                    UNMATCHED_PATH + "/" + i);
+        }
+        CaptchaConnectorIndex captchaConnectorIndex = new CaptchaConnectorIndex(captchaConnectors);
+        String[] paths = new String[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            paths[i] = requests[i].getRequestURI();
+        }
+
+        int linearScanMatches = routeWithLinearScan(requests, REQUEST_COUNT);
+        long linearScanCanHandleCount = canHandleCount.getAndSet(0);
+        int indexMatches = routeWithIndex(captchaConnectorIndex, requests, paths, REQUEST_COUNT);
+        long indexCanHandleCount = canHandleCount.get();
+
+        assertEquals(indexMatches, linearScanMatches);
+        assertEquals(linearScanCanHandleCount, (long) REQUEST_COUNT * CONNECTOR_COUNT);
+        // Only the 2 connectors of a secured path are consulted and none for the other paths.
+        assertEquals(indexCanHandleCount, (long) REQUEST_COUNT);
+    }
+
+    private int routeWithLinearScan(HttpServletRequest[] requests, int requestCount) throws Exception {
+
+        int matches = 0;
+        for (int i = 0; i < requestCount; i++) {
+            HttpServletRequest request = requests[i % requests.length];
+            if (selectConnector(captchaConnectors, request) != null) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private int routeWithIndex(CaptchaConnectorIndex captchaConnectorIndex, HttpServletRequest[] requests,
+                               String[] paths, int requestCount) throws Exception {
+
+        int matches = 0;
+        for (int i = 0; i < requestCount; i++) {
+            HttpServletRequest request = requests[i % requests.length];
+            if (selectConnector(captchaConnectorIndex.getCandidateConnectors(paths[i % paths.length]), request)
+                    != null) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static CaptchaConnector selectConnector(List<CaptchaConnector> captchaConnectors,
+                                                    ServletRequest servletRequest) throws Exception {
+
+        CaptchaConnector selectedCaptchaConnector = null;
+        for (CaptchaConnector captchaConnector : captchaConnectors) {
+            if (captchaConnector.canHandle(servletRequest, null) && (selectedCaptchaConnector == null ||
+                    captchaConnector.getPriority() > selectedCaptchaConnector.getPriority())) {
+                selectedCaptchaConnector = captchaConnector;
+            }
+        }
+        return selectedCaptchaConnector;
+    }
+
+    private static String getPath(int index) {
+
+        return "/api/identity/captcha/v1/flow-" + index;
+    }
+
+    /**
+     * Request to a path, which does not record the invocations like a mock, hence can be routed many times.
+     */
+    private static class PathRequest extends HttpServletRequestWrapper {
+
+        private static final HttpServletRequest REQUEST = mock(HttpServletRequest.class);
+
+        private final String path;
+
+        PathRequest(String path) {
+
+            super(REQUEST);
+            this.path = path;
+        }
+
+        @Override
+        public String getRequestURI() {
+
+            return path;
+        }
+    }
+
+    /**
+     * Connector which handles the requests to its comma separated paths.
+     */
+    private class PathBasedConnector implements CaptchaConnector {
+
+        private final int priority;
+        private final String securedPaths;
+
+        PathBasedConnector(int priority, String securedPaths) {
+
+            this.priority = priority;
+            this.securedPaths = securedPaths;
+        }
+
+        @Override
+        public void init(IdentityGovernanceService identityGovernanceService) {
+
+        }
+
+        @Override
+        public int getPriority() {
+
+            return priority;
+        }
+
+        @Override
+        public boolean canHandle(ServletRequest servletRequest, ServletResponse servletResponse) {
+
+            canHandleCount.incrementAndGet();
+            return CaptchaUtil.isPathAvailable(((HttpServletRequest) servletRequest).getRequestURI(), securedPaths);
+        }
+
+        @Override
+        public Set<String> getHandledPaths() {
+
+            return CaptchaUtil.getPaths(securedPaths);
+        }
+
+        @Override
+        public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest,
+                                                        ServletResponse servletResponse) {
+
+            return null;
+        }
+
+        @Override
+        public boolean verifyCaptcha(ServletRequest servletRequest, ServletResponse servletResponse) {
+
+            return true;
+        }
+
+        @Override
+        public CaptchaPostValidationResponse postValidate(ServletRequest servletRequest,
+                                                          ServletResponse servletResponse) {
+
+            return null;
+        }
+    }
+
+    /**
+     * Connector which is not bound to request paths.
+     */
+    private static class PathIndependentConnector implements CaptchaConnector {
+
+        @Override
+        public void init(IdentityGovernanceService identityGovernanceService) {
+
+        }
+
+        @Override
+        public int getPriority() {
+
+            return 0;
+        }
+
+        @Override
+        public boolean canHandle(ServletRequest servletRequest, ServletResponse servletResponse) {
+
+            return false;
+        }
+
+        @Override
+        public CaptchaPreValidationResponse preValidate(ServletRequest servletRequest,
+                                                        ServletResponse servletResponse) {
+
+            return null;
+        }
+
+        @Override
+        public boolean verifyCaptcha(ServletRequest servletRequest, ServletResponse servletResponse) {
+
+            return true;
+        }
+
+        @Override
+        public CaptchaPostValidationResponse postValidate(ServletRequest servletRequest,
+                                                          ServletResponse servletResponse) {
+
+            return null;
+        }
+    }
+}
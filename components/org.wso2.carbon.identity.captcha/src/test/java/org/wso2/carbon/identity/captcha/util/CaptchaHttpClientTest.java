@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.captcha.exception.CaptchaClientException;
+import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for the pooled HTTP client of the reCaptcha verifications, against a local stub of the siteverify endpoint.
+ */
+public class CaptchaHttpClientTest {
+
+    private static final String SITE_VERIFY_PATH = "/recaptcha/api/siteverify";
+    private static final String SECRET_KEY = "secret-key";
+    private static final String INVALID_TOKEN = "invalid-token";
+    private static final String HELD_TOKEN = "held-token";
+    private static final int MAX_CONNECTIONS = 10;
+    private static final int CONCURRENT_REQUEST_COUNT = 500;
+
+    private final Set<String> clientConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private CountDownLatch heldRequestReceived;
+    private CountDownLatch heldResponseReleased;
+    private HttpServer siteVerifyServer;
+    private ExecutorService serverExecutor;
+    private String previousVerifyUrl;
+    private String previousSecretKey;
+    private String previousReCaptchaType;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        clientConnections.clear();
+        requestCount.set(0);
+        heldRequestReceived = new CountDownLatch(1);
+        heldResponseReleased = new CountDownLatch(1);
+        siteVerifyServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        siteVerifyServer.createContext(SITE_VERIFY_PATH, this::handleSiteVerify);
+        serverExecutor = Executors.newFixedThreadPool(MAX_CONNECTIONS * 2);
+        siteVerifyServer.setExecutor(serverExecutor);
+        siteVerifyServer.start();
+
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        previousVerifyUrl = dataHolder.getReCaptchaVerifyUrl();
+        previousSecretKey = dataHolder.getReCaptchaSecretKey();
+        previousReCaptchaType = dataHolder.getReCaptchaType();
+        dataHolder.setReCaptchaType(null);
+        dataHolder.setReCaptchaSecretKey(SECRET_KEY);
+        dataHolder.setReCaptchaVerifyUrl("http://localhost:" + siteVerifyServer.getAddress().getPort() +
+                SITE_VERIFY_PATH);
+
+        Properties properties = new Properties();
+        properties.setProperty(CaptchaConstants.RE_CAPTCHA_HTTP_MAX_CONNECTIONS, String.valueOf(MAX_CONNECTIONS));
+        properties.setProperty(CaptchaConstants.RE_CAPTCHA_HTTP_MAX_CONNECTIONS_PER_ROUTE,
+                String.valueOf(MAX_CONNECTIONS));
+        properties.setProperty(CaptchaConstants.RE_CAPTCHA_HTTP_CONNECTION_REQUEST_TIMEOUT, "30000");
+        CaptchaUtil.initCaptchaHttpClient(properties);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        heldResponseReleased.countDown();
+        CaptchaUtil.closeCaptchaHttpClient();
+        siteVerifyServer.stop(0);
+        serverExecutor.shutdownNow();
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        dataHolder.setReCaptchaVerifyUrl(previousVerifyUrl);
+        dataHolder.setReCaptchaSecretKey(previousSecretKey);
+        dataHolder.setReCaptchaType(previousReCaptchaType);
+    }
+
+    @Test
+    public void testConnectionsReusedByConcurrentVerifications() throws Exception {
+
+        ExecutorService verificationExecutor = Executors.newFixedThreadPool(MAX_CONNECTIONS * 5);
+        try {
+            List<Future<Boolean>> verifications = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUEST_COUNT; i++) {
+                String token = "token-" + i;
+                verifications.add(verificationExecutor.submit(() -> CaptchaUtil.isValidCaptcha(token)));
+            }
+            for (Future<Boolean> verification : verifications) {
+                assertTrue(verification.get(2, TimeUnit.MINUTES));
+            }
+        } finally {
+            verificationExecutor.shutdownNow();
+        }
+
+        assertEquals(requestCount.get(), CONCURRENT_REQUEST_COUNT);
+        // Each verification would open a new connection without the pooling.
+        assertTrue(clientConnections.size() <= MAX_CONNECTIONS,
+                "Connections opened to the siteverify endpoint: " + clientConnections.size());
+        assertEquals(CaptchaDataHolder.getInstance().getCaptchaHttpClient().getPoolStats().getLeased(), 0);
+    }
+
+    @Test
+    public void testBlockingVerificationsReuseConnection() throws Exception {
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(CaptchaUtil.isValidCaptcha("token-" + i));
+        }
+        assertEquals(requestCount.get(), 50);
+        assertEquals(clientConnections.size(), 1);
+    }
+
+    @Test
+    public void testInvalidTokenFailsVerification() throws Exception {
+
+        try {
+            CaptchaUtil.isValidCaptcha(INVALID_TOKEN);
+            fail("Verification of an invalid token should fail.");
+        } catch (CaptchaClientException e) {
+            // Expected.
+        }
+        // The connection is returned to the pool after a failed verification.
+        assertTrue(CaptchaUtil.isValidCaptcha("token"));
+        assertEquals(clientConnections.size(), 1);
+    }
+
+    @Test
+    public void testReloadCompletesVerificationsInFlight() throws Exception {
+
+        CaptchaHttpClient previousHttpClient = CaptchaDataHolder.getInstance().getCaptchaHttpClient();
+        ExecutorService verificationExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> heldVerification =
+                    verificationExecutor.submit(() -> CaptchaUtil.isValidCaptcha(HELD_TOKEN));
+            assertTrue(heldRequestReceived.await(1, TimeUnit.MINUTES));
+
+            CaptchaUtil.initCaptchaHttpClient(new Properties());
+            CaptchaHttpClient currentHttpClient = CaptchaDataHolder.getInstance().getCaptchaHttpClient();
+            assertNotSame(currentHttpClient, previousHttpClient);
+            // The replaced client keeps its connections until the verification in flight completes.
+            assertFalse(previousHttpClient.isClosed());
+            assertTrue(CaptchaUtil.isValidCaptcha("token"));
+
+            heldResponseReleased.countDown();
+            assertTrue(heldVerification.get(1, TimeUnit.MINUTES));
+            assertTrue(previousHttpClient.isClosed());
+            assertFalse(currentHttpClient.isClosed());
+        } finally {
+            verificationExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testClosedClientRejectsRequests() throws Exception {
+
+        CaptchaHttpClient captchaHttpClient = new CaptchaHttpClient(new Properties());
+        captchaHttpClient.close();
+        assertTrue(captchaHttpClient.isClosed());
+        try {
+            captchaHttpClient.execute(new HttpPost(CaptchaDataHolder.getInstance().getReCaptchaVerifyUrl()),
+                    response -> true);
+            fail("A closed client should not execute requests.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+    private void handleSiteVerify(HttpExchange exchange) throws IOException {
+
+        requestCount.incrementAndGet();
+        InetSocketAddress remoteAddress = exchange.getRemoteAddress();
+        clientConnections.add(remoteAddress.getAddress().getHostAddress() + ":" + remoteAddress.getPort());
+
+        String requestBody = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+        if (requestBody.contains("response=" + HELD_TOKEN)) {
+            heldRequestReceived.countDown();
+            try {
+                heldResponseReleased.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean success = requestBody.contains("secret=" + SECRET_KEY) &&
+                !requestBody.contains("response=" + INVALID_TOKEN);
+        byte[] responseBody = ("{\"success\": " + success + ", \"challenge_ts\": \"2026-01-01T00:00:00Z\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, responseBody.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(responseBody);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.util;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.captcha.connector.CaptchaConnector;
+import org.wso2.carbon.identity.captcha.connector.CaptchaPreValidationResponse;
+import org.wso2.carbon.identity.captcha.exception.CaptchaRequestBodyLimitExceededException;
+import org.wso2.carbon.identity.captcha.filter.CaptchaFilter;
+import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for the bounded buffering of the request bodies of the captcha protected endpoints.
+ */
+public class CaptchaHttpServletRequestWrapperTest {
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+    private static final String WRAPPED_PATH = "/api/identity/recovery/v0.9/recover-password";
+    private static final int MB = 1024 * 1024;
+    private static final int MEMORY_THRESHOLD = 64 * 1024;
+    private static final int LARGE_BODY_SIZE = 8 * MB;
+    private static final int LARGE_REQUEST_COUNT = 10;
+
+    private String previousRequestWrapUrls;
+    private int previousMaxBodySize;
+    private boolean previousReCaptchaEnabled;
+
+    @BeforeMethod
+    public void setUp() {
+
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        previousRequestWrapUrls = dataHolder.getReCaptchaRequestWrapUrls();
+        previousMaxBodySize = dataHolder.getReCaptchaRequestBodyMaxSize();
+        previousReCaptchaEnabled = dataHolder.isReCaptchaEnabled();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        dataHolder.setReCaptchaRequestWrapUrls(previousRequestWrapUrls);
+        dataHolder.setReCaptchaRequestBodyMaxSize(previousMaxBodySize);
+        dataHolder.setReCaptchaEnabled(previousReCaptchaEnabled);
+    }
+
+    @Test
+    public void testSmallBodyKeptInMemory() throws Exception {
+
+        String body = "g-recaptcha-response=token%20value&username=alex&remember&x=1&x=2&%ZZ=invalid";
+        try (CaptchaHttpServletRequestWrapper wrapper = new CaptchaHttpServletRequestWrapper(
+                mockRequest(new FormBodyStream(body, 0, "")), MB, MEMORY_THRESHOLD)) {
+            assertFalse(wrapper.isBodySpilledToFile());
+            assertEquals(wrapper.getBodySize(), body.length());
+            assertEquals(wrapper.getParameter("g-recaptcha-response"), "token value");
+            assertEquals(wrapper.getParameter("username"), "alex");
+            assertEquals(wrapper.getParameter("remember"), "");
+            assertEquals(wrapper.getParameterValues("x"), new String[]{"1", "2"});
+            assertNull(wrapper.getParameter("missing"));
+
+            Map<String, String[]> parameterMap = wrapper.getParameterMap();
+            assertEquals(parameterMap.keySet().size(), 4);
+            assertEquals(parameterMap.get("x"), new String[]{"1", "2"});
+
+            // The body is replayed to every consumer.
+            for (int i = 0; i < 2; i++) {
+                try (InputStream in = wrapper.getInputStream()) {
+                    assertEquals(IOUtils.toString(in, StandardCharsets.UTF_8), body);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLargeBodiesSpilledToFiles() throws Exception {
+
+        int spillFileCount = countSpillFiles();
+
+        List<CaptchaHttpServletRequestWrapper> wrappers = new ArrayList<>();
+        List<File> spillFiles = new ArrayList<>();
+        for (int i = 0; i < LARGE_REQUEST_COUNT; i++) {
+            FormBodyStream bodyStream = new FormBodyStream("g-recaptcha-response=token-" + i + "&filler=",
+                    LARGE_BODY_SIZE, "&username=alex");
+            CaptchaHttpServletRequestWrapper wrapper =
+                    new CaptchaHttpServletRequestWrapper(mockRequest(bodyStream), 2L * LARGE_BODY_SIZE,
+                            MEMORY_THRESHOLD);
+            // The wrappers are kept alive like the wrappers of the concurrent requests.
+            wrappers.add(wrapper);
+
+            assertTrue(wrapper.isBodySpilledToFile());
+            File spillFile = wrapper.getSpillFile();
+            spillFiles.add(spillFile);
+            assertTrue(spillFile.isFile());
+            assertEquals(spillFile.length(), bodyStream.getSize());
+            // Nothing of the body is retained in the heap once it is spilled.
+            assertEquals(wrapper.getInMemoryBodySize(), 0);
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                assertEquals(Files.getPosixFilePermissions(spillFile.toPath()),
+                        PosixFilePermissions.fromString("rw-------"));
+            }
+
+            assertEquals(wrapper.getBodySize(), bodyStream.getSize());
+            assertEquals(wrapper.getParameter("g-recaptcha-response"), "token-" + i);
+            assertEquals(wrapper.getParameter("username"), "alex");
+            // Downstream consumer reading the whole body.
+            assertEquals(drain(wrapper.getInputStream()), bodyStream.getSize());
+        }
+        assertEquals(countSpillFiles(), spillFileCount + LARGE_REQUEST_COUNT);
+
+        for (CaptchaHttpServletRequestWrapper wrapper : wrappers) {
+            wrapper.close();
+        }
+        for (File spillFile : spillFiles) {
+            assertFalse(spillFile.exists());
+        }
+        assertEquals(countSpillFiles(), spillFileCount);
+    }
+
+    @Test
+    public void testBodyUpToThresholdKeptInMemory() throws Exception {
+
+        FormBodyStream bodyStream = new FormBodyStream("filler=", MEMORY_THRESHOLD - "filler=".length(), "");
+        try (CaptchaHttpServletRequestWrapper wrapper = new CaptchaHttpServletRequestWrapper(
+                mockRequest(bodyStream), MB, MEMORY_THRESHOLD)) {
+            assertFalse(wrapper.isBodySpilledToFile());
+            assertNull(wrapper.getSpillFile());
+            assertEquals(wrapper.getInMemoryBodySize(), MEMORY_THRESHOLD);
+        }
+    }
+
+    @Test
+    public void testBodyExceedingMaxSizeRejected() throws Exception {
+
+        int spillFileCount = countSpillFiles();
+        FormBodyStream bodyStream = new FormBodyStream("filler=", 3 * MB, "");
+        try {
+            new CaptchaHttpServletRequestWrapper(mockRequest(bodyStream), 2 * MB, MEMORY_THRESHOLD);
+            fail("Request body exceeding the maximum size should be rejected.");
+        } catch (CaptchaRequestBodyLimitExceededException e) {
+            // Expected.
+        }
+        // Reading stops at the limit and the partially spilled body is deleted.
+        assertTrue(bodyStream.getReadCount() <= 2 * MB + 8192);
+        assertEquals(countSpillFiles(), spillFileCount);
+
+        // Requests declaring a larger content length are rejected without reading the body.
+        bodyStream = new FormBodyStream("filler=", 3 * MB, "");
+        HttpServletRequest request = mockRequest(bodyStream);
+        when(request.getContentLength()).thenReturn((int) bodyStream.getSize());
+        try {
+            new CaptchaHttpServletRequestWrapper(request, 2 * MB, MEMORY_THRESHOLD);
+            fail("Request body exceeding the maximum size should be rejected.");
+        } catch (CaptchaRequestBodyLimitExceededException e) {
+            assertEquals(bodyStream.getReadCount(), 0);
+        }
+    }
+
+    @Test
+    public void testFilterRejectsOversizedBody() throws Exception {
+
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        dataHolder.setReCaptchaEnabled(true);
+        dataHolder.setReCaptchaRequestWrapUrls(WRAPPED_PATH);
+        dataHolder.setReCaptchaRequestBodyMaxSize(MB);
+
+        HttpServletRequest request = mockRequest(new FormBodyStream("filler=", 2 * MB, ""));
+        when(request.getRequestURI()).thenReturn(WRAPPED_PATH);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+
+        new CaptchaFilter().doFilter(request, response, filterChain);
+
+        verify(response).sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        verify(filterChain, never()).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @Test
+    public void testFilterRejectsBodyExceedingConnectorLimit() throws Exception {
+
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        dataHolder.setReCaptchaEnabled(true);
+        dataHolder.setReCaptchaRequestWrapUrls("");
+
+        CaptchaPreValidationResponse preValidationResponse = new CaptchaPreValidationResponse();
+        preValidationResponse.setRequestBodyLimitExceeded(true);
+        CaptchaConnector captchaConnector = mock(CaptchaConnector.class);
+        when(captchaConnector.canHandle(any(ServletRequest.class), any(ServletResponse.class))).thenReturn(true);
+        when(captchaConnector.preValidate(any(ServletRequest.class), any(ServletResponse.class)))
+                .thenReturn(preValidationResponse);
+
+        HttpServletRequest request = mockRequest(new FormBodyStream("filler=", 2 * MB, ""));
+        when(request.getRequestURI()).thenReturn(WRAPPED_PATH);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+
+        dataHolder.addCaptchaConnector(captchaConnector);
+        try {
+            new CaptchaFilter().doFilter(request, response, filterChain);
+        } finally {
+            dataHolder.removeCaptchaConnector(captchaConnector);
+        }
+
+        verify(response).sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        verify(captchaConnector, never()).verifyCaptcha(any(ServletRequest.class), any(ServletResponse.class));
+        verify(filterChain, never()).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    private static HttpServletRequest mockRequest(ServletInputStream bodyStream) throws IOException {
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getInputStream()).thenReturn(bodyStream);
+        when(request.getContentType()).thenReturn(FORM_CONTENT_TYPE);
+        when(request.getContentLength()).thenReturn(-1);
+        return request;
+    }
+
+    private static long drain(InputStream in) throws IOException {
+
+        long size = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream body = in) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    private static int countSpillFiles() {
+
+        File[] spillFiles = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles((dir, name) -> name.startsWith("captcha-request-"));
+        return spillFiles == null ? 0 : spillFiles.length;
+    }
+
+    /**
+     * Form body which is generated while it is read, hence the test itself does not hold the body in the heap.
+     */
+    private static class FormBodyStream extends ServletInputStream {
+
+        private final byte[] prefix;
+        private final long fillerSize;
+        private final byte[] suffix;
+        private long position;
+
+        FormBodyStream(String prefix, long fillerSize, String suffix) {
+
+            this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+            this.fillerSize = fillerSize;
+            this.suffix = suffix.getBytes(StandardCharsets.UTF_8);
+        }
+
+        long getSize() {
+
+            return prefix.length + fillerSize + suffix.length;
+        }
+
+        long getReadCount() {
+
+            return position;
+        }
+
+        @Override
+        public int read() {
+
+            if (position >= getSize()) {
+                return -1;
+            }
+            long index = position++;
+            if (index < prefix.length) {
+                return prefix[(int) index];
+            }
+            if (index < prefix.length + fillerSize) {
+                return 'a';
+            }
+            return suffix[(int) (index - prefix.length - fillerSize)];
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+
+            if (position >= getSize()) {
+                return -1;
+            }
+            int count = 0;
+            while (count < len && position < getSize()) {
+                b[off + count++] = (byte) read();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.captcha.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.captcha.internal.CaptchaDataHolder;
+import org.wso2.carbon.identity.captcha.internal.cache.FailedLoginAttemptCache;
+import org.wso2.carbon.identity.captcha.internal.cache.FailedLoginAttemptCacheEntry;
+import org.wso2.carbon.identity.captcha.internal.cache.FailedLoginAttemptCacheKey;
+import org.wso2.carbon.identity.governance.IdentityGovernanceService;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.tenant.TenantManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the failed login attempt counter of the captcha decisions, against an in-memory user store and the
+ * cluster invalidated caches of two nodes.
+ */
+public class FailedLoginAttemptCounterTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final int TENANT_ID = -1234;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int ACCOUNT_COUNT = 4000;
+    private static final int ATTACKED_ACCOUNT_COUNT = 100;
+    private static final int ROUND_COUNT = 25;
+    private static final long TIME_TO_LIVE = 300000;
+
+    // Failed login attempt claims of the in-memory user store.
+    private final Map<String, Integer> failedAttemptClaims = new ConcurrentHashMap<>();
+    private final AtomicInteger userStoreReadCount = new AtomicInteger();
+    // Cache entries of each node of the cluster.
+    private final List<Map<String, FailedLoginAttemptCacheEntry>> nodeCaches = new ArrayList<>();
+    private final AtomicInteger invalidationCount = new AtomicInteger();
+    private IdentityGovernanceService previousIdentityGovernanceService;
+    private RealmService previousRealmService;
+    private FailedLoginAttemptCounter previousFailedLoginAttemptCounter;
+    private FailedLoginAttemptCounter firstNodeCounter;
+    private FailedLoginAttemptCounter secondNodeCounter;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        failedAttemptClaims.clear();
+        userStoreReadCount.set(0);
+        nodeCaches.clear();
+        invalidationCount.set(0);
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            failedAttemptClaims.put("user-" + i, 0);
+        }
+
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        previousIdentityGovernanceService = dataHolder.getIdentityGovernanceService();
+        previousRealmService = dataHolder.getRealmService();
+        previousFailedLoginAttemptCounter = dataHolder.getFailedLoginAttemptCounter();
+        dataHolder.setIdentityGovernanceService(mockIdentityGovernanceService());
+        dataHolder.setRealmService(mockRealmService());
+
+        firstNodeCounter = new FailedLoginAttemptCounter(mockNodeCache(), TIME_TO_LIVE);
+        secondNodeCounter = new FailedLoginAttemptCounter(mockNodeCache(), TIME_TO_LIVE);
+        dataHolder.setFailedLoginAttemptCounter(firstNodeCounter);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        CaptchaDataHolder dataHolder = CaptchaDataHolder.getInstance();
+        dataHolder.setIdentityGovernanceService(previousIdentityGovernanceService);
+        dataHolder.setRealmService(previousRealmService);
+        dataHolder.setFailedLoginAttemptCounter(previousFailedLoginAttemptCounter);
+    }
+
+    @Test
+    public void testCredentialStuffingDecisionsServedFromCounter() throws Exception {
+
+        int attackDecisionCount = 0;
+        int captchaDecisionCount = 0;
+        for (int round = 0; round < ROUND_COUNT; round++) {
+            for (int i = 0; i < ACCOUNT_COUNT; i++) {
+                String userName = "user-" + i;
+                boolean captchaRequired = CaptchaUtil.isMaximumFailedLoginAttemptsReached(userName, TENANT_DOMAIN);
+                assertEquals(captchaRequired, failedAttemptClaims.get(userName) >= MAX_ATTEMPTS,
+                        "Captcha decision of " + userName + " differs from the user store.");
+                if (captchaRequired) {
+                    captchaDecisionCount++;
+                }
+                if (i < ATTACKED_ACCOUNT_COUNT) {
+                    // Failed attempt, counted in the claim by the account lock handler.
+                    attackDecisionCount++;
+                    failedAttemptClaims.merge(userName, 1, Integer::sum);
+                    CaptchaUtil.clearFailedLoginAttempts(createUser(userName, "PRIMARY"));
+                }
+            }
+        }
+
+        assertTrue(captchaDecisionCount > 0);
+        // Users without failed attempts are read once, while the decisions of the attacked users always read the
+        // user store, with a user lookup and a claim read per decision.
+        assertTrue(userStoreReadCount.get() <= 2 * ACCOUNT_COUNT + 2 * attackDecisionCount,
+                "User store reads of " + ROUND_COUNT * ACCOUNT_COUNT + " decisions: " + userStoreReadCount.get());
+        assertEquals(invalidationCount.get(), attackDecisionCount);
+    }
+
+    @Test
+    public void testFailureInvalidatesCountsOfOtherNodes() throws Exception {
+
+        assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        CaptchaDataHolder.getInstance().setFailedLoginAttemptCounter(secondNodeCounter);
+        assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        assertEquals(secondNodeCounter.getFailedAttempts("user-0", TENANT_DOMAIN,
+                CaptchaConstants.FAILED_LOGIN_ATTEMPTS_CLAIM), Integer.valueOf(0));
+
+        // The failed attempts reach the maximum on the first node.
+        CaptchaDataHolder.getInstance().setFailedLoginAttemptCounter(firstNodeCounter);
+        failedAttemptClaims.put("user-0", MAX_ATTEMPTS);
+        CaptchaUtil.clearFailedLoginAttempts(createUser("user-0", "PRIMARY"));
+
+        // The second node reads the count from the store instead of its cached count.
+        CaptchaDataHolder.getInstance().setFailedLoginAttemptCounter(secondNodeCounter);
+        assertNull(secondNodeCounter.getFailedAttempts("user-0", TENANT_DOMAIN,
+                CaptchaConstants.FAILED_LOGIN_ATTEMPTS_CLAIM));
+        assertTrue(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testUsersWithFailedAttemptsNotCached() throws Exception {
+
+        failedAttemptClaims.put("user-0", 1);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        }
+        assertNull(firstNodeCounter.getFailedAttempts("user-0", TENANT_DOMAIN,
+                CaptchaConstants.FAILED_LOGIN_ATTEMPTS_CLAIM));
+        assertEquals(userStoreReadCount.get(), 20);
+        // The decisions do not invalidate the caches of the cluster.
+        assertEquals(invalidationCount.get(), 0);
+
+        // Reset by a successful login, the user is cached again on the next decision.
+        failedAttemptClaims.put("user-0", 0);
+        assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        assertEquals(userStoreReadCount.get(), 22);
+    }
+
+    @Test
+    public void testDecisionsReadUserStoreWithoutCounter() throws Exception {
+
+        CaptchaDataHolder.getInstance().setFailedLoginAttemptCounter(null);
+        failedAttemptClaims.put("user-0", MAX_ATTEMPTS);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        }
+        assertEquals(userStoreReadCount.get(), 20);
+    }
+
+    @Test
+    public void testUnknownUsersNotCounted() throws Exception {
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("unknown-user", TENANT_DOMAIN));
+        }
+        assertNull(firstNodeCounter.getFailedAttempts("unknown-user", TENANT_DOMAIN,
+                CaptchaConstants.FAILED_LOGIN_ATTEMPTS_CLAIM));
+        // The user is looked up for every decision.
+        assertEquals(userStoreReadCount.get(), 10);
+
+        // A user added later is counted from its claims.
+        failedAttemptClaims.put("unknown-user", MAX_ATTEMPTS);
+        assertTrue(CaptchaUtil.isMaximumFailedLoginAttemptsReached("unknown-user", TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testStaleCountsReadFromStore() throws Exception {
+
+        CaptchaDataHolder.getInstance().setFailedLoginAttemptCounter(new FailedLoginAttemptCounter(mockNodeCache(),
+                200));
+        assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        int readCount = userStoreReadCount.get();
+
+        // Updated by an administrator, outside the authentication flow.
+        failedAttemptClaims.put("user-0", MAX_ATTEMPTS);
+        assertFalse(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        assertEquals(userStoreReadCount.get(), readCount);
+
+        // Counts are read from the store again after the time to live.
+        Thread.sleep(300);
+        assertTrue(CaptchaUtil.isMaximumFailedLoginAttemptsReached("user-0", TENANT_DOMAIN));
+        assertTrue(userStoreReadCount.get() > readCount);
+    }
+
+    @Test
+    public void testCountsOfSecondaryUserStoreUsers() {
+
+        String claimUri = CaptchaConstants.FAILED_LOGIN_ATTEMPTS_CLAIM;
+        firstNodeCounter.setFailedAttempts("alex", TENANT_DOMAIN, claimUri, 0);
+        firstNodeCounter.setFailedAttempts("SECONDARY/alex", TENANT_DOMAIN, claimUri, 0);
+
+        CaptchaUtil.clearFailedLoginAttempts(createUser("alex", "SECONDARY"));
+
+        assertNull(firstNodeCounter.getFailedAttempts("SECONDARY/alex", TENANT_DOMAIN, claimUri));
+        // The count without the domain may belong to the same user, hence it is read from the store again.
+        assertNull(firstNodeCounter.getFailedAttempts("alex", TENANT_DOMAIN, claimUri));
+
+        // Users of the primary user store are counted with or without the domain.
+        firstNodeCounter.setFailedAttempts("PRIMARY/kim", TENANT_DOMAIN, claimUri, 0);
+        assertEquals(firstNodeCounter.getFailedAttempts("kim", TENANT_DOMAIN, claimUri), Integer.valueOf(0));
+        CaptchaUtil.clearFailedLoginAttempts(createUser("kim", "PRIMARY"));
+        assertNull(firstNodeCounter.getFailedAttempts("kim", TENANT_DOMAIN, claimUri));
+        // Counts of the same user name are kept apart per tenant.
+        firstNodeCounter.setFailedAttempts("kim", TENANT_DOMAIN, claimUri, 0);
+        assertNull(firstNodeCounter.getFailedAttempts("kim", "wso2.com", claimUri));
+    }
+
+    /**
+     * Mock the cache of a node. Entries are added to the node only, while removing an entry removes it from every
+     * node, as the cache invalidation of the cluster does.
+     */
+    private FailedLoginAttemptCache mockNodeCache() {
+
+        Map<String, FailedLoginAttemptCacheEntry> entries = new ConcurrentHashMap<>();
+        nodeCaches.add(entries);
+        FailedLoginAttemptCache cache = mock(FailedLoginAttemptCache.class, withSettings().stubOnly());
+        when(cache.getValueFromCache(any(FailedLoginAttemptCacheKey.class), anyString())).thenAnswer(invocation ->
+                entries.get(getCacheKey(invocation.getArgument(0), invocation.getArgument(1))));
+        doAnswer(invocation -> entries.put(getCacheKey(invocation.getArgument(0), invocation.getArgument(2)),
+                invocation.getArgument(1))).when(cache).addToCache(any(FailedLoginAttemptCacheKey.class),
+                any(FailedLoginAttemptCacheEntry.class), anyString());
+        doAnswer(invocation -> {
+            String key = getCacheKey(invocation.getArgument(0), invocation.getArgument(1));
+            if (invocation.<FailedLoginAttemptCacheKey>getArgument(0).getClaimUri()
+                    .equals(CaptchaConstants.FAILED_LOGIN_ATTEMPTS_CLAIM)) {
+                invalidationCount.incrementAndGet();
+            }
+            nodeCaches.forEach(nodeEntries -> nodeEntries.remove(key));
+            return null;
+        }).when(cache).clearCacheEntry(any(FailedLoginAttemptCacheKey.class), anyString());
+        return cache;
+    }
+
+    private static String getCacheKey(FailedLoginAttemptCacheKey key, String tenantDomain) {
+
+        return tenantDomain + "|" + key.getUserName() + "|" + key.getClaimUri();
+    }
+
+    private IdentityGovernanceService mockIdentityGovernanceService() throws Exception {
+
+        Property enableProperty = new Property();
+        enableProperty.setName(CaptchaConstants.SSO_LOGIN_RECAPTCHA_CONNECTOR_NAME +
+                CaptchaConstants.ReCaptchaConnectorPropertySuffixes.ENABLE);
+        enableProperty.setValue("true");
+        Property maxAttemptsProperty = new Property();
+        maxAttemptsProperty.setName(CaptchaConstants.SSO_LOGIN_RECAPTCHA_CONNECTOR_NAME +
+                CaptchaConstants.ReCaptchaConnectorPropertySuffixes.MAX_ATTEMPTS);
+        maxAttemptsProperty.setValue(String.valueOf(MAX_ATTEMPTS));
+
+        IdentityGovernanceService identityGovernanceService =
+                mock(IdentityGovernanceService.class, withSettings().stubOnly());
+        when(identityGovernanceService.getConfiguration(any(String[].class), anyString()))
+                .thenReturn(new Property[]{enableProperty, maxAttemptsProperty});
+        return identityGovernanceService;
+    }
+
+    private RealmService mockRealmService() throws Exception {
+
+        UserStoreManager userStoreManager = mock(UserStoreManager.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            userStoreReadCount.incrementAndGet();
+            return failedAttemptClaims.containsKey(invocation.<String>getArgument(0));
+        }).when(userStoreManager).isExistingUser(anyString());
+        doAnswer(invocation -> {
+            userStoreReadCount.incrementAndGet();
+            Integer failedAttempts = failedAttemptClaims.get(invocation.<String>getArgument(0));
+            String[] claims = invocation.getArgument(1);
+            return failedAttempts == null ? Collections.emptyMap() :
+                    Collections.singletonMap(claims[0], String.valueOf(failedAttempts));
+        }).when(userStoreManager).getUserClaimValues(anyString(), any(String[].class), anyString());
+
+        UserRealm userRealm = mock(UserRealm.class, withSettings().stubOnly());
+        when(userRealm.getUserStoreManager()).thenReturn(userStoreManager);
+        TenantManager tenantManager = mock(TenantManager.class, withSettings().stubOnly());
+        when(tenantManager.getTenantId(TENANT_DOMAIN)).thenReturn(TENANT_ID);
+        RealmService realmService = mock(RealmService.class, withSettings().stubOnly());
+        when(realmService.getTenantManager()).thenReturn(tenantManager);
+        when(realmService.getTenantUserRealm(anyInt())).thenReturn(userRealm);
+        return realmService;
+    }
+
+    private static User createUser(String userName, String userStoreDomain) {
+
+        User user = new User();
+        user.setUserName(userName);
+        user.setUserStoreDomain(userStoreDomain);
+        user.setTenantDomain(TENANT_DOMAIN);
+        return user;
+    }
+}
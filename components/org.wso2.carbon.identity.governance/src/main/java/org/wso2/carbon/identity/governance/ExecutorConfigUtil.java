@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.governance;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the bounded executors of the identity governance components and reads their integer configurations,
+ * so that the components size and configure their pools in the same way.
+ */
+public final class ExecutorConfigUtil {
+
+    private static final Log log = LogFactory.getLog(ExecutorConfigUtil.class);
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    private ExecutorConfigUtil() {
+
+    }
+
+    /**
+     * Create a bounded pool of daemon threads. When the pool is saturated or shut down, a task runs in the thread
+     * which submitted it instead of waiting or failing. Idle threads of the pool are stopped after a minute.
+     *
+     * @param threadNamePrefix Prefix of the names of the pool threads.
+     * @param poolSize         Maximum number of pool threads.
+     * @param queueCapacity    Maximum number of tasks waiting for a pool thread.
+     * @return Caller-runs thread pool.
+     */
+    public static ThreadPoolExecutor createCallerRunsExecutor(String threadNamePrefix, int poolSize,
+                                                              int queueCapacity) {
+
+        if (poolSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Pool size and queue capacity of the executor: " + threadNamePrefix +
+                    " should be positive.");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, pool) -> runnable.run());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Get a positive integer property of the identity.xml.
+     *
+     * @param propertyName Name of the property.
+     * @param defaultValue Value used when the property is not configured or is not a positive integer.
+     * @return Configured value, or the default value.
+     */
+    public static int getPositiveIntProperty(String propertyName, int defaultValue) {
+
+        return parseIntProperty(propertyName, IdentityUtil.getProperty(propertyName), 1, defaultValue);
+    }
+
+    /**
+     * Get a non-negative integer property of the identity.xml, for the properties where zero disables a delay or a
+     * limit.
+     *
+     * @param propertyName Name of the property.
+     * @param defaultValue Value used when the property is not configured or is negative.
+     * @return Configured value, or the default value.
+     */
+    public static int getNonNegativeIntProperty(String propertyName, int defaultValue) {
+
+        return parseIntProperty(propertyName, IdentityUtil.getProperty(propertyName), 0, defaultValue);
+    }
+
+    /**
+     * Get a positive integer property of the given properties.
+     *
+     * @param properties   Properties to read. Can be null.
+     * @param propertyName Name of the property.
+     * @param defaultValue Value used when the property is not configured or is not a positive integer.
+     * @return Configured value, or the default value.
+     */
+    public static int getPositiveIntProperty(Properties properties, String propertyName, int defaultValue) {
+
+        return parseIntProperty(propertyName, properties == null ? null : properties.getProperty(propertyName), 1,
+                defaultValue);
+    }
+
+    private static int parseIntProperty(String propertyName, String value, int minValue, int defaultValue) {
+
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue >= minValue) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // Fall back to the default value below.
+        }
+        log.warn("Invalid value: " + value + " for the property: " + propertyName + ". Using the default value: " +
+                defaultValue);
+        return defaultValue;
+    }
+}
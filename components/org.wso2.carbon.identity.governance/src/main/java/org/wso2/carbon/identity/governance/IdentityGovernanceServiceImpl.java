@@ -31,6 +31,9 @@ import org.wso2.carbon.identity.governance.bean.ConnectorConfig;
 import org.wso2.carbon.identity.governance.common.IdentityConnectorConfig;
 import org.wso2.carbon.identity.governance.exceptions.general.IdentityGovernanceClientException;
 import org.wso2.carbon.identity.governance.internal.IdentityMgtServiceDataHolder;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityGovernanceConfigCache;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityGovernanceConfigCacheEntry;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityGovernanceConfigCacheKey;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementClientException;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementException;
 import org.wso2.carbon.idp.mgt.IdpManager;
@@ -39,9 +42,12 @@ import org.wso2.carbon.idp.mgt.util.IdPManagementUtil;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class which contains exposed identity governance services.
@@ -62,6 +68,12 @@ public class IdentityGovernanceServiceImpl implements IdentityGovernanceService
     private  static final String USERNAME_RECOVERY_EMAIL_ENABLE = "Recovery.Notification.Username.Email.Enable";
     private static final String USERNAME_RECOVERY_SMS_ENABLE = "Recovery.Notification.Username.SMS.Enable";
     private static final String FALSE_STRING = "false";
+    /*
+     * Generation of the governance configuration of each tenant, incremented when the configuration cache of the
+     * tenant is cleared. A snapshot built from the resident IdP is cached only if the generation did not change
+     * while it was built, so that a snapshot read before an update is not cached after the update cleared the cache.
+     */
+    private static final Map<String, AtomicLong> CONFIG_GENERATIONS = new ConcurrentHashMap<>();
 
     public void updateConfiguration(String tenantDomain, Map<String, String> configurationDetails)
             throws IdentityGovernanceException {
@@ -111,6 +123,7 @@ public class IdentityGovernanceServiceImpl implements IdentityGovernanceService
             residentIdp.setFederatedAuthenticatorConfigs(configsToSave.toArray(new
                     FederatedAuthenticatorConfig[configsToSave.size()]));
             identityProviderManager.updateResidentIdP(residentIdp, tenantDomain);
+            clearConfigurationCache(tenantDomain);
         } catch (IdentityProviderManagementClientException e) {
             log.debug("Client error while updating identityManagement properties of Resident IdP.", e);
             throw new IdentityGovernanceClientException(e.getMessage(), e);
@@ -122,8 +135,65 @@ public class IdentityGovernanceServiceImpl implements IdentityGovernanceService
     @Override
     public Property[] getConfiguration(String tenantDomain) throws IdentityGovernanceException {
 
+        return getConfigurationSnapshot(tenantDomain).getProperties();
+    }
+
+    @Override
+    public Property[] getConfiguration(String[] propertyNames, String tenantDomain) throws
+            IdentityGovernanceException {
+
+        IdentityGovernanceConfigCacheEntry configurationSnapshot = getConfigurationSnapshot(tenantDomain);
+        List<Property> requestedProperties = new ArrayList<>(propertyNames.length);
+        for (String propertyName : propertyNames) {
+            Property property = configurationSnapshot.getProperty(propertyName);
+            if (property != null) {
+                requestedProperties.add(property);
+            }
+        }
+        return requestedProperties.toArray(new Property[requestedProperties.size()]);
+    }
+
+    /**
+     * Clear the cached governance configuration snapshot of the given tenant. Cache invalidation is propagated to
+     * the other nodes of the cluster by the underlying cache.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public void clearConfigurationCache(String tenantDomain) {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            return;
+        }
+        CONFIG_GENERATIONS.computeIfAbsent(tenantDomain, key -> new AtomicLong()).incrementAndGet();
+        IdentityGovernanceConfigCache.getInstance().clearCacheEntry(new IdentityGovernanceConfigCacheKey(tenantDomain),
+                tenantDomain);
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the identity governance configuration cache of tenant: " + tenantDomain);
+        }
+    }
+
+    /**
+     * Get the governance configuration snapshot of the tenant from the cache, or build it from the resident IdP
+     * properties if it is not cached.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Governance configuration snapshot of the tenant.
+     * @throws IdentityGovernanceException If an error occurred while retrieving the resident IdP.
+     */
+    private IdentityGovernanceConfigCacheEntry getConfigurationSnapshot(String tenantDomain)
+            throws IdentityGovernanceException {
+
+        IdentityGovernanceConfigCache configCache = IdentityGovernanceConfigCache.getInstance();
+        IdentityGovernanceConfigCacheKey cacheKey = new IdentityGovernanceConfigCacheKey(tenantDomain);
+        IdentityGovernanceConfigCacheEntry configurationSnapshot = configCache.getValueFromCache(cacheKey,
+                tenantDomain);
+        if (configurationSnapshot != null) {
+            return configurationSnapshot;
+        }
+
+        long generation = getConfigGeneration(tenantDomain);
         IdpManager identityProviderManager = IdentityMgtServiceDataHolder.getInstance().getIdpManager();
-        IdentityProvider residentIdp = null;
+        IdentityProvider residentIdp;
         try {
             residentIdp = identityProviderManager.getResidentIdP(tenantDomain);
         } catch (IdentityProviderManagementException e) {
@@ -131,40 +201,35 @@ public class IdentityGovernanceServiceImpl implements IdentityGovernanceService
             throw new IdentityGovernanceException(errorMsg, e);
         }
         IdentityProviderProperty[] identityMgtProperties = residentIdp.getIdpProperties();
-        Property[] configMap = new Property[identityMgtProperties.length];
-        int index = 0;
+        Map<String, String> propertyValues = new LinkedHashMap<>();
         for (IdentityProviderProperty identityMgtProperty : identityMgtProperties) {
-            if (IdentityEventConstants.PropertyConfig.ALREADY_WRITTEN_PROPERTY_KEY
-                    .equals(identityMgtProperty.getName())) {
+            String propertyName = identityMgtProperty.getName();
+            if (IdentityEventConstants.PropertyConfig.ALREADY_WRITTEN_PROPERTY_KEY.equals(propertyName) ||
+                    propertyValues.containsKey(propertyName)) {
                 continue;
             }
-            Property property = new Property();
-            property.setName(identityMgtProperty.getName());
-            property.setValue(identityMgtProperty.getValue());
-            configMap[index] = property;
-            index++;
+            propertyValues.put(propertyName, identityMgtProperty.getValue());
         }
-
-        return configMap;
-    }
-
-    @Override
-    public Property[] getConfiguration(String[] propertyNames, String tenantDomain) throws
-            IdentityGovernanceException {
-
-        List<Property> requestedProperties = new ArrayList<>();
-        Property[] allProperties = getConfiguration(tenantDomain);
-        for (String propertyName : propertyNames) {
-            for (int i = 0; i < allProperties.length; i++) {
-                if (propertyName.equals(allProperties[i].getName())) {
-                    requestedProperties.add(allProperties[i]);
-                    break;
-                }
+        configurationSnapshot = new IdentityGovernanceConfigCacheEntry(propertyValues);
+        if (generation != getConfigGeneration(tenantDomain)) {
+            if (log.isDebugEnabled()) {
+                log.debug("The identity governance configuration of tenant: " + tenantDomain + " was updated " +
+                        "while it was read. Hence the configuration is not cached.");
             }
-
+            return configurationSnapshot;
         }
-        return requestedProperties.toArray(new Property[requestedProperties.size()]);
+        configCache.addToCache(cacheKey, configurationSnapshot, tenantDomain);
+        if (generation != getConfigGeneration(tenantDomain)) {
+            // The cache was cleared between the check and the put, hence remove the snapshot which may be stale.
+            configCache.clearCacheEntry(cacheKey, tenantDomain);
+        }
+        return configurationSnapshot;
+    }
+
+    private static long getConfigGeneration(String tenantDomain) {
 
+        AtomicLong generation = CONFIG_GENERATIONS.get(tenantDomain);
+        return generation != null ? generation.get() : 0;
     }
 
     public List<IdentityConnectorConfig> getConnectorList() throws IdentityGovernanceException {
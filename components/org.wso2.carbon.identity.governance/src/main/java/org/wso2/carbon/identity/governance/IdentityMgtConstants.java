@@ -151,6 +151,15 @@ public class IdentityMgtConstants {
         public static final String EXTENSION_USER_DATA_STORE = "Identity.Mgt.User.Data.Store";
         public static final String EXTENSION_USER_RECOVERY_DATA_STORE = "Identity.Mgt.User.Recovery.Data.Store";
         public static final String NOTIFICATION_LINK_EXPIRE_TIME = "Notification.Expire.Time";
+        // Asynchronous dispatch of fire-and-forget user operation events.
+        public static final String ASYNC_EVENT_DISPATCH_ENABLE = "IdentityMgtEventListener.AsyncEventDispatch.Enable";
+        public static final String ASYNC_EVENT_DISPATCH_EVENTS = "IdentityMgtEventListener.AsyncEventDispatch.Events";
+        public static final String ASYNC_EVENT_DISPATCH_LANE_COUNT =
+                "IdentityMgtEventListener.AsyncEventDispatch.LaneCount";
+        public static final String ASYNC_EVENT_DISPATCH_QUEUE_CAPACITY =
+                "IdentityMgtEventListener.AsyncEventDispatch.QueueCapacity";
+        public static final String ASYNC_EVENT_DISPATCH_OFFER_TIMEOUT =
+                "IdentityMgtEventListener.AsyncEventDispatch.OfferTimeoutInMillis";
         private PropertyConfig() {
 
         }
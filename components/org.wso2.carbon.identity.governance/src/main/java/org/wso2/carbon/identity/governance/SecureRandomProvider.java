@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Provides secure random values for OTP, password and salt generation. Each thread uses its own self-seeded
+ * SecureRandom instance, preferably DRBG, so the generators neither create a new instance for every value nor contend
+ * on a shared one. The instance of a thread is replaced by a freshly seeded one after {@link #RESEED_INTERVAL} uses.
+ */
+public final class SecureRandomProvider {
+
+    /**
+     * Number of uses of a thread's SecureRandom instance after which it is replaced by a freshly seeded instance.
+     */
+    public static final int RESEED_INTERVAL = 10000;
+
+    private static final Log log = LogFactory.getLog(SecureRandomProvider.class);
+    private static final String RANDOM_ALG_DRBG = "DRBG";
+    private static final ThreadLocal<ThreadRandom> THREAD_RANDOM = ThreadLocal.withInitial(ThreadRandom::new);
+
+    private SecureRandomProvider() {
+
+    }
+
+    /**
+     * Get the SecureRandom instance of the current thread. The instance should not be shared with other threads or
+     * kept beyond the current use, since it is replaced periodically.
+     *
+     * @return SecureRandom instance of the current thread.
+     */
+    public static SecureRandom getSecureRandom() {
+
+        return THREAD_RANDOM.get().next();
+    }
+
+    /**
+     * Generate a random string of the given length with characters chosen uniformly from the given alphabet.
+     *
+     * @param alphabet Characters allowed in the string.
+     * @param length   Length of the string.
+     * @return Random string.
+     */
+    public static String generateRandomString(String alphabet, int length) {
+
+        if (alphabet == null || alphabet.isEmpty()) {
+            throw new IllegalArgumentException("Alphabet of the random string cannot be empty.");
+        }
+        SecureRandom secureRandom = getSecureRandom();
+        char[] characters = new char[Math.max(length, 0)];
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = alphabet.charAt(secureRandom.nextInt(alphabet.length()));
+        }
+        return new String(characters);
+    }
+
+    /**
+     * Generate random bytes.
+     *
+     * @param length Number of bytes.
+     * @return Random bytes.
+     */
+    public static byte[] generateRandomBytes(int length) {
+
+        byte[] bytes = new byte[length];
+        getSecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+
+    private static SecureRandom createSecureRandom() {
+
+        try {
+            return SecureRandom.getInstance(RANDOM_ALG_DRBG);
+        } catch (NoSuchAlgorithmException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("DRBG algorithm could not be found. Using the default SecureRandom algorithm.");
+            }
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * SecureRandom instance of a thread with its use count.
+     */
+    private static final class ThreadRandom {
+
+        private SecureRandom secureRandom = createSecureRandom();
+        private int uses;
+
+        private SecureRandom next() {
+
+            if (++uses > RESEED_INTERVAL) {
+                secureRandom = createSecureRandom();
+                uses = 1;
+            }
+            return secureRandom;
+        }
+    }
+}
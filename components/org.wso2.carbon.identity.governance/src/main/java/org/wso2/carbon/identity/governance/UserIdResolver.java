@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityCoreConstants;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.jdbc.JDBCUserStoreManager;
+import org.wso2.carbon.user.core.jdbc.UniqueIDJDBCUserStoreManager;
+import org.wso2.carbon.user.core.util.UserCoreUtil;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * Resolves the user IDs of many users at once. The users are grouped by the user store domain. The user IDs of the
+ * users of a JDBC user store with unique user IDs are read from the UM_USER table with one query per batch of users.
+ * The users of other user stores, and the users which are not found with the query, are resolved one by one.
+ */
+public final class UserIdResolver {
+
+    /**
+     * Default number of users resolved with a single query.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final Log log = LogFactory.getLog(UserIdResolver.class);
+    private static final String GET_USER_IDS_FROM_USER_NAMES = "SELECT UM_USER_NAME, UM_USER_ID FROM UM_USER " +
+            "WHERE UM_TENANT_ID = ? AND UM_USER_NAME IN (";
+    private static final String GET_USER_IDS_FROM_USER_NAMES_CASE_INSENSITIVE = "SELECT UM_USER_NAME, UM_USER_ID " +
+            "FROM UM_USER WHERE UM_TENANT_ID = ? AND LOWER(UM_USER_NAME) IN (";
+    // Name of the field of JDBCUserStoreManager which holds the data source of the user store.
+    private static final String JDBC_DATA_SOURCE_FIELD = "jdbcds";
+
+    private static volatile Field jdbcDataSourceField;
+
+    private UserIdResolver() {
+
+    }
+
+    /**
+     * Resolve the user IDs of the given users.
+     *
+     * @param userStoreManager User store manager of the tenant.
+     * @param usernames        Domain qualified usernames.
+     * @return Map of the username to the user ID, in the order of the given usernames. Users without a user ID are
+     * not included.
+     * @throws UserStoreException If an error occurred while resolving the user IDs.
+     */
+    public static Map<String, String> resolveUserIds(UserStoreManager userStoreManager, Collection<String> usernames)
+            throws UserStoreException {
+
+        return resolveUserIds(userStoreManager, usernames, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Resolve the user IDs of the given users, reading the user IDs of the users of a JDBC user store with one query
+     * per batch of users.
+     *
+     * @param userStoreManager User store manager of the tenant.
+     * @param usernames        Domain qualified usernames.
+     * @param batchSize        Maximum number of users resolved with a single query.
+     * @return Map of the username to the user ID, in the order of the given usernames. Users without a user ID are
+     * not included.
+     * @throws UserStoreException If an error occurred while resolving the user IDs.
+     */
+    public static Map<String, String> resolveUserIds(UserStoreManager userStoreManager, Collection<String> usernames,
+                                                     int batchSize) throws UserStoreException {
+
+        Map<String, String> userIds = new LinkedHashMap<>();
+        if (!(userStoreManager instanceof AbstractUserStoreManager) || usernames == null || usernames.isEmpty()) {
+            return userIds;
+        }
+        AbstractUserStoreManager abstractUserStoreManager = (AbstractUserStoreManager) userStoreManager;
+        Map<String, String> queriedUserIds = new HashMap<>();
+        for (Map.Entry<String, List<String>> domainUsernames : groupByUserStoreDomain(usernames).entrySet()) {
+            queriedUserIds.putAll(queryUserIds(getUserStoreManager(abstractUserStoreManager,
+                    domainUsernames.getKey()), domainUsernames.getValue(), Math.max(batchSize, 1)));
+        }
+
+        int unresolvedCount = 0;
+        for (String username : usernames) {
+            String userId = queriedUserIds.get(username);
+            if (StringUtils.isBlank(userId)) {
+                // The user is not in a JDBC user store or not found with the query, hence resolve the user alone.
+                userId = abstractUserStoreManager.getUserIDFromUserName(username);
+                unresolvedCount++;
+            }
+            if (StringUtils.isNotBlank(userId)) {
+                userIds.put(username, userId);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Resolved the user IDs of " + usernames.size() + " users. " + unresolvedCount +
+                    " users were resolved one by one.");
+        }
+        return userIds;
+    }
+
+    /**
+     * Group the given usernames by the user store domain, keeping the order of the usernames.
+     *
+     * @param usernames Domain qualified usernames.
+     * @return Map of the user store domain to the usernames of the domain.
+     */
+    public static Map<String, List<String>> groupByUserStoreDomain(Collection<String> usernames) {
+
+        Map<String, List<String>> usernamesOfDomains = new LinkedHashMap<>();
+        for (String username : usernames) {
+            usernamesOfDomains.computeIfAbsent(UserCoreUtil.extractDomainFromName(username),
+                    key -> new ArrayList<>()).add(username);
+        }
+        return usernamesOfDomains;
+    }
+
+    /**
+     * Read the user IDs of the given users of a user store domain from the UM_USER table, with one query per batch of
+     * users. Nothing is read if the user store is not a JDBC user store with unique user IDs.
+     *
+     * @param userStoreManager User store manager of the domain.
+     * @param usernames        Domain qualified usernames of the domain.
+     * @param batchSize        Maximum number of users resolved with a single query.
+     * @return Map of the given username to the user ID of the users which are found.
+     * @throws UserStoreException If an error occurred while getting the tenant of the user store.
+     */
+    private static Map<String, String> queryUserIds(UserStoreManager userStoreManager, List<String> usernames,
+                                                    int batchSize) throws UserStoreException {
+
+        if (!(userStoreManager instanceof UniqueIDJDBCUserStoreManager)) {
+            return Collections.emptyMap();
+        }
+        DataSource dataSource = getDataSource((JDBCUserStoreManager) userStoreManager);
+        if (dataSource == null) {
+            return Collections.emptyMap();
+        }
+        boolean isUsernameCaseSensitive = !Boolean.parseBoolean(userStoreManager.getRealmConfiguration()
+                .getUserStoreProperty(IdentityCoreConstants.CASE_INSENSITIVE_USERNAME));
+        int tenantId = userStoreManager.getTenantId();
+        Map<String, String> userIds = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int start = 0; start < usernames.size(); start += batchSize) {
+                List<String> usernamesBatch = usernames.subList(start, Math.min(start + batchSize, usernames.size()));
+                Map<String, String> batchUserIds = queryUserIds(connection, usernamesBatch, tenantId,
+                        isUsernameCaseSensitive);
+                for (String username : usernamesBatch) {
+                    String userId = batchUserIds.get(getUserKey(username, isUsernameCaseSensitive));
+                    if (userId != null) {
+                        userIds.put(username, userId);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // The user store can use a schema of its own, hence resolve the users of the domain one by one.
+            log.warn("Error while reading the user IDs of the users of the user store domain: " +
+                    UserCoreUtil.extractDomainFromName(usernames.get(0)) + ". The users are resolved one by one.", e);
+            return Collections.emptyMap();
+        }
+        return userIds;
+    }
+
+    private static Map<String, String> queryUserIds(Connection connection, List<String> usernames, int tenantId,
+                                                    boolean isUsernameCaseSensitive) throws SQLException {
+
+        String query;
+        if (isUsernameCaseSensitive) {
+            query = GET_USER_IDS_FROM_USER_NAMES + String.join(", ", Collections.nCopies(usernames.size(), "?")) + ")";
+        } else {
+            query = GET_USER_IDS_FROM_USER_NAMES_CASE_INSENSITIVE +
+                    String.join(", ", Collections.nCopies(usernames.size(), "LOWER(?)")) + ")";
+        }
+        Map<String, String> userIds = new HashMap<>();
+        try (PreparedStatement prepStmt = connection.prepareStatement(query)) {
+            int parameterIndex = 1;
+            prepStmt.setInt(parameterIndex++, tenantId);
+            for (String username : usernames) {
+                prepStmt.setString(parameterIndex++, UserCoreUtil.removeDomainFromName(username));
+            }
+            try (ResultSet results = prepStmt.executeQuery()) {
+                while (results.next()) {
+                    userIds.put(getUserKey(results.getString(1), isUsernameCaseSensitive), results.getString(2));
+                }
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * Get the user store manager of the given user store domain.
+     */
+    private static UserStoreManager getUserStoreManager(AbstractUserStoreManager userStoreManager, String domainName) {
+
+        String primaryDomainName = userStoreManager.getRealmConfiguration()
+                .getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME);
+        if (StringUtils.isBlank(primaryDomainName)) {
+            primaryDomainName = UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME;
+        }
+        if (primaryDomainName.equalsIgnoreCase(domainName)) {
+            return userStoreManager;
+        }
+        return userStoreManager.getSecondaryUserStoreManager(domainName);
+    }
+
+    /**
+     * Get the data source of a JDBC user store, so that the user IDs are read with the connection pool of the user
+     * store. The user store manager does not expose its data source, hence it is read from the field which holds it.
+     *
+     * @param userStoreManager JDBC user store manager.
+     * @return Data source of the user store, or null if it can not be read.
+     */
+    private static DataSource getDataSource(JDBCUserStoreManager userStoreManager) {
+
+        try {
+            Field field = jdbcDataSourceField;
+            if (field == null) {
+                field = JDBCUserStoreManager.class.getDeclaredField(JDBC_DATA_SOURCE_FIELD);
+                field.setAccessible(true);
+                jdbcDataSourceField = field;
+            }
+            return (DataSource) field.get(userStoreManager);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not read the data source of the JDBC user store. The users are resolved one by one.",
+                        e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Get the key of a user of a domain, since the user store can match the usernames case insensitively.
+     */
+    private static String getUserKey(String username, boolean isUsernameCaseSensitive) {
+
+        String userKey = UserCoreUtil.removeDomainFromName(username);
+        return isUsernameCaseSensitive ? userKey : userKey.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance.exceptions.general;
+
+import org.wso2.carbon.identity.base.IdentityException;
+
+/**
+ * Exception thrown when a pagination cursor given by a client is not a cursor issued by the identity data store.
+ */
+public class InvalidCursorException extends IdentityException {
+
+    /**
+     * Constructs a new exception with the specified detail message.
+     *
+     * @param message The detail message.
+     */
+    public InvalidCursorException(String message) {
+
+        super(message);
+    }
+
+    /**
+     * Constructs a new exception with the specified detail message and cause.
+     *
+     * @param message The detail message.
+     * @param cause   The cause.
+     */
+    public InvalidCursorException(String message, Throwable cause) {
+
+        super(message, cause);
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.wso2.carbon.identity.governance.internal;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
@@ -27,9 +28,13 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 import org.wso2.carbon.identity.core.ConnectorConfig;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.services.IdentityEventService;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 import org.wso2.carbon.identity.governance.IdentityGovernanceServiceImpl;
+import org.wso2.carbon.identity.governance.IdentityMgtConstants;
 import org.wso2.carbon.identity.governance.common.IdentityConnectorConfig;
 import org.wso2.carbon.identity.governance.internal.service.impl.notification.DefaultNotificationChannelManager;
 import org.wso2.carbon.identity.governance.internal.service.impl.otp.DefaultOTPGenerator;
@@ -37,37 +42,62 @@ import org.wso2.carbon.identity.governance.internal.service.impl.otp.OTPGenerato
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreService;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreServiceImpl;
 import org.wso2.carbon.identity.governance.service.notification.NotificationChannelManager;
+import org.wso2.carbon.identity.governance.listener.AsyncEventDispatcher;
+import org.wso2.carbon.identity.governance.listener.IdentityGovernanceIdPMgtListener;
 import org.wso2.carbon.identity.governance.listener.IdentityMgtEventListener;
 import org.wso2.carbon.identity.governance.listener.IdentityStoreEventListener;
 import org.wso2.carbon.identity.governance.service.otp.OTPGenerator;
 import org.wso2.carbon.idp.mgt.IdpManager;
+import org.wso2.carbon.idp.mgt.listener.IdentityProviderMgtListener;
 import org.wso2.carbon.user.core.listener.UserOperationEventListener;
 import org.wso2.carbon.user.core.service.RealmService;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @Component(
         name = "org.wso2.carbon.identity.governance.internal.IdentityMgtServiceComponent",
         immediate = true)
 public class IdentityMgtServiceComponent {
 
     private static final Log log = LogFactory.getLog(IdentityMgtServiceComponent.class);
+    private static final int DEFAULT_ASYNC_EVENT_DISPATCH_LANE_COUNT = 4;
+    private static final int DEFAULT_ASYNC_EVENT_DISPATCH_QUEUE_CAPACITY = 10000;
+    private static final int DEFAULT_ASYNC_EVENT_DISPATCH_OFFER_TIMEOUT_MILLIS = 100;
+    private static final long ASYNC_EVENT_DISPATCH_SHUTDOWN_TIMEOUT_MILLIS = 30000L;
+    /*
+     * Post deletion events are fire-and-forget by default, as their handlers only clean up data of the removed
+     * entity. Pre events, authentication events and post read events stay synchronous, since their handlers can
+     * reject the operation or modify its result.
+     */
+    private static final List<String> DEFAULT_ASYNC_EVENTS = Arrays.asList(
+            IdentityEventConstants.Event.POST_DELETE_USER,
+            IdentityEventConstants.Event.POST_DELETE_USER_WITH_ID,
+            IdentityEventConstants.Event.POST_DELETE_ROLE);
 
     @Activate
     protected void activate(ComponentContext context) {
 
         try {
+            initAsyncEventDispatcher();
             IdentityMgtEventListener listener = new IdentityMgtEventListener();
             context.getBundleContext().registerService(UserOperationEventListener.class, listener, null);
             // IdentityDataStoreService should be registered before the IdentityStoreEventListener.
-            IdentityDataStoreService identityDataStoreService = new IdentityDataStoreServiceImpl();
+            IdentityDataStoreServiceImpl identityDataStoreService = new IdentityDataStoreServiceImpl();
             context.getBundleContext()
                     .registerService(IdentityDataStoreService.class.getName(), identityDataStoreService, null);
             IdentityMgtServiceDataHolder.getInstance().setIdentityDataStoreService(identityDataStoreService);
+            identityDataStoreService.start();
             context.getBundleContext().registerService(UserOperationEventListener.class, new
                     IdentityStoreEventListener(), null);
             IdentityGovernanceServiceImpl identityGovernanceService = new IdentityGovernanceServiceImpl();
             context.getBundleContext().registerService(IdentityGovernanceService.class, identityGovernanceService,
                     null);
             IdentityMgtServiceDataHolder.getInstance().setIdentityGovernanceService(identityGovernanceService);
+            // Clears the governance configuration cache on resident IdP updates done outside the governance service.
+            context.getBundleContext().registerService(IdentityProviderMgtListener.class,
+                    new IdentityGovernanceIdPMgtListener(), null);
             DefaultNotificationChannelManager defaultNotificationChannelManager =
                     new DefaultNotificationChannelManager();
             context.getBundleContext()
@@ -87,11 +117,53 @@ public class IdentityMgtServiceComponent {
     @Deactivate
     protected void deactivate(ComponentContext context) {
 
+        AsyncEventDispatcher asyncEventDispatcher = IdentityMgtServiceDataHolder.getInstance()
+                .getAsyncEventDispatcher();
+        if (asyncEventDispatcher != null) {
+            IdentityMgtServiceDataHolder.getInstance().setAsyncEventDispatcher(null);
+            asyncEventDispatcher.shutdown(ASYNC_EVENT_DISPATCH_SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        IdentityDataStoreService identityDataStoreService = IdentityMgtServiceDataHolder.getInstance()
+                .getIdentityDataStoreService();
+        if (identityDataStoreService instanceof IdentityDataStoreServiceImpl) {
+            ((IdentityDataStoreServiceImpl) identityDataStoreService).shutdown();
+        }
         if (log.isDebugEnabled()) {
             log.debug("Identity Management bundle is de-activated");
         }
     }
 
+    private void initAsyncEventDispatcher() {
+
+        if (!Boolean.parseBoolean(IdentityUtil.getProperty(
+                IdentityMgtConstants.PropertyConfig.ASYNC_EVENT_DISPATCH_ENABLE))) {
+            return;
+        }
+        String configuredEvents = IdentityUtil.getProperty(
+                IdentityMgtConstants.PropertyConfig.ASYNC_EVENT_DISPATCH_EVENTS);
+        List<String> fireAndForgetEvents = new ArrayList<>();
+        if (StringUtils.isBlank(configuredEvents)) {
+            fireAndForgetEvents.addAll(DEFAULT_ASYNC_EVENTS);
+        } else {
+            for (String eventName : configuredEvents.split(",")) {
+                if (StringUtils.isNotBlank(eventName)) {
+                    fireAndForgetEvents.add(eventName.trim());
+                }
+            }
+        }
+        int laneCount = ExecutorConfigUtil.getPositiveIntProperty(
+                IdentityMgtConstants.PropertyConfig.ASYNC_EVENT_DISPATCH_LANE_COUNT,
+                DEFAULT_ASYNC_EVENT_DISPATCH_LANE_COUNT);
+        int queueCapacity = ExecutorConfigUtil.getPositiveIntProperty(
+                IdentityMgtConstants.PropertyConfig.ASYNC_EVENT_DISPATCH_QUEUE_CAPACITY,
+                DEFAULT_ASYNC_EVENT_DISPATCH_QUEUE_CAPACITY);
+        int offerTimeout = ExecutorConfigUtil.getPositiveIntProperty(
+                IdentityMgtConstants.PropertyConfig.ASYNC_EVENT_DISPATCH_OFFER_TIMEOUT,
+                DEFAULT_ASYNC_EVENT_DISPATCH_OFFER_TIMEOUT_MILLIS);
+        IdentityMgtServiceDataHolder.getInstance().setAsyncEventDispatcher(
+                new AsyncEventDispatcher(fireAndForgetEvents, laneCount, queueCapacity, offerTimeout));
+    }
+
     protected void unsetIdentityEventService(IdentityEventService identityEventService) {
 
         IdentityMgtServiceDataHolder.getInstance().setIdentityEventService(null);
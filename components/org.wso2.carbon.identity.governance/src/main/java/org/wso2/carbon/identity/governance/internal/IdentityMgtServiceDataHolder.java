@@ -19,6 +19,7 @@ package org.wso2.carbon.identity.governance.internal;
 import org.wso2.carbon.identity.event.services.IdentityEventService;
 import org.wso2.carbon.identity.governance.IdentityGovernanceServiceImpl;
 import org.wso2.carbon.identity.governance.common.IdentityConnectorConfig;
+import org.wso2.carbon.identity.governance.listener.AsyncEventDispatcher;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreService;
 import org.wso2.carbon.idp.mgt.IdpManager;
 import org.wso2.carbon.user.core.service.RealmService;
@@ -35,6 +36,7 @@ public class IdentityMgtServiceDataHolder {
     private RealmService realmService;
     private IdentityGovernanceServiceImpl identityGovernanceService;
     private IdentityDataStoreService identityDataStoreService;
+    private AsyncEventDispatcher asyncEventDispatcher;
 
     public static IdentityMgtServiceDataHolder getInstance() {
 
@@ -65,6 +67,21 @@ public class IdentityMgtServiceDataHolder {
         return identityConnectorConfigList;
     }
 
+    /**
+     * Get the dispatcher of the asynchronously handled identity management events.
+     *
+     * @return Asynchronous event dispatcher, or null if asynchronous event dispatch is disabled.
+     */
+    public AsyncEventDispatcher getAsyncEventDispatcher() {
+
+        return asyncEventDispatcher;
+    }
+
+    public void setAsyncEventDispatcher(AsyncEventDispatcher asyncEventDispatcher) {
+
+        this.asyncEventDispatcher = asyncEventDispatcher;
+    }
+
     public IdpManager getIdpManager() {
         return idpManager;
     }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance.internal.cache;
+
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the identity governance configurations of a tenant, indexed by the property name.
+ * Property objects are created per read, so callers can not modify the cached snapshot.
+ */
+public class IdentityGovernanceConfigCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = 4190561738249605337L;
+    private final Map<String, String> propertyValues;
+
+    public IdentityGovernanceConfigCacheEntry(Map<String, String> propertyValues) {
+
+        // LinkedHashMap keeps the resident IdP property order for the full configuration read.
+        this.propertyValues = Collections.unmodifiableMap(new LinkedHashMap<>(propertyValues));
+    }
+
+    /**
+     * Get all the governance properties of the snapshot in the order they were loaded.
+     *
+     * @return Governance properties.
+     */
+    public Property[] getProperties() {
+
+        Property[] properties = new Property[propertyValues.size()];
+        int index = 0;
+        for (Map.Entry<String, String> entry : propertyValues.entrySet()) {
+            properties[index++] = buildProperty(entry.getKey(), entry.getValue());
+        }
+        return properties;
+    }
+
+    /**
+     * Get the governance property for the given name.
+     *
+     * @param propertyName Name of the property.
+     * @return Property if available in the snapshot, null otherwise.
+     */
+    public Property getProperty(String propertyName) {
+
+        if (propertyName == null || !propertyValues.containsKey(propertyName)) {
+            return null;
+        }
+        return buildProperty(propertyName, propertyValues.get(propertyName));
+    }
+
+    private Property buildProperty(String name, String value) {
+
+        Property property = new Property();
+        property.setName(name);
+        property.setValue(value);
+        return property;
+    }
+}
@@ -19,12 +19,11 @@ package org.wso2.carbon.identity.governance.internal.service.impl.otp;
 
 import org.apache.commons.lang.StringUtils;
 import org.wso2.carbon.identity.governance.IdentityMgtConstants;
+import org.wso2.carbon.identity.governance.SecureRandomProvider;
 import org.wso2.carbon.identity.governance.exceptions.otp.OTPGeneratorClientException;
 import org.wso2.carbon.identity.governance.exceptions.otp.OTPGeneratorException;
 import org.wso2.carbon.identity.governance.service.otp.OTPGenerator;
 
-import java.security.SecureRandom;
-
 /**
  * @deprecated
  * {@link org.wso2.carbon.identity.governance.internal.service.impl.otp.OTPGeneratorImpl
@@ -36,6 +35,14 @@ public class DefaultOTPGenerator implements OTPGenerator {
     private static final String SMS_OTP_GENERATE_ALPHABET_CHAR_SET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
     private static final String SMS_OTP_GENERATE_NUMERIC_CHAR_SET = "0123456789";
     private static final String DEFAULT_OTP_GENERATOR = "DefaultOTPGenerator";
+    private static final int USE_NUMERIC = 1;
+    private static final int USE_UPPERCASE_LETTERS = 1 << 1;
+    private static final int USE_LOWERCASE_LETTERS = 1 << 2;
+
+    /**
+     * Precomputed OTP character sets, indexed by the combination of the character type flags.
+     */
+    private static final String[] OTP_CHARACTER_SETS = buildOTPCharacterSets();
 
     /**
      * Generates the OTP based on the provided charSet and length.
@@ -61,13 +68,7 @@ public class DefaultOTPGenerator implements OTPGenerator {
                     IdentityMgtConstants.ErrorMessages.ERROR_CODE_INVALID_OTP_LENGTH.getMessage()
             );
         }
-        SecureRandom secureRandom = new SecureRandom();
-        StringBuilder stringBuilder = new StringBuilder();
-        char[] otpCharacters = charSet.toCharArray();
-        for (int otpCharacterIndex = 0; otpCharacterIndex < otpLength; otpCharacterIndex++) {
-            stringBuilder.append(otpCharacters[secureRandom.nextInt(otpCharacters.length)]);
-        }
-        return stringBuilder.toString();
+        return SecureRandomProvider.generateRandomString(charSet, otpLength);
     }
 
     /**
@@ -90,17 +91,9 @@ public class DefaultOTPGenerator implements OTPGenerator {
                     IdentityMgtConstants.ErrorMessages.ERROR_CODE_INVALID_OTP_CHARACTER_SET.getCode(),
                     IdentityMgtConstants.ErrorMessages.ERROR_CODE_INVALID_OTP_CHARACTER_SET.getMessage());
         }
-        StringBuilder charSet = new StringBuilder();
-        if (useUppercaseLetters) {
-            charSet.append(SMS_OTP_GENERATE_ALPHABET_CHAR_SET);
-        }
-        if (useLowercaseLetters) {
-            charSet.append(SMS_OTP_GENERATE_ALPHABET_CHAR_SET.toLowerCase());
-        }
-        if (useNumeric) {
-            charSet.append(SMS_OTP_GENERATE_NUMERIC_CHAR_SET);
-        }
-        return generateOTP(charSet.toString(), otpLength, recoveryScenario);
+        int characterSetIndex = (useNumeric ? USE_NUMERIC : 0) | (useUppercaseLetters ? USE_UPPERCASE_LETTERS : 0)
+                | (useLowercaseLetters ? USE_LOWERCASE_LETTERS : 0);
+        return generateOTP(OTP_CHARACTER_SETS[characterSetIndex], otpLength, recoveryScenario);
     }
 
     /**
@@ -111,4 +104,23 @@ public class DefaultOTPGenerator implements OTPGenerator {
 
         return DEFAULT_OTP_GENERATOR;
     }
+
+    private static String[] buildOTPCharacterSets() {
+
+        String[] characterSets = new String[(USE_NUMERIC | USE_UPPERCASE_LETTERS | USE_LOWERCASE_LETTERS) + 1];
+        for (int index = 0; index < characterSets.length; index++) {
+            StringBuilder charSet = new StringBuilder();
+            if ((index & USE_UPPERCASE_LETTERS) != 0) {
+                charSet.append(SMS_OTP_GENERATE_ALPHABET_CHAR_SET);
+            }
+            if ((index & USE_LOWERCASE_LETTERS) != 0) {
+                charSet.append(SMS_OTP_GENERATE_ALPHABET_CHAR_SET.toLowerCase());
+            }
+            if ((index & USE_NUMERIC) != 0) {
+                charSet.append(SMS_OTP_GENERATE_NUMERIC_CHAR_SET);
+            }
+            characterSets[index] = charSet.toString();
+        }
+        return characterSets;
+    }
 }
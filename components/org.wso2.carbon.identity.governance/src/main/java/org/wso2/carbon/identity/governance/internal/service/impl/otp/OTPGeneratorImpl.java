@@ -21,10 +21,9 @@ package org.wso2.carbon.identity.governance.internal.service.impl.otp;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.governance.IdentityMgtConstants;
+import org.wso2.carbon.identity.governance.SecureRandomProvider;
 import org.wso2.carbon.identity.governance.service.otp.OTPGenerator;
 
-import java.security.SecureRandom;
-
 /**
  * Default class to generate OTP.
  */
@@ -32,6 +31,14 @@ public class OTPGeneratorImpl implements OTPGenerator {
 
     private static final Log log = LogFactory.getLog(OTPGeneratorImpl.class);
     private static final String OTP_GENERATOR_IMPL = "OTPGeneratorImpl";
+    private static final int USE_NUMERIC = 1;
+    private static final int USE_UPPERCASE_LETTERS = 1 << 1;
+    private static final int USE_LOWERCASE_LETTERS = 1 << 2;
+
+    /**
+     * Precomputed OTP character sets, indexed by the combination of the character type flags.
+     */
+    private static final String[] OTP_CHARACTER_SETS = buildOTPCharacterSets();
 
     /**
      * Generate the OTP according to given length and pattern. If pattern is not defined default pattern will be used.
@@ -57,28 +64,9 @@ public class OTPGeneratorImpl implements OTPGenerator {
                         IdentityMgtConstants.OTPGeneratorConstants.OTP_CODE_MAX_LENGTH + ". Hence using default length for OTP");
             }
         }
-        StringBuilder charSet = new StringBuilder();
-        if (!useNumeric && !useUppercaseLetters && !useLowercaseLetters) {
-            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_UPPERCASE);
-            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_LOWERCASE);
-            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_NUMERIC_CHAR_SET_WITHOUT_ZERO);
-            return generateOTP(charSet.toString(), otpLength, recoveryScenario);
-        }
-        if (useUppercaseLetters) {
-            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_UPPERCASE);
-        }
-        if (useLowercaseLetters) {
-            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_LOWERCASE);
-        }
-        if (useNumeric) {
-            if (useUppercaseLetters || useLowercaseLetters) {
-                charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_NUMERIC_CHAR_SET_WITHOUT_ZERO);
-            } else {
-                charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_NUMERIC_CHAR_SET_WITH_ZERO);
-            }
-
-        }
-        return generateOTP(charSet.toString(), otpLength, recoveryScenario);
+        int characterSetIndex = (useNumeric ? USE_NUMERIC : 0) | (useUppercaseLetters ? USE_UPPERCASE_LETTERS : 0)
+                | (useLowercaseLetters ? USE_LOWERCASE_LETTERS : 0);
+        return generateOTP(OTP_CHARACTER_SETS[characterSetIndex], otpLength, recoveryScenario);
     }
 
     /**
@@ -92,13 +80,7 @@ public class OTPGeneratorImpl implements OTPGenerator {
     @Override
     public String generateOTP(String charSet, int otpLength, String recoveryScenario) {
 
-        SecureRandom secureRandom = new SecureRandom();
-        StringBuilder stringBuilder = new StringBuilder();
-        char[] otpCharacters = charSet.toCharArray();
-        for (int otpCharacterIndex = 0; otpCharacterIndex < otpLength; otpCharacterIndex++) {
-            stringBuilder.append(otpCharacters[secureRandom.nextInt(otpCharacters.length)]);
-        }
-        return stringBuilder.toString();
+        return SecureRandomProvider.generateRandomString(charSet, otpLength);
     }
 
     /**
@@ -109,4 +91,49 @@ public class OTPGeneratorImpl implements OTPGenerator {
 
         return OTP_GENERATOR_IMPL;
     }
+
+    private static String[] buildOTPCharacterSets() {
+
+        String[] characterSets = new String[(USE_NUMERIC | USE_UPPERCASE_LETTERS | USE_LOWERCASE_LETTERS) + 1];
+        for (int index = 0; index < characterSets.length; index++) {
+            characterSets[index] = buildOTPCharacterSet((index & USE_NUMERIC) != 0,
+                    (index & USE_UPPERCASE_LETTERS) != 0, (index & USE_LOWERCASE_LETTERS) != 0);
+        }
+        return characterSets;
+    }
+
+    /**
+     * Build the OTP character set of the given character types. If no character type is selected, all three types
+     * are used.
+     *
+     * @param useNumeric          Whether numeric characters should be used for OTP.
+     * @param useUppercaseLetters Whether uppercase characters should be used for OTP.
+     * @param useLowercaseLetters Whether lowercase characters should be used for OTP.
+     * @return OTP character set.
+     */
+    private static String buildOTPCharacterSet(boolean useNumeric, boolean useUppercaseLetters,
+                                               boolean useLowercaseLetters) {
+
+        StringBuilder charSet = new StringBuilder();
+        if (!useNumeric && !useUppercaseLetters && !useLowercaseLetters) {
+            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_UPPERCASE);
+            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_LOWERCASE);
+            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_NUMERIC_CHAR_SET_WITHOUT_ZERO);
+            return charSet.toString();
+        }
+        if (useUppercaseLetters) {
+            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_UPPERCASE);
+        }
+        if (useLowercaseLetters) {
+            charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_ALPHABET_CHAR_SET_LOWERCASE);
+        }
+        if (useNumeric) {
+            if (useUppercaseLetters || useLowercaseLetters) {
+                charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_NUMERIC_CHAR_SET_WITHOUT_ZERO);
+            } else {
+                charSet.append(IdentityMgtConstants.OTPGeneratorConstants.OTP_GENERATE_NUMERIC_CHAR_SET_WITH_ZERO);
+            }
+        }
+        return charSet.toString();
+    }
 }
@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.services.IdentityEventService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dispatches fire-and-forget identity management events to the identity event service in the background.
+ * Events are queued in a fixed number of bounded lanes, each served by a single worker thread. The lane is selected
+ * by the tenant id and the user name of the event, so the events of a user are handled in the order they were
+ * dispatched. When a lane is full, the caller waits for the event in progress in the lane and then handles the
+ * queued events of the lane along with its own event, which applies back-pressure to the user operations instead of
+ * dropping the event, without letting the event overtake the queued ones.
+ * The handlers run with the tenant and the user name of the caller's carbon context and with a copy of the caller's
+ * identity thread local properties.
+ */
+public class AsyncEventDispatcher {
+
+    private static final Log log = LogFactory.getLog(AsyncEventDispatcher.class);
+
+    private final Set<String> fireAndForgetEvents;
+    private final List<Lane> lanes;
+    private final List<Thread> workers;
+    private final long offerTimeoutMillis;
+    // Whether the thread is handling an event of the dispatcher.
+    private final ThreadLocal<Boolean> handlingEvent = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private volatile boolean shutdown;
+
+    private final AtomicLong submittedEventCount = new AtomicLong();
+    private final AtomicLong dispatchedEventCount = new AtomicLong();
+    private final AtomicLong failedEventCount = new AtomicLong();
+    private final AtomicLong callerHandledEventCount = new AtomicLong();
+
+    /**
+     * Create an asynchronous event dispatcher and start its workers.
+     *
+     * @param fireAndForgetEvents Names of the events which can be handled asynchronously.
+     * @param laneCount           Number of lanes, each served by one worker thread.
+     * @param queueCapacity       Maximum number of pending events per lane.
+     * @param offerTimeoutMillis  Time to wait for space in a full lane before handling the event in the caller.
+     */
+    public AsyncEventDispatcher(Collection<String> fireAndForgetEvents, int laneCount, int queueCapacity,
+                                long offerTimeoutMillis) {
+
+        if (laneCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Lane count and queue capacity of the asynchronous event " +
+                    "dispatcher should be positive.");
+        }
+        this.fireAndForgetEvents = Collections.unmodifiableSet(new HashSet<>(fireAndForgetEvents));
+        this.offerTimeoutMillis = Math.max(0, offerTimeoutMillis);
+        this.lanes = new ArrayList<>(laneCount);
+        this.workers = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            Lane lane = new Lane(queueCapacity);
+            Thread worker = new Thread(lane::process, "IdentityMgtAsyncEventDispatcher-" + i);
+            worker.setDaemon(true);
+            lanes.add(lane);
+            workers.add(worker);
+            worker.start();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Started asynchronous event dispatcher with " + laneCount + " lanes of capacity " +
+                    queueCapacity + " for events: " + this.fireAndForgetEvents);
+        }
+    }
+
+    /**
+     * Check whether the event can be handled asynchronously.
+     *
+     * @param eventName Name of the event.
+     * @return True if the event is a fire-and-forget event.
+     */
+    public boolean isFireAndForget(String eventName) {
+
+        return fireAndForgetEvents.contains(eventName);
+    }
+
+    /**
+     * Queue the event to be handled by the event service. The event is handled in the caller thread, after the
+     * events queued before it in its lane, if the lane stays full for the offer timeout or if the dispatcher is shut
+     * down. Errors of asynchronously handled events are logged, as there is no caller to propagate them to.
+     *
+     * @param tenantId     Tenant id of the event.
+     * @param tenantDomain Tenant domain of the event.
+     * @param event        Event to be handled.
+     * @param eventService Event service which handles the event.
+     */
+    public void dispatch(int tenantId, String tenantDomain, Event event, IdentityEventService eventService) {
+
+        submittedEventCount.incrementAndGet();
+        Map<String, Object> threadLocalProperties = new HashMap<>();
+        if (IdentityUtil.threadLocalProperties.get() != null) {
+            threadLocalProperties.putAll(IdentityUtil.threadLocalProperties.get());
+        }
+        DispatchTask task = new DispatchTask(tenantId, tenantDomain,
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername(), threadLocalProperties, event,
+                eventService);
+        Lane lane = getLane(tenantId, event);
+        try {
+            if (!shutdown && lane.offer(task, offerTimeoutMillis)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        callerHandledEventCount.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Asynchronous event lane of tenant: " + tenantId + " is not available. Handling the event: " +
+                    event.getEventName() + " in the caller thread.");
+        }
+        lane.handleInCaller(task);
+    }
+
+    /**
+     * Stop accepting events and wait until the queued events are handled.
+     *
+     * @param timeoutMillis Maximum time to wait for the queued events.
+     * @return True if all the queued events were handled within the timeout.
+     */
+    public boolean shutdown(long timeoutMillis) {
+
+        shutdown = true;
+        for (Lane lane : lanes) {
+            // The workers drain their lanes before they stop.
+            lane.stop();
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            for (Thread worker : workers) {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean drained = !isAnyWorkerAlive();
+        if (!drained) {
+            log.warn("Asynchronous event dispatcher was not drained within " + timeoutMillis + "ms. Pending " +
+                    "events: " + getQueuedEventCount());
+        } else if (log.isDebugEnabled()) {
+            log.debug("Asynchronous event dispatcher is shut down. Submitted events: " + getSubmittedEventCount() +
+                    ", dispatched events: " + getDispatchedEventCount() + ", failed events: " +
+                    getFailedEventCount() + ", events handled in the caller: " + getCallerHandledEventCount());
+        }
+        return drained;
+    }
+
+    /**
+     * Get the number of events submitted to the dispatcher.
+     *
+     * @return Number of submitted events.
+     */
+    public long getSubmittedEventCount() {
+
+        return submittedEventCount.get();
+    }
+
+    /**
+     * Get the number of events successfully handled by the event service.
+     *
+     * @return Number of dispatched events.
+     */
+    public long getDispatchedEventCount() {
+
+        return dispatchedEventCount.get();
+    }
+
+    /**
+     * Get the number of events whose handling failed.
+     *
+     * @return Number of failed events.
+     */
+    public long getFailedEventCount() {
+
+        return failedEventCount.get();
+    }
+
+    /**
+     * Get the number of events handled in the caller thread due to a full lane or a shut down dispatcher.
+     *
+     * @return Number of events handled in the caller thread.
+     */
+    public long getCallerHandledEventCount() {
+
+        return callerHandledEventCount.get();
+    }
+
+    /**
+     * Get the number of events waiting in the lanes.
+     *
+     * @return Number of queued events.
+     */
+    public int getQueuedEventCount() {
+
+        int queuedEventCount = 0;
+        for (Lane lane : lanes) {
+            queuedEventCount += lane.size();
+        }
+        return queuedEventCount;
+    }
+
+    private Lane getLane(int tenantId, Event event) {
+
+        Object userName = event.getEventProperties() != null ?
+                event.getEventProperties().get(IdentityEventConstants.EventProperty.USER_NAME) : null;
+        return lanes.get(Math.floorMod(31 * tenantId + Objects.hashCode(userName), lanes.size()));
+    }
+
+    private boolean isAnyWorkerAlive() {
+
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handle(DispatchTask task) {
+
+        Map<String, Object> threadLocalProperties = IdentityUtil.threadLocalProperties.get();
+        Map<String, Object> callerThreadLocalProperties = new HashMap<>(threadLocalProperties);
+        boolean nestedEvent = handlingEvent.get();
+        handlingEvent.set(Boolean.TRUE);
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(task.tenantId);
+            carbonContext.setTenantDomain(task.tenantDomain);
+            carbonContext.setUsername(task.userName);
+            threadLocalProperties.clear();
+            threadLocalProperties.putAll(task.threadLocalProperties);
+            task.eventService.handleEvent(task.event);
+            dispatchedEventCount.incrementAndGet();
+        } catch (IdentityEventException | RuntimeException e) {
+            failedEventCount.incrementAndGet();
+            log.error("Error while handling the event: " + task.event.getEventName() + " of tenant: " +
+                    task.tenantDomain + " asynchronously.", e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+            handlingEvent.set(nestedEvent);
+            // Restore the properties of the thread, which belong to the caller when the event is handled in it.
+            threadLocalProperties.clear();
+            threadLocalProperties.putAll(callerThreadLocalProperties);
+        }
+    }
+
+    /**
+     * Bounded queue of events served by a single worker. The events of a lane are handled one at a time, either by
+     * the worker or by a caller which found the lane full, so that they are handled in the order they were queued.
+     */
+    private final class Lane {
+
+        private final Deque<DispatchTask> tasks = new ArrayDeque<>();
+        private final int capacity;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition stateChanged = lock.newCondition();
+        // Thread handling the events of the lane, if any.
+        private Thread handlingThread;
+        private boolean stopped;
+
+        private Lane(int capacity) {
+
+            this.capacity = capacity;
+        }
+
+        private boolean offer(DispatchTask task, long timeoutMillis) throws InterruptedException {
+
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            lock.lock();
+            try {
+                while (!stopped && tasks.size() >= capacity) {
+                    if (remainingNanos <= 0) {
+                        return false;
+                    }
+                    remainingNanos = stateChanged.awaitNanos(remainingNanos);
+                }
+                if (stopped) {
+                    return false;
+                }
+                tasks.addLast(task);
+                stateChanged.signalAll();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Handle the given event in the caller thread, after the event in progress and the queued events of the
+         * lane. An event raised by a handler is handled right away, since waiting for a lane while handling an event
+         * could wait for the thread itself.
+         *
+         * @param task Event to be handled.
+         */
+        private void handleInCaller(DispatchTask task) {
+
+            if (handlingEvent.get()) {
+                handle(task);
+                return;
+            }
+            List<DispatchTask> queuedTasks;
+            lock.lock();
+            try {
+                while (handlingThread != null) {
+                    stateChanged.awaitUninterruptibly();
+                }
+                queuedTasks = new ArrayList<>(tasks);
+                tasks.clear();
+                handlingThread = Thread.currentThread();
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                queuedTasks.forEach(AsyncEventDispatcher.this::handle);
+                handle(task);
+            } finally {
+                release();
+            }
+        }
+
+        private void process() {
+
+            while (true) {
+                DispatchTask task;
+                lock.lock();
+                try {
+                    while (handlingThread != null || tasks.isEmpty()) {
+                        if (stopped && handlingThread == null) {
+                            return;
+                        }
+                        stateChanged.await();
+                    }
+                    task = tasks.pollFirst();
+                    handlingThread = Thread.currentThread();
+                    stateChanged.signalAll();
+                } catch (InterruptedException e) {
+                    log.warn("Asynchronous event dispatcher worker is interrupted. Pending events: " + tasks.size());
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    handle(task);
+                } finally {
+                    release();
+                }
+            }
+        }
+
+        private void release() {
+
+            lock.lock();
+            try {
+                handlingThread = null;
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void stop() {
+
+            lock.lock();
+            try {
+                stopped = true;
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+
+            lock.lock();
+            try {
+                return tasks.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Event queued for dispatching along with the context of the caller which raised it.
+     */
+    private static final class DispatchTask {
+
+        private final int tenantId;
+        private final String tenantDomain;
+        private final String userName;
+        private final Map<String, Object> threadLocalProperties;
+        private final Event event;
+        private final IdentityEventService eventService;
+
+        private DispatchTask(int tenantId, String tenantDomain, String userName,
+                             Map<String, Object> threadLocalProperties, Event event,
+                             IdentityEventService eventService) {
+
+            this.tenantId = tenantId;
+            this.tenantDomain = tenantDomain;
+            this.userName = userName;
+            this.threadLocalProperties = threadLocalProperties;
+            this.event = event;
+            this.eventService = eventService;
+        }
+    }
+}
@@ -1701,22 +1701,24 @@ public class IdentityMgtEventListener extends AbstractIdentityUserOperationEvent
         Event identityMgtEvent = new Event(eventName, properties);
         try {
             int tenantId = userStoreManager.getTenantId();
-            String userTenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-            try {
-                RealmService realmService = IdentityMgtServiceDataHolder.getInstance().getRealmService();
-                TenantManager tenantManager = realmService.getTenantManager();
-                userTenantDomain = tenantManager.getDomain(tenantId);
-            } catch (org.wso2.carbon.user.api.UserStoreException e) {
-                log.error("Unable to get the get the domain from realmService for tenant: " + tenantId, e);
-            }
+            String userTenantDomain = getTenantDomain(tenantId);
+            int contextTenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
 
             properties.put(IdentityEventConstants.EventProperty.USER_STORE_MANAGER, userStoreManager);
-            properties.put(IdentityEventConstants.EventProperty.TENANT_ID, PrivilegedCarbonContext
-                    .getThreadLocalCarbonContext().getTenantId());
+            properties.put(IdentityEventConstants.EventProperty.TENANT_ID, contextTenantId);
             properties.put(IdentityEventConstants.EventProperty.TENANT_DOMAIN, userTenantDomain);
 
             if (!TenantMgtUtil.isTenantAdminCreationOperation()) {
-                eventMgtService.handleEvent(identityMgtEvent);
+                AsyncEventDispatcher asyncEventDispatcher =
+                        IdentityMgtServiceDataHolder.getInstance().getAsyncEventDispatcher();
+                if (asyncEventDispatcher != null && asyncEventDispatcher.isFireAndForget(eventName)) {
+                    // Handlers run with the tenant of the caller's carbon context, as in the synchronous flow.
+                    asyncEventDispatcher.dispatch(contextTenantId,
+                            PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(),
+                            identityMgtEvent, eventMgtService);
+                } else {
+                    eventMgtService.handleEvent(identityMgtEvent);
+                }
             }
         } catch (IdentityEventException e) {
             String errorCode = e.getErrorCode();
@@ -1743,6 +1745,31 @@ public class IdentityMgtEventListener extends AbstractIdentityUserOperationEvent
         }
     }
 
+    /**
+     * Get the tenant domain of the tenant. The domain of the carbon context is used when the event belongs to the
+     * tenant of the context. Otherwise the domain is resolved by the tenant manager, which caches the tenants and
+     * keeps them in sync with the tenant changes, and failed lookups fall back to the domain of the carbon context.
+     *
+     * @param tenantId Tenant id.
+     * @return Tenant domain.
+     */
+    private String getTenantDomain(int tenantId) {
+
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        String tenantDomain = carbonContext.getTenantDomain();
+        if (tenantDomain != null && carbonContext.getTenantId() == tenantId) {
+            return tenantDomain;
+        }
+        try {
+            RealmService realmService = IdentityMgtServiceDataHolder.getInstance().getRealmService();
+            TenantManager tenantManager = realmService.getTenantManager();
+            tenantDomain = tenantManager.getDomain(tenantId);
+        } catch (org.wso2.carbon.user.api.UserStoreException e) {
+            log.error("Unable to get the get the domain from realmService for tenant: " + tenantId, e);
+        }
+        return tenantDomain;
+    }
+
     public boolean doPostGetUserClaimValue(String userName, String claim, List<String> claimValue, String profileName, UserStoreManager storeManager) throws UserStoreException {
 
         if (!isEnable()) {
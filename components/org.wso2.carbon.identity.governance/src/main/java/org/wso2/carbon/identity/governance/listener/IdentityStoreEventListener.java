@@ -45,6 +45,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -735,6 +736,9 @@ public class IdentityStoreEventListener extends AbstractIdentityUserOperationEve
             return true;
         }
 
+        // Group the users by the user store domain, so that the identity data of each domain is loaded at once.
+        Map<String, List<UserClaimSearchEntry>> userClaimSearchEntriesOfDomains = new LinkedHashMap<>();
+        Map<String, UserStoreManager> userStoreManagersOfDomains = new HashMap<>();
         for (UserClaimSearchEntry userClaimSearchEntry : userClaimSearchEntries) {
 
             String username = userClaimSearchEntry.getUserName();
@@ -747,9 +751,15 @@ public class IdentityStoreEventListener extends AbstractIdentityUserOperationEve
                 continue;
             }
 
+            String domainName = UserCoreUtil.extractDomainFromName(username);
+            UserStoreManager secondaryUserStoreManager = userStoreManagersOfDomains.get(domainName);
+            if (secondaryUserStoreManager == null) {
+                secondaryUserStoreManager = userStoreManager.getSecondaryUserStoreManager(domainName);
+                userStoreManagersOfDomains.put(domainName, secondaryUserStoreManager);
+            }
+
             // No need to separately handle if identity data store is user store based for the users' userstore domain.
-            if (isStoreIdentityClaimsInUserStoreEnabled(userStoreManager
-                    .getSecondaryUserStoreManager(UserCoreUtil.extractDomainFromName(username)))) {
+            if (isStoreIdentityClaimsInUserStoreEnabled(secondaryUserStoreManager)) {
                 continue;
             }
 
@@ -772,20 +782,33 @@ public class IdentityStoreEventListener extends AbstractIdentityUserOperationEve
                         entry -> entry.getKey().contains(UserCoreConstants.ClaimTypeURIs.IDENTITY_CLAIM_URI_PREFIX));
             }
 
-            // There is/are identity claim/s load the dto.
-            UserIdentityClaim identityDTO = identityDataStoreService
-                    .getIdentityClaimData(userClaimSearchEntry.getUserName(), userStoreManager
-                    .getSecondaryUserStoreManager(UserCoreUtil.extractDomainFromName(username)));
+            userClaimSearchEntriesOfDomains.computeIfAbsent(domainName, key -> new ArrayList<>())
+                    .add(userClaimSearchEntry);
+        }
 
-            // If no user identity data found, just continue.
-            if (identityDTO == null) {
-                continue;
+        for (Map.Entry<String, List<UserClaimSearchEntry>> domainEntries : userClaimSearchEntriesOfDomains.entrySet()) {
+            List<String> usernames = new ArrayList<>(domainEntries.getValue().size());
+            for (UserClaimSearchEntry userClaimSearchEntry : domainEntries.getValue()) {
+                usernames.add(userClaimSearchEntry.getUserName());
             }
 
-            // Data found, add the values for security questions and identity claims.
-            for (String claim : claims) {
-                if (identityDTO.getUserIdentityDataMap().containsKey(claim)) {
-                    userClaimSearchEntry.getClaims().put(claim, identityDTO.getUserIdentityDataMap().get(claim));
+            // There is/are identity claim/s load the dtos of all the users of the domain.
+            Map<String, UserIdentityClaim> identityDTOs = identityDataStoreService.getIdentityClaimData(usernames,
+                    userStoreManagersOfDomains.get(domainEntries.getKey()));
+
+            for (UserClaimSearchEntry userClaimSearchEntry : domainEntries.getValue()) {
+                UserIdentityClaim identityDTO = identityDTOs.get(userClaimSearchEntry.getUserName());
+
+                // If no user identity data found, just continue.
+                if (identityDTO == null) {
+                    continue;
+                }
+
+                // Data found, add the values for security questions and identity claims.
+                for (String claim : claims) {
+                    if (identityDTO.getUserIdentityDataMap().containsKey(claim)) {
+                        userClaimSearchEntry.getClaims().put(claim, identityDTO.getUserIdentityDataMap().get(claim));
+                    }
                 }
             }
         }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance.model;
+
+import org.wso2.carbon.identity.governance.exceptions.general.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of usernames returned by a cursor based listing, with the cursor to retrieve the next page.
+ */
+public class UserNamePage {
+
+    private final List<String> userNames;
+    private final String nextCursor;
+
+    public UserNamePage(List<String> userNames, String nextCursor) {
+
+        this.userNames = userNames != null ? Collections.unmodifiableList(userNames) : Collections.emptyList();
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get the usernames of the page.
+     *
+     * @return Usernames of the page.
+     */
+    public List<String> getUserNames() {
+
+        return userNames;
+    }
+
+    /**
+     * Get the opaque cursor to retrieve the next page.
+     *
+     * @return Cursor of the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+
+    /**
+     * Create a page of a listing which can not seek after the last username of the previous page. The cursor of the
+     * next page keeps the offset of the next page in the listing.
+     *
+     * @param userNames Usernames of the page.
+     * @param offset    Zero based offset of the page in the listing.
+     * @param limit     Maximum number of usernames of the page.
+     * @return Page of usernames, without a next cursor if the page is not full.
+     */
+    public static UserNamePage ofOffset(List<String> userNames, int offset, int limit) {
+
+        if (userNames == null || userNames.size() < limit) {
+            return new UserNamePage(userNames, null);
+        }
+        return new UserNamePage(userNames, toOffsetCursor(offset + userNames.size()));
+    }
+
+    /**
+     * Create a page of a listing which can only return all the usernames at once. The usernames are ordered, hence
+     * the pages of an iteration are taken from the same order, and the cursor keeps the offset of the next page.
+     *
+     * @param allUserNames All the usernames of the listing.
+     * @param limit        Maximum number of usernames of the page.
+     * @param cursor       Cursor of the previous page, or null for the first page.
+     * @return Page of usernames.
+     * @throws InvalidCursorException If the cursor does not keep an offset.
+     */
+    public static UserNamePage ofAllUserNames(List<String> allUserNames, int limit, String cursor)
+            throws InvalidCursorException {
+
+        int offset = fromOffsetCursor(cursor);
+        if (limit <= 0 || allUserNames == null || offset >= allUserNames.size()) {
+            return new UserNamePage(Collections.emptyList(), null);
+        }
+        List<String> sortedUserNames = new ArrayList<>(allUserNames);
+        Collections.sort(sortedUserNames);
+        return ofOffset(new ArrayList<>(sortedUserNames.subList(offset, Math.min(offset + limit,
+                sortedUserNames.size()))), offset, limit);
+    }
+
+    /**
+     * Get the cursor which keeps the given offset of a listing.
+     *
+     * @param offset Zero based offset of the next page in the listing.
+     * @return Cursor of the next page.
+     */
+    public static String toOffsetCursor(int offset) {
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the offset kept in a cursor created with {@link #toOffsetCursor(int)}.
+     *
+     * @param cursor Cursor of the page, or null for the first page.
+     * @return Zero based offset of the page in the listing.
+     * @throws InvalidCursorException If the cursor does not keep an offset.
+     */
+    public static int fromOffsetCursor(String cursor) throws InvalidCursorException {
+
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (offset >= 0) {
+                return offset;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid pagination cursor: " + cursor, e);
+        }
+        throw new InvalidCursorException("Invalid pagination cursor: " + cursor);
+    }
+}
@@ -20,12 +20,16 @@ package org.wso2.carbon.identity.governance.service;
 
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.governance.model.UserIdentityClaim;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.user.core.UserStoreException;
 import org.wso2.carbon.user.core.UserStoreManager;
 import org.wso2.carbon.user.core.model.Condition;
 import org.wso2.carbon.user.core.model.ExpressionCondition;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -56,6 +60,26 @@ public interface IdentityDataStoreService {
      */
     UserIdentityClaim getIdentityClaimData(String username, UserStoreManager userStoreManager);
 
+    /**
+     * Get identity claim data from the identity data store for a set of users of the same user store.
+     *
+     * @param usernames         Usernames of the users.
+     * @param userStoreManager  User store manager of the user store which the users belong to.
+     * @return                  Map of the username to the identity claim data of the user.
+     */
+    default Map<String, UserIdentityClaim> getIdentityClaimData(Collection<String> usernames,
+                                                                UserStoreManager userStoreManager) {
+
+        Map<String, UserIdentityClaim> identityClaimData = new HashMap<>();
+        for (String username : usernames) {
+            UserIdentityClaim userIdentityClaim = getIdentityClaimData(username, userStoreManager);
+            if (userIdentityClaim != null) {
+                identityClaimData.put(username, userIdentityClaim);
+            }
+        }
+        return identityClaimData;
+    }
+
     /**
      * Return an array of user who have the given claim URI and claim value.
      *
@@ -85,6 +109,34 @@ public interface IdentityDataStoreService {
                                                       String domain, UserStoreManager userStoreManager,
                                                       int limit, int offset) throws IdentityException;
 
+    /**
+     * Return a page of users who match the given expression conditions, starting after the given cursor.
+     * Implementations which do not override this method are paged with
+     * {@link #listPaginatedUsersByClaimURIAndValue}, keeping the offset in the cursor.
+     *
+     * @param expressionConditions              List of expression conditions.
+     * @param domain                            Domain name.
+     * @param userStoreManager                  User store manager.
+     * @param limit                             Maximum number of users of the page.
+     * @param cursor                            Cursor of the previous page, or null for the first page.
+     * @return                                  Page of usernames with the cursor of the next page.
+     * @throws IdentityException                Identity exception.
+     */
+    default UserNamePage listUsersByClaimURIAndValueAfterCursor(List<ExpressionCondition> expressionConditions,
+                                                                String domain, UserStoreManager userStoreManager,
+                                                                int limit, String cursor)
+            throws IdentityException {
+
+        if (limit <= 0) {
+            return new UserNamePage(Collections.emptyList(), null);
+        }
+        int offset = UserNamePage.fromOffsetCursor(cursor);
+        // The offsets of the paginated user listing start from 1.
+        List<String> userNames = listPaginatedUsersByClaimURIAndValue(expressionConditions, new ArrayList<>(),
+                domain, userStoreManager, limit, offset + 1);
+        return UserNamePage.ofOffset(userNames, offset, limit);
+    }
+
     /**
      * Remove identity claims data of a user from the identity data store.
      *
@@ -148,6 +200,40 @@ public interface IdentityDataStoreService {
     List<String> getUserNamesBetweenProvidedClaimValues(String claimURI, String startValue, String endValue,
                                                         int tenantId) throws IdentityException;
 
+    /**
+     * Get a page of usernames who have the claim value in the provided range for a given claim URI, starting after
+     * the given cursor. The range of the first page is kept in the cursor, hence all the pages of an iteration are
+     * filtered with the same range. Implementations which do not override this method list all the users in the range
+     * given with each page, and take the page from the ordered usernames.
+     *
+     * @param claimURI              Claim URI.
+     * @param lowerValue            Exclusive lower bound of the claim value, or null for no lower bound.
+     * @param upperValue            Exclusive upper bound of the claim value, or null for no upper bound.
+     * @param tenantId              Tenant ID.
+     * @param limit                 Maximum number of usernames of the page.
+     * @param cursor                Cursor of the previous page, or null for the first page.
+     * @return                      Page of usernames with the cursor of the next page.
+     * @throws IdentityException    Identity exception.
+     */
+    default UserNamePage listUserNamesByClaimValueRangeAfterCursor(String claimURI, String lowerValue,
+                                                                   String upperValue, int tenantId, int limit,
+                                                                   String cursor) throws IdentityException {
+
+        if (lowerValue != null && upperValue != null) {
+            return UserNamePage.ofAllUserNames(getUserNamesBetweenProvidedClaimValues(claimURI, lowerValue,
+                    upperValue, tenantId), limit, cursor);
+        }
+        if (upperValue != null) {
+            return UserNamePage.ofAllUserNames(getUserNamesLessThanProvidedClaimValue(claimURI, upperValue,
+                    tenantId), limit, cursor);
+        }
+        if (lowerValue != null) {
+            return UserNamePage.ofAllUserNames(getUserNamesMoreThanProvidedClaimValue(claimURI, lowerValue,
+                    tenantId), limit, cursor);
+        }
+        throw new IdentityException("A lower or an upper claim value is required to filter users by a range.");
+    }
+
     /**
      * Get the list of usernames who have the claim value less than the provided claim value for a given claim URI
      * and include or exclude the users with the boolean isIncluded
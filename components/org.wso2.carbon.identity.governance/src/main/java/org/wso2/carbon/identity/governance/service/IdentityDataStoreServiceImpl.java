@@ -23,6 +23,7 @@ import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.model.IdentityErrorMsgContext;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.governance.model.UserIdentityClaim;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.identity.governance.store.JDBCIdentityDataStore;
 import org.wso2.carbon.identity.governance.store.UserIdentityDataStore;
 import org.wso2.carbon.identity.governance.store.UserStoreBasedIdentityDataStore;
@@ -32,6 +33,7 @@ import org.wso2.carbon.user.core.UserStoreManager;
 import org.wso2.carbon.user.core.model.Condition;
 import org.wso2.carbon.user.core.model.ExpressionCondition;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -136,6 +138,13 @@ public class IdentityDataStoreServiceImpl implements IdentityDataStoreService {
         return identityDataStore.load(username, userStoreManager);
     }
 
+    @Override
+    public Map<String, UserIdentityClaim> getIdentityClaimData(Collection<String> usernames,
+                                                               UserStoreManager userStoreManager) {
+
+        return identityDataStore.loadAll(usernames, userStoreManager);
+    }
+
     @Override
     public List<String> listUsersByClaimURIAndValue(String claimURI, String claimValue,
                                                     UserStoreManager userStoreManager) throws IdentityException {
@@ -153,6 +162,15 @@ public class IdentityDataStoreServiceImpl implements IdentityDataStoreService {
                 userStoreManager, limit, offset);
     }
 
+    @Override
+    public UserNamePage listUsersByClaimURIAndValueAfterCursor(List<ExpressionCondition> expressionConditions,
+                                                               String domain, UserStoreManager userStoreManager,
+                                                               int limit, String cursor) throws IdentityException {
+
+        return identityDataStore.listUserNamesAfterCursor(expressionConditions, domain, userStoreManager, limit,
+                cursor);
+    }
+
     @Override
     public void removeIdentityClaims(String username, UserStoreManager userStoreManager) throws IdentityException {
 
@@ -188,6 +206,15 @@ public class IdentityDataStoreServiceImpl implements IdentityDataStoreService {
         return identityDataStore.getUserNamesBetweenProvidedClaimValues(claimURI, startValue, endValue, tenantId);
     }
 
+    @Override
+    public UserNamePage listUserNamesByClaimValueRangeAfterCursor(String claimURI, String lowerValue,
+                                                                  String upperValue, int tenantId, int limit,
+                                                                  String cursor) throws IdentityException {
+
+        return identityDataStore.listUserNamesByClaimValueRangeAfterCursor(claimURI, lowerValue, upperValue,
+                tenantId, limit, cursor);
+    }
+
     @Override
     public List<String> getUserNamesLessThanClaimWithNestedClaim(String claimURI,
                                                                  String claimValue,
@@ -219,6 +246,26 @@ public class IdentityDataStoreServiceImpl implements IdentityDataStoreService {
         return identityDataStore instanceof UserStoreBasedIdentityDataStore;
     }
 
+    /**
+     * Start the background tasks of the identity data store.
+     */
+    public void start() {
+
+        if (identityDataStore instanceof JDBCIdentityDataStore) {
+            ((JDBCIdentityDataStore) identityDataStore).startNumericDataIndexer();
+        }
+    }
+
+    /**
+     * Stop the background tasks of the identity data store.
+     */
+    public void shutdown() {
+
+        if (identityDataStore instanceof JDBCIdentityDataStore) {
+            ((JDBCIdentityDataStore) identityDataStore).shutdown();
+        }
+    }
+
     /**
      * Check weather the given user store has enabled the property "StoreIdentityClaims" to store identity claims
      * in the user store.
@@ -24,10 +24,14 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
+import org.wso2.carbon.identity.governance.exceptions.general.InvalidCursorException;
 import org.wso2.carbon.identity.governance.model.UserIdentityClaim;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.api.UserStoreManager;
 import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
 import org.wso2.carbon.user.core.model.Condition;
 import org.wso2.carbon.user.core.model.ExpressionCondition;
 import org.wso2.carbon.user.core.model.ExpressionOperation;
@@ -36,17 +40,32 @@ import org.wso2.carbon.user.core.util.UserCoreUtil;
 import org.wso2.carbon.utils.dbcreator.DatabaseCreator;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -65,6 +84,41 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
     private static final String ORACLE = "oracle";
     private static final String POSTGRE_SQL = "postgresql";
     private static final String MYSQL = "mysql";
+    private static final String H2 = "h2";
+    private static final int MAX_STORE_ATTEMPTS = 2;
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS = "23";
+    private static final int MAX_USERS_PER_LOAD_QUERY = 100;
+    private static final String NUMERIC_DATA_TABLE = "IDN_IDENTITY_USER_DATA_NUMERIC";
+    private static final int NUMERIC_DATA_BACKFILL_BATCH_SIZE = 1000;
+    private static final String NUMERIC_DATA_STATE_TABLE = "IDN_IDENTITY_DATA_NUM_STATE";
+    private static final String NUMERIC_DATA_BACKFILL_COMPLETED = "BACKFILL_COMPLETED";
+    private static final String NUMERIC_DATA_BACKFILL_LEASE = "BACKFILL_LEASE";
+    private static final String NUMERIC_DATA_BACKFILL_LEASE_SEPARATOR = ":";
+    private static final long NUMERIC_DATA_BACKFILL_LEASE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final String NUMERIC_DATA_INDEX_INTERVAL = "IdentityDataStore.NumericData.IndexIntervalInMinutes";
+    private static final int DEFAULT_NUMERIC_DATA_INDEX_INTERVAL_MINUTES = 60;
+    // Separator of the values of a range cursor, which is not used by the URL safe Base64 encoding.
+    private static final String RANGE_CURSOR_SEPARATOR = ".";
+
+    /*
+     * Epoch time valued identity data keys. The values of these keys are also kept as BIGINT values in the
+     * IDN_IDENTITY_USER_DATA_NUMERIC table, so that range filters compare them numerically with an index.
+     */
+    private static final List<String> NUMERIC_DATA_KEYS = Collections.unmodifiableList(Arrays.asList(
+            LAST_LOGON_TIME,
+            "http://wso2.org/claims/identity/lastLoginTime",
+            "http://wso2.org/claims/identity/lastPasswordUpdateTime",
+            "http://wso2.org/claims/identity/accountLockedTime"));
+
+    private volatile String databaseType;
+    private volatile Boolean numericDataTableAvailable;
+    private volatile Boolean numericDataStateTableAvailable;
+    private volatile boolean numericDataBackfilled;
+    private volatile ScheduledExecutorService numericDataIndexer;
+    private boolean numericDataIndexerStopped;
+    private final String nodeId = UUID.randomUUID().toString();
+    // Back fill lease held by this node, as stored in the IDN_IDENTITY_DATA_NUM_STATE table.
+    private volatile String numericDataBackfillLease;
 
     @Override
     public void store(UserIdentityClaim userIdentityDTO, UserStoreManager userStoreManager)
@@ -94,42 +148,170 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
 
         Connection connection = IdentityDatabaseUtil.getDBConnection();
         try {
-            Map<String, String> existingDataValues = getUserDataValues(connection, userName, tenantId);
-            Map<String, String> newClaims = new HashMap<>();
-            Map<String, String> availableClaims = new HashMap<>();
-
-            // Divide claim list to already available claims (need to update those) and new claims (need to add those)
-            for (Map.Entry<String, String> entry : data.entrySet()) {
-                String key = entry.getKey();
-                String value = entry.getValue();
-                if (existingDataValues.containsKey(key)) {
-                    String existingValue = existingDataValues.get(key);
-                    if (existingValue == null || !existingValue.equals(value)) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    persistUserDataValues(connection, userName, tenantId, data);
+                    IdentityDatabaseUtil.commitTransaction(connection);
+                    break;
+                } catch (SQLException e) {
+                    IdentityDatabaseUtil.rollbackTransaction(connection);
+                    // A concurrent store inserted the same key. The data values are read again in the next attempt.
+                    if (attempt < MAX_STORE_ATTEMPTS && isIntegrityConstraintViolation(e)) {
                         if (log.isDebugEnabled()) {
-                            log.debug("Key:" + key + ", Value:" + value + " to be updated for user:" + userName
-                                    + " in JDBCIdentityDataStore");
+                            log.debug("Retrying to persist the identity data of user: " + userName +
+                                    " due to a concurrent update.", e);
                         }
-                        availableClaims.put(key, value);
+                        continue;
                     }
-                } else {
+                    log.error("Error while persisting user identity data", e);
+                    break;
+                }
+            }
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Persist the identity data of a user. The data are compared with the persisted data values, and only the new
+     * and the changed values are written, with a single batched upsert statement if the database supports it,
+     * otherwise with batched inserts and updates. The numeric values of the changed epoch time valued data are
+     * replaced as well.
+     *
+     * @param connection Database connection.
+     * @param userName   Domain qualified username.
+     * @param tenantId   Tenant ID.
+     * @param data       Identity data of the user.
+     * @throws SQLException If an error occurred while persisting the data.
+     */
+    private void persistUserDataValues(Connection connection, String userName, int tenantId,
+                                       Map<String, String> data) throws SQLException {
+
+        Map<String, String> existingDataValues = getUserDataValues(connection, userName, tenantId);
+        Map<String, String> newClaims = new HashMap<>();
+        Map<String, String> availableClaims = new HashMap<>();
+
+        // Divide claim list to already available claims (need to update those) and new claims (need to add those)
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (existingDataValues.containsKey(key)) {
+                String existingValue = existingDataValues.get(key);
+                if (existingValue == null || !existingValue.equals(value)) {
                     if (log.isDebugEnabled()) {
-                        log.debug("Key:" + key + ", Value:" + value + " to be added for user:" + userName + " in "
-                                + "JDBCIdentityDataStore");
+                        log.debug("Key:" + key + ", Value:" + value + " to be updated for user:" + userName
+                                + " in JDBCIdentityDataStore");
                     }
-                    newClaims.put(key, value);
+                    availableClaims.put(key, value);
+                }
+            } else {
+                if (log.isDebugEnabled()) {
+                    log.debug("Key:" + key + ", Value:" + value + " to be added for user:" + userName + " in "
+                            + "JDBCIdentityDataStore");
                 }
+                newClaims.put(key, value);
             }
+        }
+        if (newClaims.isEmpty() && availableClaims.isEmpty()) {
+            return;
+        }
 
+        Map<String, String> changedClaims = new HashMap<>(newClaims);
+        changedClaims.putAll(availableClaims);
+        boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreInUsernameCaseSensitive(userName, tenantId);
+        String upsertQuery = getUpsertUserDataQuery(connection, isUsernameCaseSensitive);
+        if (upsertQuery != null) {
+            // A value added by a concurrent store after the data values were read is overwritten instead of failing.
+            upsertUserDataValues(connection, upsertQuery, userName, tenantId, changedClaims);
+        } else {
             addUserDataValues(connection, userName, tenantId, newClaims);
             updateUserDataValues(connection, userName, tenantId, availableClaims);
+        }
 
-            IdentityDatabaseUtil.commitTransaction(connection);
-        } catch (SQLException e) {
-            IdentityDatabaseUtil.rollbackTransaction(connection);
-            log.error("Error while persisting user identity data", e);
-        } finally {
-            IdentityDatabaseUtil.closeConnection(connection);
+        if (isNumericDataTableAvailable(connection)) {
+            Map<String, String> numericClaims = new HashMap<>();
+            for (String key : NUMERIC_DATA_KEYS) {
+                if (changedClaims.containsKey(key)) {
+                    numericClaims.put(key, changedClaims.get(key));
+                }
+            }
+            updateNumericDataValues(connection, userName, tenantId, numericClaims);
+        }
+    }
+
+    private void upsertUserDataValues(Connection connection, String upsertQuery, String userName, int tenantId,
+                                      Map<String, String> data) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(upsertQuery)) {
+            for (Map.Entry<String, String> entry : data.entrySet()) {
+                prepStmt.setInt(1, tenantId);
+                prepStmt.setString(2, userName);
+                prepStmt.setString(3, entry.getKey());
+                prepStmt.setString(4, entry.getValue());
+                prepStmt.addBatch();
+            }
+            prepStmt.executeBatch();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Upserted " + data.size() + " identity data values of user: " + userName + " in tenant: " +
+                    tenantId);
+        }
+    }
+
+    /**
+     * Get the upsert query of the identity data for the database type. PostgreSQL and MySQL upserts match the
+     * primary key as it is, hence they are used only if the usernames are case sensitive.
+     *
+     * @param connection              Database connection.
+     * @param isUsernameCaseSensitive Whether the usernames are case sensitive.
+     * @return Upsert query, or null if the database type does not have an upsert query.
+     */
+    private String getUpsertUserDataQuery(Connection connection, boolean isUsernameCaseSensitive) {
+
+        String databaseType = getDatabaseType(connection);
+        if (databaseType == null) {
+            return null;
+        }
+        switch (databaseType) {
+            case H2:
+            case DB2:
+                return isUsernameCaseSensitive ? SQLQuery.UPSERT_USER_DATA_VALUES_MERGE :
+                        SQLQuery.UPSERT_USER_DATA_VALUES_MERGE_CASE_INSENSITIVE;
+            case ORACLE:
+                return isUsernameCaseSensitive ? SQLQuery.UPSERT_USER_DATA_ORACLE :
+                        SQLQuery.UPSERT_USER_DATA_ORACLE_CASE_INSENSITIVE;
+            case MSSQL:
+                return isUsernameCaseSensitive ? SQLQuery.UPSERT_USER_DATA_MSSQL :
+                        SQLQuery.UPSERT_USER_DATA_MSSQL_CASE_INSENSITIVE;
+            case POSTGRE_SQL:
+                return isUsernameCaseSensitive ? SQLQuery.UPSERT_USER_DATA_POSTGRESQL : null;
+            case MYSQL:
+                return isUsernameCaseSensitive ? SQLQuery.UPSERT_USER_DATA_MYSQL : null;
+            default:
+                return null;
+        }
+    }
+
+    private String getDatabaseType(Connection connection) {
+
+        String type = databaseType;
+        if (type == null) {
+            try {
+                type = DatabaseCreator.getDatabaseType(connection);
+            } catch (Exception e) {
+                log.warn("Error while resolving the database type. Identity data will be stored without upserts.",
+                        e);
+                type = StringUtils.EMPTY;
+            }
+            databaseType = type;
         }
+        return StringUtils.isEmpty(type) ? null : type;
+    }
+
+    private static boolean isIntegrityConstraintViolation(SQLException e) {
+
+        return e instanceof SQLIntegrityConstraintViolationException ||
+                StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS);
     }
 
     private Map<String, String> getUserDataValues(Connection connection, String userName, int tenantId)
@@ -162,6 +344,9 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
     private void addUserDataValues(Connection connection, String userName, int tenantId,
                                    Map<String, String> properties) throws SQLException {
 
+        if (properties.isEmpty()) {
+            return;
+        }
         PreparedStatement prepStmt = null;
         try {
             prepStmt = connection.prepareStatement(SQLQuery.STORE_USER_DATA);
@@ -181,6 +366,9 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
     private void updateUserDataValues(Connection connection, String userName, int tenantId,
                                       Map<String, String> properties) throws SQLException {
 
+        if (properties.isEmpty()) {
+            return;
+        }
         PreparedStatement prepStmt = null;
         boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreInUsernameCaseSensitive(userName, tenantId);
         String query;
@@ -204,6 +392,165 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         }
     }
 
+    /**
+     * Replace the numeric values of the epoch time valued identity data of a user. The values are copied with the
+     * username of the IDN_IDENTITY_USER_DATA row, hence the caller should have already persisted the data values.
+     *
+     * @param connection Database connection.
+     * @param userName   Domain qualified username.
+     * @param tenantId   Tenant ID.
+     * @param properties Epoch time valued identity data of the user.
+     * @throws SQLException If an error occurred while persisting the values.
+     */
+    private void updateNumericDataValues(Connection connection, String userName, int tenantId,
+                                         Map<String, String> properties) throws SQLException {
+
+        if (properties.isEmpty()) {
+            return;
+        }
+        boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreInUsernameCaseSensitive(userName, tenantId);
+        String deleteQuery = isUsernameCaseSensitive ? SQLQuery.DELETE_USER_NUMERIC_DATA_BY_KEY :
+                SQLQuery.DELETE_USER_NUMERIC_DATA_BY_KEY_CASE_INSENSITIVE;
+        String storeQuery = isUsernameCaseSensitive ? SQLQuery.STORE_USER_NUMERIC_DATA :
+                SQLQuery.STORE_USER_NUMERIC_DATA_CASE_INSENSITIVE;
+        try (PreparedStatement deleteStmt = connection.prepareStatement(deleteQuery);
+             PreparedStatement storeStmt = connection.prepareStatement(storeQuery)) {
+            boolean hasNumericValues = false;
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                deleteStmt.setInt(1, tenantId);
+                deleteStmt.setString(2, userName);
+                deleteStmt.setString(3, entry.getKey());
+                deleteStmt.addBatch();
+
+                Long numericValue = parseNumericDataValue(entry.getValue());
+                if (numericValue == null) {
+                    continue;
+                }
+                storeStmt.setLong(1, numericValue);
+                storeStmt.setInt(2, tenantId);
+                storeStmt.setString(3, userName);
+                storeStmt.setString(4, entry.getKey());
+                storeStmt.addBatch();
+                hasNumericValues = true;
+            }
+            deleteStmt.executeBatch();
+            if (hasNumericValues) {
+                storeStmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Copy the epoch time valued identity data which are not yet in the IDN_IDENTITY_USER_DATA_NUMERIC table, in
+     * batches of rows. This can run while the identity data are being updated, as a row which is changed or indexed
+     * by {@link #store(UserIdentityClaim, UserStoreManager)} is kept. The completion of the first back fill is
+     * recorded in the IDN_IDENTITY_DATA_NUM_STATE table, so that range filters of all the nodes use the numeric
+     * values from then on. The stores keep the values in sync after the back fill, hence the rows written without
+     * {@link #store(UserIdentityClaim, UserStoreManager)} later, such as the rows of a data migration, are indexed
+     * only by calling this method again.
+     *
+     * @return Number of rows copied.
+     * @throws IdentityException If an error occurred while copying the values.
+     */
+    public int backfillNumericDataValues() throws IdentityException {
+
+        int backfilledCount = 0;
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            if (!isNumericDataTableAvailable(connection)) {
+                return backfilledCount;
+            }
+            // Rows are read in primary key order, starting after the last row of the previous batch.
+            String backfillQuery = getBackfillNumericDataQuery(connection);
+            boolean allBatchesCopied = true;
+            int lastTenantId = Integer.MIN_VALUE;
+            String lastUserName = StringUtils.EMPTY;
+            String lastDataKey = StringUtils.EMPTY;
+            int readCount;
+            do {
+                List<String[]> rows = new ArrayList<>();
+                List<Integer> rowTenantIds = new ArrayList<>();
+                try (PreparedStatement prepStmt = connection.prepareStatement(
+                        SQLQuery.LIST_UNINDEXED_NUMERIC_DATA)) {
+                    prepStmt.setMaxRows(NUMERIC_DATA_BACKFILL_BATCH_SIZE);
+                    int parameterIndex = 1;
+                    for (String dataKey : NUMERIC_DATA_KEYS) {
+                        prepStmt.setString(parameterIndex++, dataKey);
+                    }
+                    prepStmt.setInt(parameterIndex++, lastTenantId);
+                    prepStmt.setInt(parameterIndex++, lastTenantId);
+                    prepStmt.setString(parameterIndex++, lastUserName);
+                    prepStmt.setString(parameterIndex++, lastUserName);
+                    prepStmt.setString(parameterIndex, lastDataKey);
+                    try (ResultSet resultSet = prepStmt.executeQuery()) {
+                        while (resultSet.next()) {
+                            rowTenantIds.add(resultSet.getInt(1));
+                            rows.add(new String[]{resultSet.getString(2), resultSet.getString(3),
+                                    resultSet.getString(4)});
+                        }
+                    }
+                }
+                readCount = rows.size();
+                if (readCount == 0) {
+                    break;
+                }
+
+                try (PreparedStatement prepStmt = connection.prepareStatement(backfillQuery)) {
+                    int batchCount = 0;
+                    for (int i = 0; i < readCount; i++) {
+                        String[] row = rows.get(i);
+                        Long numericValue = parseNumericDataValue(row[2]);
+                        if (numericValue == null) {
+                            continue;
+                        }
+                        prepStmt.setLong(1, numericValue);
+                        prepStmt.setInt(2, rowTenantIds.get(i));
+                        prepStmt.setString(3, row[0]);
+                        prepStmt.setString(4, row[1]);
+                        prepStmt.setString(5, row[2]);
+                        prepStmt.addBatch();
+                        batchCount++;
+                    }
+                    if (batchCount > 0) {
+                        backfilledCount += getUpdatedRowCount(prepStmt.executeBatch());
+                    }
+                    IdentityDatabaseUtil.commitTransaction(connection);
+                } catch (SQLException e) {
+                    IdentityDatabaseUtil.rollbackTransaction(connection);
+                    if (!isIntegrityConstraintViolation(e)) {
+                        throw e;
+                    }
+                    // A concurrent store indexed a row of the batch. The rest of the batch is indexed in the next run.
+                    allBatchesCopied = false;
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipped a batch of the numeric identity data back fill due to a concurrent " +
+                                "update.", e);
+                    }
+                }
+
+                lastTenantId = rowTenantIds.get(readCount - 1);
+                lastUserName = rows.get(readCount - 1)[0];
+                lastDataKey = rows.get(readCount - 1)[1];
+                if (readCount == NUMERIC_DATA_BACKFILL_BATCH_SIZE && !renewNumericDataBackfillLease()) {
+                    log.warn("Lost the numeric identity data back fill lease. The back fill is continued by " +
+                            "another node.");
+                    allBatchesCopied = false;
+                    break;
+                }
+            } while (readCount == NUMERIC_DATA_BACKFILL_BATCH_SIZE);
+
+            if (!numericDataBackfilled && allBatchesCopied) {
+                markNumericDataBackfillCompleted(connection);
+                numericDataBackfilled = true;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Back filled " + backfilledCount + " numeric identity data values.");
+            }
+            return backfilledCount;
+        } catch (SQLException e) {
+            throw new IdentityException("Error while back filling the numeric identity data values.", e);
+        }
+    }
+
     @Override
     public UserIdentityClaim load(String userName, UserStoreManager userStoreManager) {
 
@@ -246,6 +593,114 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         return null;
     }
 
+    @Override
+    public Map<String, UserIdentityClaim> loadAll(Collection<String> userNames, UserStoreManager userStoreManager) {
+
+        Map<String, UserIdentityClaim> userIdentityClaims = new HashMap<>();
+        if (userNames == null || userNames.isEmpty()) {
+            return userIdentityClaims;
+        }
+
+        String domainName = ((org.wso2.carbon.user.core.UserStoreManager) userStoreManager).getRealmConfiguration().
+                getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME);
+
+        // Domain qualified username against the requested username, for the users who are not in the cache.
+        Map<String, String> uncachedUserNames = new LinkedHashMap<>();
+        for (String userName : userNames) {
+            if (userName == null) {
+                continue;
+            }
+            String domainQualifiedUserName = UserCoreUtil.addDomainToName(userName, domainName);
+            UserIdentityClaim dto = super.load(domainQualifiedUserName, userStoreManager);
+            if (dto != null) {
+                userIdentityClaims.put(userName, dto);
+            } else {
+                uncachedUserNames.put(domainQualifiedUserName, userName);
+            }
+        }
+        if (uncachedUserNames.isEmpty()) {
+            return userIdentityClaims;
+        }
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+            int tenantId = userStoreManager.getTenantId();
+            // All the users belong to the same user store, hence the case sensitivity is the same for all of them.
+            boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreInUsernameCaseSensitive(
+                    uncachedUserNames.keySet().iterator().next(), tenantId);
+            Map<String, Map<String, String>> usersDataValues = getUsersDataValues(connection,
+                    new ArrayList<>(uncachedUserNames.keySet()), tenantId, isUsernameCaseSensitive);
+
+            for (Map.Entry<String, String> entry : uncachedUserNames.entrySet()) {
+                String userName = entry.getKey();
+                Map<String, String> data = usersDataValues.get(isUsernameCaseSensitive ? userName :
+                        userName.toLowerCase(Locale.ENGLISH));
+                UserIdentityClaim dto = new UserIdentityClaim(userName, data != null ? data : new HashMap<>());
+                dto.setTenantId(tenantId);
+                try {
+                    super.store(dto, userStoreManager);
+                } catch (IdentityException e) {
+                    log.error("Error while caching user identity data of user: " + userName, e);
+                }
+                userIdentityClaims.put(entry.getValue(), dto);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Retrieved identity data of " + uncachedUserNames.size() + " users of tenant: " +
+                        tenantId + " from the identity data store.");
+            }
+        } catch (SQLException | UserStoreException e) {
+            log.error("Error while reading user identity data of users.", e);
+        }
+        return userIdentityClaims;
+    }
+
+    /**
+     * Retrieve the identity data of the given users, with one query per chunk of users.
+     *
+     * @param connection              Database connection.
+     * @param userNames               Domain qualified usernames of the users.
+     * @param tenantId                Tenant ID.
+     * @param isUsernameCaseSensitive Whether the usernames are case sensitive.
+     * @return Map of the username to the identity data of the user. Usernames are in lower case if the usernames
+     * are case insensitive.
+     * @throws SQLException If an error occurred while retrieving the data.
+     */
+    private Map<String, Map<String, String>> getUsersDataValues(Connection connection, List<String> userNames,
+                                                                int tenantId, boolean isUsernameCaseSensitive)
+            throws SQLException {
+
+        Map<String, Map<String, String>> usersDataValues = new HashMap<>();
+        for (int start = 0; start < userNames.size(); start += MAX_USERS_PER_LOAD_QUERY) {
+            List<String> userNamesChunk = userNames.subList(start,
+                    Math.min(start + MAX_USERS_PER_LOAD_QUERY, userNames.size()));
+            String query;
+            if (isUsernameCaseSensitive) {
+                query = SQLQuery.LOAD_USERS_DATA + String.join(", ",
+                        Collections.nCopies(userNamesChunk.size(), QUERY_BINDING_SYMBOL)) + ")";
+            } else {
+                query = SQLQuery.LOAD_USERS_DATA_CASE_INSENSITIVE + String.join(", ",
+                        Collections.nCopies(userNamesChunk.size(), "LOWER(?)")) + ")";
+            }
+            try (PreparedStatement prepStmt = connection.prepareStatement(query)) {
+                int parameterIndex = 1;
+                prepStmt.setInt(parameterIndex++, tenantId);
+                for (String userName : userNamesChunk) {
+                    prepStmt.setString(parameterIndex++, userName);
+                }
+                try (ResultSet results = prepStmt.executeQuery()) {
+                    while (results.next()) {
+                        String userName = results.getString(1);
+                        if (!isUsernameCaseSensitive) {
+                            userName = userName.toLowerCase(Locale.ENGLISH);
+                        }
+                        usersDataValues.computeIfAbsent(userName, key -> new HashMap<>())
+                                .put(results.getString(2), results.getString(3));
+                    }
+                }
+            }
+        }
+        return usersDataValues;
+    }
+
     @Override
     public void remove(String userName, UserStoreManager userStoreManager) throws IdentityException {
 
@@ -268,6 +723,15 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
             prepStmt.setInt(1, tenantId);
             prepStmt.setString(2, userName);
             prepStmt.execute();
+            if (isNumericDataTableAvailable(connection)) {
+                String numericDataQuery = isUsernameCaseSensitive ? SQLQuery.DELETE_USER_NUMERIC_DATA :
+                        SQLQuery.DELETE_USER_NUMERIC_DATA_CASE_INSENSITIVE;
+                try (PreparedStatement numericDataStmt = connection.prepareStatement(numericDataQuery)) {
+                    numericDataStmt.setInt(1, tenantId);
+                    numericDataStmt.setString(2, userName);
+                    numericDataStmt.execute();
+                }
+            }
             IdentityDatabaseUtil.commitTransaction(connection);
         } catch (SQLException | UserStoreException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -373,6 +837,38 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         }
     }
 
+    @Override
+    public UserNamePage listUserNamesAfterCursor(List<ExpressionCondition> expressionConditions, String domain,
+                                                 org.wso2.carbon.user.core.UserStoreManager userStoreManager,
+                                                 int limit, String cursor) throws IdentityException {
+
+        if (limit <= 0) {
+            return new UserNamePage(Collections.emptyList(), null);
+        }
+        try {
+            int tenantId = userStoreManager.getTenantId();
+            List<ExpressionCondition> notEqualConditions = new ArrayList<>();
+            List<ExpressionCondition> otherConditions = new ArrayList<>();
+            separateConditionsByOperation(expressionConditions, notEqualConditions, otherConditions);
+
+            if (otherConditions.isEmpty() && !notEqualConditions.isEmpty()) {
+                /*
+                 * Users who are only in the user store can not be seeked in the identity store, hence the users are
+                 * listed from the user store a page at a time and the cursor keeps the offset of the listing.
+                 */
+                return listUserStoreUserNamesAfterCursor(notEqualConditions, domain, tenantId, userStoreManager,
+                        limit, cursor);
+            }
+            // The users with the values of the not-equal conditions are excluded by the query which seeks the page.
+            List<String> userNames = getFilteredUsernames(otherConditions, notEqualConditions, domain, tenantId,
+                    limit, 0, false, decodeCursor(cursor));
+            String nextCursor = userNames.size() < limit ? null : encodeCursor(userNames.get(userNames.size() - 1));
+            return new UserNamePage(userNames, nextCursor);
+        } catch (org.wso2.carbon.user.core.UserStoreException e) {
+            throw new IdentityException("Error occurred while retrieving users.", e);
+        }
+    }
+
     @Override
     public List<String> getUserNamesByClaimURINotEqualValue(Condition condition, String claimUri, String claimValue,
                                                             org.wso2.carbon.user.core.UserStoreManager userStoreManager)
@@ -404,13 +900,15 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
     public List<String> getUserNamesLessThanProvidedClaimValue(String claimURI, String claimValue, int tenantId)
             throws IdentityException {
 
-        String sqlStmt = SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_DATA_VALUE;
+        boolean isNumericFilter = isNumericRangeFilter(claimURI, claimValue);
+        String sqlStmt = isNumericFilter ? SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_NUMERIC_DATA_VALUE :
+                SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_DATA_VALUE;
         List<String> userNames = new ArrayList<>();
         try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
             try (PreparedStatement prepStmt = connection.prepareStatement(sqlStmt)) {
                 prepStmt.setString(1, claimURI);
                 prepStmt.setInt(2, tenantId);
-                prepStmt.setString(3, claimValue);
+                setRangeFilterValue(prepStmt, 3, claimValue, isNumericFilter);
                 try (ResultSet resultSet = prepStmt.executeQuery()) {
                     while (resultSet.next()) {
                         String username = resultSet.getString(1);
@@ -429,13 +927,15 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
     public List<String> getUserNamesMoreThanProvidedClaimValue(String claimURI, String claimValue, int tenantId)
             throws IdentityException {
 
-        String sqlStmt = SQLQuery.FILTER_USERS_BY_DATA_KEY_MORE_THAN_DATA_VALUE;
+        boolean isNumericFilter = isNumericRangeFilter(claimURI, claimValue);
+        String sqlStmt = isNumericFilter ? SQLQuery.FILTER_USERS_BY_DATA_KEY_MORE_THAN_NUMERIC_DATA_VALUE :
+                SQLQuery.FILTER_USERS_BY_DATA_KEY_MORE_THAN_DATA_VALUE;
         List<String> userNames = new ArrayList<>();
         try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
             try (PreparedStatement prepStmt = connection.prepareStatement(sqlStmt)) {
                 prepStmt.setString(1, claimURI);
                 prepStmt.setInt(2, tenantId);
-                prepStmt.setString(3, claimValue);
+                setRangeFilterValue(prepStmt, 3, claimValue, isNumericFilter);
                 try (ResultSet resultSet = prepStmt.executeQuery()) {
                     while (resultSet.next()) {
                         String username = resultSet.getString(1);
@@ -454,14 +954,17 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
     public  List<String> getUserNamesBetweenProvidedClaimValues(String claimURI, String startValue, String endValue,
                                                                 int tenantId) throws IdentityException {
 
-        String sqlStmt = SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_AND_GREATER_THAN_DATA_VALUES;
+        boolean isNumericFilter = isNumericRangeFilter(claimURI, startValue, endValue);
+        String sqlStmt = isNumericFilter ?
+                SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_AND_GREATER_THAN_NUMERIC_DATA_VALUES :
+                SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_AND_GREATER_THAN_DATA_VALUES;
         List<String> userNames = new ArrayList<>();
         try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
             try (PreparedStatement prepStmt = connection.prepareStatement(sqlStmt)) {
                 prepStmt.setString(1, claimURI);
                 prepStmt.setInt(2, tenantId);
-                prepStmt.setString(3, endValue);
-                prepStmt.setString(4, startValue);
+                setRangeFilterValue(prepStmt, 3, endValue, isNumericFilter);
+                setRangeFilterValue(prepStmt, 4, startValue, isNumericFilter);
                 try (ResultSet resultSet = prepStmt.executeQuery()) {
                     while (resultSet.next()) {
                         String username = resultSet.getString(1);
@@ -476,6 +979,67 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         }
     }
 
+    @Override
+    public UserNamePage listUserNamesByClaimValueRangeAfterCursor(String claimURI, String lowerValue,
+                                                                  String upperValue, int tenantId, int limit,
+                                                                  String cursor) throws IdentityException {
+
+        if (limit <= 0) {
+            return new UserNamePage(Collections.emptyList(), null);
+        }
+        String afterUserName = null;
+        if (StringUtils.isNotEmpty(cursor)) {
+            // The range of the first page is used for all the pages, even if the caller computes a new range.
+            String[] cursorValues = decodeRangeCursor(cursor);
+            lowerValue = cursorValues[0];
+            upperValue = cursorValues[1];
+            afterUserName = cursorValues[2];
+        }
+        if (lowerValue == null && upperValue == null) {
+            throw new IdentityException("A lower or an upper claim value is required to filter users by a range.");
+        }
+        List<String> rangeValues = new ArrayList<>();
+        if (lowerValue != null) {
+            rangeValues.add(lowerValue);
+        }
+        if (upperValue != null) {
+            rangeValues.add(upperValue);
+        }
+        // Both the tables have the same rows once back filled, hence the pages can switch to the numeric values.
+        boolean isNumericFilter = isNumericRangeFilter(claimURI, rangeValues.toArray(new String[0]));
+
+        List<String> userNames = new ArrayList<>();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+            String sqlStmt = getClaimValueRangeAfterCursorQuery(getDatabaseType(connection), isNumericFilter,
+                    lowerValue != null, upperValue != null, afterUserName != null);
+            try (PreparedStatement prepStmt = connection.prepareStatement(sqlStmt)) {
+                int parameterIndex = 1;
+                prepStmt.setString(parameterIndex++, claimURI);
+                prepStmt.setInt(parameterIndex++, tenantId);
+                if (upperValue != null) {
+                    setRangeFilterValue(prepStmt, parameterIndex++, upperValue, isNumericFilter);
+                }
+                if (lowerValue != null) {
+                    setRangeFilterValue(prepStmt, parameterIndex++, lowerValue, isNumericFilter);
+                }
+                if (afterUserName != null) {
+                    prepStmt.setString(parameterIndex++, afterUserName);
+                }
+                prepStmt.setInt(parameterIndex, limit);
+                try (ResultSet resultSet = prepStmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        userNames.add(resultSet.getString(1));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityException("Error occurred while retrieving users from Identity Store.", e);
+        }
+        String nextCursor = userNames.size() < limit ? null :
+                encodeRangeCursor(lowerValue, upperValue, userNames.get(userNames.size() - 1));
+        return new UserNamePage(userNames, nextCursor);
+    }
+
     @Override
     public List<String> getUserNamesLessThanClaimWithNestedClaim(String claimURI, String claimValue,
                                                                  String nestedClaimURI,
@@ -483,7 +1047,9 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
                                                                  boolean isIncluded)
             throws IdentityException {
 
-        String sqlStmt = SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_DATA_VALUE;
+        boolean isNumericFilter = isNumericRangeFilter(claimURI, claimValue);
+        String sqlStmt = isNumericFilter ? SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_NUMERIC_DATA_VALUE :
+                SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_DATA_VALUE;
         String subSqlStmt = SQLQuery.LIST_USERS_FROM_CLAIM;
         if (isIncluded) {
             sqlStmt = sqlStmt + " AND USER_NAME IN (" + subSqlStmt + ")";
@@ -496,7 +1062,7 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
             try (PreparedStatement prepStmt = connection.prepareStatement(sqlStmt)) {
                 prepStmt.setString(1, claimURI);
                 prepStmt.setInt(2, tenantId);
-                prepStmt.setString(3, claimValue);
+                setRangeFilterValue(prepStmt, 3, claimValue, isNumericFilter);
                 prepStmt.setString(4, nestedClaimURI);
                 prepStmt.setString(5, nestedClaimValue);
                 prepStmt.setInt(6, tenantId);
@@ -522,7 +1088,10 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
                                                                     boolean isIncluded)
             throws IdentityException {
 
-        String sqlStmt = SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_AND_GREATER_THAN_DATA_VALUES;
+        boolean isNumericFilter = isNumericRangeFilter(claimURI, startValue, endValue);
+        String sqlStmt = isNumericFilter ?
+                SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_AND_GREATER_THAN_NUMERIC_DATA_VALUES :
+                SQLQuery.FILTER_USERS_BY_DATA_KEY_LESS_THAN_AND_GREATER_THAN_DATA_VALUES;
         String subSqlStmt = SQLQuery.LIST_USERS_FROM_CLAIM;
         if (isIncluded) {
             sqlStmt = sqlStmt + " AND USER_NAME IN (" + subSqlStmt + ")";
@@ -534,8 +1103,8 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
             try (PreparedStatement prepStmt = connection.prepareStatement(sqlStmt)) {
                 prepStmt.setString(1, claimURI);
                 prepStmt.setInt(2, tenantId);
-                prepStmt.setString(3, endValue);
-                prepStmt.setString(4, startValue);
+                setRangeFilterValue(prepStmt, 3, endValue, isNumericFilter);
+                setRangeFilterValue(prepStmt, 4, startValue, isNumericFilter);
                 prepStmt.setString(5, nestedClaimURI);
                 prepStmt.setString(6, nestedClaimValue);
                 prepStmt.setInt(7, tenantId);
@@ -553,6 +1122,435 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         }
     }
 
+    /**
+     * Check whether a range filter can compare the numeric values of the IDN_IDENTITY_USER_DATA_NUMERIC table.
+     * Until the existing values are back filled, range filters compare the string values.
+     *
+     * @param claimURI    Claim URI of the filter.
+     * @param claimValues Values of the filter.
+     * @return True if the filter should use the numeric values.
+     */
+    private boolean isNumericRangeFilter(String claimURI, String... claimValues) {
+
+        if (!NUMERIC_DATA_KEYS.contains(claimURI)) {
+            return false;
+        }
+        for (String claimValue : claimValues) {
+            if (parseNumericDataValue(claimValue) == null) {
+                return false;
+            }
+        }
+        return numericDataBackfilled;
+    }
+
+    /**
+     * Start back filling the epoch time valued identity data in the background. A single node of the cluster back
+     * fills the existing rows under a lease, while the other nodes retry at the configured interval until the
+     * completion of the back fill is recorded. The indexer stops once the back fill is completed, as the stores keep
+     * the values in sync from then on.
+     */
+    public synchronized void startNumericDataIndexer() {
+
+        if (numericDataIndexer != null || numericDataIndexerStopped) {
+            return;
+        }
+        int indexInterval = ExecutorConfigUtil.getPositiveIntProperty(NUMERIC_DATA_INDEX_INTERVAL,
+                DEFAULT_NUMERIC_DATA_INDEX_INTERVAL_MINUTES);
+        numericDataIndexer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "IdentityDataNumericIndexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        numericDataIndexer.scheduleWithFixedDelay(this::indexNumericDataValues, 0, indexInterval, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Back fill the epoch time valued identity data, unless the back fill is already recorded by a node or another
+     * node holds the back fill lease. Range filters use the numeric values once the back fill is completed.
+     */
+    void indexNumericDataValues() {
+
+        try {
+            if (!numericDataBackfilled && isNumericDataBackfillCompleted()) {
+                numericDataBackfilled = true;
+            }
+            if (!numericDataBackfilled) {
+                if (!acquireNumericDataBackfillLease()) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Numeric identity data values are back filled by another node.");
+                    }
+                    return;
+                }
+                try {
+                    backfillNumericDataValues();
+                } finally {
+                    releaseNumericDataBackfillLease();
+                }
+            }
+            if (numericDataBackfilled) {
+                stopNumericDataIndexer();
+            }
+        } catch (IdentityException | RuntimeException e) {
+            log.error("Error while indexing the numeric identity data values. Range filters will compare the " +
+                    "string values until the back fill is completed.", e);
+        }
+    }
+
+    /**
+     * Stop indexing the epoch time valued identity data in the background.
+     */
+    public synchronized void shutdown() {
+
+        numericDataIndexerStopped = true;
+        if (numericDataIndexer != null) {
+            numericDataIndexer.shutdownNow();
+            numericDataIndexer = null;
+        }
+    }
+
+    /**
+     * Stop the periodic runs of the indexer once the back fill is completed. The current run is not interrupted.
+     */
+    private synchronized void stopNumericDataIndexer() {
+
+        if (numericDataIndexer != null) {
+            numericDataIndexer.shutdown();
+            numericDataIndexer = null;
+            if (log.isDebugEnabled()) {
+                log.debug("Numeric identity data values are back filled. Stopped the numeric data indexer.");
+            }
+        }
+    }
+
+    /**
+     * Acquire the back fill lease, which is kept in the IDN_IDENTITY_DATA_NUM_STATE table as the node id and the
+     * expiry time. An expired lease or a lease already held by this node is taken over. Without the table, each
+     * node back fills the values by itself.
+     *
+     * @return True if this node can back fill the values.
+     * @throws IdentityException If an error occurred while accessing the lease.
+     */
+    private boolean acquireNumericDataBackfillLease() throws IdentityException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            if (!isNumericDataStateTableAvailable(connection)) {
+                return true;
+            }
+            String lease = buildNumericDataBackfillLease();
+            String currentLease = getNumericDataState(connection, NUMERIC_DATA_BACKFILL_LEASE);
+            boolean acquired;
+            try {
+                if (currentLease == null) {
+                    acquired = addNumericDataState(connection, NUMERIC_DATA_BACKFILL_LEASE, lease);
+                } else if (isNumericDataBackfillLeaseAvailable(currentLease)) {
+                    acquired = replaceNumericDataState(connection, NUMERIC_DATA_BACKFILL_LEASE, currentLease, lease);
+                } else {
+                    acquired = false;
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+            if (acquired) {
+                numericDataBackfillLease = lease;
+            }
+            return acquired;
+        } catch (SQLException e) {
+            throw new IdentityException("Error while acquiring the numeric identity data back fill lease.", e);
+        }
+    }
+
+    /**
+     * Extend the back fill lease held by this node.
+     *
+     * @return False if the lease was taken over by another node.
+     * @throws SQLException If an error occurred while updating the lease.
+     */
+    private boolean renewNumericDataBackfillLease() throws SQLException {
+
+        String currentLease = numericDataBackfillLease;
+        if (currentLease == null) {
+            return true;
+        }
+        String lease = buildNumericDataBackfillLease();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            boolean renewed;
+            try {
+                renewed = replaceNumericDataState(connection, NUMERIC_DATA_BACKFILL_LEASE, currentLease, lease);
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+            numericDataBackfillLease = renewed ? lease : null;
+            return renewed;
+        }
+    }
+
+    private void releaseNumericDataBackfillLease() {
+
+        String currentLease = numericDataBackfillLease;
+        if (currentLease == null) {
+            return;
+        }
+        numericDataBackfillLease = null;
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQuery.DELETE_NUMERIC_DATA_STATE)) {
+            prepStmt.setString(1, NUMERIC_DATA_BACKFILL_LEASE);
+            prepStmt.setString(2, currentLease);
+            prepStmt.executeUpdate();
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException e) {
+            // The lease expires by itself, so another node can take it over later.
+            log.warn("Error while releasing the numeric identity data back fill lease.", e);
+        }
+    }
+
+    private String buildNumericDataBackfillLease() {
+
+        return nodeId + NUMERIC_DATA_BACKFILL_LEASE_SEPARATOR +
+                (System.currentTimeMillis() + NUMERIC_DATA_BACKFILL_LEASE_MILLIS);
+    }
+
+    private boolean isNumericDataBackfillLeaseAvailable(String lease) {
+
+        int separatorIndex = lease.lastIndexOf(NUMERIC_DATA_BACKFILL_LEASE_SEPARATOR);
+        if (separatorIndex < 0 || nodeId.equals(lease.substring(0, separatorIndex))) {
+            return true;
+        }
+        try {
+            return Long.parseLong(lease.substring(separatorIndex + 1)) < System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private boolean isNumericDataBackfillCompleted() throws IdentityException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+            if (!isNumericDataStateTableAvailable(connection)) {
+                return false;
+            }
+            return hasNumericDataState(connection, NUMERIC_DATA_BACKFILL_COMPLETED);
+        } catch (SQLException e) {
+            throw new IdentityException("Error while reading the numeric identity data back fill state.", e);
+        }
+    }
+
+    private void markNumericDataBackfillCompleted(Connection connection) throws SQLException {
+
+        if (!isNumericDataStateTableAvailable(connection) ||
+                hasNumericDataState(connection, NUMERIC_DATA_BACKFILL_COMPLETED)) {
+            return;
+        }
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQuery.ADD_NUMERIC_DATA_STATE)) {
+            prepStmt.setString(1, NUMERIC_DATA_BACKFILL_COMPLETED);
+            prepStmt.setString(2, Long.toString(System.currentTimeMillis()));
+            prepStmt.executeUpdate();
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            // The back fill of another node recorded the state at the same time.
+            if (!isIntegrityConstraintViolation(e)) {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean hasNumericDataState(Connection connection, String stateKey) throws SQLException {
+
+        return getNumericDataState(connection, stateKey) != null;
+    }
+
+    private static String getNumericDataState(Connection connection, String stateKey) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQuery.GET_NUMERIC_DATA_STATE)) {
+            prepStmt.setString(1, stateKey);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? StringUtils.defaultString(resultSet.getString(1)) : null;
+            }
+        }
+    }
+
+    /**
+     * Add a state of the numeric values. A failed insert aborts the whole transaction on some databases such as
+     * PostgreSQL, hence the insert is rolled back to a savepoint when another node has added the state.
+     *
+     * @param connection Database connection.
+     * @param stateKey   State key.
+     * @param stateValue State value.
+     * @return False if the state was already added by another node.
+     * @throws SQLException If an error occurred while adding the state.
+     */
+    private static boolean addNumericDataState(Connection connection, String stateKey, String stateValue)
+            throws SQLException {
+
+        Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQuery.ADD_NUMERIC_DATA_STATE)) {
+            prepStmt.setString(1, stateKey);
+            prepStmt.setString(2, stateValue);
+            prepStmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (!isIntegrityConstraintViolation(e)) {
+                throw e;
+            }
+            if (savepoint != null) {
+                connection.rollback(savepoint);
+            }
+            return false;
+        }
+    }
+
+    private static boolean replaceNumericDataState(Connection connection, String stateKey, String currentValue,
+                                                   String newValue) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQuery.REPLACE_NUMERIC_DATA_STATE)) {
+            prepStmt.setString(1, newValue);
+            prepStmt.setString(2, stateKey);
+            prepStmt.setString(3, currentValue);
+            return prepStmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Get the query which copies a row to the IDN_IDENTITY_USER_DATA_NUMERIC table unless the row is already
+     * indexed. A row indexed by a concurrent store is kept, as it has the newer value.
+     *
+     * @param connection Database connection.
+     * @return Back fill query.
+     */
+    private String getBackfillNumericDataQuery(Connection connection) {
+
+        String type = getDatabaseType(connection);
+        if (type == null) {
+            return SQLQuery.BACKFILL_USER_NUMERIC_DATA;
+        }
+        switch (type) {
+            case H2:
+            case DB2:
+                return SQLQuery.BACKFILL_USER_NUMERIC_DATA_MERGE;
+            case ORACLE:
+                return SQLQuery.BACKFILL_USER_NUMERIC_DATA_ORACLE;
+            case MSSQL:
+                return SQLQuery.BACKFILL_USER_NUMERIC_DATA_MSSQL;
+            case POSTGRE_SQL:
+                return SQLQuery.BACKFILL_USER_NUMERIC_DATA_POSTGRESQL;
+            case MYSQL:
+                return SQLQuery.BACKFILL_USER_NUMERIC_DATA_MYSQL;
+            default:
+                return SQLQuery.BACKFILL_USER_NUMERIC_DATA;
+        }
+    }
+
+    private static int getUpdatedRowCount(int[] updateCounts) {
+
+        int updatedRowCount = 0;
+        for (int updateCount : updateCounts) {
+            if (updateCount > 0) {
+                updatedRowCount += updateCount;
+            } else if (updateCount == Statement.SUCCESS_NO_INFO) {
+                updatedRowCount++;
+            }
+        }
+        return updatedRowCount;
+    }
+
+    private boolean isNumericDataTableAvailable(Connection connection) throws SQLException {
+
+        Boolean tableAvailable = numericDataTableAvailable;
+        if (tableAvailable == null) {
+            tableAvailable = isTableAvailable(connection, NUMERIC_DATA_TABLE);
+            if (!tableAvailable) {
+                log.info(NUMERIC_DATA_TABLE + " table is not available. Range filters on the time valued identity " +
+                        "data will compare the string values.");
+            }
+            numericDataTableAvailable = tableAvailable;
+        }
+        return tableAvailable;
+    }
+
+    private boolean isNumericDataStateTableAvailable(Connection connection) throws SQLException {
+
+        Boolean tableAvailable = numericDataStateTableAvailable;
+        if (tableAvailable == null) {
+            tableAvailable = isTableAvailable(connection, NUMERIC_DATA_STATE_TABLE);
+            if (!tableAvailable) {
+                log.info(NUMERIC_DATA_STATE_TABLE + " table is not available. Each node will back fill the " +
+                        "numeric identity data values before the range filters use them.");
+            }
+            numericDataStateTableAvailable = tableAvailable;
+        }
+        return tableAvailable;
+    }
+
+    private static boolean isTableAvailable(Connection connection, String tableName) throws SQLException {
+
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[]{tableName, tableName.toLowerCase(Locale.ENGLISH)}) {
+            try (ResultSet resultSet = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                if (resultSet.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the query of a page of the users in a range of the identity data values. The users are ordered by the
+     * username, which follows the tenant in the primary key, so a page after a cursor seeks on the username instead
+     * of reading the rows of the previous pages. Unlike the value order, the username order does not change when
+     * the value of a user is updated during an iteration, hence no user is returned twice.
+     */
+    private String getClaimValueRangeAfterCursorQuery(String databaseType, boolean isNumericFilter,
+                                                      boolean hasLowerValue, boolean hasUpperValue,
+                                                      boolean hasCursor) {
+
+        StringBuilder sqlStmt = new StringBuilder("SELECT USER_NAME FROM ")
+                .append(isNumericFilter ? NUMERIC_DATA_TABLE : "IDN_IDENTITY_USER_DATA")
+                .append(" WHERE DATA_KEY = ? AND TENANT_ID = ?");
+        if (hasUpperValue) {
+            sqlStmt.append(" AND DATA_VALUE < ?");
+        }
+        if (hasLowerValue) {
+            sqlStmt.append(" AND DATA_VALUE > ?");
+        }
+        if (hasCursor) {
+            sqlStmt.append(" AND USER_NAME > ?");
+        }
+        sqlStmt.append(" ORDER BY USER_NAME");
+        if (MSSQL.equals(databaseType) || ORACLE.equals(databaseType)) {
+            sqlStmt.append(" OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        } else {
+            sqlStmt.append(" LIMIT ?");
+        }
+        return sqlStmt.toString();
+    }
+
+    private void setRangeFilterValue(PreparedStatement prepStmt, int parameterIndex, String value,
+                                     boolean isNumericFilter) throws SQLException {
+
+        if (isNumericFilter) {
+            prepStmt.setLong(parameterIndex, parseNumericDataValue(value));
+        } else {
+            prepStmt.setString(parameterIndex, value);
+        }
+    }
+
+    private static Long parseNumericDataValue(String value) {
+
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private void populatePrepareStatement(SqlBuilder sqlBuilder, PreparedStatement prepStmt, int startIndex,
                                           int endIndex) throws SQLException {
 
@@ -595,7 +1593,8 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
     }
 
     private SqlBuilder getQueryString(List<ExpressionCondition> identityClaimFilterExpressionConditions,
-                                      int limit, int offset, String userStoreDomain, int tenantID, String dbType) {
+                                      List<ExpressionCondition> notEqualConditions, int limit, int offset,
+                                      String userStoreDomain, int tenantID, String dbType, String afterUserName) {
 
         boolean hitClaimFilter = false;
         String userNameWithDomain;
@@ -611,6 +1610,10 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
                     userStoreDomain.toUpperCase() + UserCoreConstants.DOMAIN_SEPARATOR + SQL_FILTER_STRING_ANY;
             sqlBuilder.where(" USER_NAME LIKE ? ", userNameWithDomain);
         }
+        if (afterUserName != null) {
+            // Seek on the (TENANT_ID, USER_NAME) primary key prefix, in every intersected query.
+            sqlBuilder.where(" USER_NAME > ? ", afterUserName);
+        }
 
         SqlBuilder header = new SqlBuilder(new StringBuilder(sqlBuilder.getSql()));
         addingWheres(sqlBuilder, header);
@@ -628,6 +1631,10 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
             multiClaimQueryBuilder(sqlBuilder, header, hitClaimFilter, expressionCondition);
             hitClaimFilter = true;
         }
+        if (!notEqualConditions.isEmpty()) {
+            // Excluding the users from the last intersected query excludes them from the intersection.
+            buildNotEqualConditions(sqlBuilder, notEqualConditions);
+        }
 
         if (DB2.equals(dbType)) {
             sqlBuilder.setTail(" ORDER BY USER_NAME LIMIT ? , ? ", limit, offset);
@@ -709,6 +1716,30 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         }
     }
 
+    /**
+     * Excludes the users who have the value of any of the given not-equal conditions. Users without a value for the
+     * claims of the conditions are not excluded.
+     *
+     * @param sqlBuilder         SqlBuilder of the query.
+     * @param notEqualConditions List of expression conditions with NOT_EQUAL operation.
+     */
+    private void buildNotEqualConditions(SqlBuilder sqlBuilder, List<ExpressionCondition> notEqualConditions) {
+
+        sqlBuilder.updateSql(" AND NOT EXISTS (SELECT 1 FROM IDN_IDENTITY_USER_DATA EXCLUDED WHERE " +
+                "EXCLUDED.TENANT_ID = IDN_IDENTITY_USER_DATA.TENANT_ID AND " +
+                "EXCLUDED.USER_NAME = IDN_IDENTITY_USER_DATA.USER_NAME AND (");
+        boolean hitFirstCondition = false;
+        for (ExpressionCondition notEqualCondition : notEqualConditions) {
+            if (hitFirstCondition) {
+                sqlBuilder.updateSql(" OR ");
+            }
+            sqlBuilder.appendParameterizedSqlFragment("(EXCLUDED.DATA_KEY = ? AND EXCLUDED.DATA_VALUE = ?)",
+                    Arrays.asList(notEqualCondition.getAttributeName(), notEqualCondition.getAttributeValue()));
+            hitFirstCondition = true;
+        }
+        sqlBuilder.updateSql("))");
+    }
+
     private void buildClaimWhereConditionsWithOROperator(SqlBuilder sqlBuilder, String attributeName, String operation,
                                                          String attributeValue, boolean isFirstCondition) {
 
@@ -869,6 +1900,31 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
             List<ExpressionCondition> conditionsWithoutNotEqualOperator, String domain, int tenantId, int limit,
             int offset, boolean combineConditionsWithOR) throws IdentityException {
 
+        return getFilteredUsernames(conditionsWithoutNotEqualOperator, Collections.emptyList(), domain, tenantId,
+                limit, offset, combineConditionsWithOR, null);
+    }
+
+    /**
+     * Retrieves filtered usernames based on the provided conditions, excluding the users who have the value of any
+     * of the provided not-equal conditions, which are after the given username in the username order.
+     *
+     * @param conditionsWithoutNotEqualOperator List of expression conditions (non not-equal).
+     * @param notEqualConditions                List of expression conditions with NOT_EQUAL operation. Only
+     *                                          supported when the conditions are combined with AND logic.
+     * @param domain                            User store domain.
+     * @param tenantId                          Tenant ID.
+     * @param limit                             Maximum number of results to return.
+     * @param offset                            Starting offset for pagination.
+     * @param combineConditionsWithOR           Whether to combine conditions with OR logic (true) or AND logic (false).
+     * @param afterUserName                     Username to start after, or null to start from the first user.
+     * @return List of user names that match the conditions.
+     * @throws IdentityException if database operation fails.
+     */
+    private List<String> getFilteredUsernames(List<ExpressionCondition> conditionsWithoutNotEqualOperator,
+                                              List<ExpressionCondition> notEqualConditions, String domain,
+                                              int tenantId, int limit, int offset, boolean combineConditionsWithOR,
+                                              String afterUserName) throws IdentityException {
+
         List<String> userNames = new ArrayList<>();
 
         try (Connection connection = IdentityDatabaseUtil.getDBConnection()) {
@@ -885,7 +1941,8 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
             if (combineConditionsWithOR) {
                 sqlBuilder = getQueryStringWithOROperator(conditionsWithoutNotEqualOperator, domain, tenantId);
             } else {
-                sqlBuilder = getQueryString(conditionsWithoutNotEqualOperator, limit, offset, domain, tenantId, dBType);
+                sqlBuilder = getQueryString(conditionsWithoutNotEqualOperator, notEqualConditions, limit, offset,
+                        domain, tenantId, dBType, afterUserName);
             }
             String fullQuery = sqlBuilder.getQuery();
             int occurrence = StringUtils.countMatches(fullQuery, QUERY_BINDING_SYMBOL);
@@ -978,6 +2035,162 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         return paginateUserList(filteredUserNames, limit, offset);
     }
 
+    /**
+     * Retrieves a page of the users of the user store domain who do not have the value of any of the provided
+     * not-equal conditions. The user store is listed a page at a time, and the users of each listed page who have
+     * the values are excluded with a single query.
+     *
+     * @param notEqualConditions List of expression conditions with NOT_EQUAL operation.
+     * @param domain             User store domain.
+     * @param tenantId           Tenant ID.
+     * @param userStoreManager   UserStoreManager instance to interact with the user store.
+     * @param limit              Maximum number of usernames of the page.
+     * @param cursor             Cursor returned with the previous page, or null for the first page.
+     * @return Page of usernames with the offset of the user store listing in the cursor.
+     * @throws IdentityException if an error occurs while retrieving users.
+     */
+    private UserNamePage listUserStoreUserNamesAfterCursor(List<ExpressionCondition> notEqualConditions,
+                                                           String domain, int tenantId,
+                                                           org.wso2.carbon.user.core.UserStoreManager
+                                                                   userStoreManager, int limit, String cursor)
+            throws IdentityException {
+
+        int offset = UserNamePage.fromOffsetCursor(cursor);
+        int listingPageSize = Math.min(limit, MAX_USERS_PER_LOAD_QUERY);
+        List<String> userNames = new ArrayList<>();
+        boolean hasMoreUsers = true;
+        while (hasMoreUsers && userNames.size() < limit) {
+            List<String> listedUserNames = listUserStoreUserNames(userStoreManager, domain, listingPageSize, offset);
+            hasMoreUsers = listedUserNames.size() == listingPageSize;
+            Set<String> excludedUserNames = getUserNamesWithClaimValues(listedUserNames, notEqualConditions,
+                    tenantId);
+            for (String userName : listedUserNames) {
+                if (userNames.size() == limit) {
+                    hasMoreUsers = true;
+                    break;
+                }
+                offset++;
+                if (!excludedUserNames.contains(userName)) {
+                    userNames.add(userName);
+                }
+            }
+        }
+        return new UserNamePage(userNames, hasMoreUsers ? UserNamePage.toOffsetCursor(offset) : null);
+    }
+
+    /**
+     * Lists a page of the users of the user store domain.
+     *
+     * @param userStoreManager UserStoreManager instance to interact with the user store.
+     * @param domain           User store domain.
+     * @param limit            Maximum number of usernames of the page.
+     * @param offset           Zero based offset of the page.
+     * @return Domain qualified usernames of the page.
+     * @throws IdentityException if an error occurs while retrieving users.
+     */
+    private List<String> listUserStoreUserNames(org.wso2.carbon.user.core.UserStoreManager userStoreManager,
+                                                String domain, int limit, int offset) throws IdentityException {
+
+        if (userStoreManager instanceof AbstractUserStoreManager) {
+            String filter = domain + UserCoreConstants.DOMAIN_SEPARATOR + QUERY_FILTER_STRING_ANY;
+            try {
+                // The offsets of the paginated user listing start from 1.
+                String[] users = ((AbstractUserStoreManager) userStoreManager).listUsers(filter, limit, offset + 1);
+                return users != null ? Arrays.asList(users) : Collections.emptyList();
+            } catch (org.wso2.carbon.user.core.UserStoreException e) {
+                throw new IdentityException("Error occurred while retrieving users from User Store.", e);
+            }
+        }
+        // User store managers without a paginated listing can only list all the users of the domain.
+        List<String> users = getAllUsernamesFromUserStore(userStoreManager, domain);
+        if (offset >= users.size()) {
+            return Collections.emptyList();
+        }
+        return users.subList(offset, Math.min(offset + limit, users.size()));
+    }
+
+    /**
+     * Retrieves the given users who have the value of any of the provided not-equal conditions.
+     *
+     * @param userNames          Domain qualified usernames.
+     * @param notEqualConditions List of expression conditions with NOT_EQUAL operation.
+     * @param tenantId           Tenant ID.
+     * @return Usernames of the users who have any of the values.
+     * @throws IdentityException if database operation fails.
+     */
+    private Set<String> getUserNamesWithClaimValues(List<String> userNames,
+                                                    List<ExpressionCondition> notEqualConditions, int tenantId)
+            throws IdentityException {
+
+        Set<String> matchedUserNames = new HashSet<>();
+        if (userNames.isEmpty()) {
+            return matchedUserNames;
+        }
+        StringBuilder sqlStmt = new StringBuilder(SQLQuery.FILTER_USERS_WITH_DATA_VALUES)
+                .append(String.join(", ", Collections.nCopies(userNames.size(), QUERY_BINDING_SYMBOL)))
+                .append(") AND (");
+        for (int i = 0; i < notEqualConditions.size(); i++) {
+            if (i > 0) {
+                sqlStmt.append(" OR ");
+            }
+            sqlStmt.append("(DATA_KEY = ? AND DATA_VALUE = ?)");
+        }
+        sqlStmt.append(")");
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(sqlStmt.toString())) {
+            int parameterIndex = 1;
+            prepStmt.setInt(parameterIndex++, tenantId);
+            for (String userName : userNames) {
+                prepStmt.setString(parameterIndex++, userName);
+            }
+            for (ExpressionCondition notEqualCondition : notEqualConditions) {
+                prepStmt.setString(parameterIndex++, notEqualCondition.getAttributeName());
+                prepStmt.setString(parameterIndex++, notEqualCondition.getAttributeValue());
+            }
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    matchedUserNames.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityException("Error occurred while retrieving users from Identity Store.", e);
+        }
+        return matchedUserNames;
+    }
+
+    private static String encodeCursor(String userName) {
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(userName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) throws InvalidCursorException {
+
+        if (StringUtils.isEmpty(cursor)) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid pagination cursor: " + cursor, e);
+        }
+    }
+
+    private static String encodeRangeCursor(String lowerValue, String upperValue, String userName) {
+
+        return encodeCursor(StringUtils.defaultString(lowerValue)) + RANGE_CURSOR_SEPARATOR +
+                encodeCursor(StringUtils.defaultString(upperValue)) + RANGE_CURSOR_SEPARATOR + encodeCursor(userName);
+    }
+
+    private static String[] decodeRangeCursor(String cursor) throws InvalidCursorException {
+
+        String[] cursorParts = cursor.split(Pattern.quote(RANGE_CURSOR_SEPARATOR), -1);
+        if (cursorParts.length != 3 || cursorParts[2].isEmpty()) {
+            throw new InvalidCursorException("Invalid pagination cursor: " + cursor);
+        }
+        return new String[]{decodeCursor(cursorParts[0]), decodeCursor(cursorParts[1]), decodeCursor(cursorParts[2])};
+    }
+
     /**
      * This class contains the SQL queries.
      * Schema:
@@ -993,11 +2206,71 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         public static final String UPDATE_USER_DATA_CASE_INSENSITIVE = "UPDATE IDN_IDENTITY_USER_DATA SET " +
                 "DATA_VALUE=? WHERE TENANT_ID=? AND LOWER(USER_NAME)=LOWER(?) AND DATA_KEY=?";
 
+        /*
+         * Upserts of the identity data. The parameters are tenantId, userName, DataKey, DataValue in all the
+         * queries. MERGE is used for H2, DB2, Oracle and MSSQL, ON CONFLICT for PostgreSQL and ON DUPLICATE KEY
+         * for MySQL.
+         */
+        public static final String UPSERT_USER_DATA_VALUES_MERGE = "MERGE INTO IDN_IDENTITY_USER_DATA T USING " +
+                "(VALUES (CAST(? AS INTEGER), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), " +
+                "CAST(? AS VARCHAR(2048)))) S (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) ON " +
+                "(T.TENANT_ID = S.TENANT_ID AND T.USER_NAME = S.USER_NAME AND T.DATA_KEY = S.DATA_KEY) " +
+                "WHEN MATCHED THEN UPDATE SET DATA_VALUE = S.DATA_VALUE WHEN NOT MATCHED THEN INSERT " +
+                "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, S.USER_NAME, S.DATA_KEY, " +
+                "S.DATA_VALUE)";
+        public static final String UPSERT_USER_DATA_VALUES_MERGE_CASE_INSENSITIVE = "MERGE INTO " +
+                "IDN_IDENTITY_USER_DATA T USING (VALUES (CAST(? AS INTEGER), CAST(? AS VARCHAR(255)), " +
+                "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(2048)))) S (TENANT_ID, USER_NAME, DATA_KEY, " +
+                "DATA_VALUE) ON (T.TENANT_ID = S.TENANT_ID AND LOWER(T.USER_NAME) = LOWER(S.USER_NAME) AND " +
+                "T.DATA_KEY = S.DATA_KEY) WHEN MATCHED THEN UPDATE SET DATA_VALUE = S.DATA_VALUE WHEN NOT " +
+                "MATCHED THEN INSERT (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, " +
+                "S.USER_NAME, S.DATA_KEY, S.DATA_VALUE)";
+
+        public static final String UPSERT_USER_DATA_ORACLE = "MERGE INTO IDN_IDENTITY_USER_DATA T USING " +
+                "(SELECT ? TENANT_ID, ? USER_NAME, ? DATA_KEY, ? DATA_VALUE FROM DUAL) S ON " +
+                "(T.TENANT_ID = S.TENANT_ID AND T.USER_NAME = S.USER_NAME AND T.DATA_KEY = S.DATA_KEY) " +
+                "WHEN MATCHED THEN UPDATE SET T.DATA_VALUE = S.DATA_VALUE WHEN NOT MATCHED THEN INSERT " +
+                "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, S.USER_NAME, S.DATA_KEY, " +
+                "S.DATA_VALUE)";
+        public static final String UPSERT_USER_DATA_ORACLE_CASE_INSENSITIVE = "MERGE INTO IDN_IDENTITY_USER_DATA T " +
+                "USING (SELECT ? TENANT_ID, ? USER_NAME, ? DATA_KEY, ? DATA_VALUE FROM DUAL) S ON " +
+                "(T.TENANT_ID = S.TENANT_ID AND LOWER(T.USER_NAME) = LOWER(S.USER_NAME) AND " +
+                "T.DATA_KEY = S.DATA_KEY) WHEN MATCHED THEN UPDATE SET T.DATA_VALUE = S.DATA_VALUE WHEN NOT " +
+                "MATCHED THEN INSERT (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, " +
+                "S.USER_NAME, S.DATA_KEY, S.DATA_VALUE)";
+
+        // HOLDLOCK keeps the matched range locked, so concurrent merges do not insert the same key.
+        public static final String UPSERT_USER_DATA_MSSQL = "MERGE INTO IDN_IDENTITY_USER_DATA WITH (HOLDLOCK) AS T " +
+                "USING (VALUES (?, ?, ?, ?)) AS S (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) ON " +
+                "(T.TENANT_ID = S.TENANT_ID AND T.USER_NAME = S.USER_NAME AND T.DATA_KEY = S.DATA_KEY) " +
+                "WHEN MATCHED THEN UPDATE SET DATA_VALUE = S.DATA_VALUE WHEN NOT MATCHED THEN INSERT " +
+                "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, S.USER_NAME, S.DATA_KEY, " +
+                "S.DATA_VALUE);";
+        public static final String UPSERT_USER_DATA_MSSQL_CASE_INSENSITIVE = "MERGE INTO IDN_IDENTITY_USER_DATA " +
+                "WITH (HOLDLOCK) AS T USING (VALUES (?, ?, ?, ?)) AS S (TENANT_ID, USER_NAME, DATA_KEY, " +
+                "DATA_VALUE) ON (T.TENANT_ID = S.TENANT_ID AND LOWER(T.USER_NAME) = LOWER(S.USER_NAME) AND " +
+                "T.DATA_KEY = S.DATA_KEY) WHEN MATCHED THEN UPDATE SET DATA_VALUE = S.DATA_VALUE WHEN NOT " +
+                "MATCHED THEN INSERT (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, " +
+                "S.USER_NAME, S.DATA_KEY, S.DATA_VALUE);";
+
+        public static final String UPSERT_USER_DATA_POSTGRESQL = "INSERT INTO IDN_IDENTITY_USER_DATA (TENANT_ID, " +
+                "USER_NAME, DATA_KEY, DATA_VALUE) VALUES (?, ?, ?, ?) ON CONFLICT (TENANT_ID, USER_NAME, DATA_KEY) " +
+                "DO UPDATE SET DATA_VALUE = EXCLUDED.DATA_VALUE";
+
+        public static final String UPSERT_USER_DATA_MYSQL = "INSERT INTO IDN_IDENTITY_USER_DATA (TENANT_ID, " +
+                "USER_NAME, DATA_KEY, DATA_VALUE) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                "DATA_VALUE = VALUES(DATA_VALUE)";
+
         public static final String LOAD_USER_DATA = "SELECT DATA_KEY, DATA_VALUE FROM IDN_IDENTITY_USER_DATA WHERE " +
                 "TENANT_ID = ? AND USER_NAME = ?";
         public static final String LOAD_USER_DATA_CASE_INSENSITIVE = "SELECT " + "DATA_KEY, DATA_VALUE FROM " +
                 "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND LOWER(USER_NAME) = LOWER(?)";
 
+        public static final String LOAD_USERS_DATA = "SELECT USER_NAME, DATA_KEY, DATA_VALUE FROM " +
+                "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND USER_NAME IN (";
+        public static final String LOAD_USERS_DATA_CASE_INSENSITIVE = "SELECT USER_NAME, DATA_KEY, DATA_VALUE FROM " +
+                "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND LOWER(USER_NAME) IN (";
+
         public static final String DELETE_USER_DATA = "DELETE FROM IDN_IDENTITY_USER_DATA WHERE " +
                 "TENANT_ID = ? AND USER_NAME = ?";
         public static final String DELETE_USER_DATA_CASE_INSENSITIVE = "DELETE FROM IDN_IDENTITY_USER_DATA WHERE " +
@@ -1008,6 +2281,9 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
                 "FROM IDN_IDENTITY_USER_DATA " +
                 "WHERE DATA_KEY = ? AND DATA_VALUE LIKE ? AND TENANT_ID = ? AND USER_NAME LIKE ?";
 
+        public static final String FILTER_USERS_WITH_DATA_VALUES = "SELECT DISTINCT USER_NAME FROM " +
+                "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND USER_NAME IN (";
+
         public static final String FILTER_USERS_BY_DATA_KEY_LESS_THAN_DATA_VALUE =
                 "SELECT USER_NAME, DATA_VALUE FROM IDN_IDENTITY_USER_DATA WHERE " +
                         "DATA_KEY = ? AND TENANT_ID = ? AND DATA_VALUE < ?";
@@ -1020,6 +2296,94 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
                 "SELECT USER_NAME, DATA_VALUE FROM IDN_IDENTITY_USER_DATA WHERE " +
                         "DATA_KEY = ? AND TENANT_ID = ? AND DATA_VALUE < ? AND DATA_VALUE > ?";
 
+        /*
+         * Schema of the numeric values of the epoch time valued identity data:
+         * ||TENANT_ID || USER_NAME || DATA_KEY || DATA_VALUE (BIGINT) ||
+         * The primary key is tenantId, userName, DataKey combination and the range filters use the
+         * tenantId, DataKey, DataValue index.
+         */
+        public static final String STORE_USER_NUMERIC_DATA = "INSERT INTO IDN_IDENTITY_USER_DATA_NUMERIC " +
+                "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) SELECT TENANT_ID, USER_NAME, DATA_KEY, ? FROM " +
+                "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND USER_NAME = ? AND DATA_KEY = ?";
+        public static final String STORE_USER_NUMERIC_DATA_CASE_INSENSITIVE = "INSERT INTO " +
+                "IDN_IDENTITY_USER_DATA_NUMERIC (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) SELECT TENANT_ID, " +
+                "USER_NAME, DATA_KEY, ? FROM IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND " +
+                "LOWER(USER_NAME) = LOWER(?) AND DATA_KEY = ?";
+
+        public static final String DELETE_USER_NUMERIC_DATA_BY_KEY = "DELETE FROM IDN_IDENTITY_USER_DATA_NUMERIC " +
+                "WHERE TENANT_ID = ? AND USER_NAME = ? AND DATA_KEY = ?";
+        public static final String DELETE_USER_NUMERIC_DATA_BY_KEY_CASE_INSENSITIVE = "DELETE FROM " +
+                "IDN_IDENTITY_USER_DATA_NUMERIC WHERE TENANT_ID = ? AND LOWER(USER_NAME) = LOWER(?) AND DATA_KEY = ?";
+
+        public static final String DELETE_USER_NUMERIC_DATA = "DELETE FROM IDN_IDENTITY_USER_DATA_NUMERIC WHERE " +
+                "TENANT_ID = ? AND USER_NAME = ?";
+        public static final String DELETE_USER_NUMERIC_DATA_CASE_INSENSITIVE = "DELETE FROM " +
+                "IDN_IDENTITY_USER_DATA_NUMERIC WHERE TENANT_ID = ? AND LOWER(USER_NAME) = LOWER(?)";
+
+        public static final String LIST_UNINDEXED_NUMERIC_DATA = "SELECT D.TENANT_ID, D.USER_NAME, D.DATA_KEY, " +
+                "D.DATA_VALUE FROM IDN_IDENTITY_USER_DATA D WHERE D.DATA_KEY IN (" +
+                String.join(", ", Collections.nCopies(NUMERIC_DATA_KEYS.size(), QUERY_BINDING_SYMBOL)) + ") AND " +
+                "(D.TENANT_ID > ? OR (D.TENANT_ID = ? AND (D.USER_NAME > ? OR (D.USER_NAME = ? AND " +
+                "D.DATA_KEY > ?)))) AND NOT EXISTS (SELECT 1 FROM IDN_IDENTITY_USER_DATA_NUMERIC N WHERE " +
+                "N.TENANT_ID = D.TENANT_ID AND N.USER_NAME = D.USER_NAME AND N.DATA_KEY = D.DATA_KEY) " +
+                "ORDER BY D.TENANT_ID, D.USER_NAME, D.DATA_KEY";
+
+        /*
+         * Back fill of a numeric value. The parameters are the numeric value, tenantId, userName, DataKey and the
+         * DataValue read for the back fill in all the queries. The row is skipped if it was changed or indexed by a
+         * concurrent store after it was read. The MERGE, ON CONFLICT and ON DUPLICATE KEY variants also skip a row
+         * indexed by a store which is not yet committed, instead of failing the batch.
+         */
+        public static final String BACKFILL_USER_NUMERIC_DATA = "INSERT INTO IDN_IDENTITY_USER_DATA_NUMERIC " +
+                "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) SELECT D.TENANT_ID, D.USER_NAME, D.DATA_KEY, ? FROM " +
+                "IDN_IDENTITY_USER_DATA D WHERE D.TENANT_ID = ? AND D.USER_NAME = ? AND D.DATA_KEY = ? AND " +
+                "D.DATA_VALUE = ? AND NOT EXISTS (SELECT 1 FROM IDN_IDENTITY_USER_DATA_NUMERIC N WHERE " +
+                "N.TENANT_ID = D.TENANT_ID AND N.USER_NAME = D.USER_NAME AND N.DATA_KEY = D.DATA_KEY)";
+        public static final String BACKFILL_USER_NUMERIC_DATA_MERGE = "MERGE INTO IDN_IDENTITY_USER_DATA_NUMERIC T " +
+                "USING (SELECT D.TENANT_ID, D.USER_NAME, D.DATA_KEY, CAST(? AS BIGINT) AS DATA_VALUE FROM " +
+                "IDN_IDENTITY_USER_DATA D WHERE D.TENANT_ID = ? AND D.USER_NAME = ? AND D.DATA_KEY = ? AND " +
+                "D.DATA_VALUE = ?) S ON (T.TENANT_ID = S.TENANT_ID AND T.USER_NAME = S.USER_NAME AND " +
+                "T.DATA_KEY = S.DATA_KEY) WHEN NOT MATCHED THEN INSERT (TENANT_ID, USER_NAME, DATA_KEY, " +
+                "DATA_VALUE) VALUES (S.TENANT_ID, S.USER_NAME, S.DATA_KEY, S.DATA_VALUE)";
+        public static final String BACKFILL_USER_NUMERIC_DATA_ORACLE = "MERGE INTO IDN_IDENTITY_USER_DATA_NUMERIC " +
+                "T USING (SELECT D.TENANT_ID, D.USER_NAME, D.DATA_KEY, ? DATA_VALUE FROM IDN_IDENTITY_USER_DATA D " +
+                "WHERE D.TENANT_ID = ? AND D.USER_NAME = ? AND D.DATA_KEY = ? AND D.DATA_VALUE = ?) S ON " +
+                "(T.TENANT_ID = S.TENANT_ID AND T.USER_NAME = S.USER_NAME AND T.DATA_KEY = S.DATA_KEY) WHEN NOT " +
+                "MATCHED THEN INSERT (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, " +
+                "S.USER_NAME, S.DATA_KEY, S.DATA_VALUE)";
+        public static final String BACKFILL_USER_NUMERIC_DATA_MSSQL = "MERGE INTO IDN_IDENTITY_USER_DATA_NUMERIC " +
+                "WITH (HOLDLOCK) AS T USING (SELECT D.TENANT_ID, D.USER_NAME, D.DATA_KEY, CAST(? AS BIGINT) AS " +
+                "DATA_VALUE FROM IDN_IDENTITY_USER_DATA D WHERE D.TENANT_ID = ? AND D.USER_NAME = ? AND " +
+                "D.DATA_KEY = ? AND D.DATA_VALUE = ?) AS S ON (T.TENANT_ID = S.TENANT_ID AND " +
+                "T.USER_NAME = S.USER_NAME AND T.DATA_KEY = S.DATA_KEY) WHEN NOT MATCHED THEN INSERT (TENANT_ID, " +
+                "USER_NAME, DATA_KEY, DATA_VALUE) VALUES (S.TENANT_ID, S.USER_NAME, S.DATA_KEY, S.DATA_VALUE);";
+        public static final String BACKFILL_USER_NUMERIC_DATA_POSTGRESQL = BACKFILL_USER_NUMERIC_DATA +
+                " ON CONFLICT (TENANT_ID, USER_NAME, DATA_KEY) DO NOTHING";
+        public static final String BACKFILL_USER_NUMERIC_DATA_MYSQL = BACKFILL_USER_NUMERIC_DATA +
+                " ON DUPLICATE KEY UPDATE DATA_VALUE = IDN_IDENTITY_USER_DATA_NUMERIC.DATA_VALUE";
+
+        // State of the numeric values, such as the completion of the back fill, shared by the nodes.
+        public static final String GET_NUMERIC_DATA_STATE = "SELECT STATE_VALUE FROM IDN_IDENTITY_DATA_NUM_STATE " +
+                "WHERE STATE_KEY = ?";
+        public static final String ADD_NUMERIC_DATA_STATE = "INSERT INTO IDN_IDENTITY_DATA_NUM_STATE " +
+                "(STATE_KEY, STATE_VALUE) VALUES (?, ?)";
+        public static final String REPLACE_NUMERIC_DATA_STATE = "UPDATE IDN_IDENTITY_DATA_NUM_STATE SET " +
+                "STATE_VALUE = ? WHERE STATE_KEY = ? AND STATE_VALUE = ?";
+        public static final String DELETE_NUMERIC_DATA_STATE = "DELETE FROM IDN_IDENTITY_DATA_NUM_STATE WHERE " +
+                "STATE_KEY = ? AND STATE_VALUE = ?";
+
+        public static final String FILTER_USERS_BY_DATA_KEY_LESS_THAN_NUMERIC_DATA_VALUE =
+                "SELECT USER_NAME, DATA_VALUE FROM IDN_IDENTITY_USER_DATA_NUMERIC WHERE " +
+                        "DATA_KEY = ? AND TENANT_ID = ? AND DATA_VALUE < ?";
+
+        public static final String FILTER_USERS_BY_DATA_KEY_MORE_THAN_NUMERIC_DATA_VALUE =
+                "SELECT USER_NAME, DATA_VALUE FROM IDN_IDENTITY_USER_DATA_NUMERIC WHERE " +
+                        "DATA_KEY = ? AND TENANT_ID = ? AND DATA_VALUE > ?";
+
+        public static final String FILTER_USERS_BY_DATA_KEY_LESS_THAN_AND_GREATER_THAN_NUMERIC_DATA_VALUES =
+                "SELECT USER_NAME, DATA_VALUE FROM IDN_IDENTITY_USER_DATA_NUMERIC WHERE " +
+                        "DATA_KEY = ? AND TENANT_ID = ? AND DATA_VALUE < ? AND DATA_VALUE > ?";
+
         private SQLQuery() {
         }
     }
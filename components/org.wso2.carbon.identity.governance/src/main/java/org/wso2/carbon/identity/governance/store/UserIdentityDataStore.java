@@ -20,13 +20,18 @@ package org.wso2.carbon.identity.governance.store;
 
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.governance.model.UserIdentityClaim;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.user.api.UserStoreManager;
 import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.model.Condition;
 import org.wso2.carbon.user.core.model.ExpressionCondition;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This interface provides to plug module for preferred persistence store.
@@ -73,6 +78,27 @@ public abstract class UserIdentityDataStore {
      */
     public abstract UserIdentityClaim load(String userName, UserStoreManager userStoreManager);
 
+    /**
+     * Load the identity claims of a set of users who belong to the same user store.
+     *
+     * @param userNames        Usernames of the users.
+     * @param userStoreManager UserStoreManager instance of the user store which the users belong to.
+     * @return Map of the given username to the identity claims of the user. Users whose identity data could not be
+     * loaded are not included in the map.
+     */
+    public Map<String, UserIdentityClaim> loadAll(Collection<String> userNames, UserStoreManager userStoreManager) {
+
+        // This method should be overridden by the sub classes which can load the data of several users at once.
+        Map<String, UserIdentityClaim> userIdentityClaims = new HashMap<>();
+        for (String userName : userNames) {
+            UserIdentityClaim userIdentityClaim = load(userName, userStoreManager);
+            if (userIdentityClaim != null) {
+                userIdentityClaims.put(userName, userIdentityClaim);
+            }
+        }
+        return userIdentityClaims;
+    }
+
 
     /**
      * Removes
@@ -117,6 +143,33 @@ public abstract class UserIdentityDataStore {
         return Collections.emptyList();
     }
 
+    /**
+     * List users according to the given expression conditions, starting after the position of the given cursor.
+     * Unlike offset based pagination, the cost of a page does not depend on how deep the page is. Sub classes which
+     * do not override this method are paged with {@link #listPaginatedUsersNames}, keeping the offset in the cursor.
+     *
+     * @param expressionConditions List of expression conditions.
+     * @param domain               User store domain.
+     * @param userStoreManager     UserStoreManager instance.
+     * @param limit                Maximum number of usernames of the page.
+     * @param cursor               Cursor returned with the previous page, or null for the first page.
+     * @return Page of usernames.
+     * @throws IdentityException Identity Exception.
+     */
+    public UserNamePage listUserNamesAfterCursor(List<ExpressionCondition> expressionConditions, String domain,
+                                                 org.wso2.carbon.user.core.UserStoreManager userStoreManager,
+                                                 int limit, String cursor) throws IdentityException {
+
+        if (limit <= 0) {
+            return new UserNamePage(Collections.emptyList(), null);
+        }
+        int offset = UserNamePage.fromOffsetCursor(cursor);
+        // The offsets of the paginated user listing start from 1.
+        List<String> userNames = listPaginatedUsersNames(expressionConditions, new ArrayList<>(), domain,
+                userStoreManager, limit, offset + 1);
+        return UserNamePage.ofOffset(userNames, offset, limit);
+    }
+
     /**
      * Get the list of usernames who either do not have a value configured for the given claim URI
      * or have a value that differs from the provided claim value.
@@ -166,6 +219,40 @@ public abstract class UserIdentityDataStore {
         return Collections.emptyList();
     }
 
+    /**
+     * Get a page of usernames who have the claim value in the provided range for a given claim URI, starting after
+     * the given cursor. The pages are ordered by the username and the range of the first page is kept in the cursor,
+     * hence all the pages of an iteration are filtered with the same range. Sub classes which do not override this
+     * method list all the users in the range given with each page, and take the page from the ordered usernames.
+     *
+     * @param claimURI   Claim URI.
+     * @param lowerValue Exclusive lower bound of the claim value, or null if the range does not have a lower bound.
+     * @param upperValue Exclusive upper bound of the claim value, or null if the range does not have an upper bound.
+     * @param tenantId   Tenant ID.
+     * @param limit      Maximum number of usernames of the page.
+     * @param cursor     Cursor returned with the previous page, or null for the first page.
+     * @return Page of usernames.
+     * @throws IdentityException Identity exception.
+     */
+    public UserNamePage listUserNamesByClaimValueRangeAfterCursor(String claimURI, String lowerValue,
+                                                                  String upperValue, int tenantId, int limit,
+                                                                  String cursor) throws IdentityException {
+
+        if (lowerValue != null && upperValue != null) {
+            return UserNamePage.ofAllUserNames(getUserNamesBetweenProvidedClaimValues(claimURI, lowerValue,
+                    upperValue, tenantId), limit, cursor);
+        }
+        if (upperValue != null) {
+            return UserNamePage.ofAllUserNames(getUserNamesLessThanProvidedClaimValue(claimURI, upperValue,
+                    tenantId), limit, cursor);
+        }
+        if (lowerValue != null) {
+            return UserNamePage.ofAllUserNames(getUserNamesMoreThanProvidedClaimValue(claimURI, lowerValue,
+                    tenantId), limit, cursor);
+        }
+        throw new IdentityException("A lower or an upper claim value is required to filter users by a range.");
+    }
+
     /**
      * Get the list of usernames who have the claim value between the provided claim values for a given claim URI.
      * @param claimURI              Claim URI.
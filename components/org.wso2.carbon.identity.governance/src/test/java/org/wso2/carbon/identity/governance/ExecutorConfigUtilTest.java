@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.mockStatic;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the shared executor and configuration utilities.
+ */
+public class ExecutorConfigUtilTest {
+
+    private static final String PROPERTY_NAME = "Test.PoolSize";
+
+    @Test
+    public void testGetPositiveIntProperty() {
+
+        Properties properties = new Properties();
+        assertEquals(ExecutorConfigUtil.getPositiveIntProperty(null, PROPERTY_NAME, 4), 4);
+        assertEquals(ExecutorConfigUtil.getPositiveIntProperty(properties, PROPERTY_NAME, 4), 4);
+        properties.setProperty(PROPERTY_NAME, " 12 ");
+        assertEquals(ExecutorConfigUtil.getPositiveIntProperty(properties, PROPERTY_NAME, 4), 12);
+        properties.setProperty(PROPERTY_NAME, "0");
+        assertEquals(ExecutorConfigUtil.getPositiveIntProperty(properties, PROPERTY_NAME, 4), 4);
+        properties.setProperty(PROPERTY_NAME, "-3");
+        assertEquals(ExecutorConfigUtil.getPositiveIntProperty(properties, PROPERTY_NAME, 4), 4);
+        properties.setProperty(PROPERTY_NAME, "abc");
+        assertEquals(ExecutorConfigUtil.getPositiveIntProperty(properties, PROPERTY_NAME, 4), 4);
+    }
+
+    @Test
+    public void testGetNonNegativeIntProperty() {
+
+        try (MockedStatic<IdentityUtil> identityUtil = mockStatic(IdentityUtil.class)) {
+            assertEquals(ExecutorConfigUtil.getNonNegativeIntProperty(PROPERTY_NAME, 4), 4);
+            identityUtil.when(() -> IdentityUtil.getProperty(PROPERTY_NAME)).thenReturn("0");
+            assertEquals(ExecutorConfigUtil.getNonNegativeIntProperty(PROPERTY_NAME, 4), 0);
+            assertEquals(ExecutorConfigUtil.getPositiveIntProperty(PROPERTY_NAME, 4), 4);
+            identityUtil.when(() -> IdentityUtil.getProperty(PROPERTY_NAME)).thenReturn("-1");
+            assertEquals(ExecutorConfigUtil.getNonNegativeIntProperty(PROPERTY_NAME, 4), 4);
+        }
+    }
+
+    @Test
+    public void testSaturatedExecutorRunsTasksInCaller() throws Exception {
+
+        ThreadPoolExecutor executor = ExecutorConfigUtil.createCallerRunsExecutor("TestExecutor", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            // Occupy the only thread and the only queue slot, so the next task is rejected to the caller.
+            executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            executor.execute(() -> { });
+
+            AtomicReference<Thread> runner = new AtomicReference<>();
+            executor.execute(() -> runner.set(Thread.currentThread()));
+            assertSame(runner.get(), Thread.currentThread());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        executor.execute(() -> runner.set(Thread.currentThread()));
+        assertSame(runner.get(), Thread.currentThread(), "Tasks should run in the caller after shutdown.");
+    }
+
+    @Test
+    public void testExecutorThreadsAreNamedDaemons() throws Exception {
+
+        ThreadPoolExecutor executor = ExecutorConfigUtil.createCallerRunsExecutor("TestExecutor", 2, 2);
+        try {
+            AtomicReference<Thread> runner = new AtomicReference<>();
+            executor.submit(() -> runner.set(Thread.currentThread())).get(10, TimeUnit.SECONDS);
+            assertTrue(runner.get().isDaemon());
+            assertTrue(runner.get().getName().startsWith("TestExecutor-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositivePoolSizeRejected() {
+
+        ExecutorConfigUtil.createCallerRunsExecutor("TestExecutor", 0, 1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -29,17 +29,29 @@ import org.testng.annotations.Test;
 import org.wso2.carbon.identity.application.common.model.FederatedAuthenticatorConfig;
 import org.wso2.carbon.identity.application.common.model.IdentityProvider;
 import org.wso2.carbon.identity.application.common.model.IdentityProviderProperty;
+import org.wso2.carbon.identity.application.common.model.Property;
 import org.wso2.carbon.identity.governance.internal.IdentityMgtServiceDataHolder;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityGovernanceConfigCache;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityGovernanceConfigCacheEntry;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityGovernanceConfigCacheKey;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementException;
 import org.wso2.carbon.idp.mgt.IdpManager;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
 
 public class IdentityGovernanceServiceImplTest {
 
@@ -56,6 +68,8 @@ public class IdentityGovernanceServiceImplTest {
     private static final String PASSWORD_RECOVERY_EMAIL_OTP_ENABLE =
             "Recovery.Notification.Password.OTP.SendOTPInEmail";
     private static final String PASSWORD_RECOVERY_SMS_OTP_ENABLE = "Recovery.Notification.Password.smsOtp.Enable";
+    private static final String SECONDARY_TENANT_DOMAIN = "wso2.com";
+    private static final int CONFIG_READ_COUNT = 5000;
 
     @Mock
     IdentityMgtServiceDataHolder identityMgtServiceDataHolder;
@@ -68,6 +82,10 @@ public class IdentityGovernanceServiceImplTest {
 
     MockedStatic<IdentityMgtServiceDataHolder> identityMgtServiceDataHolderMockedStatic;
 
+    MockedStatic<IdentityGovernanceConfigCache> identityGovernanceConfigCacheMockedStatic;
+
+    private final Map<String, IdentityGovernanceConfigCacheEntry> configCacheEntries = new ConcurrentHashMap<>();
+
     private IdentityGovernanceServiceImpl identityGovernanceService;
 
     @BeforeMethod
@@ -83,6 +101,8 @@ public class IdentityGovernanceServiceImplTest {
         FederatedAuthenticatorConfig[] authenticatorConfigs = new FederatedAuthenticatorConfig[0];
         when(identityProvider.getFederatedAuthenticatorConfigs()).thenReturn(authenticatorConfigs);
 
+        mockIdentityGovernanceConfigCache();
+
         identityGovernanceService = new IdentityGovernanceServiceImpl();
     }
 
@@ -90,6 +110,110 @@ public class IdentityGovernanceServiceImplTest {
     public void tearDown() {
 
         identityMgtServiceDataHolderMockedStatic.close();
+        identityGovernanceConfigCacheMockedStatic.close();
+        configCacheEntries.clear();
+    }
+
+    @Test
+    public void testResidentIdPLoadedOncePerTenant() throws Exception {
+
+        when(identityProvider.getIdpProperties()).thenReturn(getUsernameRecoveryIdentityProviderProperties(
+                true, true, false));
+        IdentityProvider secondaryIdentityProvider = mock(IdentityProvider.class);
+        when(secondaryIdentityProvider.getIdpProperties()).thenReturn(getUsernameRecoveryIdentityProviderProperties(
+                false, false, false));
+        when(idpManager.getResidentIdP(SECONDARY_TENANT_DOMAIN)).thenReturn(secondaryIdentityProvider);
+
+        String[] propertyNames = new String[]{USERNAME_RECOVERY_EMAIL_ENABLE, "Non.Existing.Property"};
+        for (int i = 0; i < CONFIG_READ_COUNT; i++) {
+            Property[] tenantProperties = identityGovernanceService.getConfiguration(propertyNames, TENANT_DOMAIN);
+            Property[] secondaryTenantProperties = identityGovernanceService.getConfiguration(propertyNames,
+                    SECONDARY_TENANT_DOMAIN);
+            assertEquals(1, tenantProperties.length);
+            assertEquals(TRUE_STRING, tenantProperties[0].getValue());
+            assertEquals(1, secondaryTenantProperties.length);
+            assertEquals(FALSE_STRING, secondaryTenantProperties[0].getValue());
+            assertEquals(3, identityGovernanceService.getConfiguration(TENANT_DOMAIN).length);
+        }
+
+        verify(idpManager, times(1)).getResidentIdP(TENANT_DOMAIN);
+        verify(idpManager, times(1)).getResidentIdP(SECONDARY_TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testConfigurationCacheClearedOnUpdate() throws Exception {
+
+        when(identityProvider.getIdpProperties()).thenReturn(getUsernameRecoveryIdentityProviderProperties(
+                false, false, false));
+        String[] propertyNames = new String[]{USERNAME_RECOVERY_SMS_ENABLE};
+        assertEquals(FALSE_STRING, identityGovernanceService.getConfiguration(propertyNames, TENANT_DOMAIN)[0]
+                .getValue());
+
+        Map<String, String> configurationDetails = new HashMap<>();
+        configurationDetails.put(USERNAME_RECOVERY_SMS_ENABLE, TRUE_STRING);
+        identityGovernanceService.updateConfiguration(TENANT_DOMAIN, configurationDetails);
+        assertNull(configCacheEntries.get(TENANT_DOMAIN));
+
+        when(identityProvider.getIdpProperties()).thenReturn(getUsernameRecoveryIdentityProviderProperties(
+                true, false, true));
+        assertEquals(TRUE_STRING, identityGovernanceService.getConfiguration(propertyNames, TENANT_DOMAIN)[0]
+                .getValue());
+    }
+
+    @Test
+    public void testSnapshotNotCachedWhenClearedWhileBuilt() throws Exception {
+
+        when(identityProvider.getIdpProperties()).thenReturn(getUsernameRecoveryIdentityProviderProperties(
+                false, false, false));
+        // The configuration is updated after the resident IdP was read for the snapshot.
+        doAnswer(invocation -> {
+            identityGovernanceService.clearConfigurationCache(TENANT_DOMAIN);
+            return identityProvider;
+        }).doReturn(identityProvider).when(idpManager).getResidentIdP(TENANT_DOMAIN);
+        String[] propertyNames = new String[]{USERNAME_RECOVERY_SMS_ENABLE};
+        assertEquals(FALSE_STRING, identityGovernanceService.getConfiguration(propertyNames, TENANT_DOMAIN)[0]
+                .getValue());
+        assertNull(configCacheEntries.get(TENANT_DOMAIN));
+
+        when(identityProvider.getIdpProperties()).thenReturn(getUsernameRecoveryIdentityProviderProperties(
+                true, false, true));
+        assertEquals(TRUE_STRING, identityGovernanceService.getConfiguration(propertyNames, TENANT_DOMAIN)[0]
+                .getValue());
+        assertEquals(TRUE_STRING, configCacheEntries.get(TENANT_DOMAIN).getProperty(USERNAME_RECOVERY_SMS_ENABLE)
+                .getValue());
+        verify(idpManager, times(2)).getResidentIdP(TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testCachedPropertiesAreNotModifiable() throws Exception {
+
+        when(identityProvider.getIdpProperties()).thenReturn(getUsernameRecoveryIdentityProviderProperties(
+                false, false, false));
+        String[] propertyNames = new String[]{USERNAME_RECOVERY_ENABLE};
+        identityGovernanceService.getConfiguration(propertyNames, TENANT_DOMAIN)[0].setValue(TRUE_STRING);
+
+        assertEquals(FALSE_STRING, identityGovernanceService.getConfiguration(propertyNames, TENANT_DOMAIN)[0]
+                .getValue());
+    }
+
+    private void mockIdentityGovernanceConfigCache() {
+
+        IdentityGovernanceConfigCache identityGovernanceConfigCache = mock(IdentityGovernanceConfigCache.class);
+        identityGovernanceConfigCacheMockedStatic = mockStatic(IdentityGovernanceConfigCache.class);
+        identityGovernanceConfigCacheMockedStatic.when(IdentityGovernanceConfigCache::getInstance)
+                .thenReturn(identityGovernanceConfigCache);
+        when(identityGovernanceConfigCache.getValueFromCache(any(IdentityGovernanceConfigCacheKey.class),
+                anyString())).thenAnswer(invocation -> configCacheEntries.get(
+                ((IdentityGovernanceConfigCacheKey) invocation.getArgument(0)).getTenantDomain()));
+        doAnswer(invocation -> configCacheEntries.put(
+                ((IdentityGovernanceConfigCacheKey) invocation.getArgument(0)).getTenantDomain(),
+                invocation.getArgument(1))).when(identityGovernanceConfigCache)
+                .addToCache(any(IdentityGovernanceConfigCacheKey.class),
+                        any(IdentityGovernanceConfigCacheEntry.class), anyString());
+        doAnswer(invocation -> configCacheEntries.remove(
+                ((IdentityGovernanceConfigCacheKey) invocation.getArgument(0)).getTenantDomain()))
+                .when(identityGovernanceConfigCache)
+                .clearCacheEntry(any(IdentityGovernanceConfigCacheKey.class), anyString());
     }
 
     @Test(dataProvider = "updateConfigurations")
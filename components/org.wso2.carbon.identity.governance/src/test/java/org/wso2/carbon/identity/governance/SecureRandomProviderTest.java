@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.governance.internal.service.impl.otp.DefaultOTPGenerator;
+import org.wso2.carbon.identity.governance.internal.service.impl.otp.OTPGeneratorImpl;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the randomness quality and the reuse of the shared secure random provider.
+ */
+public class SecureRandomProviderTest {
+
+    private static final String ALPHABET = "ABCDEFGHJKLMNPRSTUVWXYZ123456789";
+    private static final int SAMPLES_PER_CHARACTER = 10000;
+    private static final int OTP_LENGTH = 6;
+    private static final int OTP_COUNT = 50000;
+    // Standard normal quantile for a false failure probability of 1e-5.
+    private static final double Z_CRITICAL = 4.265;
+
+    @Test
+    public void testCharacterFrequenciesAreUniform() {
+
+        String randomString = SecureRandomProvider.generateRandomString(ALPHABET,
+                ALPHABET.length() * SAMPLES_PER_CHARACTER);
+        long[] counts = new long[ALPHABET.length()];
+        for (int i = 0; i < randomString.length(); i++) {
+            int index = ALPHABET.indexOf(randomString.charAt(i));
+            assertTrue(index >= 0, "Unexpected character: " + randomString.charAt(i));
+            counts[index]++;
+        }
+        assertUniform(counts, "character frequencies");
+    }
+
+    @Test
+    public void testOTPPositionsAreUniform() throws Exception {
+
+        OTPGeneratorImpl otpGenerator = new OTPGeneratorImpl();
+        // Uppercase letters and numerics without zero.
+        String alphabet = ALPHABET;
+        long[][] counts = new long[OTP_LENGTH][alphabet.length()];
+        for (int i = 0; i < OTP_COUNT; i++) {
+            String otp = otpGenerator.generateOTP(true, true, false, OTP_LENGTH, null);
+            assertEquals(otp.length(), OTP_LENGTH);
+            for (int position = 0; position < OTP_LENGTH; position++) {
+                int index = alphabet.indexOf(otp.charAt(position));
+                assertTrue(index >= 0, "Unexpected OTP character: " + otp.charAt(position));
+                counts[position][index]++;
+            }
+        }
+        for (int position = 0; position < OTP_LENGTH; position++) {
+            assertUniform(counts[position], "OTP position " + position);
+        }
+    }
+
+    @Test
+    public void testAdjacentCharactersAreIndependent() {
+
+        String alphabet = "0123456789";
+        int pairCount = alphabet.length() * alphabet.length() * 1000;
+        String randomString = SecureRandomProvider.generateRandomString(alphabet, pairCount * 2);
+        long[] counts = new long[alphabet.length() * alphabet.length()];
+        for (int i = 0; i < randomString.length(); i += 2) {
+            int first = randomString.charAt(i) - '0';
+            int second = randomString.charAt(i + 1) - '0';
+            counts[first * alphabet.length() + second]++;
+        }
+        assertUniform(counts, "adjacent character pairs");
+    }
+
+    @Test
+    public void testRandomBytesAreBalanced() {
+
+        int byteCount = 1 << 20;
+        byte[] bytes = SecureRandomProvider.generateRandomBytes(byteCount);
+        assertEquals(bytes.length, byteCount);
+        long ones = 0;
+        long[] byteCounts = new long[256];
+        for (byte value : bytes) {
+            ones += Integer.bitCount(value & 0xFF);
+            byteCounts[value & 0xFF]++;
+        }
+        double bits = byteCount * 8.0;
+        double z = (ones - bits / 2) / Math.sqrt(bits / 4);
+        assertTrue(Math.abs(z) < Z_CRITICAL, "Bit balance z-score: " + z);
+        assertUniform(byteCounts, "byte values");
+    }
+
+    @Test
+    public void testPrecomputedCharacterSets() throws Exception {
+
+        OTPGeneratorImpl otpGenerator = new OTPGeneratorImpl();
+        DefaultOTPGenerator defaultOTPGenerator = new DefaultOTPGenerator();
+        StringBuilder numericOTPs = new StringBuilder();
+        StringBuilder lowercaseOTPs = new StringBuilder();
+        StringBuilder defaultPatternOTPs = new StringBuilder();
+        StringBuilder deprecatedUppercaseOTPs = new StringBuilder();
+        StringBuilder deprecatedLowercaseOTPs = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            numericOTPs.append(otpGenerator.generateOTP(true, false, false, 10, null));
+            lowercaseOTPs.append(otpGenerator.generateOTP(false, false, true, 10, null));
+            defaultPatternOTPs.append(otpGenerator.generateOTP(false, false, false, 10, null));
+            deprecatedUppercaseOTPs.append(defaultOTPGenerator.generateOTP(true, true, false, 10, null));
+            deprecatedLowercaseOTPs.append(defaultOTPGenerator.generateOTP(true, false, true, 10, null));
+        }
+
+        assertCharacters(numericOTPs.toString(), "0123456789");
+        assertCharacters(lowercaseOTPs.toString(), "abcdefghjkmnpqrstuvwxyz");
+        assertCharacters(defaultPatternOTPs.toString(), "ABCDEFGHJKLMNPRSTUVWXYZabcdefghjkmnpqrstuvwxyz123456789");
+        assertCharacters(deprecatedUppercaseOTPs.toString(), "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789");
+        assertCharacters(deprecatedLowercaseOTPs.toString(), "abcdefghijklmnopqrstuvwxyz0123456789");
+    }
+
+    @Test
+    public void testSecureRandomIsThreadConfinedAndReplaced() throws Exception {
+
+        SecureRandom secureRandom = SecureRandomProvider.getSecureRandom();
+        SecureRandom nextRandom = SecureRandomProvider.getSecureRandom();
+        if (nextRandom != secureRandom) {
+            // The instance was replaced between the two uses.
+            secureRandom = nextRandom;
+            nextRandom = SecureRandomProvider.getSecureRandom();
+        }
+        assertSame(nextRandom, secureRandom);
+
+        AtomicReference<SecureRandom> otherThreadRandom = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherThreadRandom.set(SecureRandomProvider.getSecureRandom()));
+        thread.start();
+        thread.join();
+        assertNotNull(otherThreadRandom.get());
+        assertNotSame(otherThreadRandom.get(), secureRandom);
+
+        SecureRandom replacedRandom = secureRandom;
+        for (int i = 0; i <= SecureRandomProvider.RESEED_INTERVAL && replacedRandom == secureRandom; i++) {
+            replacedRandom = SecureRandomProvider.getSecureRandom();
+        }
+        assertNotSame(replacedRandom, secureRandom);
+    }
+
+    private static void assertCharacters(String value, String alphabet) {
+
+        for (int i = 0; i < value.length(); i++) {
+            assertTrue(alphabet.indexOf(value.charAt(i)) >= 0, "Unexpected character: " + value.charAt(i));
+        }
+        for (int i = 0; i < alphabet.length(); i++) {
+            assertTrue(value.indexOf(alphabet.charAt(i)) >= 0, "Character never generated: " + alphabet.charAt(i));
+        }
+    }
+
+    /**
+     * Pearson's chi-squared test against the uniform distribution. The critical value is approximated with the
+     * Wilson-Hilferty transformation.
+     */
+    private static void assertUniform(long[] counts, String description) {
+
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        double expected = (double) total / counts.length;
+        double chiSquared = 0;
+        for (long count : counts) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        int degreesOfFreedom = counts.length - 1;
+        double variance = 2.0 / (9 * degreesOfFreedom);
+        double critical = degreesOfFreedom * Math.pow(1 - variance + Z_CRITICAL * Math.sqrt(variance), 3);
+        assertTrue(chiSquared < critical, "Chi-squared of " + description + " is " + chiSquared +
+                ", critical value is " + critical);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.user.api.Property;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.jdbc.UniqueIDJDBCUserStoreManager;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the resolution of the user IDs against JDBC user stores with unique user IDs, backed by H2 databases.
+ */
+public class UserIdResolverJDBCUserStoreTest {
+
+    private static final String UM_SCRIPT_NAME = "um_h2.sql";
+    private static final String SECONDARY_DOMAIN = "SECONDARY";
+    private static final String ADD_USER_SQL = "INSERT INTO UM_USER (UM_USER_ID, UM_USER_NAME, UM_USER_PASSWORD, " +
+            "UM_CHANGED_TIME, UM_TENANT_ID) VALUES (?, ?, ?, ?, ?)";
+    private static final int PRIMARY_USER_COUNT = 250;
+    private static final int SECONDARY_USER_COUNT = 120;
+    private static final int OTHER_USER_COUNT = 1000;
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private final List<BasicDataSource> dataSources = new ArrayList<>();
+    private UniqueIDJDBCUserStoreManager userStoreManager;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        String carbonHome = Paths.get(System.getProperty("user.dir"), "src", "test", "resources").toString();
+        System.setProperty(CarbonBaseConstants.CARBON_HOME, carbonHome);
+        System.setProperty(CarbonBaseConstants.CARBON_CONFIG_DIR_PATH, Paths.get(carbonHome, "repository",
+                "conf").toString());
+        PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+
+        List<String> primaryUsernames = new ArrayList<>();
+        for (int i = 0; i < OTHER_USER_COUNT; i++) {
+            primaryUsernames.add("other" + i);
+        }
+        for (int i = 0; i < PRIMARY_USER_COUNT; i++) {
+            primaryUsernames.add("user" + i);
+        }
+        List<String> secondaryUsernames = new ArrayList<>();
+        for (int i = 0; i < SECONDARY_USER_COUNT; i++) {
+            secondaryUsernames.add("user" + i);
+        }
+        userStoreManager = createUserStoreManager("primary", null, primaryUsernames);
+        userStoreManager.addSecondaryUserStoreManager(SECONDARY_DOMAIN,
+                createUserStoreManager("secondary", SECONDARY_DOMAIN, secondaryUsernames));
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+
+        for (BasicDataSource dataSource : dataSources) {
+            dataSource.close();
+        }
+        PrivilegedCarbonContext.destroyCurrentContext();
+    }
+
+    @Test
+    public void testUserIdsResolvedFromUserStores() throws Exception {
+
+        // A scattered subset of the users of the user stores, with the users of the domains interleaved.
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < OTHER_USER_COUNT; i++) {
+            if (i % 7 == 3) {
+                usernames.add("other" + i);
+            }
+            if (i < PRIMARY_USER_COUNT && i % 13 == 5) {
+                usernames.add("user" + i);
+            }
+            if (i < SECONDARY_USER_COUNT && i % 11 == 2) {
+                usernames.add(SECONDARY_DOMAIN + UserCoreConstants.DOMAIN_SEPARATOR + "user" + i);
+            }
+        }
+        connectionCount.set(0);
+        statementCount.set(0);
+
+        Map<String, String> userIds = UserIdResolver.resolveUserIds(userStoreManager, usernames);
+
+        assertEquals(new ArrayList<>(userIds.keySet()), usernames);
+        for (String username : usernames) {
+            assertEquals(userIds.get(username), getUserId(username));
+        }
+        // 162 primary users in 2 batches and 11 secondary users in 1 batch, with a connection per domain.
+        assertEquals(connectionCount.get(), 2);
+        assertEquals(statementCount.get(), 3);
+    }
+
+    @Test
+    public void testUnknownUsersResolvedOneByOne() throws Exception {
+
+        List<String> usernames = new ArrayList<>();
+        usernames.add("user7");
+        usernames.add("unknown");
+        usernames.add(SECONDARY_DOMAIN + UserCoreConstants.DOMAIN_SEPARATOR + "user" + (SECONDARY_USER_COUNT - 1));
+        connectionCount.set(0);
+
+        Map<String, String> userIds = UserIdResolver.resolveUserIds(userStoreManager, usernames, 1);
+
+        assertEquals(new ArrayList<>(userIds.keySet()), Arrays.asList(usernames.get(0), usernames.get(2)));
+        assertEquals(userIds.get("user7"), getUserId("user7"));
+        assertEquals(userIds.get(usernames.get(2)), getUserId(usernames.get(2)));
+        // The unknown user is looked up alone after the query of the user store.
+        assertTrue(connectionCount.get() > 2, "Connections used to resolve the user IDs: " + connectionCount.get());
+        assertTrue(UserIdResolver.resolveUserIds(userStoreManager, Collections.emptyList()).isEmpty());
+    }
+
+    private UniqueIDJDBCUserStoreManager createUserStoreManager(String databaseName, String domainName,
+                                                                List<String> usernames) throws Exception {
+
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUsername("username");
+        dataSource.setPassword("password");
+        dataSource.setUrl("jdbc:h2:mem:user_id_resolver_" + databaseName);
+        dataSources.add(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().executeUpdate("RUNSCRIPT FROM '" + Paths.get(System.getProperty("user.dir"),
+                    "src", "test", "resources", "dbscripts", UM_SCRIPT_NAME) + "'");
+            try (PreparedStatement prepStmt = connection.prepareStatement(ADD_USER_SQL)) {
+                for (String username : usernames) {
+                    prepStmt.setString(1, getUserId(domainName == null ? username :
+                            domainName + UserCoreConstants.DOMAIN_SEPARATOR + username));
+                    prepStmt.setString(2, username);
+                    prepStmt.setString(3, "password");
+                    prepStmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                    prepStmt.setInt(5, MultitenantConstants.SUPER_TENANT_ID);
+                    prepStmt.addBatch();
+                }
+                prepStmt.executeBatch();
+            }
+        }
+
+        RealmConfiguration realmConfiguration = new RealmConfiguration();
+        realmConfiguration.setUserStoreClass(UniqueIDJDBCUserStoreManager.class.getName());
+        for (Property property : new UniqueIDJDBCUserStoreManager().getDefaultUserStoreProperties()
+                .getAdvancedProperties()) {
+            realmConfiguration.getUserStoreProperties().put(property.getName(), property.getValue());
+        }
+        if (domainName != null) {
+            realmConfiguration.getUserStoreProperties().put(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME,
+                    domainName);
+        }
+        realmConfiguration.getUserStoreProperties().put(UserCoreConstants.RealmConfig.PROPERTY_MAX_USER_LIST,
+                String.valueOf(OTHER_USER_COUNT * 2));
+        return new UniqueIDJDBCUserStoreManager(countConnections(dataSource), realmConfiguration,
+                MultitenantConstants.SUPER_TENANT_ID, false);
+    }
+
+    private DataSource countConnections(DataSource dataSource) {
+
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = method.invoke(dataSource, args);
+                    if ("getConnection".equals(method.getName())) {
+                        connectionCount.incrementAndGet();
+                        return countStatements((Connection) result);
+                    }
+                    return result;
+                });
+    }
+
+    private Connection countStatements(Connection connection) {
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("prepareStatement".equals(method.getName())) {
+                        statementCount.incrementAndGet();
+                    }
+                    return method.invoke(connection, args);
+                });
+    }
+
+    private static String getUserId(String username) {
+
+        return "id-" + username.replace(UserCoreConstants.DOMAIN_SEPARATOR, "-");
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.util.UserCoreUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the bulk resolution of the user IDs with user stores which are not JDBC user stores.
+ */
+public class UserIdResolverTest {
+
+    private static final String SECONDARY_DOMAIN = "SECONDARY";
+    private static final int PRIMARY_USER_COUNT = 250;
+    private static final int SECONDARY_USER_COUNT = 120;
+
+    private final AtomicInteger singleLookupCount = new AtomicInteger();
+    private AbstractUserStoreManager userStoreManager;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        singleLookupCount.set(0);
+        userStoreManager = mock(AbstractUserStoreManager.class);
+        when(userStoreManager.getRealmConfiguration()).thenReturn(new RealmConfiguration());
+        when(userStoreManager.getSecondaryUserStoreManager(SECONDARY_DOMAIN)).thenReturn(userStoreManager);
+        when(userStoreManager.getUserIDFromUserName(anyString())).thenAnswer(invocation -> {
+            singleLookupCount.incrementAndGet();
+            String username = invocation.getArgument(0);
+            return username.startsWith("missing") ? null : getUserId(username);
+        });
+    }
+
+    @Test
+    public void testUserIdsResolvedOneByOne() throws Exception {
+
+        List<String> usernames = getUsernames();
+
+        Map<String, String> userIds = UserIdResolver.resolveUserIds(userStoreManager, usernames);
+
+        assertEquals(new ArrayList<>(userIds.keySet()), usernames);
+        for (String username : usernames) {
+            assertEquals(userIds.get(username), getUserId(username));
+        }
+        // The user store is not a JDBC user store, hence each user is resolved alone without listing the users.
+        assertEquals(singleLookupCount.get(), usernames.size());
+        verify(userStoreManager, never()).listUsersWithID(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void testUsersWithoutUserIdNotIncluded() throws Exception {
+
+        List<String> usernames = new ArrayList<>(getUsernames());
+        usernames.add(5, "missing1");
+        usernames.add(SECONDARY_DOMAIN + "/missing2");
+
+        Map<String, String> userIds = UserIdResolver.resolveUserIds(userStoreManager, usernames, 50);
+
+        assertEquals(userIds.size(), usernames.size() - 2);
+        assertTrue(!userIds.containsKey("missing1") && !userIds.containsKey(SECONDARY_DOMAIN + "/missing2"));
+        assertEquals(userIds.get(SECONDARY_DOMAIN + "/user6"), getUserId(SECONDARY_DOMAIN + "/user6"));
+    }
+
+    @Test
+    public void testUserIdsNotResolvedWithoutAbstractUserStoreManager() throws Exception {
+
+        Map<String, String> userIds =
+                UserIdResolver.resolveUserIds(mock(UserStoreManager.class), Collections.singletonList("user1"));
+        assertTrue(userIds.isEmpty());
+        assertTrue(UserIdResolver.resolveUserIds(userStoreManager, Collections.emptyList()).isEmpty());
+        assertEquals(singleLookupCount.get(), 0);
+    }
+
+    private static List<String> getUsernames() {
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < PRIMARY_USER_COUNT + SECONDARY_USER_COUNT; i++) {
+            // Interleave the users of the domains.
+            if (i % 3 == 0 && i / 3 < SECONDARY_USER_COUNT) {
+                usernames.add(SECONDARY_DOMAIN + "/user" + i);
+            } else {
+                usernames.add("user" + i);
+            }
+        }
+        return usernames;
+    }
+
+    private static String getUserId(String username) {
+
+        return "id-" + UserCoreUtil.removeDomainFromName(username);
+    }
+}
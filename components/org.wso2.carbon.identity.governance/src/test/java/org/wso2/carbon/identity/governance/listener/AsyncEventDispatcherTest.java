@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.governance.listener;
+
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.services.IdentityEventService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the asynchronous event dispatcher of the identity management event listener.
+ */
+public class AsyncEventDispatcherTest {
+
+    private static final String SEQUENCE_PROPERTY = "sequence";
+    private static final int TENANT_COUNT = 8;
+    private static final int EVENTS_PER_TENANT = 2000;
+    private static final int USER_COUNT = 16;
+    private static final int EVENTS_PER_USER = 500;
+    private static final String THREAD_LOCAL_PROPERTY = "threadLocalProperty";
+
+    @BeforeClass
+    public void setUp() {
+
+        String carbonHome = AsyncEventDispatcherTest.class.getResource("/").getFile();
+        System.setProperty(CarbonBaseConstants.CARBON_HOME, carbonHome);
+    }
+
+    @Test
+    public void testFireAndForgetClassification() {
+
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(
+                Collections.singletonList(IdentityEventConstants.Event.POST_DELETE_USER), 1, 10, 10);
+        assertTrue(dispatcher.isFireAndForget(IdentityEventConstants.Event.POST_DELETE_USER));
+        assertFalse(dispatcher.isFireAndForget(IdentityEventConstants.Event.PRE_DELETE_USER));
+        assertTrue(dispatcher.shutdown(1000));
+    }
+
+    @Test
+    public void testPerTenantOrderingAndDrainOnShutdown() throws Exception {
+
+        Map<Integer, List<Integer>> handledSequences = new ConcurrentHashMap<>();
+        IdentityEventService eventService = Mockito.mock(IdentityEventService.class);
+        doAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+            handledSequences.computeIfAbsent(tenantId, key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add((Integer) event.getEventProperties().get(SEQUENCE_PROPERTY));
+            return true;
+        }).when(eventService).handleEvent(any(Event.class));
+
+        // Lanes are fewer than tenants, so that multiple tenants share a lane.
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(
+                Collections.singletonList(IdentityEventConstants.Event.POST_DELETE_USER), 3,
+                TENANT_COUNT * EVENTS_PER_TENANT, 1000);
+        for (int sequence = 0; sequence < EVENTS_PER_TENANT; sequence++) {
+            for (int tenantId = 1; tenantId <= TENANT_COUNT; tenantId++) {
+                dispatcher.dispatch(tenantId, "tenant" + tenantId, buildEvent(sequence), eventService);
+            }
+        }
+        assertTrue(dispatcher.shutdown(TimeUnit.SECONDS.toMillis(30)));
+
+        assertEquals(handledSequences.size(), TENANT_COUNT);
+        for (int tenantId = 1; tenantId <= TENANT_COUNT; tenantId++) {
+            List<Integer> sequences = handledSequences.get(tenantId);
+            assertEquals(sequences.size(), EVENTS_PER_TENANT);
+            for (int sequence = 0; sequence < EVENTS_PER_TENANT; sequence++) {
+                assertEquals(sequences.get(sequence).intValue(), sequence,
+                        "Events of tenant: " + tenantId + " were handled out of order.");
+            }
+        }
+        assertEquals(dispatcher.getSubmittedEventCount(), TENANT_COUNT * EVENTS_PER_TENANT);
+        assertEquals(dispatcher.getDispatchedEventCount(), TENANT_COUNT * EVENTS_PER_TENANT);
+        assertEquals(dispatcher.getCallerHandledEventCount(), 0);
+        assertEquals(dispatcher.getQueuedEventCount(), 0);
+    }
+
+    @Test
+    public void testCallerIsNotBlockedBySlowHandlers() throws Exception {
+
+        int eventCount = 200;
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        CountDownLatch handledLatch = new CountDownLatch(eventCount);
+        List<Thread> handlingThreads = Collections.synchronizedList(new ArrayList<>());
+        IdentityEventService eventService = Mockito.mock(IdentityEventService.class);
+        doAnswer(invocation -> {
+            handlingThreads.add(Thread.currentThread());
+            releaseLatch.await();
+            handledLatch.countDown();
+            return true;
+        }).when(eventService).handleEvent(any(Event.class));
+
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(
+                Collections.singletonList(IdentityEventConstants.Event.POST_DELETE_USER), 4, eventCount, 1000);
+        try {
+            // The handlers are blocked until all the events are dispatched, hence a handler run by the caller
+            // would block the dispatching.
+            for (int i = 0; i < eventCount; i++) {
+                dispatcher.dispatch(i, "tenant" + i, buildEvent(i), eventService);
+            }
+            assertEquals(dispatcher.getCallerHandledEventCount(), 0);
+        } finally {
+            releaseLatch.countDown();
+        }
+        assertTrue(handledLatch.await(30, TimeUnit.SECONDS));
+        assertFalse(handlingThreads.contains(Thread.currentThread()));
+        assertTrue(dispatcher.shutdown(TimeUnit.SECONDS.toMillis(10)));
+    }
+
+    @Test
+    public void testBackPressureHandlesEventInCaller() throws Exception {
+
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        CountDownLatch firstEventLatch = new CountDownLatch(1);
+        List<Integer> handledSequences = Collections.synchronizedList(new ArrayList<>());
+        Map<Integer, String> handlingThreads = new ConcurrentHashMap<>();
+        IdentityEventService eventService = Mockito.mock(IdentityEventService.class);
+        doAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            int sequence = (Integer) event.getEventProperties().get(SEQUENCE_PROPERTY);
+            if (sequence == 0) {
+                firstEventLatch.countDown();
+                releaseLatch.await();
+            }
+            handledSequences.add(sequence);
+            handlingThreads.put(sequence, Thread.currentThread().getName());
+            return true;
+        }).when(eventService).handleEvent(any(Event.class));
+
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(
+                Collections.singletonList(IdentityEventConstants.Event.POST_DELETE_USER), 1, 1, 10);
+        dispatcher.dispatch(1, "tenant1", buildEvent(0), eventService);
+        assertTrue(firstEventLatch.await(10, TimeUnit.SECONDS));
+        // The worker is blocked on the first event, so the second event fills the lane.
+        dispatcher.dispatch(1, "tenant1", buildEvent(1), eventService);
+
+        ExecutorService callerExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> blockedDispatch = callerExecutor.submit(
+                    () -> dispatcher.dispatch(1, "tenant1", buildEvent(2), eventService));
+            // The caller waits for the event in progress instead of overtaking the queued events.
+            Thread.sleep(200);
+            assertFalse(blockedDispatch.isDone());
+            assertTrue(handledSequences.isEmpty());
+
+            releaseLatch.countDown();
+            blockedDispatch.get(10, TimeUnit.SECONDS);
+        } finally {
+            callerExecutor.shutdownNow();
+        }
+        assertEquals(dispatcher.getCallerHandledEventCount(), 1);
+        assertEquals(handledSequences, Arrays.asList(0, 1, 2));
+        assertNotEquals(handlingThreads.get(2), handlingThreads.get(0));
+
+        assertTrue(dispatcher.shutdown(TimeUnit.SECONDS.toMillis(10)));
+        assertEquals(dispatcher.getDispatchedEventCount(), 3);
+
+        // Events dispatched after the shutdown are handled in the caller.
+        dispatcher.dispatch(1, "tenant1", buildEvent(3), eventService);
+        assertEquals(dispatcher.getCallerHandledEventCount(), 2);
+        assertEquals(handledSequences.size(), 4);
+    }
+
+    @Test
+    public void testPerUserOrderingWithCallerHandledEvents() throws Exception {
+
+        Map<String, List<Integer>> handledSequences = new ConcurrentHashMap<>();
+        IdentityEventService eventService = Mockito.mock(IdentityEventService.class);
+        doAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            String userName = (String) event.getEventProperties().get(IdentityEventConstants.EventProperty.USER_NAME);
+            handledSequences.computeIfAbsent(userName, key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add((Integer) event.getEventProperties().get(SEQUENCE_PROPERTY));
+            return true;
+        }).when(eventService).handleEvent(any(Event.class));
+
+        // Small lanes without an offer timeout, so that the callers frequently handle the events themselves.
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(
+                Collections.singletonList(IdentityEventConstants.Event.POST_DELETE_USER), 2, 4, 0);
+        ExecutorService callerExecutor = Executors.newFixedThreadPool(USER_COUNT);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int user = 0; user < USER_COUNT; user++) {
+                String userName = "user" + user;
+                callers.add(callerExecutor.submit(() -> {
+                    for (int sequence = 0; sequence < EVENTS_PER_USER; sequence++) {
+                        Event event = buildEvent(sequence);
+                        event.getEventProperties().put(IdentityEventConstants.EventProperty.USER_NAME, userName);
+                        dispatcher.dispatch(1, "tenant1", event, eventService);
+                    }
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            callerExecutor.shutdownNow();
+        }
+        assertTrue(dispatcher.shutdown(TimeUnit.SECONDS.toMillis(30)));
+
+        assertTrue(dispatcher.getCallerHandledEventCount() > 0);
+        assertEquals(dispatcher.getDispatchedEventCount(), USER_COUNT * EVENTS_PER_USER);
+        assertEquals(handledSequences.size(), USER_COUNT);
+        for (Map.Entry<String, List<Integer>> entry : handledSequences.entrySet()) {
+            List<Integer> sequences = entry.getValue();
+            assertEquals(sequences.size(), EVENTS_PER_USER);
+            for (int sequence = 0; sequence < EVENTS_PER_USER; sequence++) {
+                assertEquals(sequences.get(sequence).intValue(), sequence,
+                        "Events of user: " + entry.getKey() + " were handled out of order.");
+            }
+        }
+    }
+
+    @Test
+    public void testCallerContextPropagatedToHandlers() throws Exception {
+
+        AtomicReference<String> handlerUserName = new AtomicReference<>();
+        AtomicReference<Object> handlerThreadLocalProperty = new AtomicReference<>();
+        CountDownLatch handledLatch = new CountDownLatch(1);
+        IdentityEventService eventService = Mockito.mock(IdentityEventService.class);
+        doAnswer(invocation -> {
+            handlerUserName.set(PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername());
+            handlerThreadLocalProperty.set(IdentityUtil.threadLocalProperties.get().get(THREAD_LOCAL_PROPERTY));
+            IdentityUtil.threadLocalProperties.get().put(THREAD_LOCAL_PROPERTY, "changedByHandler");
+            handledLatch.countDown();
+            return true;
+        }).when(eventService).handleEvent(any(Event.class));
+
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(
+                Collections.singletonList(IdentityEventConstants.Event.POST_DELETE_USER), 1, 10, 10);
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername("admin");
+            IdentityUtil.threadLocalProperties.get().put(THREAD_LOCAL_PROPERTY, "callerValue");
+            dispatcher.dispatch(1, "tenant1", buildEvent(0), eventService);
+            assertTrue(handledLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(handlerUserName.get(), "admin");
+            assertEquals(handlerThreadLocalProperty.get(), "callerValue");
+
+            // The properties of the caller are kept when the event is handled in the caller thread.
+            assertTrue(dispatcher.shutdown(TimeUnit.SECONDS.toMillis(10)));
+            dispatcher.dispatch(1, "tenant1", buildEvent(1), eventService);
+            assertEquals(IdentityUtil.threadLocalProperties.get().get(THREAD_LOCAL_PROPERTY), "callerValue");
+            assertEquals(PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername(), "admin");
+        } finally {
+            IdentityUtil.threadLocalProperties.get().remove(THREAD_LOCAL_PROPERTY);
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    @Test
+    public void testFailedEventDoesNotStopLane() throws Exception {
+
+        List<Integer> handledSequences = Collections.synchronizedList(new ArrayList<>());
+        IdentityEventService eventService = Mockito.mock(IdentityEventService.class);
+        doAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            int sequence = (Integer) event.getEventProperties().get(SEQUENCE_PROPERTY);
+            if (sequence == 0) {
+                throw new IdentityEventException("Simulated handler failure.");
+            }
+            handledSequences.add(sequence);
+            return true;
+        }).when(eventService).handleEvent(any(Event.class));
+
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(
+                Collections.singletonList(IdentityEventConstants.Event.POST_DELETE_USER), 1, 10, 10);
+        dispatcher.dispatch(1, "tenant1", buildEvent(0), eventService);
+        dispatcher.dispatch(1, "tenant1", buildEvent(1), eventService);
+        assertTrue(dispatcher.shutdown(TimeUnit.SECONDS.toMillis(10)));
+
+        assertEquals(dispatcher.getFailedEventCount(), 1);
+        assertEquals(dispatcher.getDispatchedEventCount(), 1);
+        assertEquals(handledSequences, Collections.singletonList(1));
+    }
+
+    private Event buildEvent(int sequence) {
+
+        HashMap<String, Object> properties = new HashMap<>();
+        properties.put(SEQUENCE_PROPERTY, sequence);
+        return new Event(IdentityEventConstants.Event.POST_DELETE_USER, properties);
+    }
+}
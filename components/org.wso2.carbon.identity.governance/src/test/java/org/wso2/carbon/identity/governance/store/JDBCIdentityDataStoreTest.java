@@ -27,33 +27,63 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityDataStoreCache;
+import org.wso2.carbon.identity.governance.internal.cache.IdentityDataStoreCacheKey;
+import org.wso2.carbon.identity.governance.model.UserIdentityClaim;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreService;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreServiceImpl;
 import org.wso2.carbon.identity.governance.store.Utils.TestUtils;
 import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.UserRealm;
 import org.wso2.carbon.user.core.UserStoreException;
 import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
 import org.wso2.carbon.user.core.model.ExpressionCondition;
 import org.wso2.carbon.user.core.model.ExpressionOperation;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 import org.wso2.carbon.utils.dbcreator.DatabaseCreator;
 
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class JDBCIdentityDataStoreTest {
@@ -68,6 +98,21 @@ public class JDBCIdentityDataStoreTest {
     private static final String ACCOUNT_STATE_CLAIM_VALUE = "DISABLED";
     private static final String EMAIL_VERIFIED_CLAIM = "http://wso2.org/claims/identity/emailVerified";
     private static final String USER_6_USERNAME = "DEFAULT/sampleUser6@xmail.com";
+    private static final int BULK_LOAD_TENANT_ID = 4;
+    private static final int BULK_LOAD_USER_COUNT = 250;
+    private static final int NUMERIC_FILTER_TENANT_ID = 5;
+    private static final int NUMERIC_SCALE_TENANT_ID = 6;
+    private static final int NUMERIC_INDEX_TENANT_ID = 11;
+    private static final int NUMERIC_LEASE_TENANT_ID = 12;
+    private static final int STORE_DIFF_TENANT_ID = 13;
+    private static final int NUMERIC_SCALE_ROW_COUNT = 20000;
+    private static final int CONCURRENT_STORE_TENANT_ID = 7;
+    private static final int CONCURRENT_STORE_UPDATE_COUNT = 50;
+    private static final int CURSOR_PAGINATION_TENANT_ID = 9;
+    private static final int CURSOR_PAGINATION_USER_COUNT = 20000;
+    private static final int CURSOR_PAGINATION_PAGE_SIZE = 2;
+    private static final int RANGE_CURSOR_TENANT_ID = 10;
+    private static final long RANGE_CURSOR_FIRST_VALUE = 1600000000000L;
 
     private MockedStatic<IdentityDatabaseUtil> mockedIdentityDatabaseUtils;
     private MockedStatic<IdentityTenantUtil> mockedIdentityTenantUtil;
@@ -182,6 +227,7 @@ public class JDBCIdentityDataStoreTest {
     @AfterMethod
     public void tearDown() throws Exception {
 
+        jdbcIdentityDataStore.shutdown();
         mockedIdentityDatabaseUtils.close();
         mockedIdentityTenantUtil.close();
         mockedCarbonContext.close();
@@ -398,6 +444,792 @@ public class JDBCIdentityDataStoreTest {
         assertEquals(result.size(), 6, "Should return all 6 users for NE operation with non-existent claim URI");
     }
 
+    @Test(description = "Test loadAll which retrieves the identity data of several users with chunked queries.")
+    public void testLoadAll() throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_IDENTITY_USER_DATA " +
+                     "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < BULK_LOAD_USER_COUNT; i++) {
+                prepStmt.setInt(1, BULK_LOAD_TENANT_ID);
+                prepStmt.setString(2, "DEFAULT/bulkUser" + i);
+                prepStmt.setString(3, CLAIM_URI);
+                prepStmt.setString(4, String.valueOf(i));
+                prepStmt.addBatch();
+            }
+            prepStmt.executeBatch();
+        }
+
+        when(userStoreManager.getTenantId()).thenReturn(BULK_LOAD_TENANT_ID);
+        when(realmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME))
+                .thenReturn("DEFAULT");
+        mockedUserCoreUtil.when(() -> UserCoreUtil.addDomainToName(anyString(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        mockedUserCoreUtil.when(() -> UserCoreUtil.removeDomainFromName(anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Count the statements prepared against the identity data store.
+        AtomicInteger preparedStatementCount = new AtomicInteger();
+        mockedIdentityDatabaseUtils.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> getStatementCountingConnection(preparedStatementCount));
+
+        IdentityDataStoreCache identityDataStoreCache = mock(IdentityDataStoreCache.class);
+        List<String> userNames = new ArrayList<>();
+        for (int i = 0; i < BULK_LOAD_USER_COUNT; i++) {
+            userNames.add("DEFAULT/bulkUser" + i);
+        }
+        // User without any identity data.
+        userNames.add(USER_6_USERNAME);
+
+        Map<String, UserIdentityClaim> userIdentityClaims;
+        try (MockedStatic<IdentityDataStoreCache> mockedIdentityDataStoreCache =
+                     Mockito.mockStatic(IdentityDataStoreCache.class)) {
+            mockedIdentityDataStoreCache.when(IdentityDataStoreCache::getInstance).thenReturn(identityDataStoreCache);
+            userIdentityClaims = new JDBCIdentityDataStore().loadAll(userNames, userStoreManager);
+        }
+
+        assertEquals(userIdentityClaims.size(), BULK_LOAD_USER_COUNT + 1);
+        for (int i = 0; i < BULK_LOAD_USER_COUNT; i++) {
+            assertEquals(userIdentityClaims.get("DEFAULT/bulkUser" + i).getUserIdentityDataMap().get(CLAIM_URI),
+                    String.valueOf(i));
+        }
+        assertTrue(userIdentityClaims.get(USER_6_USERNAME).getUserIdentityDataMap().isEmpty());
+        // 251 users are loaded with 3 queries of at most 100 users.
+        assertEquals(preparedStatementCount.get(), 3);
+        verify(identityDataStoreCache, times(BULK_LOAD_USER_COUNT + 1))
+                .addToCache(any(IdentityDataStoreCacheKey.class), any(UserIdentityClaim.class), anyInt());
+    }
+
+    @Test(description = "Test range filters on epoch time values of different lengths, which are compared " +
+            "numerically once the values are back filled.")
+    public void testNumericRangeFiltersWithMixedLengthValues() throws Exception {
+
+        insertIdentityData(NUMERIC_FILTER_TENANT_ID, new String[][]{
+                {"DEFAULT/user999", "999"},
+                {"DEFAULT/user1000", "1000"},
+                {"DEFAULT/user99999999999", "99999999999"},
+                {"DEFAULT/user1700000000000", "1700000000000"},
+                {"DEFAULT/userInvalid", "invalid"}
+        });
+        assertTrue(jdbcIdentityDataStore.backfillNumericDataValues() >= 4);
+        // Rows which are already back filled are skipped.
+        assertEquals(jdbcIdentityDataStore.backfillNumericDataValues(), 0);
+
+        assertEqualsNoOrder(jdbcIdentityDataStore.getUserNamesLessThanProvidedClaimValue(CLAIM_URI, "1000",
+                NUMERIC_FILTER_TENANT_ID).toArray(), new String[]{"DEFAULT/user999"});
+        assertEqualsNoOrder(jdbcIdentityDataStore.getUserNamesMoreThanProvidedClaimValue(CLAIM_URI, "999",
+                NUMERIC_FILTER_TENANT_ID).toArray(), new String[]{"DEFAULT/user1000", "DEFAULT/user99999999999",
+                "DEFAULT/user1700000000000"});
+        assertEqualsNoOrder(jdbcIdentityDataStore.getUserNamesBetweenProvidedClaimValues(CLAIM_URI, "999",
+                "1700000000000", NUMERIC_FILTER_TENANT_ID).toArray(), new String[]{"DEFAULT/user1000",
+                "DEFAULT/user99999999999"});
+    }
+
+    @Test(description = "Test the numeric values are maintained when the identity data are stored and removed.")
+    public void testNumericDataMaintainedOnStore() throws Exception {
+
+        when(userStoreManager.getTenantId()).thenReturn(NUMERIC_FILTER_TENANT_ID);
+        when(realmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME))
+                .thenReturn("DEFAULT");
+        mockedUserCoreUtil.when(() -> UserCoreUtil.addDomainToName(anyString(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(1) + "/" + invocation.getArgument(0));
+        mockedUserCoreUtil.when(() -> UserCoreUtil.removeDomainFromName(anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        try (MockedStatic<IdentityDataStoreCache> mockedIdentityDataStoreCache =
+                     Mockito.mockStatic(IdentityDataStoreCache.class)) {
+            mockedIdentityDataStoreCache.when(IdentityDataStoreCache::getInstance)
+                    .thenReturn(mock(IdentityDataStoreCache.class));
+            JDBCIdentityDataStore identityDataStore = new JDBCIdentityDataStore();
+            identityDataStore.backfillNumericDataValues();
+
+            identityDataStore.store(new UserIdentityClaim("storedUser",
+                    Collections.singletonMap(CLAIM_URI, "5")), userStoreManager);
+            assertTrue(identityDataStore.getUserNamesLessThanProvidedClaimValue(CLAIM_URI, "100",
+                    NUMERIC_FILTER_TENANT_ID).contains("DEFAULT/storedUser"));
+
+            identityDataStore.store(new UserIdentityClaim("storedUser",
+                    Collections.singletonMap(CLAIM_URI, "2000")), userStoreManager);
+            assertTrue(!identityDataStore.getUserNamesLessThanProvidedClaimValue(CLAIM_URI, "100",
+                    NUMERIC_FILTER_TENANT_ID).contains("DEFAULT/storedUser"));
+            assertTrue(identityDataStore.getUserNamesMoreThanProvidedClaimValue(CLAIM_URI, "1999",
+                    NUMERIC_FILTER_TENANT_ID).contains("DEFAULT/storedUser"));
+
+            identityDataStore.remove("storedUser", userStoreManager);
+            assertTrue(!identityDataStore.getUserNamesMoreThanProvidedClaimValue(CLAIM_URI, "1999",
+                    NUMERIC_FILTER_TENANT_ID).contains("DEFAULT/storedUser"));
+        }
+    }
+
+    @Test(description = "Test only the new and the changed identity data values are written on store.")
+    public void testOnlyChangedDataWrittenOnStore() throws Exception {
+
+        when(userStoreManager.getTenantId()).thenReturn(STORE_DIFF_TENANT_ID);
+        when(realmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME))
+                .thenReturn("DEFAULT");
+        mockedUserCoreUtil.when(() -> UserCoreUtil.addDomainToName(anyString(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(1) + "/" + invocation.getArgument(0));
+        AtomicInteger preparedStatementCount = new AtomicInteger();
+        mockedIdentityDatabaseUtils.when(IdentityDatabaseUtil::getDBConnection)
+                .thenAnswer(invocation -> getStatementCountingConnection(preparedStatementCount));
+
+        try (MockedStatic<IdentityDataStoreCache> mockedIdentityDataStoreCache =
+                     Mockito.mockStatic(IdentityDataStoreCache.class)) {
+            mockedIdentityDataStoreCache.when(IdentityDataStoreCache::getInstance)
+                    .thenReturn(mock(IdentityDataStoreCache.class));
+            Map<String, String> data = new HashMap<>();
+            data.put(CLAIM_URI, "1000");
+            data.put(ACCOUNT_STATE_CLAIM_URI, "UNLOCKED");
+            jdbcIdentityDataStore.store(new UserIdentityClaim("diffUser", new HashMap<>(data)), userStoreManager);
+            assertEquals(countNumericDataRows(STORE_DIFF_TENANT_ID), 1);
+
+            // Unchanged data are only read.
+            preparedStatementCount.set(0);
+            jdbcIdentityDataStore.store(new UserIdentityClaim("diffUser", new HashMap<>(data)), userStoreManager);
+            assertEquals(preparedStatementCount.get(), 1);
+
+            // A changed value which is not time valued is upserted without the numeric values.
+            preparedStatementCount.set(0);
+            data.put(ACCOUNT_STATE_CLAIM_URI, "LOCKED");
+            jdbcIdentityDataStore.store(new UserIdentityClaim("diffUser", new HashMap<>(data)), userStoreManager);
+            assertEquals(preparedStatementCount.get(), 2);
+            assertEquals(getIdentityDataValue(STORE_DIFF_TENANT_ID, "DEFAULT/diffUser", ACCOUNT_STATE_CLAIM_URI),
+                    "LOCKED");
+            assertEquals(getIdentityDataValue(STORE_DIFF_TENANT_ID, "DEFAULT/diffUser", CLAIM_URI), "1000");
+            assertEquals(countNumericDataRows(STORE_DIFF_TENANT_ID), 1);
+        }
+    }
+
+    @Test(description = "Test the back fill state is shared by the nodes, which do not scan the rows again once the " +
+            "back fill is completed.")
+    public void testNumericDataIndexedAfterBackfill() throws Exception {
+
+        insertIdentityData(NUMERIC_INDEX_TENANT_ID, new String[][]{
+                {"DEFAULT/indexUser999", "999"},
+                {"DEFAULT/indexUser1000", "1000"}
+        });
+        jdbcIdentityDataStore.backfillNumericDataValues();
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("SELECT STATE_VALUE FROM " +
+                     "IDN_IDENTITY_DATA_NUM_STATE WHERE STATE_KEY = 'BACKFILL_COMPLETED'");
+             ResultSet resultSet = prepStmt.executeQuery()) {
+            assertTrue(resultSet.next());
+        }
+
+        // Rows of a data migration, which are written without a store.
+        insertIdentityData(NUMERIC_INDEX_TENANT_ID, new String[][]{
+                {"DEFAULT/indexUser99999999999", "99999999999"}
+        });
+        JDBCIdentityDataStore otherNodeDataStore = new JDBCIdentityDataStore();
+        try {
+            otherNodeDataStore.indexNumericDataValues();
+            assertEqualsNoOrder(otherNodeDataStore.getUserNamesMoreThanProvidedClaimValue(CLAIM_URI, "999",
+                    NUMERIC_INDEX_TENANT_ID).toArray(), new String[]{"DEFAULT/indexUser1000"});
+            // The rows written without a store are indexed by an explicit back fill.
+            assertEquals(otherNodeDataStore.backfillNumericDataValues(), 1);
+            assertEqualsNoOrder(otherNodeDataStore.getUserNamesMoreThanProvidedClaimValue(CLAIM_URI, "999",
+                    NUMERIC_INDEX_TENANT_ID).toArray(), new String[]{"DEFAULT/indexUser1000",
+                    "DEFAULT/indexUser99999999999"});
+            // Rows which are already indexed are skipped.
+            assertEquals(otherNodeDataStore.backfillNumericDataValues(), 0);
+        } finally {
+            otherNodeDataStore.shutdown();
+        }
+    }
+
+    @Test(description = "Test the back fill runs on the node which holds the back fill lease.")
+    public void testNumericDataBackfilledUnderLease() throws Exception {
+
+        executeUpdate("DELETE FROM IDN_IDENTITY_DATA_NUM_STATE");
+        insertIdentityData(NUMERIC_LEASE_TENANT_ID, new String[][]{
+                {"DEFAULT/leaseUser999", "999"},
+                {"DEFAULT/leaseUser1000", "1000"}
+        });
+        // Another node holds the lease.
+        executeUpdate("INSERT INTO IDN_IDENTITY_DATA_NUM_STATE (STATE_KEY, STATE_VALUE) VALUES ('BACKFILL_LEASE', " +
+                "'other-node:" + (System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(10)) + "')");
+        jdbcIdentityDataStore.indexNumericDataValues();
+        assertEquals(countNumericDataRows(NUMERIC_LEASE_TENANT_ID), 0);
+        assertNull(getNumericDataState("BACKFILL_COMPLETED"));
+
+        // The lease of the other node expired, hence it is taken over.
+        executeUpdate("UPDATE IDN_IDENTITY_DATA_NUM_STATE SET STATE_VALUE = 'other-node:" +
+                (System.currentTimeMillis() - 1) + "' WHERE STATE_KEY = 'BACKFILL_LEASE'");
+        jdbcIdentityDataStore.indexNumericDataValues();
+        assertEquals(countNumericDataRows(NUMERIC_LEASE_TENANT_ID), 2);
+        assertNotNull(getNumericDataState("BACKFILL_COMPLETED"));
+        assertNull(getNumericDataState("BACKFILL_LEASE"), "The lease should be released after the back fill.");
+        assertEqualsNoOrder(jdbcIdentityDataStore.getUserNamesMoreThanProvidedClaimValue(CLAIM_URI, "999",
+                NUMERIC_LEASE_TENANT_ID).toArray(), new String[]{"DEFAULT/leaseUser1000"});
+    }
+
+    @Test(description = "Test the numeric range filters use the index on a large number of rows.")
+    public void testNumericRangeFilterUsesIndex() throws Exception {
+
+        String[][] rows = new String[NUMERIC_SCALE_ROW_COUNT][];
+        for (int i = 0; i < NUMERIC_SCALE_ROW_COUNT; i++) {
+            rows[i] = new String[]{"DEFAULT/scaleUser" + i, String.valueOf(1600000000000L + i)};
+        }
+        insertIdentityData(NUMERIC_SCALE_TENANT_ID, rows);
+        assertTrue(jdbcIdentityDataStore.backfillNumericDataValues() >= NUMERIC_SCALE_ROW_COUNT);
+
+        List<String> userNames = jdbcIdentityDataStore.getUserNamesLessThanProvidedClaimValue(CLAIM_URI,
+                String.valueOf(1600000000000L + 100), NUMERIC_SCALE_TENANT_ID);
+        assertEquals(userNames.size(), 100);
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("EXPLAIN SELECT USER_NAME, DATA_VALUE FROM " +
+                     "IDN_IDENTITY_USER_DATA_NUMERIC WHERE DATA_KEY = ? AND TENANT_ID = ? AND DATA_VALUE < ?")) {
+            prepStmt.setString(1, CLAIM_URI);
+            prepStmt.setInt(2, NUMERIC_SCALE_TENANT_ID);
+            prepStmt.setLong(3, 1600000000100L);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                assertTrue(resultSet.next());
+                assertTrue(resultSet.getString(1).contains("IDX_IDN_ID_USER_DATA_NUM_VAL"));
+            }
+        }
+    }
+
+    @Test(description = "Test cursor based pagination of the identity claim filtered users.")
+    public void testListUserNamesAfterCursor() throws Exception {
+
+        when(userStoreManager.getTenantId()).thenReturn(CURSOR_PAGINATION_TENANT_ID);
+        insertCursorPaginationUsers(5);
+        List<ExpressionCondition> conditions = Collections.singletonList(
+                new ExpressionCondition(ExpressionOperation.EQ.toString(), EMAIL_VERIFIED_CLAIM, "true"));
+
+        List<String> userNames = new ArrayList<>();
+        String cursor = null;
+        int pageCount = 0;
+        do {
+            UserNamePage page = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                    userStoreManager, CURSOR_PAGINATION_PAGE_SIZE, cursor);
+            userNames.addAll(page.getUserNames());
+            cursor = page.getNextCursor();
+            pageCount++;
+        } while (cursor != null);
+
+        assertEquals(pageCount, 3);
+        assertEquals(userNames, Arrays.asList(getCursorPaginationUserName(0),
+                getCursorPaginationUserName(1), getCursorPaginationUserName(2), getCursorPaginationUserName(3),
+                getCursorPaginationUserName(4)));
+    }
+
+    @Test(description = "Test a deep page of the cursor based pagination does not read the rows of the previous " +
+            "pages.", dependsOnMethods = "testListUserNamesAfterCursor")
+    public void testListUserNamesAfterCursorDeepPage() throws Exception {
+
+        when(userStoreManager.getTenantId()).thenReturn(CURSOR_PAGINATION_TENANT_ID);
+        insertCursorPaginationUsers(CURSOR_PAGINATION_USER_COUNT);
+        List<ExpressionCondition> conditions = Collections.singletonList(
+                new ExpressionCondition(ExpressionOperation.EQ.toString(), EMAIL_VERIFIED_CLAIM, "true"));
+        // Cursor of page 10,000, taken from a page which ends with the last user of page 9,999.
+        int deepPageStart = (10000 - 1) * CURSOR_PAGINATION_PAGE_SIZE;
+        String deepPageCursor = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                userStoreManager, deepPageStart, null).getNextCursor();
+
+        // Record the query of each page, to count the rows it scans.
+        List<Object[]> pageQueries = new ArrayList<>();
+        mockedIdentityDatabaseUtils.when(IdentityDatabaseUtil::getDBConnection)
+                .thenAnswer(invocation -> getQueryRecordingConnection(pageQueries));
+        UserNamePage firstPage = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                userStoreManager, CURSOR_PAGINATION_PAGE_SIZE, null);
+        UserNamePage deepPage = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                userStoreManager, CURSOR_PAGINATION_PAGE_SIZE, deepPageCursor);
+        assertEquals(firstPage.getUserNames(), Arrays.asList(getCursorPaginationUserName(0),
+                getCursorPaginationUserName(1)));
+        assertEquals(deepPage.getUserNames(), Arrays.asList(getCursorPaginationUserName(deepPageStart),
+                getCursorPaginationUserName(deepPageStart + 1)));
+        assertEquals(pageQueries.size(), 2);
+
+        // A deep page seeks on the username, hence it scans about as many rows as the first page.
+        long firstPageScanCount = getScanCount(pageQueries.get(0));
+        long deepPageScanCount = getScanCount(pageQueries.get(1));
+        assertTrue(deepPageScanCount < deepPageStart, "Rows scanned by page 10000: " + deepPageScanCount);
+        assertTrue(deepPageScanCount <= firstPageScanCount + CURSOR_PAGINATION_PAGE_SIZE, "Rows scanned by the " +
+                "first page: " + firstPageScanCount + ", page 10000: " + deepPageScanCount);
+    }
+
+    @Test(description = "Test the last page of the cursor based pagination does not have a next cursor.",
+            dependsOnMethods = "testListUserNamesAfterCursorDeepPage")
+    public void testListUserNamesAfterCursorLastPage() throws Exception {
+
+        when(userStoreManager.getTenantId()).thenReturn(CURSOR_PAGINATION_TENANT_ID);
+        List<ExpressionCondition> conditions = Collections.singletonList(
+                new ExpressionCondition(ExpressionOperation.EQ.toString(), EMAIL_VERIFIED_CLAIM, "true"));
+        String lastUserCursor = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                userStoreManager, CURSOR_PAGINATION_USER_COUNT - 1, null).getNextCursor();
+
+        UserNamePage page = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                userStoreManager, CURSOR_PAGINATION_PAGE_SIZE, lastUserCursor);
+        assertEquals(page.getUserNames(), Collections.singletonList(
+                getCursorPaginationUserName(CURSOR_PAGINATION_USER_COUNT - 1)));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test(description = "Test cursor based pagination with not-equal conditions excluded by the seeking query.")
+    public void testListUserNamesAfterCursorWithNotEqualCondition() throws Exception {
+
+        List<ExpressionCondition> conditions = Arrays.asList(
+                new ExpressionCondition(ExpressionOperation.EQ.toString(), ACCOUNT_STATE_CLAIM_URI,
+                        ACCOUNT_STATE_CLAIM_VALUE),
+                new ExpressionCondition(ExpressionOperation.NE.toString(), EMAIL_VERIFIED_CLAIM, "true"));
+
+        List<String> userNames = new ArrayList<>();
+        String cursor = null;
+        int pageCount = 0;
+        do {
+            UserNamePage page = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                    userStoreManager, 1, cursor);
+            userNames.addAll(page.getUserNames());
+            cursor = page.getNextCursor();
+            pageCount++;
+        } while (cursor != null);
+
+        assertEquals(pageCount, 3);
+        assertEquals(userNames, Arrays.asList("DEFAULT/sampleUser1@xmail.com", "DEFAULT/sampleUser3@xmail.com"));
+        // The users are filtered by the query, without listing the user store.
+        verify(userStoreManager, times(0)).listUsers(anyString(), anyInt());
+    }
+
+    @Test(description = "Test cursor based pagination with only not-equal conditions pages the user store listing.")
+    public void testListUserStoreUserNamesAfterCursorWithNotEqualCondition() throws Exception {
+
+        String[] allUsernames = {
+                "DEFAULT/sampleUser1@xmail.com",
+                "DEFAULT/sampleUser2@xmail.com",
+                "DEFAULT/sampleUser3@xmail.com",
+                "DEFAULT/sampleUser4@xmail.com",
+                "DEFAULT/sampleUser5@xmail.com",
+                USER_6_USERNAME
+        };
+        AbstractUserStoreManager paginatedUserStoreManager = mock(AbstractUserStoreManager.class);
+        when(paginatedUserStoreManager.getTenantId()).thenReturn(TENANT_ID);
+        when(paginatedUserStoreManager.listUsers(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(1);
+            int offset = invocation.getArgument(2);
+            int start = Math.min(offset - 1, allUsernames.length);
+            return Arrays.copyOfRange(allUsernames, start, Math.min(start + limit, allUsernames.length));
+        });
+        List<ExpressionCondition> conditions = Collections.singletonList(new ExpressionCondition(
+                ExpressionOperation.NE.toString(), ACCOUNT_STATE_CLAIM_URI, ACCOUNT_STATE_CLAIM_VALUE));
+
+        UserNamePage firstPage = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                paginatedUserStoreManager, 2, null);
+        assertEquals(firstPage.getUserNames(), Arrays.asList("DEFAULT/sampleUser2@xmail.com",
+                "DEFAULT/sampleUser4@xmail.com"));
+        UserNamePage lastPage = jdbcIdentityDataStore.listUserNamesAfterCursor(conditions, "DEFAULT",
+                paginatedUserStoreManager, 2, firstPage.getNextCursor());
+        assertEquals(lastPage.getUserNames(), Collections.singletonList(USER_6_USERNAME));
+        assertNull(lastPage.getNextCursor());
+        // The user store is listed a page at a time instead of listing all the users of the domain.
+        verify(paginatedUserStoreManager, times(0)).listUsers(anyString(), anyInt());
+    }
+
+    @Test(description = "Test identity data stores without cursor based pagination are paged with the offsets.")
+    public void testDefaultListUserNamesAfterCursor() throws Exception {
+
+        List<String> allUserNames = Arrays.asList("user1", "user2", "user3", "user4", "user5");
+        UserIdentityDataStore identityDataStore = mock(UserIdentityDataStore.class, Mockito.CALLS_REAL_METHODS);
+        doAnswer(invocation -> {
+            int limit = invocation.getArgument(4);
+            int offset = invocation.getArgument(5);
+            return new ArrayList<>(allUserNames.subList(Math.min(offset - 1, allUserNames.size()),
+                    Math.min(offset - 1 + limit, allUserNames.size())));
+        }).when(identityDataStore).listPaginatedUsersNames(anyList(), anyList(), anyString(), any(), anyInt(),
+                anyInt());
+
+        List<String> userNames = new ArrayList<>();
+        String cursor = null;
+        int pageCount = 0;
+        do {
+            UserNamePage page = identityDataStore.listUserNamesAfterCursor(Collections.emptyList(), "DEFAULT",
+                    userStoreManager, 2, cursor);
+            userNames.addAll(page.getUserNames());
+            cursor = page.getNextCursor();
+            pageCount++;
+        } while (cursor != null);
+
+        assertEquals(pageCount, 3);
+        assertEquals(userNames, allUserNames);
+    }
+
+    @Test(description = "Test identity data stores without cursor based range pagination page the ordered users.")
+    public void testDefaultListUserNamesByClaimValueRangeAfterCursor() throws Exception {
+
+        UserIdentityDataStore identityDataStore = mock(UserIdentityDataStore.class, Mockito.CALLS_REAL_METHODS);
+        doAnswer(invocation -> new ArrayList<>(Arrays.asList("user3", "user1", "user2")))
+                .when(identityDataStore).getUserNamesBetweenProvidedClaimValues(CLAIM_URI, CLAIM_VALUE_2,
+                        CLAIM_VALUE_1, TENANT_ID);
+
+        UserNamePage firstPage = identityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI,
+                CLAIM_VALUE_2, CLAIM_VALUE_1, TENANT_ID, 2, null);
+        assertEquals(firstPage.getUserNames(), Arrays.asList("user1", "user2"));
+        UserNamePage lastPage = identityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI,
+                CLAIM_VALUE_2, CLAIM_VALUE_1, TENANT_ID, 2, firstPage.getNextCursor());
+        assertEquals(lastPage.getUserNames(), Collections.singletonList("user3"));
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test(description = "Test cursor based pagination of the users in a range of the claim values.")
+    public void testListUserNamesByClaimValueRangeAfterCursor() throws Exception {
+
+        String[][] rows = new String[10][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new String[]{getRangeCursorUserName(i), getRangeCursorValue(i)};
+        }
+        insertIdentityData(RANGE_CURSOR_TENANT_ID, rows);
+
+        UserNamePage page = jdbcIdentityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI,
+                getRangeCursorValue(2), getRangeCursorValue(8), RANGE_CURSOR_TENANT_ID, 2, null);
+        List<String> userNames = new ArrayList<>(page.getUserNames());
+        int pageCount = 1;
+        while (page.getNextCursor() != null) {
+            // The range of the first page is kept in the cursor, hence a different range of the caller is ignored.
+            page = jdbcIdentityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI, null, "0",
+                    RANGE_CURSOR_TENANT_ID, 2, page.getNextCursor());
+            userNames.addAll(page.getUserNames());
+            pageCount++;
+        }
+
+        assertEquals(pageCount, 3);
+        assertEquals(userNames, Arrays.asList(getRangeCursorUserName(3), getRangeCursorUserName(4),
+                getRangeCursorUserName(5), getRangeCursorUserName(6), getRangeCursorUserName(7)));
+
+        // Range without an upper bound.
+        page = jdbcIdentityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI, getRangeCursorValue(7),
+                null, RANGE_CURSOR_TENANT_ID, 5, null);
+        assertEquals(page.getUserNames(), Arrays.asList(getRangeCursorUserName(8), getRangeCursorUserName(9)));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test(description = "Test a user updated during a cursor based iteration of a range is returned at most once.")
+    public void testListUserNamesByClaimValueRangeWithConcurrentUpdate() throws Exception {
+
+        int tenantId = RANGE_CURSOR_TENANT_ID + 1;
+        String[][] rows = new String[6][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new String[]{getRangeCursorUserName(i), getRangeCursorValue(i)};
+        }
+        insertIdentityData(tenantId, rows);
+        // Filter the numeric values in all the pages, instead of switching once a background back fill completes.
+        jdbcIdentityDataStore.backfillNumericDataValues();
+
+        UserNamePage page = jdbcIdentityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI, null,
+                getRangeCursorValue(6), tenantId, 3, null);
+        List<String> userNames = new ArrayList<>(page.getUserNames());
+        // A returned user and a user of the next page log in during the iteration.
+        updateIdentityData(tenantId, getRangeCursorUserName(0), getRangeCursorValue(100));
+        updateIdentityData(tenantId, getRangeCursorUserName(4), getRangeCursorValue(100));
+        page = jdbcIdentityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI, null,
+                getRangeCursorValue(6), tenantId, 3, page.getNextCursor());
+        userNames.addAll(page.getUserNames());
+
+        assertEquals(userNames, Arrays.asList(getRangeCursorUserName(0), getRangeCursorUserName(1),
+                getRangeCursorUserName(2), getRangeCursorUserName(3), getRangeCursorUserName(5)));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test(description = "Test an invalid cursor of a range iteration is rejected.",
+            expectedExceptions = IdentityException.class)
+    public void testListUserNamesByClaimValueRangeWithInvalidCursor() throws Exception {
+
+        jdbcIdentityDataStore.listUserNamesByClaimValueRangeAfterCursor(CLAIM_URI, null, "1", RANGE_CURSOR_TENANT_ID,
+                2, "invalid");
+    }
+
+    private void updateIdentityData(int tenantId, String userName, String value) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("UPDATE IDN_IDENTITY_USER_DATA SET " +
+                     "DATA_VALUE = ? WHERE TENANT_ID = ? AND USER_NAME = ? AND DATA_KEY = ?")) {
+            prepStmt.setString(1, value);
+            prepStmt.setInt(2, tenantId);
+            prepStmt.setString(3, userName);
+            prepStmt.setString(4, CLAIM_URI);
+            prepStmt.executeUpdate();
+        }
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("UPDATE IDN_IDENTITY_USER_DATA_NUMERIC SET " +
+                     "DATA_VALUE = ? WHERE TENANT_ID = ? AND USER_NAME = ? AND DATA_KEY = ?")) {
+            prepStmt.setLong(1, Long.parseLong(value));
+            prepStmt.setInt(2, tenantId);
+            prepStmt.setString(3, userName);
+            prepStmt.setString(4, CLAIM_URI);
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private String getRangeCursorUserName(int index) {
+
+        return String.format("DEFAULT/rangeUser%02d", index);
+    }
+
+    private String getRangeCursorValue(int index) {
+
+        return String.valueOf(RANGE_CURSOR_FIRST_VALUE + index * 1000L);
+    }
+
+    private void insertCursorPaginationUsers(int userCount) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("MERGE INTO IDN_IDENTITY_USER_DATA " +
+                     "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) KEY (TENANT_ID, USER_NAME, DATA_KEY) " +
+                     "VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < userCount; i++) {
+                prepStmt.setInt(1, CURSOR_PAGINATION_TENANT_ID);
+                prepStmt.setString(2, getCursorPaginationUserName(i));
+                prepStmt.setString(3, EMAIL_VERIFIED_CLAIM);
+                prepStmt.setString(4, "true");
+                prepStmt.addBatch();
+            }
+            prepStmt.executeBatch();
+        }
+    }
+
+    private String getCursorPaginationUserName(int index) {
+
+        return String.format("DEFAULT/pageUser%05d", index);
+    }
+
+    @DataProvider
+    Object[][] testDataForConcurrentStore() {
+        return new Object[][]{
+                {"h2", CONCURRENT_STORE_TENANT_ID},
+                // Database types without an upsert query use the select, insert and update path.
+                {"unknown", CONCURRENT_STORE_TENANT_ID + 1}
+        };
+    }
+
+    @Test(description = "Test concurrent stores of the same user do not lose identity data.",
+            dataProvider = "testDataForConcurrentStore")
+    public void testConcurrentStoreOfSameUser(String databaseType, int tenantId) throws Exception {
+
+        String sharedKey = "http://wso2.org/claims/identity/sharedKey";
+        when(userStoreManager.getTenantId()).thenReturn(tenantId);
+        when(realmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME))
+                .thenReturn("DEFAULT");
+
+        JDBCIdentityDataStore identityDataStore;
+        try (MockedStatic<IdentityDataStoreCache> mockedIdentityDataStoreCache =
+                     Mockito.mockStatic(IdentityDataStoreCache.class)) {
+            mockedIdentityDataStoreCache.when(IdentityDataStoreCache::getInstance)
+                    .thenReturn(mock(IdentityDataStoreCache.class));
+            identityDataStore = new JDBCIdentityDataStore();
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 2; thread++) {
+                int threadIndex = thread;
+                futures.add(executorService.submit(getConcurrentStoreTask(identityDataStore, databaseType,
+                        threadIndex, sharedKey)));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        Map<String, String> storedValues = new HashMap<>();
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("SELECT DATA_KEY, DATA_VALUE FROM " +
+                     "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND USER_NAME = ?")) {
+            prepStmt.setInt(1, tenantId);
+            prepStmt.setString(2, "DEFAULT/concurrentUser");
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    storedValues.put(resultSet.getString(1), resultSet.getString(2));
+                }
+            }
+        }
+        assertEquals(storedValues.size(), 2 * CONCURRENT_STORE_UPDATE_COUNT + 1);
+        for (int thread = 0; thread < 2; thread++) {
+            for (int i = 0; i < CONCURRENT_STORE_UPDATE_COUNT; i++) {
+                assertEquals(storedValues.get(getConcurrentStoreKey(thread, i)), String.valueOf(i));
+            }
+        }
+        assertTrue(storedValues.containsKey(sharedKey));
+    }
+
+    private Callable<Void> getConcurrentStoreTask(JDBCIdentityDataStore identityDataStore, String databaseType,
+                                                  int threadIndex, String sharedKey) {
+
+        return () -> {
+            // Static mocks are thread local, hence they are registered for the store thread.
+            try (MockedStatic<IdentityDatabaseUtil> identityDatabaseUtil =
+                         Mockito.mockStatic(IdentityDatabaseUtil.class);
+                 MockedStatic<IdentityUtil> identityUtil = Mockito.mockStatic(IdentityUtil.class);
+                 MockedStatic<UserCoreUtil> userCoreUtil = Mockito.mockStatic(UserCoreUtil.class);
+                 MockedStatic<DatabaseCreator> databaseCreator = Mockito.mockStatic(DatabaseCreator.class)) {
+                identityDatabaseUtil.when(IdentityDatabaseUtil::getDBConnection)
+                        .thenAnswer(invocation -> TestUtils.getConnection());
+                identityDatabaseUtil.when(() -> IdentityDatabaseUtil.closeConnection(any(Connection.class)))
+                        .thenAnswer(invocation -> {
+                            ((Connection) invocation.getArgument(0)).close();
+                            return null;
+                        });
+                userCoreUtil.when(() -> UserCoreUtil.addDomainToName(anyString(), anyString()))
+                        .thenAnswer(invocation -> invocation.getArgument(1) + "/" + invocation.getArgument(0));
+                userCoreUtil.when(() -> UserCoreUtil.removeDomainFromName(anyString()))
+                        .thenAnswer(invocation -> invocation.getArgument(0));
+                identityUtil.when(() -> IdentityUtil.isUserStoreInUsernameCaseSensitive(anyString(), anyInt()))
+                        .thenReturn(true);
+                databaseCreator.when(() -> DatabaseCreator.getDatabaseType(any(Connection.class)))
+                        .thenReturn(databaseType);
+
+                Map<String, String> data = new HashMap<>();
+                for (int i = 0; i < CONCURRENT_STORE_UPDATE_COUNT; i++) {
+                    data.put(sharedKey, threadIndex + "-" + i);
+                    data.put(getConcurrentStoreKey(threadIndex, i), String.valueOf(i));
+                    identityDataStore.store(new UserIdentityClaim("concurrentUser", new HashMap<>(data)),
+                            userStoreManager);
+                }
+            }
+            return null;
+        };
+    }
+
+    private String getConcurrentStoreKey(int threadIndex, int index) {
+
+        return "http://wso2.org/claims/identity/key" + threadIndex + "_" + index;
+    }
+
+    private void insertIdentityData(int tenantId, String[][] userNameAndValues) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_IDENTITY_USER_DATA " +
+                     "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (?, ?, ?, ?)")) {
+            for (String[] userNameAndValue : userNameAndValues) {
+                prepStmt.setInt(1, tenantId);
+                prepStmt.setString(2, userNameAndValue[0]);
+                prepStmt.setString(3, CLAIM_URI);
+                prepStmt.setString(4, userNameAndValue[1]);
+                prepStmt.addBatch();
+            }
+            prepStmt.executeBatch();
+        }
+    }
+
+    private int countNumericDataRows(int tenantId) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("SELECT COUNT(*) FROM " +
+                     "IDN_IDENTITY_USER_DATA_NUMERIC WHERE TENANT_ID = ?")) {
+            prepStmt.setInt(1, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private String getIdentityDataValue(int tenantId, String userName, String dataKey) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("SELECT DATA_VALUE FROM " +
+                     "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND USER_NAME = ? AND DATA_KEY = ?")) {
+            prepStmt.setInt(1, tenantId);
+            prepStmt.setString(2, userName);
+            prepStmt.setString(3, dataKey);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private String getNumericDataState(String stateKey) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("SELECT STATE_VALUE FROM " +
+                     "IDN_IDENTITY_DATA_NUM_STATE WHERE STATE_KEY = ?")) {
+            prepStmt.setString(1, stateKey);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private void executeUpdate(String query) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(query);
+        }
+    }
+
+    /**
+     * Get a connection which records the query and the parameters of each prepared statement.
+     *
+     * @param queries Recorded queries, as the query followed by the parameters by their index.
+     * @return Recording connection.
+     */
+    private Connection getQueryRecordingConnection(List<Object[]> queries) throws Exception {
+
+        Connection connection = TestUtils.getConnection();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(connection, args);
+                    if (!"prepareStatement".equals(method.getName())) {
+                        return result;
+                    }
+                    PreparedStatement prepStmt = (PreparedStatement) result;
+                    Map<Integer, Object> parameters = new HashMap<>();
+                    queries.add(new Object[]{args[0], parameters});
+                    return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class}, (stmtProxy, stmtMethod, stmtArgs) -> {
+                                if (stmtMethod.getName().startsWith("set") && stmtArgs != null &&
+                                        stmtArgs.length == 2 && stmtArgs[0] instanceof Integer) {
+                                    parameters.put((Integer) stmtArgs[0], stmtArgs[1]);
+                                }
+                                return stmtMethod.invoke(prepStmt, stmtArgs);
+                            });
+                });
+    }
+
+    /**
+     * Get the number of rows scanned by a recorded query, from the EXPLAIN ANALYZE plan of H2.
+     *
+     * @param query Recorded query.
+     * @return Number of scanned rows.
+     */
+    @SuppressWarnings("unchecked")
+    private long getScanCount(Object[] query) throws Exception {
+
+        try (Connection connection = TestUtils.getConnection();
+             PreparedStatement prepStmt = connection.prepareStatement("EXPLAIN ANALYZE " + query[0])) {
+            for (Map.Entry<Integer, Object> parameter : ((Map<Integer, Object>) query[1]).entrySet()) {
+                prepStmt.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                assertTrue(resultSet.next());
+                Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(resultSet.getString(1));
+                long scanCount = 0;
+                boolean found = false;
+                while (matcher.find()) {
+                    scanCount += Long.parseLong(matcher.group(1));
+                    found = true;
+                }
+                assertTrue(found, "No scan count in the plan: " + resultSet.getString(1));
+                return scanCount;
+            }
+        }
+    }
+
+    private Connection getStatementCountingConnection(AtomicInteger preparedStatementCount) throws Exception {
+
+        Connection connection = TestUtils.getConnection();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("prepareStatement".equals(method.getName())) {
+                        preparedStatementCount.incrementAndGet();
+                    }
+                    return method.invoke(connection, args);
+                });
+    }
+
     private void verifyUserStoreOnlyUserIncluded(List<String> usernames) {
 
         boolean containsUserStoreOnlyUser = usernames.stream()
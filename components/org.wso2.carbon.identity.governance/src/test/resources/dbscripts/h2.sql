@@ -9,6 +9,28 @@ CREATE TABLE IDN_IDENTITY_USER_DATA (
             PRIMARY KEY (TENANT_ID, USER_NAME, DATA_KEY)
 );
 
+-- -----------------------------------------------------
+-- Table IDN_IDENTITY_USER_DATA_NUMERIC
+-- -----------------------------------------------------
+CREATE TABLE IDN_IDENTITY_USER_DATA_NUMERIC (
+            TENANT_ID INTEGER DEFAULT -1234,
+            USER_NAME VARCHAR(255) NOT NULL,
+            DATA_KEY VARCHAR(255) NOT NULL,
+            DATA_VALUE BIGINT NOT NULL,
+            PRIMARY KEY (TENANT_ID, USER_NAME, DATA_KEY)
+);
+
+CREATE INDEX IDX_IDN_ID_USER_DATA_NUM_VAL ON IDN_IDENTITY_USER_DATA_NUMERIC (TENANT_ID, DATA_KEY, DATA_VALUE);
+
+-- -----------------------------------------------------
+-- Table IDN_IDENTITY_DATA_NUM_STATE
+-- -----------------------------------------------------
+CREATE TABLE IDN_IDENTITY_DATA_NUM_STATE (
+            STATE_KEY VARCHAR(255) NOT NULL,
+            STATE_VALUE VARCHAR(255),
+            PRIMARY KEY (STATE_KEY)
+);
+
 INSERT INTO IDN_IDENTITY_USER_DATA (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES
 (3, 'DEFAULT/sampleUser1@xmail.com', 'http://wso2.org/claims/identity/lastLogonTime', '1672704000000'),
 (3, 'DEFAULT/sampleUser2@xmail.com', 'http://wso2.org/claims/identity/lastLogonTime', '1673481600000'),
@@ -0,0 +1,30 @@
+-- -----------------------------------------------------
+-- Table UM_USER
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS UM_USER (
+            UM_ID INTEGER NOT NULL AUTO_INCREMENT,
+            UM_USER_ID VARCHAR(255) NOT NULL,
+            UM_USER_NAME VARCHAR(255) NOT NULL,
+            UM_USER_PASSWORD VARCHAR(255) NOT NULL,
+            UM_SALT_VALUE VARCHAR(31),
+            UM_REQUIRE_CHANGE BOOLEAN DEFAULT FALSE,
+            UM_CHANGED_TIME TIMESTAMP NOT NULL,
+            UM_TENANT_ID INTEGER DEFAULT 0,
+            PRIMARY KEY (UM_ID, UM_TENANT_ID),
+            UNIQUE(UM_USER_NAME, UM_TENANT_ID),
+            UNIQUE(UM_USER_ID)
+);
+
+-- -----------------------------------------------------
+-- Table UM_USER_ATTRIBUTE
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS UM_USER_ATTRIBUTE (
+            UM_ID INTEGER NOT NULL AUTO_INCREMENT,
+            UM_ATTR_NAME VARCHAR(255) NOT NULL,
+            UM_ATTR_VALUE VARCHAR(1024),
+            UM_PROFILE_ID VARCHAR(255),
+            UM_USER_ID INTEGER,
+            UM_TENANT_ID INTEGER DEFAULT 0,
+            PRIMARY KEY (UM_ID, UM_TENANT_ID),
+            FOREIGN KEY (UM_USER_ID, UM_TENANT_ID) REFERENCES UM_USER(UM_ID, UM_TENANT_ID)
+);
@@ -48,6 +48,11 @@ public class IdleAccIdentificationConstants {
      */
     public enum ErrorMessages {
 
+        // Client errors 600xx.
+        ERROR_INVALID_CURSOR("60001",
+                "Invalid pagination cursor.",
+                "The pagination cursor: %s is not a cursor of a previous page."),
+
         // Server errors 650xx.
         ERROR_RETRIEVE_INACTIVE_USERS_FROM_DB("65002",
                 "Error while retrieving inactive users from database.",
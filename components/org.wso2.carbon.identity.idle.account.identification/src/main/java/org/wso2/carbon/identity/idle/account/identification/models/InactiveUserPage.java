@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.idle.account.identification.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of inactive users, with the cursor to retrieve the next page.
+ */
+public class InactiveUserPage {
+
+    private final List<InactiveUserModel> inactiveUsers;
+    private final String nextCursor;
+
+    public InactiveUserPage(List<InactiveUserModel> inactiveUsers, String nextCursor) {
+
+        this.inactiveUsers = inactiveUsers != null ? Collections.unmodifiableList(inactiveUsers) :
+                Collections.emptyList();
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Method to get the inactive users of the page.
+     *
+     * @return inactive users.
+     */
+    public List<InactiveUserModel> getInactiveUsers() {
+
+        return inactiveUsers;
+    }
+
+    /**
+     * Method to get the cursor of the next page.
+     *
+     * @return cursor of the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+}
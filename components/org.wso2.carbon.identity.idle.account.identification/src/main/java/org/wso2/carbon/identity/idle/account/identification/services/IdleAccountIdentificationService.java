@@ -1,10 +1,17 @@
 package org.wso2.carbon.identity.idle.account.identification.services;
 
+import org.wso2.carbon.identity.governance.exceptions.general.InvalidCursorException;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
+import org.wso2.carbon.identity.idle.account.identification.constants.IdleAccIdentificationConstants;
+import org.wso2.carbon.identity.idle.account.identification.exception.IdleAccountIdentificationClientException;
 import org.wso2.carbon.identity.idle.account.identification.exception.IdleAccountIdentificationException;
 import org.wso2.carbon.identity.idle.account.identification.models.InactiveUserModel;
+import org.wso2.carbon.identity.idle.account.identification.models.InactiveUserPage;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -40,6 +47,48 @@ public interface IdleAccountIdentificationService {
     List<InactiveUserModel> getLimitedInactiveUsersFromSpecificDate(LocalDateTime inactiveAfter,
             LocalDateTime excludeBefore, String tenantDomain) throws IdleAccountIdentificationException;
 
+    /**
+     * Get a page of the inactive users from a specific date, starting after the given cursor. Unlike
+     * getInactiveUsersFromSpecificDate, the inactive users are not loaded at once, hence a large number of users can
+     * be iterated page by page. The dates of the first page are kept in the cursor, so all the pages of an iteration
+     * identify the inactive users with the same dates. A page can have fewer users than the limit, and the
+     * iteration ends when the next cursor is null. Implementations which do not override this method load all the
+     * inactive users with the dates given with each page, and take the page from the users ordered by the username.
+     *
+     * @param inactiveAfter date after which the user should be inactive.
+     * @param excludeBefore date before which the user should be excluded, or null to include all inactive users.
+     * @param tenantDomain  tenant domain.
+     * @param limit         maximum number of users of the page.
+     * @param cursor        cursor of the previous page, or null for the first page.
+     * @return              page of inactive users with the cursor of the next page.
+     * @throws IdleAccountIdentificationException Exception when retrieving inactive users from database.
+     */
+    default InactiveUserPage getInactiveUsersAfterCursor(LocalDateTime inactiveAfter, LocalDateTime excludeBefore,
+                                                         String tenantDomain, int limit, String cursor)
+            throws IdleAccountIdentificationException {
+
+        List<InactiveUserModel> inactiveUsers = excludeBefore == null ?
+                getInactiveUsersFromSpecificDate(inactiveAfter, tenantDomain) :
+                getLimitedInactiveUsersFromSpecificDate(inactiveAfter, excludeBefore, tenantDomain);
+        int offset;
+        try {
+            offset = UserNamePage.fromOffsetCursor(cursor);
+        } catch (InvalidCursorException e) {
+            IdleAccIdentificationConstants.ErrorMessages errorEnum =
+                    IdleAccIdentificationConstants.ErrorMessages.ERROR_INVALID_CURSOR;
+            throw new IdleAccountIdentificationClientException(errorEnum.getCode(), errorEnum.getMessage(),
+                    String.format(errorEnum.getDescription(), cursor));
+        }
+        if (limit <= 0 || offset >= inactiveUsers.size()) {
+            return new InactiveUserPage(Collections.emptyList(), null);
+        }
+        List<InactiveUserModel> sortedInactiveUsers = new ArrayList<>(inactiveUsers);
+        sortedInactiveUsers.sort(Comparator.comparing(InactiveUserModel::getUsername));
+        int end = Math.min(offset + limit, sortedInactiveUsers.size());
+        return new InactiveUserPage(new ArrayList<>(sortedInactiveUsers.subList(offset, end)),
+                end < sortedInactiveUsers.size() ? UserNamePage.toOffsetCursor(end) : null);
+    }
+
     /**
      * Get inactive users from a specific date or from a specific date excluding the oldest inactive users while
      * filtering the disabled users based on the value provided for the isDisabled.
@@ -22,11 +22,16 @@ import org.apache.commons.lang.StringUtils;
 import org.wso2.carbon.context.CarbonContext;
 
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.UserIdResolver;
+import org.wso2.carbon.identity.governance.exceptions.general.InvalidCursorException;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.identity.idle.account.identification.constants.IdleAccIdentificationConstants;
+import org.wso2.carbon.identity.idle.account.identification.exception.IdleAccountIdentificationClientException;
 import org.wso2.carbon.identity.idle.account.identification.exception.IdleAccountIdentificationException;
 import org.wso2.carbon.identity.idle.account.identification.exception.IdleAccountIdentificationServerException;
 import org.wso2.carbon.identity.idle.account.identification.internal.IdleAccountIdentificationDataHolder;
 import org.wso2.carbon.identity.idle.account.identification.models.InactiveUserModel;
+import org.wso2.carbon.identity.idle.account.identification.models.InactiveUserPage;
 import org.wso2.carbon.identity.idle.account.identification.services.IdleAccountIdentificationService;
 
 import org.wso2.carbon.identity.base.IdentityException;
@@ -41,6 +46,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of the service interface for idle account identification.
@@ -92,6 +98,37 @@ public class IdleAccountIdentificationServiceImpl implements IdleAccountIdentifi
         return inactiveUsers;
     }
 
+    @Override
+    public InactiveUserPage getInactiveUsersAfterCursor(LocalDateTime inactiveAfter, LocalDateTime excludeBefore,
+                                                        String tenantDomain, int limit, String cursor)
+            throws IdleAccountIdentificationException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        String inactiveDateEpoch = Long.toString(inactiveAfter.toEpochSecond(ZoneOffset.UTC));
+        String excludeDateEpoch = excludeBefore != null ?
+                Long.toString(excludeBefore.toEpochSecond(ZoneOffset.UTC)) : null;
+        try {
+            UserNamePage userNamePage = IdleAccountIdentificationDataHolder.getInstance()
+                    .getIdentityDataStoreService().listUserNamesByClaimValueRangeAfterCursor(
+                            IdleAccIdentificationConstants.LAST_LOGIN_TIME_CLAIM, excludeDateEpoch,
+                            inactiveDateEpoch, tenantId, limit, cursor);
+            List<InactiveUserModel> inactiveUsers = new ArrayList<>();
+            if (!userNamePage.getUserNames().isEmpty()) {
+                inactiveUsers = buildInactiveUsers(userNamePage.getUserNames());
+            }
+            return new InactiveUserPage(inactiveUsers, userNamePage.getNextCursor());
+        } catch (InvalidCursorException e) {
+            IdleAccIdentificationConstants.ErrorMessages errorEnum =
+                    IdleAccIdentificationConstants.ErrorMessages.ERROR_INVALID_CURSOR;
+            throw new IdleAccountIdentificationClientException(errorEnum.getCode(), errorEnum.getMessage(),
+                    String.format(errorEnum.getDescription(), cursor));
+        } catch (IdentityException e) {
+            IdleAccIdentificationConstants.ErrorMessages errorEnum =
+                    IdleAccIdentificationConstants.ErrorMessages.ERROR_RETRIEVE_INACTIVE_USERS_FROM_DB;
+            throw new IdleAccountIdentificationServerException(errorEnum.getCode(), errorEnum.getMessage());
+        }
+    }
+
     /**
      * Retrieve inactive users if the account is disabled or non-disabled depending on the value for isDisabled.
      *
@@ -147,8 +184,9 @@ public class IdleAccountIdentificationServiceImpl implements IdleAccountIdentifi
             throws IdleAccountIdentificationServerException {
 
         List<InactiveUserModel> inactiveUsers = new ArrayList<>();
+        Map<String, String> userIds = fetchUserIds(usernames);
         for (String username : usernames) {
-            String userId = fetchUserId(username);
+            String userId = userIds.get(username);
             if (StringUtils.isNotBlank(userId)) {
                 InactiveUserModel inactiveUser = new InactiveUserModel();
                 inactiveUser.setUsername(username);
@@ -181,6 +219,28 @@ public class IdleAccountIdentificationServiceImpl implements IdleAccountIdentifi
         return null;
     }
 
+    /**
+     * Fetch UUIDs of the users, listing the users of each user store domain a page at a time.
+     *
+     * @param usernames         usernames of the users.
+     * @return                  map of the username to the UUID of the user.
+     */
+    public Map<String, String> fetchUserIds(List<String> usernames) throws IdleAccountIdentificationServerException {
+
+        UserStoreManager userStoreManager = getUserStoreManager(IdentityUtil.getPrimaryDomainName());
+        for (String userStoreDomain : UserIdResolver.groupByUserStoreDomain(usernames).keySet()) {
+            // Fail if the user store of a domain is not available, as when resolving the users one by one.
+            getUserStoreManager(userStoreDomain);
+        }
+        try {
+            return UserIdResolver.resolveUserIds(userStoreManager, usernames);
+        } catch (UserStoreException e) {
+            IdleAccIdentificationConstants.ErrorMessages errorEnum =
+                    IdleAccIdentificationConstants.ErrorMessages.ERROR_RETRIEVE_USER_UUID;
+            throw new IdleAccountIdentificationServerException(errorEnum.getCode(), errorEnum.getMessage());
+        }
+    }
+
     /**
      * Get user store manager.
      *
@@ -26,36 +26,61 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.wso2.carbon.context.CarbonContext;
 
+import org.wso2.carbon.identity.idle.account.identification.constants.IdleAccIdentificationConstants;
+import org.wso2.carbon.identity.idle.account.identification.exception.IdleAccountIdentificationClientException;
 import org.wso2.carbon.identity.idle.account.identification.internal.IdleAccountIdentificationDataHolder;
 import org.wso2.carbon.identity.idle.account.identification.models.InactiveUserModel;
+import org.wso2.carbon.identity.idle.account.identification.models.InactiveUserPage;
 import org.wso2.carbon.identity.idle.account.identification.services.impl.IdleAccountIdentificationServiceImpl;
 import org.wso2.carbon.identity.idle.account.identification.util.TestUtils;
 
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreService;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreServiceImpl;
 import org.wso2.carbon.user.core.UserRealm;
 import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.common.User;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class IdleAccountIdentificationServiceImplTest {
 
     private static final String TENANT_DOMAIN = "DEFAULT";
     private static final int TENANT_ID = 3;
     private static final String SAMPLE_USER_ID = "sampleUserId";
+    private static final int BULK_INACTIVE_USER_TENANT_ID = 4;
+    private static final int BULK_INACTIVE_USER_COUNT = 5500;
     private static final String IDENTITY_DATA_STORE_TYPE = "org.wso2.carbon.identity." +
             "governance.store.JDBCIdentityDataStore";
 
@@ -127,7 +152,8 @@ public class IdleAccountIdentificationServiceImplTest {
 
         IdleAccountIdentificationServiceImpl idleAccountIdentificationService =
                 spy(IdleAccountIdentificationServiceImpl.class);
-        doReturn(SAMPLE_USER_ID).when(idleAccountIdentificationService).fetchUserId(anyString());
+        doAnswer(invocation -> sampleUserIds(invocation.getArgument(0)))
+                .when(idleAccountIdentificationService).fetchUserIds(anyList());
 
         List<InactiveUserModel> inactiveUsers = idleAccountIdentificationService.
                 getInactiveUsersFromSpecificDate(inactiveAfter, TENANT_DOMAIN);
@@ -150,7 +176,8 @@ public class IdleAccountIdentificationServiceImplTest {
 
         IdleAccountIdentificationServiceImpl idleAccountIdentificationService =
                 spy(IdleAccountIdentificationServiceImpl.class);
-        doReturn(SAMPLE_USER_ID).when(idleAccountIdentificationService).fetchUserId(anyString());
+        doAnswer(invocation -> sampleUserIds(invocation.getArgument(0)))
+                .when(idleAccountIdentificationService).fetchUserIds(anyList());
 
         List<InactiveUserModel> inactiveUsers = idleAccountIdentificationService.
                 getLimitedInactiveUsersFromSpecificDate(inactiveAfter, excludeBefore, TENANT_DOMAIN);
@@ -175,11 +202,198 @@ public class IdleAccountIdentificationServiceImplTest {
 
         IdleAccountIdentificationServiceImpl idleAccountIdentificationService =
                 spy(IdleAccountIdentificationServiceImpl.class);
-        doReturn(SAMPLE_USER_ID).when(idleAccountIdentificationService).fetchUserId(anyString());
+        doAnswer(invocation -> sampleUserIds(invocation.getArgument(0)))
+                .when(idleAccountIdentificationService).fetchUserIds(anyList());
 
         List<InactiveUserModel> inactiveUsers = idleAccountIdentificationService.
                 filterInactiveUsersIfDisabled(inactiveAfter, excludeBefore, TENANT_DOMAIN, isDisabled);
 
         assertEquals(inactiveUsers.size(), expected);
     }
+
+    @Test
+    public void testUserIdsResolvedInBulk() throws Exception {
+
+        mockedIdentityUtil.when(IdentityUtil::getPrimaryDomainName).thenReturn("PRIMARY");
+        AtomicInteger bulkLookupCount = new AtomicInteger();
+        AtomicInteger singleLookupCount = new AtomicInteger();
+        AbstractUserStoreManager countingUserStoreManager = mock(AbstractUserStoreManager.class);
+        when(countingUserStoreManager.listUsersWithID(eq(TENANT_DOMAIN + "/*"), anyInt(), eq(1)))
+                .thenAnswer(invocation -> {
+                    bulkLookupCount.incrementAndGet();
+                    List<User> users = new ArrayList<>();
+                    for (int i = 1; i <= 5; i++) {
+                        User user = new User();
+                        user.setUsername("sampleUser" + i + "@xmail.com");
+                        user.setUserID("id-" + TENANT_DOMAIN + "/" + user.getUsername());
+                        users.add(user);
+                    }
+                    return users;
+                });
+        when(countingUserStoreManager.getUserIDFromUserName(anyString())).thenAnswer(invocation -> {
+            singleLookupCount.incrementAndGet();
+            return "id-" + invocation.getArgument(0);
+        });
+        when(countingUserStoreManager.getSecondaryUserStoreManager(anyString())).thenReturn(countingUserStoreManager);
+        when(userRealm.getUserStoreManager()).thenReturn(countingUserStoreManager);
+
+        List<InactiveUserModel> inactiveUsers = new IdleAccountIdentificationServiceImpl()
+                .getInactiveUsersFromSpecificDate(LocalDate.parse("2023-01-31").atStartOfDay(), TENANT_DOMAIN);
+
+        assertEquals(inactiveUsers.size(), 5);
+        for (InactiveUserModel inactiveUser : inactiveUsers) {
+            assertEquals(inactiveUser.getUserId(), "id-" + inactiveUser.getUsername());
+        }
+        // The user IDs of all the users are resolved with a single user store call.
+        assertEquals(bulkLookupCount.get(), 1);
+        assertEquals(singleLookupCount.get(), 0);
+    }
+
+    @Test
+    public void testGetInactiveUsersAfterCursor() throws Exception {
+
+        mockedIdentityDatabaseUtils.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> TestUtils.getConnection());
+        IdleAccountIdentificationServiceImpl idleAccountIdentificationService =
+                spy(IdleAccountIdentificationServiceImpl.class);
+        doAnswer(invocation -> sampleUserIds(invocation.getArgument(0)))
+                .when(idleAccountIdentificationService).fetchUserIds(anyList());
+
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        int pageCount = 0;
+        do {
+            InactiveUserPage page = idleAccountIdentificationService.getInactiveUsersAfterCursor(
+                    LocalDate.parse("2023-01-31").atStartOfDay(), null, TENANT_DOMAIN, 2, cursor);
+            for (InactiveUserModel inactiveUser : page.getInactiveUsers()) {
+                usernames.add(inactiveUser.getUsername());
+            }
+            cursor = page.getNextCursor();
+            pageCount++;
+        } while (cursor != null);
+
+        assertEquals(pageCount, 3);
+        assertEquals(usernames.size(), 5);
+        assertEquals(new HashSet<>(usernames).size(), 5);
+
+        InactiveUserPage limitedPage = idleAccountIdentificationService.getInactiveUsersAfterCursor(
+                LocalDate.parse("2023-01-31").atStartOfDay(), LocalDate.parse("2023-01-15").atStartOfDay(),
+                TENANT_DOMAIN, 10, null);
+        assertEquals(limitedPage.getInactiveUsers().size(), 3);
+        assertNull(limitedPage.getNextCursor());
+    }
+
+    /**
+     * Iterates the inactive users of a large tenant from the identity data store page by page, and checks each page
+     * reads and resolves at most the page size of users, instead of loading all the users at once.
+     */
+    @Test
+    public void testIterateInactiveUsersPageByPage() throws Exception {
+
+        mockedIdentityDatabaseUtils.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> TestUtils.getConnection());
+        mockedIdentityTenantUtil.when(() -> IdentityTenantUtil.getTenantId(anyString()))
+                .thenReturn(BULK_INACTIVE_USER_TENANT_ID);
+        addInactiveUsers(BULK_INACTIVE_USER_TENANT_ID, BULK_INACTIVE_USER_COUNT);
+        IdentityDataStoreService dataStoreService = new IdentityDataStoreServiceImpl();
+        List<Integer> storeLimits = new ArrayList<>();
+        List<Integer> storePageSizes = new ArrayList<>();
+        IdentityDataStoreService recordingDataStoreService = mock(IdentityDataStoreService.class,
+                withSettings().stubOnly());
+        when(recordingDataStoreService.listUserNamesByClaimValueRangeAfterCursor(anyString(), any(), anyString(),
+                anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+                    UserNamePage userNamePage = dataStoreService.listUserNamesByClaimValueRangeAfterCursor(
+                            invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+                            invocation.getArgument(3), invocation.getArgument(4), invocation.getArgument(5));
+                    storeLimits.add(invocation.getArgument(4));
+                    storePageSizes.add(userNamePage.getUserNames().size());
+                    return userNamePage;
+                });
+        IdleAccountIdentificationDataHolder.getInstance().setIdentityDataStoreService(recordingDataStoreService);
+        List<Integer> resolvedUserIdCounts = new ArrayList<>();
+        IdleAccountIdentificationServiceImpl idleAccountIdentificationService = mock(
+                IdleAccountIdentificationServiceImpl.class,
+                withSettings().stubOnly().defaultAnswer(CALLS_REAL_METHODS));
+        doAnswer(invocation -> {
+            List<String> usernames = invocation.getArgument(0);
+            resolvedUserIdCounts.add(usernames.size());
+            return sampleUserIds(usernames);
+        }).when(idleAccountIdentificationService).fetchUserIds(anyList());
+
+        int userCount = 0;
+        int pageCount = 0;
+        String previousUsername = "";
+        String cursor = null;
+        do {
+            InactiveUserPage page = idleAccountIdentificationService.getInactiveUsersAfterCursor(
+                    LocalDate.parse("2023-01-31").atStartOfDay(), null, TENANT_DOMAIN, 1000, cursor);
+            for (InactiveUserModel inactiveUser : page.getInactiveUsers()) {
+                // The users are returned once, in the username order.
+                assertTrue(inactiveUser.getUsername().compareTo(previousUsername) > 0);
+                previousUsername = inactiveUser.getUsername();
+                userCount++;
+            }
+            cursor = page.getNextCursor();
+            pageCount++;
+        } while (cursor != null);
+
+        int expectedPageCount = (BULK_INACTIVE_USER_COUNT + 999) / 1000;
+        assertEquals(userCount, BULK_INACTIVE_USER_COUNT);
+        assertEquals(pageCount, expectedPageCount);
+        // The store is asked for one page of users at a time, and each page resolves only the user IDs of the page.
+        assertEquals(storeLimits, Collections.nCopies(expectedPageCount, 1000));
+        assertEquals(storePageSizes.size(), expectedPageCount);
+        assertEquals(resolvedUserIdCounts, storePageSizes);
+        for (int pageSize : storePageSizes) {
+            assertTrue(pageSize <= 1000, "Page size: " + pageSize);
+        }
+    }
+
+    @Test
+    public void testGetInactiveUsersWithInvalidCursor() throws Exception {
+
+        mockedIdentityDatabaseUtils.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> TestUtils.getConnection());
+        IdleAccountIdentificationDataHolder.getInstance().setIdentityDataStoreService(
+                new IdentityDataStoreServiceImpl());
+        IdleAccountIdentificationServiceImpl idleAccountIdentificationService =
+                new IdleAccountIdentificationServiceImpl();
+
+        try {
+            idleAccountIdentificationService.getInactiveUsersAfterCursor(LocalDate.parse("2023-01-31").atStartOfDay(),
+                    null, TENANT_DOMAIN, 10, "tampered-cursor");
+            fail("An invalid cursor should be rejected.");
+        } catch (IdleAccountIdentificationClientException e) {
+            assertEquals(e.getErrorCode(),
+                    IdleAccIdentificationConstants.ErrorMessages.ERROR_INVALID_CURSOR.getCode());
+        }
+    }
+
+    private static void addInactiveUsers(int tenantId, int userCount) throws Exception {
+
+        try (Connection dbConnection = TestUtils.getConnection();
+             PreparedStatement prepStmt = dbConnection.prepareStatement("INSERT INTO IDN_IDENTITY_USER_DATA " +
+                     "(TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < userCount; i++) {
+                prepStmt.setInt(1, tenantId);
+                prepStmt.setString(2, String.format("DEFAULT/inactiveUser%07d", i));
+                prepStmt.setString(3, IdleAccIdentificationConstants.LAST_LOGIN_TIME_CLAIM);
+                prepStmt.setString(4, "1672704000000");
+                prepStmt.addBatch();
+                if ((i + 1) % 10000 == 0) {
+                    prepStmt.executeBatch();
+                }
+            }
+            prepStmt.executeBatch();
+        }
+    }
+
+    private static Map<String, String> sampleUserIds(List<String> usernames) {
+
+        Map<String, String> userIds = new HashMap<>();
+        for (String username : usernames) {
+            userIds.put(username, SAMPLE_USER_ID);
+        }
+        return userIds;
+    }
 }
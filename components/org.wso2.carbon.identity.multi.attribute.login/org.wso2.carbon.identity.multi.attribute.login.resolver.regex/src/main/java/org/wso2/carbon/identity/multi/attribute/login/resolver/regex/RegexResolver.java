@@ -22,8 +22,10 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.CarbonConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.multi.attribute.login.mgt.MultiAttributeLoginResolver;
 import org.wso2.carbon.identity.multi.attribute.login.mgt.ResolvedUserResult;
+import org.wso2.carbon.identity.multi.attribute.login.resolver.regex.internal.RegexResolverServiceDataHolder;
 import org.wso2.carbon.identity.multi.attribute.login.resolver.regex.utils.UserResolverUtil;
 import org.wso2.carbon.user.api.Claim;
 import org.wso2.carbon.user.api.ClaimManager;
@@ -34,7 +36,6 @@ import org.wso2.carbon.user.core.UserRealm;
 import org.wso2.carbon.user.core.UserStoreManager;
 import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
 import org.wso2.carbon.user.core.common.AuthenticationResult;
-import org.wso2.carbon.user.core.common.IterativeUserStoreManager;
 import org.wso2.carbon.user.core.common.User;
 import org.wso2.carbon.user.core.config.UserStorePreferenceOrderSupplier;
 import org.wso2.carbon.user.core.constants.UserCoreClaimConstants;
@@ -48,7 +49,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -58,6 +63,7 @@ import java.util.stream.Collectors;
 public class RegexResolver implements MultiAttributeLoginResolver {
 
     private static final Log log = LogFactory.getLog(RegexResolver.class);
+    private final Map<String, ResolutionPlan> resolutionPlans = new ConcurrentHashMap<>();
 
     @Override
     public ResolvedUserResult resolveUser(String loginAttribute, List<String> allowedAttributes, String tenantDomain) {
@@ -71,8 +77,8 @@ public class RegexResolver implements MultiAttributeLoginResolver {
             UniqueIDUserStoreManager userStoreManager = UserResolverUtil.getUserStoreManager(tenantDomain);
             ClaimManager claimManager = userRealm.getClaimManager();
 
-            resolveDistinctUsersForClaims(loginAttribute, allowedAttributes, claimManager, userStoreManager,
-                    resolvedUserResult);
+            resolveDistinctUsersForClaims(loginAttribute, allowedAttributes, tenantDomain, claimManager,
+                    userStoreManager, resolvedUserResult);
 
         } catch (UserStoreException e) {
             log.error("Error occurred while resolving user name", e);
@@ -81,27 +87,32 @@ public class RegexResolver implements MultiAttributeLoginResolver {
     }
 
     private void resolveDistinctUsersForClaims(String loginAttribute, List<String> allowedAttributes,
-                                               ClaimManager claimManager,
+                                               String tenantDomain, ClaimManager claimManager,
                                                UniqueIDUserStoreManager userStoreManager,
                                                ResolvedUserResult resolvedUserResult)
             throws UserStoreException {
 
         Set<String> uniqueUserIds = new HashSet<>();
         Map<String, List<User>> distinctUsers = new HashMap<>();
-        List<String> userStorePreferenceOrder  = getUserStorePreferenceOrder();
+        ResolutionPlan resolutionPlan = getResolutionPlan(tenantDomain, allowedAttributes, claimManager);
 
         // Resolve the user from the regex matching.
-        for (String claimURI : allowedAttributes) {
-            Claim claim = claimManager.getClaim(claimURI);
-            if (claim == null || StringUtils.isBlank(claim.getRegEx())) {
-                continue;
-            }
-
-            Pattern pattern = Pattern.compile(claim.getRegEx());
-            String domainSeparateAttribute = UserCoreUtil.removeDomainFromName(loginAttribute);
+        String domainSeparateAttribute = UserCoreUtil.removeDomainFromName(loginAttribute);
+        List<String> matchingClaims = resolutionPlan.getMatchingClaims(domainSeparateAttribute);
+        List<String> lookupClaims = new ArrayList<>(matchingClaims);
+        // Check the users from username by default if there is no regex for username claim.
+        if (resolutionPlan.isResolveByUsername()) {
+            lookupClaims.add(UserCoreClaimConstants.USERNAME_CLAIM_URI);
+        }
+        List<AbstractUserStoreManager> candidateUserStores = getCandidateUserStores(loginAttribute,
+                getUserStorePreferenceOrder(), userStoreManager);
+        List<UserLookup> userLookups = lookUpUsers(lookupClaims, loginAttribute, candidateUserStores,
+                userStoreManager);
 
-            if (pattern.matcher(domainSeparateAttribute).matches()) {
-                List<User> userList = getUserList(claimURI, loginAttribute, userStorePreferenceOrder, userStoreManager);
+        try {
+            for (int i = 0; i < matchingClaims.size(); i++) {
+                String claimURI = matchingClaims.get(i);
+                List<User> userList = userLookups.get(i).getUsers();
 
                 if (userList.isEmpty()) {
                     continue;
@@ -132,27 +143,28 @@ public class RegexResolver implements MultiAttributeLoginResolver {
                     the error message.
                     */
                 } else if (allowedDistinctUsersForClaim.size() > 1) {
-                    resolvedUserResult.setErrorMessage("Found multiple users for " + claim.getDisplayTag() +
-                            " to value " + loginAttribute);
+                    resolvedUserResult.setErrorMessage("Found multiple users for " +
+                            resolutionPlan.getDisplayTag(claimURI) + " to value " + loginAttribute);
                     return;
                 }
             }
-        }
 
-        // Check the users from username by default if there is no regex for username claim.
-        Claim usernameClaim = claimManager.getClaim(UserCoreClaimConstants.USERNAME_CLAIM_URI);
-        if (allowedAttributes.contains(UserCoreClaimConstants.USERNAME_CLAIM_URI)
-                && StringUtils.isBlank(usernameClaim.getRegEx())) {
-            List<User> userList = getUserList(UserCoreClaimConstants.USERNAME_CLAIM_URI, loginAttribute,
-                    userStorePreferenceOrder, userStoreManager);
-            if (!userList.isEmpty()) {
-                List<User> allowedDistinctUsersForClaim = userList.stream()
-                        .filter(user -> uniqueUserIds.add(user.getUserID()))
-                        .collect(Collectors.toList());
-                if (allowedDistinctUsersForClaim.size() == 1) {
-                    distinctUsers.put(UserCoreClaimConstants.USERNAME_CLAIM_URI, allowedDistinctUsersForClaim);
+            if (resolutionPlan.isResolveByUsername()) {
+                List<User> userList = userLookups.get(matchingClaims.size()).getUsers();
+                if (!userList.isEmpty()) {
+                    List<User> allowedDistinctUsersForClaim = userList.stream()
+                            .filter(user -> uniqueUserIds.add(user.getUserID()))
+                            .collect(Collectors.toList());
+                    if (allowedDistinctUsersForClaim.size() == 1) {
+                        distinctUsers.put(UserCoreClaimConstants.USERNAME_CLAIM_URI, allowedDistinctUsersForClaim);
+                    }
                 }
             }
+        } finally {
+            // Lookups which are not needed anymore after an early return are cancelled.
+            for (UserLookup userLookup : userLookups) {
+                userLookup.cancel();
+            }
         }
 
         /*
@@ -162,7 +174,7 @@ public class RegexResolver implements MultiAttributeLoginResolver {
         if (distinctUsers.size() == 1) {
             Map.Entry<String, List<User>> entry = distinctUsers.entrySet().iterator().next();
             setResolvedUserResult(entry.getValue(), entry.getKey(), loginAttribute, resolvedUserResult,
-                    claimManager.getClaim(entry.getKey()));
+                    resolutionPlan.getDisplayTag(entry.getKey()));
         } else {
             resolvedUserResult.setErrorMessage("Found multiple users for " + allowedAttributes +
                     " to value " + loginAttribute);
@@ -170,56 +182,133 @@ public class RegexResolver implements MultiAttributeLoginResolver {
     }
 
     /**
-     * This method is used to get the user list according to the user store preference order if configured.
-     * If the login attribute contains a domain name, resolve users from the corresponding user store.
+     * Get the resolution plan of the tenant. The cached plan is rebuilt only if the allowed attributes of the
+     * connector config or the metadata of the allowed claims have changed since it was built.
+     *
+     * @param tenantDomain      Tenant domain.
+     * @param allowedAttributes Allowed claim URIs.
+     * @param claimManager      Claim manager of the tenant.
+     * @return Resolution plan.
+     * @throws UserStoreException If an error occurred while getting the claims.
+     */
+    private ResolutionPlan getResolutionPlan(String tenantDomain, List<String> allowedAttributes,
+                                             ClaimManager claimManager) throws UserStoreException {
+
+        Map<String, Claim> claims = new HashMap<>();
+        for (String claimURI : allowedAttributes) {
+            claims.put(claimURI, claimManager.getClaim(claimURI));
+        }
+
+        String planKey = StringUtils.defaultString(tenantDomain);
+        ResolutionPlan resolutionPlan = resolutionPlans.get(planKey);
+        if (resolutionPlan == null || !resolutionPlan.isBuiltFrom(allowedAttributes, claims)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Building the multi attribute login resolution plan for the tenant: " + tenantDomain);
+            }
+            resolutionPlan = ResolutionPlan.build(allowedAttributes, claims);
+            resolutionPlans.put(planKey, resolutionPlan);
+        }
+        return resolutionPlan;
+    }
+
+    /**
+     * This method is used to get the user stores to search according to the user store preference order if
+     * configured. If the login attribute contains a domain name, users are resolved from the corresponding user store.
      *
-     * @param claimURI                 Claim URI.
      * @param loginAttribute           Login attribute.
      * @param userStorePreferenceOrder User store preference order.
      * @param userStoreManager         User store manager.
-     * @return User list.
-     * @throws org.wso2.carbon.user.core.UserStoreException If an error occurred while getting the user list.
+     * @return User stores in the preference order, or null if the users should be resolved from the user store
+     * manager.
+     * @throws org.wso2.carbon.user.core.UserStoreException If an error occurred while getting the user stores.
      */
-    private List<User> getUserList(String claimURI, String loginAttribute, List<String> userStorePreferenceOrder,
-                                   UniqueIDUserStoreManager userStoreManager)
+    private List<AbstractUserStoreManager> getCandidateUserStores(String loginAttribute,
+                                                                  List<String> userStorePreferenceOrder,
+                                                                  UniqueIDUserStoreManager userStoreManager)
             throws org.wso2.carbon.user.core.UserStoreException {
 
-        if (!loginAttribute.contains(UserCoreConstants.DOMAIN_SEPARATOR) && userStorePreferenceOrder != null
-                && !userStorePreferenceOrder.isEmpty()) {
-            IterativeUserStoreManager iterativeUserStoreManager = generateUserStoreChain(userStorePreferenceOrder,
-                    (AbstractUserStoreManager) userStoreManager);
-            if (iterativeUserStoreManager != null) {
-                return getUserListAccordingToUserStorePreferenceOrder(claimURI, loginAttribute,
-                        iterativeUserStoreManager);
+        if (loginAttribute.contains(UserCoreConstants.DOMAIN_SEPARATOR) || userStorePreferenceOrder == null
+                || userStorePreferenceOrder.isEmpty()) {
+            return null;
+        }
+        List<AbstractUserStoreManager> candidateUserStores = new ArrayList<>(userStorePreferenceOrder.size());
+        for (String domainName : userStorePreferenceOrder) {
+            UserStoreManager secondaryUserStoreManager =
+                    ((AbstractUserStoreManager) userStoreManager).getSecondaryUserStoreManager(domainName);
+            if (!(secondaryUserStoreManager instanceof AbstractUserStoreManager)) {
+                return null;
             }
+            candidateUserStores.add((AbstractUserStoreManager) secondaryUserStoreManager);
         }
-        return userStoreManager.getUserListWithID(claimURI, loginAttribute, null);
+        return candidateUserStores;
     }
 
     /**
-     * This method is used to get the user list according to the user store preference order.
+     * Start the user lookups of the given claims. If the user store lookup executor is available and more than one
+     * user store has to be searched, the searches of all the claims and user stores run concurrently. Otherwise, each
+     * lookup searches the user stores when its users are requested.
      *
-     * @param claimURI                 Claim URI.
-     * @param loginAttribute           Login attribute.
-     * @param userStoreManager         User store manager.
-     * @return User list.
-     * @throws org.wso2.carbon.user.core.UserStoreException If an error occurred while getting the user list.
+     * @param claimURIs           Claim URIs to look up.
+     * @param loginAttribute      Login attribute.
+     * @param candidateUserStores User stores in the preference order, or null to search the user store manager.
+     * @param userStoreManager    User store manager.
+     * @return User lookups in the order of the claim URIs.
      */
-    private List<User> getUserListAccordingToUserStorePreferenceOrder(String claimURI, String loginAttribute,
-                                                                      IterativeUserStoreManager userStoreManager)
-            throws org.wso2.carbon.user.core.UserStoreException {
+    private List<UserLookup> lookUpUsers(List<String> claimURIs, String loginAttribute,
+                                         List<AbstractUserStoreManager> candidateUserStores,
+                                         UniqueIDUserStoreManager userStoreManager) {
+
+        List<List<Callable<List<User>>>> searchesByClaim = new ArrayList<>(claimURIs.size());
+        int searchCount = 0;
+        for (String claimURI : claimURIs) {
+            List<Callable<List<User>>> searches = new ArrayList<>();
+            if (candidateUserStores == null) {
+                searches.add(() -> userStoreManager.getUserListWithID(claimURI, loginAttribute, null));
+            } else {
+                for (AbstractUserStoreManager candidateUserStore : candidateUserStores) {
+                    String domainName = UserCoreUtil.getDomainName(candidateUserStore.getRealmConfiguration());
+                    String domainAwareUsername = domainName + CarbonConstants.DOMAIN_SEPARATOR + loginAttribute;
+                    searches.add(() -> candidateUserStore.getUserListWithID(claimURI, domainAwareUsername, null));
+                }
+            }
+            searchesByClaim.add(searches);
+            searchCount += searches.size();
+        }
 
-        List<org.wso2.carbon.user.core.common.User> userList = new ArrayList<>();
-        IterativeUserStoreManager currentUserStoreManager = userStoreManager;
-        while (currentUserStoreManager != null) {
-            String domainName = UserCoreUtil.getDomainName(currentUserStoreManager.getRealmConfiguration());
-            String domainAwareUsername = domainName + CarbonConstants.DOMAIN_SEPARATOR + loginAttribute;
-            userList.addAll(currentUserStoreManager.getAbstractUserStoreManager().getUserListWithID(claimURI,
-                    domainAwareUsername, null));
-            currentUserStoreManager = currentUserStoreManager.nextUserStoreManager();
+        ExecutorService executor = RegexResolverServiceDataHolder.getInstance().getUserStoreLookupExecutor();
+        List<UserLookup> userLookups = new ArrayList<>(claimURIs.size());
+        if (executor == null || searchCount < 2) {
+            for (List<Callable<List<User>>> searches : searchesByClaim) {
+                userLookups.add(new UserLookup(searches, null));
+            }
+            return userLookups;
         }
 
-        return userList;
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        int tenantId = carbonContext.getTenantId();
+        String tenantDomain = carbonContext.getTenantDomain();
+        for (List<Callable<List<User>>> searches : searchesByClaim) {
+            List<Future<List<User>>> futures = new ArrayList<>(searches.size());
+            for (Callable<List<User>> search : searches) {
+                futures.add(executor.submit(() -> searchInTenantFlow(tenantId, tenantDomain, search)));
+            }
+            userLookups.add(new UserLookup(searches, futures));
+        }
+        return userLookups;
+    }
+
+    private static List<User> searchInTenantFlow(int tenantId, String tenantDomain, Callable<List<User>> search)
+            throws Exception {
+
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(tenantId);
+            carbonContext.setTenantDomain(tenantDomain);
+            return search.call();
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
     }
 
     /**
@@ -245,45 +334,8 @@ public class RegexResolver implements MultiAttributeLoginResolver {
         return Collections.emptyList();
     }
 
-    /**
-     * This method is used to generate a user store chain using the user store preference order.
-     *
-     * @param userStorePreferenceOrder User store preference order.
-     * @param abstractUserStoreManager Abstract user store manager.
-     * @return IterativeUserStoreManager.
-     * @throws org.wso2.carbon.user.core.UserStoreException If an error occurred while generating the user store chain.
-     */
-    private IterativeUserStoreManager generateUserStoreChain(List<String> userStorePreferenceOrder,
-                                                             AbstractUserStoreManager abstractUserStoreManager)
-            throws org.wso2.carbon.user.core.UserStoreException {
-
-        IterativeUserStoreManager initialUserStoreManager = null;
-        IterativeUserStoreManager currentUserStoreManager = null;
-        for (String domainName : userStorePreferenceOrder) {
-            UserStoreManager userStoreManager = abstractUserStoreManager.getSecondaryUserStoreManager(domainName);
-            // If the user store manager is instance of AbstractUserStoreManager then generate a user store chain using
-            // IterativeUserStoreManager.
-            if (userStoreManager instanceof AbstractUserStoreManager) {
-                if (initialUserStoreManager == null) {
-                    currentUserStoreManager =
-                            new IterativeUserStoreManager((AbstractUserStoreManager) userStoreManager);
-                    initialUserStoreManager = currentUserStoreManager;
-                } else {
-                    IterativeUserStoreManager nextUserStoreManager = new IterativeUserStoreManager(
-                            (AbstractUserStoreManager) userStoreManager);
-                    currentUserStoreManager.setNextUserStoreManager(nextUserStoreManager);
-                    currentUserStoreManager = nextUserStoreManager;
-                }
-            } else {
-                return null;
-            }
-        }
-        // Authenticate using the initial user store from the user store preference list.
-        return initialUserStoreManager;
-    }
-
-    private void setResolvedUserResult(List<User> userList, String claimURI,
-                                       String loginAttribute, ResolvedUserResult resolvedUserResult, Claim claim)
+    private void setResolvedUserResult(List<User> userList, String claimURI, String loginAttribute,
+                                       ResolvedUserResult resolvedUserResult, String claimDisplayTag)
             throws org.wso2.carbon.user.core.UserStoreException {
 
         if (userList.size() == 1) {
@@ -294,7 +346,7 @@ public class RegexResolver implements MultiAttributeLoginResolver {
             user.setUsername(user.getDomainQualifiedUsername());
             resolvedUserResult.setUser(user);
         } else if (userList.size() > 1) {
-            resolvedUserResult.setErrorMessage("Found multiple users for " + claim.getDisplayTag() +
+            resolvedUserResult.setErrorMessage("Found multiple users for " + claimDisplayTag +
                     " to value " + loginAttribute);
         }
     }
@@ -321,23 +373,13 @@ public class RegexResolver implements MultiAttributeLoginResolver {
             UserRealm userRealm = UserResolverUtil.getUserRealm(tenantDomain);
             UniqueIDUserStoreManager userStoreManager = UserResolverUtil.getUserStoreManager(tenantDomain);
             claimManager = userRealm.getClaimManager();
-            for (String claimURI : allowedAttributes) {
-                Claim claim = claimManager.getClaim(claimURI);
-                if (claim == null) {
-                    continue;
-                }
-                String regex = claim.getRegEx();
-                if (StringUtils.isBlank(regex)) {
-                    continue;
-                }
-                Pattern pattern = Pattern.compile(regex);
-                if (pattern.matcher(loginAttributeValue).matches()) {
-                    authenticationResult = userStoreManager.
-                            authenticateWithID(claimURI, loginAttributeValue, credential, StringUtils.EMPTY);
-                    if (AuthenticationResult.AuthenticationStatus.SUCCESS.
-                            equals(authenticationResult.getAuthenticationStatus())) {
-                        break;
-                    }
+            ResolutionPlan resolutionPlan = getResolutionPlan(tenantDomain, allowedAttributes, claimManager);
+            for (String claimURI : resolutionPlan.getMatchingClaims(loginAttributeValue)) {
+                authenticationResult = userStoreManager.
+                        authenticateWithID(claimURI, loginAttributeValue, credential, StringUtils.EMPTY);
+                if (AuthenticationResult.AuthenticationStatus.SUCCESS.
+                        equals(authenticationResult.getAuthenticationStatus())) {
+                    break;
                 }
             }
             /*
@@ -355,4 +397,73 @@ public class RegexResolver implements MultiAttributeLoginResolver {
         }
         return authenticationResult;
     }
+
+    /**
+     * Lookup of the users of a claim, which searches one or more user stores. The users are merged in the order of
+     * the user stores.
+     */
+    private static final class UserLookup {
+
+        private final List<Callable<List<User>>> searches;
+        private final List<Future<List<User>>> futures;
+
+        private UserLookup(List<Callable<List<User>>> searches, List<Future<List<User>>> futures) {
+
+            this.searches = searches;
+            this.futures = futures;
+        }
+
+        private List<User> getUsers() throws org.wso2.carbon.user.core.UserStoreException {
+
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < searches.size(); i++) {
+                List<User> userList = futures == null ? search(searches.get(i)) : getResult(futures.get(i));
+                if (userList != null) {
+                    users.addAll(userList);
+                }
+            }
+            return users;
+        }
+
+        private void cancel() {
+
+            if (futures != null) {
+                for (Future<List<User>> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private static List<User> search(Callable<List<User>> search)
+                throws org.wso2.carbon.user.core.UserStoreException {
+
+            try {
+                return search.call();
+            } catch (org.wso2.carbon.user.core.UserStoreException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new org.wso2.carbon.user.core.UserStoreException("Error while searching the users.", e);
+            }
+        }
+
+        private static List<User> getResult(Future<List<User>> future)
+                throws org.wso2.carbon.user.core.UserStoreException {
+
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new org.wso2.carbon.user.core.UserStoreException("Interrupted while searching the users.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof org.wso2.carbon.user.core.UserStoreException) {
+                    throw (org.wso2.carbon.user.core.UserStoreException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new org.wso2.carbon.user.core.UserStoreException("Error while searching the users.", cause);
+            }
+        }
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.multi.attribute.login.resolver.regex;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.user.api.Claim;
+import org.wso2.carbon.user.core.constants.UserCoreClaimConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled resolution plan of a tenant for the multi attribute login. The plan holds the precompiled regex patterns
+ * of the allowed claims in the configured order, so a login only matches the login attribute against the patterns.
+ * A plan is built from the allowed attributes of the connector config and the claim metadata, and is reused as long
+ * as both are unchanged.
+ */
+final class ResolutionPlan {
+
+    private final List<String> allowedAttributes;
+    private final Map<String, ClaimMetadata> claimMetadata;
+    private final List<ClaimPattern> claimPatterns;
+    private final boolean resolveByUsername;
+
+    private ResolutionPlan(List<String> allowedAttributes, Map<String, ClaimMetadata> claimMetadata,
+                           List<ClaimPattern> claimPatterns, boolean resolveByUsername) {
+
+        this.allowedAttributes = allowedAttributes;
+        this.claimMetadata = claimMetadata;
+        this.claimPatterns = claimPatterns;
+        this.resolveByUsername = resolveByUsername;
+    }
+
+    /**
+     * Build a resolution plan.
+     *
+     * @param allowedAttributes Allowed claim URIs of the multi attribute login connector config.
+     * @param claims            Claims of the allowed claim URIs, keyed by the claim URI. A claim which does not exist
+     *                          is mapped to null.
+     * @return Resolution plan.
+     */
+    static ResolutionPlan build(List<String> allowedAttributes, Map<String, Claim> claims) {
+
+        Map<String, ClaimMetadata> claimMetadata = new HashMap<>();
+        for (Map.Entry<String, Claim> entry : claims.entrySet()) {
+            Claim claim = entry.getValue();
+            claimMetadata.put(entry.getKey(), claim == null ? null :
+                    new ClaimMetadata(claim.getRegEx(), claim.getDisplayTag()));
+        }
+
+        List<ClaimPattern> claimPatterns = new ArrayList<>();
+        for (String claimURI : allowedAttributes) {
+            ClaimMetadata metadata = claimMetadata.get(claimURI);
+            if (metadata == null || StringUtils.isBlank(metadata.regex)) {
+                continue;
+            }
+            claimPatterns.add(new ClaimPattern(claimURI, Pattern.compile(metadata.regex)));
+        }
+
+        // Users are resolved from the username by default if there is no regex for the username claim.
+        ClaimMetadata usernameClaim = claimMetadata.get(UserCoreClaimConstants.USERNAME_CLAIM_URI);
+        boolean resolveByUsername = allowedAttributes.contains(UserCoreClaimConstants.USERNAME_CLAIM_URI)
+                && (usernameClaim == null || StringUtils.isBlank(usernameClaim.regex));
+
+        return new ResolutionPlan(Collections.unmodifiableList(new ArrayList<>(allowedAttributes)),
+                Collections.unmodifiableMap(claimMetadata), Collections.unmodifiableList(claimPatterns),
+                resolveByUsername);
+    }
+
+    /**
+     * Check whether the plan is built from the given connector config and claim metadata.
+     *
+     * @param allowedAttributes Allowed claim URIs of the multi attribute login connector config.
+     * @param claims            Current claims of the allowed claim URIs.
+     * @return True if the plan can be reused for the given config and claims.
+     */
+    boolean isBuiltFrom(List<String> allowedAttributes, Map<String, Claim> claims) {
+
+        if (!this.allowedAttributes.equals(allowedAttributes) || claimMetadata.size() != claims.size()) {
+            return false;
+        }
+        for (Map.Entry<String, Claim> entry : claims.entrySet()) {
+            if (!claimMetadata.containsKey(entry.getKey())) {
+                return false;
+            }
+            ClaimMetadata metadata = claimMetadata.get(entry.getKey());
+            Claim claim = entry.getValue();
+            if (metadata == null || claim == null) {
+                if (metadata != claim) {
+                    return false;
+                }
+                continue;
+            }
+            if (!Objects.equals(metadata.regex, claim.getRegEx())
+                    || !Objects.equals(metadata.displayTag, claim.getDisplayTag())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the claims to look up the users for the given login attribute, in the order of the allowed attributes.
+     *
+     * @param domainSeparatedAttribute Login attribute without the user store domain.
+     * @return Claim URIs whose regex matches the login attribute.
+     */
+    List<String> getMatchingClaims(String domainSeparatedAttribute) {
+
+        List<String> matchingClaims = new ArrayList<>(claimPatterns.size());
+        for (ClaimPattern claimPattern : claimPatterns) {
+            if (claimPattern.pattern.matcher(domainSeparatedAttribute).matches()) {
+                matchingClaims.add(claimPattern.claimURI);
+            }
+        }
+        return matchingClaims;
+    }
+
+    /**
+     * Check whether the users should be resolved from the username when no regex is configured for it.
+     *
+     * @return True if the username claim is allowed without a regex.
+     */
+    boolean isResolveByUsername() {
+
+        return resolveByUsername;
+    }
+
+    /**
+     * Get the display tag of the given claim.
+     *
+     * @param claimURI Claim URI.
+     * @return Display tag of the claim, or null if the claim is not in the plan.
+     */
+    String getDisplayTag(String claimURI) {
+
+        ClaimMetadata metadata = claimMetadata.get(claimURI);
+        return metadata == null ? null : metadata.displayTag;
+    }
+
+    private static final class ClaimMetadata {
+
+        private final String regex;
+        private final String displayTag;
+
+        private ClaimMetadata(String regex, String displayTag) {
+
+            this.regex = regex;
+            this.displayTag = displayTag;
+        }
+    }
+
+    private static final class ClaimPattern {
+
+        private final String claimURI;
+        private final Pattern pattern;
+
+        private ClaimPattern(String claimURI, Pattern pattern) {
+
+            this.claimURI = claimURI;
+            this.pattern = pattern;
+        }
+    }
+}
@@ -24,13 +24,17 @@ import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
 import org.wso2.carbon.identity.multi.attribute.login.mgt.MultiAttributeLoginResolver;
 import org.wso2.carbon.identity.multi.attribute.login.resolver.regex.RegexResolver;
 import org.wso2.carbon.user.core.service.RealmService;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * This class is used to activate MultiAttributeLoginResolver.
  */
@@ -41,12 +45,20 @@ import org.wso2.carbon.user.core.service.RealmService;
 public class RegexResolverServiceComponent {
 
     private static final Log log = LogFactory.getLog(RegexResolverServiceComponent.class);
+    private static final String USER_STORE_LOOKUP_POOL_SIZE =
+            "MultiAttributeLogin.RegexResolver.UserStoreLookupPoolSize";
+    private static final String USER_STORE_LOOKUP_QUEUE_CAPACITY =
+            "MultiAttributeLogin.RegexResolver.UserStoreLookupQueueCapacity";
+    private static final int DEFAULT_USER_STORE_LOOKUP_POOL_SIZE = 8;
+    private static final int DEFAULT_USER_STORE_LOOKUP_QUEUE_CAPACITY = 100;
 
     @Activate
     protected void activate(ComponentContext context) {
 
         BundleContext bundleContext = context.getBundleContext();
         try {
+            RegexResolverServiceDataHolder.getInstance().setUserStoreLookupExecutor(
+                    createUserStoreLookupExecutor());
             MultiAttributeLoginResolver multiAttributeLoginResolver =
                     new RegexResolver();
             bundleContext.registerService(MultiAttributeLoginResolver.class.getName(), multiAttributeLoginResolver,
@@ -59,6 +71,35 @@ public class RegexResolverServiceComponent {
         }
     }
 
+    @Deactivate
+    protected void deactivate(ComponentContext context) {
+
+        ExecutorService userStoreLookupExecutor =
+                RegexResolverServiceDataHolder.getInstance().getUserStoreLookupExecutor();
+        RegexResolverServiceDataHolder.getInstance().setUserStoreLookupExecutor(null);
+        if (userStoreLookupExecutor != null) {
+            userStoreLookupExecutor.shutdownNow();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("MultiAttributeLoginResolver deactivated successfully.");
+        }
+    }
+
+    /**
+     * Create the bounded pool which searches the user stores of the matching claims concurrently. When the pool is
+     * saturated or shut down, the search runs in the caller thread.
+     *
+     * @return User store lookup executor.
+     */
+    private ExecutorService createUserStoreLookupExecutor() {
+
+        return ExecutorConfigUtil.createCallerRunsExecutor("RegexResolverUserStoreLookup",
+                ExecutorConfigUtil.getPositiveIntProperty(USER_STORE_LOOKUP_POOL_SIZE,
+                        DEFAULT_USER_STORE_LOOKUP_POOL_SIZE),
+                ExecutorConfigUtil.getPositiveIntProperty(USER_STORE_LOOKUP_QUEUE_CAPACITY,
+                        DEFAULT_USER_STORE_LOOKUP_QUEUE_CAPACITY));
+    }
+
     @Reference(
             name = "RealmService",
             service = org.wso2.carbon.user.core.service.RealmService.class,
@@ -20,6 +20,8 @@ package org.wso2.carbon.identity.multi.attribute.login.resolver.regex.internal;
 
 import org.wso2.carbon.user.core.service.RealmService;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * RegexResolverService data holder class
  */
@@ -28,6 +30,7 @@ public class RegexResolverServiceDataHolder {
     private static RegexResolverServiceDataHolder instance = new RegexResolverServiceDataHolder();
 
     private RealmService realmService;
+    private ExecutorService userStoreLookupExecutor;
 
     private RegexResolverServiceDataHolder() {
 
@@ -47,4 +50,14 @@ public class RegexResolverServiceDataHolder {
 
         this.realmService = realmService;
     }
+
+    public ExecutorService getUserStoreLookupExecutor() {
+
+        return userStoreLookupExecutor;
+    }
+
+    public void setUserStoreLookupExecutor(ExecutorService userStoreLookupExecutor) {
+
+        this.userStoreLookupExecutor = userStoreLookupExecutor;
+    }
 }
@@ -26,6 +26,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
 import org.wso2.carbon.identity.multi.attribute.login.mgt.ResolvedUserResult;
 import org.wso2.carbon.identity.multi.attribute.login.resolver.regex.internal.RegexResolverServiceDataHolder;
 import org.wso2.carbon.identity.multi.attribute.login.resolver.regex.utils.UserResolverUtil;
@@ -37,9 +38,23 @@ import org.wso2.carbon.user.core.common.User;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.tenant.TenantManager;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 import static org.testng.Assert.assertEquals;
@@ -56,6 +71,8 @@ public class RegexResolverTest {
     private static final String TEST_LOGIN_IDENTIFIER1 = "+99777521771";
     private static final String TEST_LOGIN_IDENTIFIER2 = "chathuranga";
     private static final String TEST_TENANT_DOMAIN = "testTenantDomain";
+    private static final String TEST_ATTRIBUTE_CLAIM_URI_PREFIX = "http://wso2.org/claims/attribute";
+    private static final int ALLOWED_ATTRIBUTE_COUNT = 10;
     private MockedStatic<RegexResolverServiceDataHolder> mockedRegexResolverServiceDataHolder;
     private MockedStatic<ResolvedUserResult> mockedResolvedUserResult;
 
@@ -158,4 +175,80 @@ public class RegexResolverTest {
                 {USERNAME_CLAIM_URI, "", allowedAttributes2, TEST_LOGIN_IDENTIFIER2, userList2}
         };
     }
+
+    @Test
+    public void testResolveUserSearchesMatchingClaimsConcurrently() throws Exception {
+
+        String carbonHome = Paths.get(System.getProperty("user.dir"), "target", "test-classes").toString();
+        System.setProperty(CarbonBaseConstants.CARBON_HOME, carbonHome);
+
+        mockedRegexResolverServiceDataHolder.when(RegexResolverServiceDataHolder::getInstance)
+                .thenReturn(mockRegexResolverServiceDataHolder);
+        when(mockRegexResolverServiceDataHolder.getRealmService()).thenReturn(mockRealmService);
+        when(mockRealmService.getTenantManager()).thenReturn(mockTenantManager);
+        when(mockTenantManager.getTenantId(TEST_TENANT_DOMAIN)).thenReturn(-1234);
+        when(mockRealmService.getTenantUserRealm(-1234)).thenReturn(mockUserRealm);
+        when(mockUserRealm.getClaimManager()).thenReturn(mockClaimManager);
+        when(mockUserRealm.getUserStoreManager()).thenReturn(mockUserStoreManager);
+
+        User user = new User();
+        user.setUserID("1234");
+        user.setUsername("chathuranga");
+        AtomicReference<CountDownLatch> startedLatchRef = new AtomicReference<>();
+        List<String> allowedAttributes = new ArrayList<>();
+        for (int i = 0; i < ALLOWED_ATTRIBUTE_COUNT; i++) {
+            String claimURI = TEST_ATTRIBUTE_CLAIM_URI_PREFIX + i;
+            allowedAttributes.add(claimURI);
+            Claim claim = mock(Claim.class);
+            when(claim.getRegEx()).thenReturn("^[a-z]+$");
+            when(mockClaimManager.getClaim(claimURI)).thenReturn(claim);
+            // Only the last claim resolves the user, so every matching claim has to be searched.
+            List<User> users = i == ALLOWED_ATTRIBUTE_COUNT - 1 ? Collections.singletonList(user) :
+                    Collections.emptyList();
+            when(mockUserStoreManager.getUserListWithID(eq(claimURI), anyString(), isNull())).thenAnswer(
+                    invocation -> {
+                        // In the concurrent resolution, each search waits until all the searches have started,
+                        // which only completes if the searches run at the same time.
+                        CountDownLatch startedLatch = startedLatchRef.get();
+                        if (startedLatch != null) {
+                            startedLatch.countDown();
+                            if (!startedLatch.await(10, TimeUnit.SECONDS)) {
+                                throw new IllegalStateException("Claims were not searched concurrently.");
+                            }
+                        }
+                        return new ArrayList<>(users);
+                    });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(ALLOWED_ATTRIBUTE_COUNT);
+        try {
+            clearInvocations(mockUserStoreManager);
+            when(mockRegexResolverServiceDataHolder.getUserStoreLookupExecutor()).thenReturn(null);
+            ResolvedUserResult sequentialResult = regexResolver.resolveUser("chathuranga", allowedAttributes,
+                    TEST_TENANT_DOMAIN);
+            assertEquals(sequentialResult.getResolvedStatus(), ResolvedUserResult.UserResolvedStatus.SUCCESS);
+            verifyEachClaimSearchedOnce(allowedAttributes);
+
+            clearInvocations(mockUserStoreManager);
+            startedLatchRef.set(new CountDownLatch(ALLOWED_ATTRIBUTE_COUNT));
+            when(mockRegexResolverServiceDataHolder.getUserStoreLookupExecutor()).thenReturn(executor);
+            ResolvedUserResult concurrentResult = regexResolver.resolveUser("chathuranga", allowedAttributes,
+                    TEST_TENANT_DOMAIN);
+            assertEquals(concurrentResult.getResolvedStatus(), ResolvedUserResult.UserResolvedStatus.SUCCESS);
+            assertEquals(concurrentResult.getResolvedClaim(), TEST_ATTRIBUTE_CLAIM_URI_PREFIX +
+                    (ALLOWED_ATTRIBUTE_COUNT - 1));
+            assertEquals(concurrentResult.getUser().getUserID(), "1234");
+            verifyEachClaimSearchedOnce(allowedAttributes);
+        } finally {
+            when(mockRegexResolverServiceDataHolder.getUserStoreLookupExecutor()).thenReturn(null);
+            executor.shutdownNow();
+        }
+    }
+
+    private void verifyEachClaimSearchedOnce(List<String> claimURIs) throws Exception {
+
+        for (String claimURI : claimURIs) {
+            verify(mockUserStoreManager, times(1)).getUserListWithID(eq(claimURI), anyString(), isNull());
+        }
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.multi.attribute.login.resolver.regex;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.user.api.Claim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ResolutionPlanTest {
+
+    private static final String USERNAME_CLAIM_URI = "http://wso2.org/claims/username";
+    private static final String EMAIL_CLAIM_URI = "http://wso2.org/claims/emailaddress";
+    private static final String MOBILE_CLAIM_URI = "http://wso2.org/claims/mobile";
+    private static final String EMAIL_CLAIM_REGEX = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
+    private static final String MOBILE_CLAIM_REGEX = "^\\+?[0-9]{7,15}$";
+    private static final int ALLOWED_ATTRIBUTE_COUNT = 10;
+    private static final int LOGIN_COUNT = 100;
+
+    @Test
+    public void testMatchingClaimsInAllowedOrder() {
+
+        List<String> allowedAttributes = Arrays.asList(MOBILE_CLAIM_URI, EMAIL_CLAIM_URI, USERNAME_CLAIM_URI);
+        Map<String, Claim> claims = new HashMap<>();
+        claims.put(MOBILE_CLAIM_URI, claim(MOBILE_CLAIM_REGEX, "Mobile"));
+        claims.put(EMAIL_CLAIM_URI, claim(".*", "Email"));
+        claims.put(USERNAME_CLAIM_URI, claim("", "Username"));
+
+        ResolutionPlan resolutionPlan = ResolutionPlan.build(allowedAttributes, claims);
+
+        assertEquals(resolutionPlan.getMatchingClaims("+94771234567"),
+                Arrays.asList(MOBILE_CLAIM_URI, EMAIL_CLAIM_URI));
+        assertEquals(resolutionPlan.getMatchingClaims("alex"), Collections.singletonList(EMAIL_CLAIM_URI));
+        assertTrue(resolutionPlan.isResolveByUsername());
+        assertEquals(resolutionPlan.getDisplayTag(MOBILE_CLAIM_URI), "Mobile");
+    }
+
+    @Test
+    public void testResolveByUsernameOnlyWithoutUsernameRegex() {
+
+        List<String> allowedAttributes = Arrays.asList(EMAIL_CLAIM_URI, USERNAME_CLAIM_URI);
+        Map<String, Claim> claims = new HashMap<>();
+        claims.put(EMAIL_CLAIM_URI, claim(EMAIL_CLAIM_REGEX, "Email"));
+        claims.put(USERNAME_CLAIM_URI, claim("^[a-z]{3,}$", "Username"));
+
+        ResolutionPlan resolutionPlan = ResolutionPlan.build(allowedAttributes, claims);
+
+        assertFalse(resolutionPlan.isResolveByUsername());
+        assertEquals(resolutionPlan.getMatchingClaims("alex"), Collections.singletonList(USERNAME_CLAIM_URI));
+    }
+
+    @Test
+    public void testPlanIsRebuiltOnlyOnConfigOrClaimChange() {
+
+        List<String> allowedAttributes = Arrays.asList(EMAIL_CLAIM_URI, MOBILE_CLAIM_URI);
+        Map<String, Claim> claims = new HashMap<>();
+        claims.put(EMAIL_CLAIM_URI, claim(EMAIL_CLAIM_REGEX, "Email"));
+        claims.put(MOBILE_CLAIM_URI, claim(MOBILE_CLAIM_REGEX, "Mobile"));
+        ResolutionPlan resolutionPlan = ResolutionPlan.build(allowedAttributes, claims);
+
+        Map<String, Claim> sameClaims = new HashMap<>();
+        sameClaims.put(EMAIL_CLAIM_URI, claim(EMAIL_CLAIM_REGEX, "Email"));
+        sameClaims.put(MOBILE_CLAIM_URI, claim(MOBILE_CLAIM_REGEX, "Mobile"));
+        assertTrue(resolutionPlan.isBuiltFrom(new ArrayList<>(allowedAttributes), sameClaims));
+
+        // Connector config change.
+        assertFalse(resolutionPlan.isBuiltFrom(Arrays.asList(MOBILE_CLAIM_URI, EMAIL_CLAIM_URI), sameClaims));
+
+        // Claim metadata change.
+        Map<String, Claim> changedClaims = new HashMap<>(sameClaims);
+        changedClaims.put(MOBILE_CLAIM_URI, claim("^[0-9]{10}$", "Mobile"));
+        assertFalse(resolutionPlan.isBuiltFrom(allowedAttributes, changedClaims));
+
+        // Removed claim.
+        Map<String, Claim> removedClaims = new HashMap<>(sameClaims);
+        removedClaims.put(MOBILE_CLAIM_URI, null);
+        assertFalse(resolutionPlan.isBuiltFrom(allowedAttributes, removedClaims));
+    }
+
+    /**
+     * Before the resolution plan, every login compiled the regex of each allowed claim. With the plan, the regexes
+     * are compiled once and the logins only match the precompiled patterns, as long as the config and the claims do
+     * not change.
+     */
+    @Test
+    public void testPlanIsBuiltOnceForRepeatedLogins() {
+
+        List<String> allowedAttributes = new ArrayList<>();
+        Map<String, Claim> claims = new HashMap<>();
+        for (int i = 0; i < ALLOWED_ATTRIBUTE_COUNT; i++) {
+            String claimURI = "http://wso2.org/claims/attribute" + i;
+            allowedAttributes.add(claimURI);
+            claims.put(claimURI, claim(i % 2 == 0 ? EMAIL_CLAIM_REGEX : MOBILE_CLAIM_REGEX, "Attribute " + i));
+        }
+        String loginAttribute = "alex@wso2.com";
+
+        assertEquals(runLogins(allowedAttributes, claims, loginAttribute, false), LOGIN_COUNT);
+        assertEquals(runLogins(allowedAttributes, claims, loginAttribute, true), 1);
+    }
+
+    /**
+     * Run the logins and return the number of times the resolution plan was built.
+     */
+    private static int runLogins(List<String> allowedAttributes, Map<String, Claim> claims, String loginAttribute,
+                                 boolean reusePlan) {
+
+        ResolutionPlan resolutionPlan = null;
+        int buildCount = 0;
+        int matchingClaimCount = 0;
+        for (int i = 0; i < LOGIN_COUNT; i++) {
+            if (resolutionPlan == null || !reusePlan || !resolutionPlan.isBuiltFrom(allowedAttributes, claims)) {
+                resolutionPlan = ResolutionPlan.build(allowedAttributes, claims);
+                buildCount++;
+            }
+            matchingClaimCount += resolutionPlan.getMatchingClaims(loginAttribute).size();
+        }
+        assertEquals(matchingClaimCount, LOGIN_COUNT * ALLOWED_ATTRIBUTE_COUNT / 2);
+        return buildCount;
+    }
+
+    private static Claim claim(String regex, String displayTag) {
+
+        Claim claim = new Claim();
+        claim.setRegEx(regex);
+        claim.setDisplayTag(displayTag);
+        return claim;
+    }
+}
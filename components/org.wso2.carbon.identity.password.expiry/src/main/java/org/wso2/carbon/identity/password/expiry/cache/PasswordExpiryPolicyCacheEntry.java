@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.password.expiry.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+import org.wso2.carbon.identity.password.expiry.models.PasswordExpiryRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiled password expiry policy of a tenant. The policy holds the password expiry connector configs and the parsed
+ * password expiry rules sorted by the priority, so that checking the password expiry of a user does not read or
+ * parse the connector configs.
+ */
+public class PasswordExpiryPolicyCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = 7726491035178420963L;
+    private final boolean passwordExpiryEnabled;
+    private final int passwordExpiryInDays;
+    private final boolean skipIfNoApplicableRules;
+    private final List<PasswordExpiryRule> passwordExpiryRules;
+
+    /**
+     * Create the policy of a tenant.
+     *
+     * @param passwordExpiryEnabled   Whether the password expiry is enabled.
+     * @param passwordExpiryInDays    Default password expiry in days.
+     * @param skipIfNoApplicableRules Whether the password expiry is skipped if no rule is applicable.
+     * @param passwordExpiryRules     Parsed password expiry rules in the order of the priority.
+     */
+    public PasswordExpiryPolicyCacheEntry(boolean passwordExpiryEnabled, int passwordExpiryInDays,
+                                          boolean skipIfNoApplicableRules,
+                                          List<PasswordExpiryRule> passwordExpiryRules) {
+
+        this.passwordExpiryEnabled = passwordExpiryEnabled;
+        this.passwordExpiryInDays = passwordExpiryInDays;
+        this.skipIfNoApplicableRules = skipIfNoApplicableRules;
+        this.passwordExpiryRules = Collections.unmodifiableList(new ArrayList<>(passwordExpiryRules));
+    }
+
+    public boolean isPasswordExpiryEnabled() {
+
+        return passwordExpiryEnabled;
+    }
+
+    public int getPasswordExpiryInDays() {
+
+        return passwordExpiryInDays;
+    }
+
+    public boolean isSkipIfNoApplicableRules() {
+
+        return skipIfNoApplicableRules;
+    }
+
+    /**
+     * Get the password expiry rules in the order of the priority.
+     *
+     * @return Unmodifiable list of password expiry rules.
+     */
+    public List<PasswordExpiryRule> getPasswordExpiryRules() {
+
+        return passwordExpiryRules;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.password.expiry.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+import org.wso2.carbon.identity.password.expiry.models.PasswordExpiryRuleAttributeEnum;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Group ids and effective role ids of a user, which are matched against the password expiry rules. The effective
+ * roles include the roles assigned to the groups of the user. The entry is never modified once cached.
+ */
+public class PasswordExpiryUserAttributeCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = -1593620470361282745L;
+    private final EnumMap<PasswordExpiryRuleAttributeEnum, Set<String>> userAttributes;
+    private final long cachedTime;
+
+    /**
+     * Create an entry from the fetched attributes of a user.
+     *
+     * @param userAttributes Fetched attribute values of the user, keyed by the password expiry rule attribute.
+     */
+    public PasswordExpiryUserAttributeCacheEntry(Map<PasswordExpiryRuleAttributeEnum, Set<String>> userAttributes) {
+
+        this.userAttributes = new EnumMap<>(PasswordExpiryRuleAttributeEnum.class);
+        for (Map.Entry<PasswordExpiryRuleAttributeEnum, Set<String>> entry : userAttributes.entrySet()) {
+            this.userAttributes.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<>(entry.getValue())));
+        }
+        this.cachedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the fetched attributes of the user.
+     *
+     * @return Unmodifiable map of the attribute values, keyed by the password expiry rule attribute.
+     */
+    public Map<PasswordExpiryRuleAttributeEnum, Set<String>> getUserAttributes() {
+
+        return Collections.unmodifiableMap(userAttributes);
+    }
+
+    /**
+     * Check whether the entry is older than the given time to live.
+     *
+     * @param timeToLiveMillis Time to live in milliseconds.
+     * @return True if the entry should not be served anymore.
+     */
+    public boolean isStale(long timeToLiveMillis) {
+
+        return System.currentTimeMillis() - cachedTime > timeToLiveMillis;
+    }
+}
@@ -70,6 +70,10 @@ public class PasswordPolicyConstants {
     public static final String PASSWORD_EXPIRED_MSG_QUERY_PARAM = "&passwordExpiredMsg=";
     public static final String PASSWORD_EXPIRY_RULES_PREFIX = "passwordExpiry.rule";
     public static final Integer MAX_PASSWORD_EXPIRY_RULE_VALUES = 5;
+    public static final String USER_ATTRIBUTE_CACHE_ENABLE = "PasswordExpiry.UserAttributeCache.Enable";
+    public static final String USER_ATTRIBUTE_CACHE_TIME_TO_LIVE =
+            "PasswordExpiry.UserAttributeCache.TimeToLiveInSeconds";
+    public static final int USER_ATTRIBUTE_CACHE_DEFAULT_TIME_TO_LIVE = 30;
 
     // Time conversion constants.
     public static final long WINDOWS_EPOCH_DIFF = 11644473600000L;
@@ -35,9 +35,11 @@ import org.wso2.carbon.identity.application.authentication.framework.handler.req
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 import org.wso2.carbon.identity.governance.common.IdentityConnectorConfig;
+import org.wso2.carbon.identity.password.expiry.listener.PasswordExpiryConfigIdPMgtListener;
 import org.wso2.carbon.identity.password.expiry.listener.PasswordExpiryEventListener;
 import org.wso2.carbon.identity.password.expiry.services.ExpiredPasswordIdentificationService;
 import org.wso2.carbon.identity.password.expiry.services.impl.ExpiredPasswordIdentificationServiceImpl;
+import org.wso2.carbon.idp.mgt.listener.IdentityProviderMgtListener;
 import org.wso2.carbon.user.core.listener.UserOperationEventListener;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.identity.role.v2.mgt.core.RoleManagementService;
@@ -76,6 +78,9 @@ public class EnforcePasswordResetComponent {
                     enforcePasswordResetAuthenticationHandler, null);
             bundleContext.registerService(ExpiredPasswordIdentificationService.class.getName(),
                     new ExpiredPasswordIdentificationServiceImpl(), null);
+            // Register the listener to clear the cached password expiry policy on governance config updates.
+            bundleContext.registerService(IdentityProviderMgtListener.class,
+                    new PasswordExpiryConfigIdPMgtListener(), null);
 
         } catch (Throwable e) {
             log.error("Error while activating EnforcePasswordResetAuthenticationHandler.", e);
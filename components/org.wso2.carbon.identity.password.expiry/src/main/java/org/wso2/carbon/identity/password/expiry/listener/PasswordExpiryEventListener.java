@@ -26,6 +26,7 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.application.authentication.framework.exception.PostAuthenticationFailedException;
 import org.wso2.carbon.identity.core.AbstractIdentityUserOperationEventListener;
 import org.wso2.carbon.identity.core.util.IdentityCoreConstants;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants;
 import org.wso2.carbon.identity.password.expiry.exceptions.ExpiredPasswordIdentificationException;
 import org.wso2.carbon.identity.password.expiry.models.PasswordExpiryRule;
@@ -129,4 +130,75 @@ public class PasswordExpiryEventListener extends AbstractIdentityUserOperationEv
         }
         return true;
     }
+
+    @Override
+    public boolean doPostUpdateRoleListOfUserWithID(String userID, String[] deletedRoles, String[] newRoles,
+                                                    UserStoreManager userStoreManager) throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        PasswordPolicyUtils.clearUserAttributeCache(getTenantDomain(userStoreManager), userID);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateUserListOfRoleWithID(String roleName, String[] deletedUserIDs, String[] newUserIDs,
+                                                    UserStoreManager userStoreManager) throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        clearUserAttributeCache(getTenantDomain(userStoreManager), deletedUserIDs, newUserIDs);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateUserListOfInternalRoleWithID(String roleName, String[] deletedUserIDs,
+                                                            String[] newUserIDs, UserStoreManager userStoreManager)
+            throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        clearUserAttributeCache(getTenantDomain(userStoreManager), deletedUserIDs, newUserIDs);
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteUserWithID(String userID, UserStoreManager userStoreManager)
+            throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        PasswordPolicyUtils.clearUserAttributeCache(getTenantDomain(userStoreManager), userID);
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteRole(String roleName, UserStoreManager userStoreManager) throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        // The members of the deleted role are not known at this point, hence clear the cache of the tenant.
+        PasswordPolicyUtils.clearUserAttributeCache(getTenantDomain(userStoreManager));
+        return true;
+    }
+
+    private static void clearUserAttributeCache(String tenantDomain, String[] deletedUserIDs, String[] newUserIDs) {
+
+        if (ArrayUtils.isNotEmpty(deletedUserIDs)) {
+            PasswordPolicyUtils.clearUserAttributeCache(tenantDomain, deletedUserIDs);
+        }
+        if (ArrayUtils.isNotEmpty(newUserIDs)) {
+            PasswordPolicyUtils.clearUserAttributeCache(tenantDomain, newUserIDs);
+        }
+    }
+
+    private static String getTenantDomain(UserStoreManager userStoreManager) throws UserStoreException {
+
+        return IdentityTenantUtil.getTenantDomain(userStoreManager.getTenantId());
+    }
 }
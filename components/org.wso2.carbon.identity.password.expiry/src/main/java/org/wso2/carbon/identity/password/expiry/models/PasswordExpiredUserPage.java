@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.password.expiry.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of password expired users, with the cursor to retrieve the next page.
+ */
+public class PasswordExpiredUserPage {
+
+    private final List<PasswordExpiredUserModel> passwordExpiredUsers;
+    private final String nextCursor;
+
+    public PasswordExpiredUserPage(List<PasswordExpiredUserModel> passwordExpiredUsers, String nextCursor) {
+
+        this.passwordExpiredUsers = passwordExpiredUsers != null ?
+                Collections.unmodifiableList(passwordExpiredUsers) : Collections.emptyList();
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Method to get the password expired users of the page.
+     *
+     * @return password expired users.
+     */
+    public List<PasswordExpiredUserModel> getPasswordExpiredUsers() {
+
+        return passwordExpiredUsers;
+    }
+
+    /**
+     * Method to get the cursor of the next page.
+     *
+     * @return cursor of the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+}
@@ -21,13 +21,16 @@ package org.wso2.carbon.identity.password.expiry.models;
 import org.apache.commons.lang.StringUtils;
 import org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Class to represent a password expiry rule.
  */
-public class PasswordExpiryRule {
+public class PasswordExpiryRule implements Serializable {
+
+    private static final long serialVersionUID = 5402377845412076418L;
 
     private int priority;
     private int expiryDays;
@@ -1,10 +1,18 @@
 package org.wso2.carbon.identity.password.expiry.services;
 
 
+import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
+import org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants;
 import org.wso2.carbon.identity.password.expiry.exceptions.ExpiredPasswordIdentificationException;
+import org.wso2.carbon.identity.password.expiry.exceptions.ExpiredPasswordIdentificationServerException;
 import org.wso2.carbon.identity.password.expiry.models.PasswordExpiredUserModel;
+import org.wso2.carbon.identity.password.expiry.models.PasswordExpiredUserPage;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -39,4 +47,47 @@ public interface ExpiredPasswordIdentificationService {
      */
     List<PasswordExpiredUserModel> getPasswordExpiredUsersBetweenSpecificDates(LocalDateTime expiredAfter,
             LocalDateTime excludeBefore, String tenantDomain) throws ExpiredPasswordIdentificationException;
+
+    /**
+     * Get a page of the password expired users, starting after the given cursor. Unlike the other methods, the
+     * password expired users are not loaded at once, hence a large number of users can be iterated page by page.
+     * The dates of the first page are computed with the password expiry configuration at that time and kept in the
+     * cursor, so all the pages of an iteration identify the users with the same dates. A page can have fewer users
+     * than the limit, and the iteration ends when the next cursor is null. Implementations which do not override
+     * this method load all the password expired users with the dates given with each page, and take the page from
+     * the users ordered by the username.
+     *
+     * @param expiredAfter  The date after which passwords will expire.
+     * @param excludeAfter  The date after which the user should be excluded, or null to include all the users.
+     * @param tenantDomain  Tenant domain.
+     * @param limit         Maximum number of users of the page.
+     * @param cursor        Cursor of the previous page, or null for the first page.
+     * @return Page of password expired users with the cursor of the next page.
+     * @throws ExpiredPasswordIdentificationException Exception when retrieving password expired users from database.
+     */
+    default PasswordExpiredUserPage getPasswordExpiredUsersAfterCursor(LocalDateTime expiredAfter,
+                                                                       LocalDateTime excludeAfter,
+                                                                       String tenantDomain, int limit, String cursor)
+            throws ExpiredPasswordIdentificationException {
+
+        List<PasswordExpiredUserModel> passwordExpiredUsers = excludeAfter == null ?
+                getPasswordExpiredUsersFromSpecificDate(expiredAfter, tenantDomain) :
+                getPasswordExpiredUsersBetweenSpecificDates(expiredAfter, excludeAfter, tenantDomain);
+        int offset;
+        try {
+            offset = UserNamePage.fromOffsetCursor(cursor);
+        } catch (IdentityException e) {
+            PasswordPolicyConstants.ErrorMessages errorEnum =
+                    PasswordPolicyConstants.ErrorMessages.ERROR_RETRIEVE_PASSWORD_EXPIRED_USERS_FROM_DB;
+            throw new ExpiredPasswordIdentificationServerException(errorEnum.getCode(), errorEnum.getMessage());
+        }
+        if (limit <= 0 || offset >= passwordExpiredUsers.size()) {
+            return new PasswordExpiredUserPage(Collections.emptyList(), null);
+        }
+        List<PasswordExpiredUserModel> sortedPasswordExpiredUsers = new ArrayList<>(passwordExpiredUsers);
+        sortedPasswordExpiredUsers.sort(Comparator.comparing(PasswordExpiredUserModel::getUsername));
+        int end = Math.min(offset + limit, sortedPasswordExpiredUsers.size());
+        return new PasswordExpiredUserPage(new ArrayList<>(sortedPasswordExpiredUsers.subList(offset, end)),
+                end < sortedPasswordExpiredUsers.size() ? UserNamePage.toOffsetCursor(end) : null);
+    }
 }
@@ -22,10 +22,13 @@ import org.apache.commons.lang.StringUtils;
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.UserIdResolver;
+import org.wso2.carbon.identity.governance.model.UserNamePage;
 import org.wso2.carbon.identity.password.expiry.exceptions.ExpiredPasswordIdentificationException;
 import org.wso2.carbon.identity.password.expiry.exceptions.ExpiredPasswordIdentificationServerException;
 import org.wso2.carbon.identity.password.expiry.internal.EnforcePasswordResetComponentDataHolder;
 import org.wso2.carbon.identity.password.expiry.models.PasswordExpiredUserModel;
+import org.wso2.carbon.identity.password.expiry.models.PasswordExpiredUserPage;
 import org.wso2.carbon.identity.password.expiry.services.ExpiredPasswordIdentificationService;
 import org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants;
 import org.wso2.carbon.identity.password.expiry.util.PasswordPolicyUtils;
@@ -33,7 +36,6 @@ import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHol
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.UserRealm;
 import org.wso2.carbon.user.core.UserStoreManager;
-import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 
@@ -41,6 +43,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.wso2.carbon.identity.password.expiry.util.PasswordPolicyUtils.getPasswordExpiryInDays;
 
@@ -102,6 +105,43 @@ public class ExpiredPasswordIdentificationServiceImpl implements ExpiredPassword
         return passwordExpiredUsers;
     }
 
+    @Override
+    public PasswordExpiredUserPage getPasswordExpiredUsersAfterCursor(LocalDateTime expiredAfter,
+                                                                      LocalDateTime excludeAfter, String tenantDomain,
+                                                                      int limit, String cursor)
+            throws ExpiredPasswordIdentificationException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        try {
+            String expiredDateEpoch = null;
+            String excludeDateEpoch = null;
+            if (StringUtils.isEmpty(cursor)) {
+                // The dates of the next pages are taken from the cursor, even if the expiry configuration changes.
+                int passwordExpiryInDays = getPasswordExpiryInDays(tenantDomain);
+                expiredDateEpoch = Long.toString(expiredAfter.minusDays(passwordExpiryInDays)
+                        .toEpochSecond(ZoneOffset.UTC));
+                if (excludeAfter != null) {
+                    excludeDateEpoch = Long.toString(excludeAfter.minusDays(passwordExpiryInDays - 1)
+                            .toEpochSecond(ZoneOffset.UTC));
+                }
+            }
+
+            UserNamePage userNamePage = EnforcePasswordResetComponentDataHolder.getInstance()
+                    .getIdentityDataStoreService().listUserNamesByClaimValueRangeAfterCursor(
+                            PasswordPolicyConstants.LAST_CREDENTIAL_UPDATE_TIMESTAMP_CLAIM, expiredDateEpoch,
+                            excludeDateEpoch, tenantId, limit, cursor);
+            List<PasswordExpiredUserModel> passwordExpiredUsers = new ArrayList<>();
+            if (!userNamePage.getUserNames().isEmpty()) {
+                passwordExpiredUsers = buildPasswordExpiredUsers(userNamePage.getUserNames(), tenantDomain);
+            }
+            return new PasswordExpiredUserPage(passwordExpiredUsers, userNamePage.getNextCursor());
+        } catch (IdentityException e) {
+            PasswordPolicyConstants.ErrorMessages errorEnum =
+                    PasswordPolicyConstants.ErrorMessages.ERROR_RETRIEVE_PASSWORD_EXPIRED_USERS_FROM_DB;
+            throw new ExpiredPasswordIdentificationServerException(errorEnum.getCode(), errorEnum.getMessage());
+        }
+    }
+
     /**
      * Build a list of password expired users.
      *
@@ -112,8 +152,9 @@ public class ExpiredPasswordIdentificationServiceImpl implements ExpiredPassword
             throws ExpiredPasswordIdentificationServerException {
 
         List<PasswordExpiredUserModel> passwordExpiredUsers = new ArrayList<>();
+        Map<String, String> userIds = fetchUserIds(usernames, tenantDomain);
         for (String username : usernames) {
-            String userId = fetchUserId(username, tenantDomain);
+            String userId = userIds.get(username);
             if (StringUtils.isNotBlank(userId)) {
                 PasswordExpiredUserModel passwordExpiredUser = new PasswordExpiredUserModel();
                 passwordExpiredUser.setUsername(username);
@@ -126,26 +167,26 @@ public class ExpiredPasswordIdentificationServiceImpl implements ExpiredPassword
     }
 
     /**
-     * Fetch UUID of the user.
+     * Fetch UUIDs of the users, listing the users of each user store domain a page at a time.
      *
-     * @param username          username of the user.
-     * @return                  UUID of the user
+     * @param usernames         usernames of the users.
+     * @return                  map of the username to the UUID of the user.
      */
-    private String fetchUserId(String username, String tenantDomain)
+    private Map<String, String> fetchUserIds(List<String> usernames, String tenantDomain)
             throws ExpiredPasswordIdentificationServerException {
-        
-        UserStoreManager userStoreManager = getUserStoreManager(
-                UserCoreUtil.extractDomainFromName(username), tenantDomain);
+
+        UserStoreManager userStoreManager = getUserStoreManager(IdentityUtil.getPrimaryDomainName(), tenantDomain);
+        for (String userStoreDomain : UserIdResolver.groupByUserStoreDomain(usernames).keySet()) {
+            // Fail if the user store of a domain is not available, as when resolving the users one by one.
+            getUserStoreManager(userStoreDomain, tenantDomain);
+        }
         try {
-            if (userStoreManager instanceof AbstractUserStoreManager) {
-                return ((AbstractUserStoreManager) userStoreManager).getUserIDFromUserName(username);
-            }
+            return UserIdResolver.resolveUserIds(userStoreManager, usernames);
         } catch (UserStoreException e) {
             PasswordPolicyConstants.ErrorMessages errorEnum =
                     PasswordPolicyConstants.ErrorMessages.ERROR_WHILE_GETTING_USERID_FOR_USERNAME;
             throw new ExpiredPasswordIdentificationServerException(errorEnum.getCode(), errorEnum.getMessage());
         }
-        return null;
     }
 
     /**
@@ -20,7 +20,14 @@ package org.wso2.carbon.identity.password.expiry.util;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.collections.CollectionUtils;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.governance.bean.ConnectorConfig;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryPolicyCache;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryPolicyCacheEntry;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryPolicyCacheKey;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryUserAttributeCache;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryUserAttributeCacheEntry;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryUserAttributeCacheKey;
 import org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants;
 import org.wso2.carbon.identity.password.expiry.internal.EnforcePasswordResetComponentDataHolder;
 import org.apache.commons.lang.StringUtils;
@@ -53,12 +60,15 @@ import org.wso2.carbon.user.core.common.Group;
 import org.wso2.carbon.identity.password.expiry.exceptions.ExpiredPasswordIdentificationException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants.CONNECTOR_CONFIG_NAME;
@@ -108,7 +118,7 @@ public class PasswordPolicyUtils {
      * Get password expiry rules.
      *
      * @param tenantDomain Tenant domain.
-     * @return List of password expiry rules.
+     * @return List of password expiry rules in the order of the priority.
      * @throws PostAuthenticationFailedException If an error occurred while getting the password expiry rules.
      */
     @SuppressFBWarnings("CRLF_INJECTION_LOGS")
@@ -151,6 +161,8 @@ public class PasswordPolicyUtils {
                     ERROR_WHILE_READING_SYSTEM_CONFIGURATIONS.getCode(),
                     PasswordPolicyConstants.ErrorMessages.ERROR_WHILE_READING_SYSTEM_CONFIGURATIONS.getMessage());
         }
+        // Rules are evaluated in the order of the priority. The sort is stable for rules with the same priority.
+        passwordExpiryRules.sort(Comparator.comparingInt(PasswordExpiryRule::getPriority));
         return passwordExpiryRules;
     }
 
@@ -166,7 +178,8 @@ public class PasswordPolicyUtils {
             throws PostAuthenticationFailedException {
 
         try {
-            if (!isPasswordExpiryEnabled(tenantDomain)) return false;
+            PasswordExpiryPolicyCacheEntry passwordExpiryPolicy = getPasswordExpiryPolicy(tenantDomain);
+            if (!passwordExpiryPolicy.isPasswordExpiryEnabled()) return false;
 
             UserRealm userRealm = getUserRealm(tenantDomain);
             UserStoreManager userStoreManager = getUserStoreManager(userRealm);
@@ -176,31 +189,28 @@ public class PasswordPolicyUtils {
             long lastPasswordUpdatedTimeInMillis = getLastPasswordUpdatedTimeInMillis(lastPasswordUpdatedTime);
             int daysDifference = getDaysDifference(lastPasswordUpdatedTimeInMillis);
 
-            List<PasswordExpiryRule> passwordExpiryRules = getPasswordExpiryRules(tenantDomain);
-            boolean skipIfNoApplicableRules = isSkipIfNoApplicableRulesEnabled(tenantDomain);
+            List<PasswordExpiryRule> passwordExpiryRules = passwordExpiryPolicy.getPasswordExpiryRules();
+            int passwordExpiryInDays = passwordExpiryPolicy.getPasswordExpiryInDays();
+            boolean skipIfNoApplicableRules = passwordExpiryPolicy.isSkipIfNoApplicableRules();
 
             // Apply default password expiry policy if no rules given.
             if (CollectionUtils.isEmpty(passwordExpiryRules)) {
-                return isPasswordExpiredUnderDefaultPolicy(tenantDomain, daysDifference, lastPasswordUpdatedTime,
-                        skipIfNoApplicableRules);
+                return isPasswordExpiredUnderDefaultPolicy(passwordExpiryInDays, daysDifference,
+                        lastPasswordUpdatedTime, skipIfNoApplicableRules);
             }
 
-            Map<PasswordExpiryRuleAttributeEnum, Set<String>> fetchedUserAttributes =
-                    new EnumMap<>(PasswordExpiryRuleAttributeEnum.class);
-
-            for (PasswordExpiryRule rule : passwordExpiryRules) {
-                if (isRuleApplicable(rule, fetchedUserAttributes, tenantDomain, userId, userStoreManager)) {
-                    // Skip the rule if the operator is not equals.
-                    if (PasswordExpiryRuleOperatorEnum.NE.equals(rule.getOperator())) {
-                        return false;
-                    }
-                    int expiryDays =
-                            rule.getExpiryDays() > 0 ? rule.getExpiryDays() : getPasswordExpiryInDays(tenantDomain);
-                    return daysDifference >= expiryDays || StringUtils.isBlank(lastPasswordUpdatedTime);
+            PasswordExpiryRule rule =
+                    getApplicableRule(passwordExpiryRules, tenantDomain, userId, userStoreManager);
+            if (rule != null) {
+                // Skip the rule if the operator is not equals.
+                if (PasswordExpiryRuleOperatorEnum.NE.equals(rule.getOperator())) {
+                    return false;
                 }
+                int expiryDays = rule.getExpiryDays() > 0 ? rule.getExpiryDays() : passwordExpiryInDays;
+                return daysDifference >= expiryDays || StringUtils.isBlank(lastPasswordUpdatedTime);
             }
             // Apply default password expiry policy if no specific rule applies.
-            return isPasswordExpiredUnderDefaultPolicy(tenantDomain, daysDifference, lastPasswordUpdatedTime,
+            return isPasswordExpiredUnderDefaultPolicy(passwordExpiryInDays, daysDifference, lastPasswordUpdatedTime,
                     skipIfNoApplicableRules);
         } catch (UserStoreException e) {
             throw new PostAuthenticationFailedException(PasswordPolicyConstants.ErrorMessages.
@@ -209,6 +219,157 @@ public class PasswordPolicyUtils {
         }
     }
 
+    /**
+     * Get the compiled password expiry policy of the tenant. The policy is built from the password expiry connector
+     * configs on the first use and cached until the governance configs of the tenant are updated.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Password expiry policy of the tenant.
+     * @throws PostAuthenticationFailedException If an error occurred while reading the connector configs.
+     */
+    private static PasswordExpiryPolicyCacheEntry getPasswordExpiryPolicy(String tenantDomain)
+            throws PostAuthenticationFailedException {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            return buildPasswordExpiryPolicy(tenantDomain);
+        }
+        PasswordExpiryPolicyCacheKey cacheKey = new PasswordExpiryPolicyCacheKey(tenantDomain);
+        PasswordExpiryPolicyCacheEntry passwordExpiryPolicy =
+                PasswordExpiryPolicyCache.getInstance().getValueFromCache(cacheKey, tenantDomain);
+        if (passwordExpiryPolicy == null) {
+            passwordExpiryPolicy = buildPasswordExpiryPolicy(tenantDomain);
+            PasswordExpiryPolicyCache.getInstance().addToCache(cacheKey, passwordExpiryPolicy, tenantDomain);
+        }
+        return passwordExpiryPolicy;
+    }
+
+    private static PasswordExpiryPolicyCacheEntry buildPasswordExpiryPolicy(String tenantDomain)
+            throws PostAuthenticationFailedException {
+
+        if (!isPasswordExpiryEnabled(tenantDomain)) {
+            return new PasswordExpiryPolicyCacheEntry(false,
+                    PasswordPolicyConstants.CONNECTOR_CONFIG_PASSWORD_EXPIRY_IN_DAYS_DEFAULT_VALUE, false,
+                    Collections.emptyList());
+        }
+        return new PasswordExpiryPolicyCacheEntry(true, getPasswordExpiryInDays(tenantDomain),
+                isSkipIfNoApplicableRulesEnabled(tenantDomain), getPasswordExpiryRules(tenantDomain));
+    }
+
+    /**
+     * Get the first password expiry rule applicable for the user. The group and role ids of the user are fetched only
+     * if a rule refers to them, and are reused from the user attribute cache when available.
+     *
+     * @param passwordExpiryRules Password expiry rules in the order of the priority.
+     * @param tenantDomain        Tenant domain.
+     * @param userId              User ID.
+     * @param userStoreManager    User store manager.
+     * @return The applicable rule, or null if no rule is applicable.
+     * @throws PostAuthenticationFailedException If an error occurred while getting the user attributes.
+     */
+    private static PasswordExpiryRule getApplicableRule(List<PasswordExpiryRule> passwordExpiryRules,
+                                                        String tenantDomain, String userId,
+                                                        UserStoreManager userStoreManager)
+            throws PostAuthenticationFailedException {
+
+        Map<PasswordExpiryRuleAttributeEnum, Set<String>> userAttributes =
+                getCachedUserAttributes(tenantDomain, userId);
+        int cachedAttributeCount = userAttributes.size();
+
+        PasswordExpiryRule applicableRule = null;
+        for (PasswordExpiryRule rule : passwordExpiryRules) {
+            if (isRuleApplicable(rule, userAttributes, tenantDomain, userId, userStoreManager)) {
+                applicableRule = rule;
+                break;
+            }
+        }
+        if (userAttributes.size() > cachedAttributeCount) {
+            addUserAttributesToCache(tenantDomain, userId, userAttributes);
+        }
+        return applicableRule;
+    }
+
+    private static Map<PasswordExpiryRuleAttributeEnum, Set<String>> getCachedUserAttributes(String tenantDomain,
+                                                                                           String userId) {
+
+        Map<PasswordExpiryRuleAttributeEnum, Set<String>> userAttributes =
+                new EnumMap<>(PasswordExpiryRuleAttributeEnum.class);
+        if (!isUserAttributeCacheEnabled() || StringUtils.isBlank(tenantDomain) || StringUtils.isBlank(userId)) {
+            return userAttributes;
+        }
+        PasswordExpiryUserAttributeCacheEntry cacheEntry = PasswordExpiryUserAttributeCache.getInstance()
+                .getValueFromCache(new PasswordExpiryUserAttributeCacheKey(userId), tenantDomain);
+        if (cacheEntry != null && !cacheEntry.isStale(getUserAttributeCacheTimeToLive())) {
+            userAttributes.putAll(cacheEntry.getUserAttributes());
+        }
+        return userAttributes;
+    }
+
+    private static void addUserAttributesToCache(String tenantDomain, String userId,
+                                                 Map<PasswordExpiryRuleAttributeEnum, Set<String>> userAttributes) {
+
+        if (!isUserAttributeCacheEnabled() || StringUtils.isBlank(tenantDomain) || StringUtils.isBlank(userId)) {
+            return;
+        }
+        PasswordExpiryUserAttributeCache.getInstance().addToCache(new PasswordExpiryUserAttributeCacheKey(userId),
+                new PasswordExpiryUserAttributeCacheEntry(userAttributes), tenantDomain);
+    }
+
+    /**
+     * Clear the cached group and role ids of the given users. Used when the role or group memberships of the users
+     * change.
+     *
+     * @param tenantDomain Tenant domain of the users.
+     * @param userIds      User IDs.
+     */
+    public static void clearUserAttributeCache(String tenantDomain, String... userIds) {
+
+        if (!isUserAttributeCacheEnabled() || StringUtils.isBlank(tenantDomain) || userIds == null) {
+            return;
+        }
+        for (String userId : userIds) {
+            if (StringUtils.isNotBlank(userId)) {
+                PasswordExpiryUserAttributeCache.getInstance().clearCacheEntry(
+                        new PasswordExpiryUserAttributeCacheKey(userId), tenantDomain);
+            }
+        }
+    }
+
+    /**
+     * Clear the cached group and role ids of all the users of the tenant. Used when the affected users of a change
+     * are not known.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public static void clearUserAttributeCache(String tenantDomain) {
+
+        if (!isUserAttributeCacheEnabled() || StringUtils.isBlank(tenantDomain)) {
+            return;
+        }
+        PasswordExpiryUserAttributeCache.getInstance().clear(tenantDomain);
+    }
+
+    private static boolean isUserAttributeCacheEnabled() {
+
+        return !Boolean.FALSE.toString().equalsIgnoreCase(
+                IdentityUtil.getProperty(PasswordPolicyConstants.USER_ATTRIBUTE_CACHE_ENABLE));
+    }
+
+    private static long getUserAttributeCacheTimeToLive() {
+
+        String timeToLive = IdentityUtil.getProperty(PasswordPolicyConstants.USER_ATTRIBUTE_CACHE_TIME_TO_LIVE);
+        if (StringUtils.isNotBlank(timeToLive)) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Integer.parseInt(timeToLive.trim()));
+            } catch (NumberFormatException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Invalid password expiry user attribute cache time to live: " + timeToLive +
+                            ". Using the default value.");
+                }
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(PasswordPolicyConstants.USER_ATTRIBUTE_CACHE_DEFAULT_TIME_TO_LIVE);
+    }
+
     /**
      * Check if the given rule is applicable for the user.
      *
@@ -283,19 +444,17 @@ public class PasswordPolicyUtils {
     /**
      * Check if the password has expired according to the default password expiry policy.
      *
-     * @param tenantDomain            The tenant domain.
+     * @param passwordExpiryInDays    The default password expiry in days.
      * @param daysDifference          The number of days since the password was last updated.
      * @param lastPasswordUpdatedTime The last password updated time.
      * @return true if the password has expired, false otherwise.
-     * @throws PostAuthenticationFailedException If an error occurs while checking the password expiry.
      */
-    private static boolean isPasswordExpiredUnderDefaultPolicy(String tenantDomain, int daysDifference,
+    private static boolean isPasswordExpiredUnderDefaultPolicy(int passwordExpiryInDays, int daysDifference,
                                                                String lastPasswordUpdatedTime,
-                                                               boolean skipIfNoApplicableRules)
-            throws PostAuthenticationFailedException {
+                                                               boolean skipIfNoApplicableRules) {
 
         if (skipIfNoApplicableRules) return false;
-        return StringUtils.isBlank(lastPasswordUpdatedTime) || daysDifference >= getPasswordExpiryInDays(tenantDomain);
+        return StringUtils.isBlank(lastPasswordUpdatedTime) || daysDifference >= passwordExpiryInDays;
     }
 
     /**
@@ -334,20 +493,26 @@ public class PasswordPolicyUtils {
         throws ExpiredPasswordIdentificationException {
 
         try {
+            PasswordExpiryPolicyCacheEntry passwordExpiryPolicy = null;
             if (isPasswordExpiryEnabled == null) {
-                isPasswordExpiryEnabled = isPasswordExpiryEnabled(tenantDomain);
+                passwordExpiryPolicy = getPasswordExpiryPolicy(tenantDomain);
+                isPasswordExpiryEnabled = passwordExpiryPolicy.isPasswordExpiryEnabled();
             }
             // If the password expiry is not enabled, password expiry time is not applicable.
             if (!isPasswordExpiryEnabled) return Optional.empty();
 
+            if (passwordExpiryPolicy == null && (isSkipIfNoApplicableRulesEnabled == null ||
+                    defaultPasswordExpiryInDays == null || passwordExpiryRules == null)) {
+                passwordExpiryPolicy = getPasswordExpiryPolicy(tenantDomain);
+            }
             if (isSkipIfNoApplicableRulesEnabled == null) {
-                isSkipIfNoApplicableRulesEnabled = isSkipIfNoApplicableRulesEnabled(tenantDomain);
+                isSkipIfNoApplicableRulesEnabled = passwordExpiryPolicy.isSkipIfNoApplicableRules();
             }
             if (defaultPasswordExpiryInDays == null) {
-                defaultPasswordExpiryInDays = getPasswordExpiryInDays(tenantDomain);
+                defaultPasswordExpiryInDays = passwordExpiryPolicy.getPasswordExpiryInDays();
             }
             if (passwordExpiryRules == null) {
-                passwordExpiryRules = getPasswordExpiryRules(tenantDomain);
+                passwordExpiryRules = passwordExpiryPolicy.getPasswordExpiryRules();
             }
 
             UserRealm userRealm = getUserRealm(tenantDomain);
@@ -373,22 +538,18 @@ public class PasswordPolicyUtils {
                         lastPasswordUpdatedTimeInMillis + getDaysTimeInMillis(defaultPasswordExpiryInDays));
             }
 
-            Map<PasswordExpiryRuleAttributeEnum, Set<String>> userAttributes =
-                    new EnumMap<>(PasswordExpiryRuleAttributeEnum.class);
-
-            for (PasswordExpiryRule rule : passwordExpiryRules) {
-                if (isRuleApplicable(rule, userAttributes, tenantDomain, userId, userStoreManager)) {
-                    // Skip the rule if the operator is not equals.
-                    if (PasswordExpiryRuleOperatorEnum.NE.equals(rule.getOperator())) {
-                        return Optional.empty();
-                    }
-                    if (isLastPasswordUpdatedTimeBlank) {
-                        return Optional.of(System.currentTimeMillis());
-                    }
-                    int expiryDays =
-                            rule.getExpiryDays() > 0 ? rule.getExpiryDays() : getPasswordExpiryInDays(tenantDomain);
-                    return Optional.of(lastPasswordUpdatedTimeInMillis + getDaysTimeInMillis(expiryDays));
+            PasswordExpiryRule rule =
+                    getApplicableRule(passwordExpiryRules, tenantDomain, userId, userStoreManager);
+            if (rule != null) {
+                // Skip the rule if the operator is not equals.
+                if (PasswordExpiryRuleOperatorEnum.NE.equals(rule.getOperator())) {
+                    return Optional.empty();
+                }
+                if (isLastPasswordUpdatedTimeBlank) {
+                    return Optional.of(System.currentTimeMillis());
                 }
+                int expiryDays = rule.getExpiryDays() > 0 ? rule.getExpiryDays() : defaultPasswordExpiryInDays;
+                return Optional.of(lastPasswordUpdatedTimeInMillis + getDaysTimeInMillis(expiryDays));
             }
 
             if (isSkipIfNoApplicableRulesEnabled) return Optional.empty();
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.password.expiry;
+
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.IdentityGovernanceService;
+import org.wso2.carbon.identity.governance.bean.ConnectorConfig;
+import org.wso2.carbon.identity.governance.service.IdentityDataStoreService;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryPolicyCache;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryPolicyCacheEntry;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryPolicyCacheKey;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryUserAttributeCache;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryUserAttributeCacheEntry;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryUserAttributeCacheKey;
+import org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants;
+import org.wso2.carbon.identity.password.expiry.internal.EnforcePasswordResetComponentDataHolder;
+import org.wso2.carbon.identity.password.expiry.listener.PasswordExpiryConfigIdPMgtListener;
+import org.wso2.carbon.identity.password.expiry.listener.PasswordExpiryEventListener;
+import org.wso2.carbon.identity.password.expiry.util.PasswordPolicyUtils;
+import org.wso2.carbon.identity.role.v2.mgt.core.RoleManagementService;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.RoleBasicInfo;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.util.UserCoreUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the cached password expiry policies of the tenants and the cached roles and groups of the users.
+ */
+public class PasswordExpiryRuleCacheTest {
+
+    private static final String TENANT_DOMAIN = "test.com";
+    private static final int TENANT_ID = 3;
+    private static final String USERNAME = "tom@gmail.com";
+    private static final String USER_ID = "testUserId";
+    private static final String EMPLOYEE_ROLE_ID = "a40ac8c2-5e51-4526-b75e-11353f473ad7";
+    private static final String MANAGER_ROLE_ID = "674b309d-3724-4519-8b0c-f2367145151d";
+    private static final int DEFAULT_EXPIRY_DAYS = 30;
+    private static final int EVALUATION_COUNT = 100;
+
+    @Mock
+    private IdentityGovernanceService identityGovernanceService;
+
+    @Mock
+    private RealmService realmService;
+
+    @Mock
+    private UserRealm userRealm;
+
+    @Mock
+    private AbstractUserStoreManager userStoreManager;
+
+    @Mock
+    private IdentityDataStoreService identityDataStoreService;
+
+    @Mock
+    private RoleManagementService roleManagementService;
+
+    private MockedStatic<IdentityTenantUtil> mockedIdentityTenantUtil;
+    private MockedStatic<IdentityUtil> mockedIdentityUtil;
+    private MockedStatic<UserCoreUtil> mockedUserCoreUtil;
+    private MockedStatic<PasswordExpiryPolicyCache> mockedPasswordExpiryPolicyCache;
+    private MockedStatic<PasswordExpiryUserAttributeCache> mockedPasswordExpiryUserAttributeCache;
+    private final Map<String, PasswordExpiryPolicyCacheEntry> policyCacheEntries = new ConcurrentHashMap<>();
+    private final Map<String, PasswordExpiryUserAttributeCacheEntry> userAttributeCacheEntries =
+            new ConcurrentHashMap<>();
+    private AutoCloseable openedMocks;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        openedMocks = MockitoAnnotations.openMocks(this);
+        EnforcePasswordResetComponentDataHolder dataHolder = EnforcePasswordResetComponentDataHolder.getInstance();
+        dataHolder.setIdentityGovernanceService(identityGovernanceService);
+        dataHolder.setRealmService(realmService);
+        dataHolder.setRoleManagementService(roleManagementService);
+        dataHolder.setIdentityDataStoreService(identityDataStoreService);
+
+        mockedIdentityTenantUtil = mockStatic(IdentityTenantUtil.class);
+        mockedIdentityTenantUtil.when(() -> IdentityTenantUtil.getTenantId(anyString())).thenReturn(TENANT_ID);
+        mockedIdentityTenantUtil.when(() -> IdentityTenantUtil.getTenantDomain(TENANT_ID)).thenReturn(TENANT_DOMAIN);
+        mockedIdentityUtil = mockStatic(IdentityUtil.class);
+        mockedUserCoreUtil = mockStatic(UserCoreUtil.class);
+        mockedUserCoreUtil.when(() -> UserCoreUtil.addDomainToName(any(), any())).thenReturn(USERNAME);
+        mockPasswordExpiryPolicyCache();
+        mockPasswordExpiryUserAttributeCache();
+
+        when(realmService.getTenantUserRealm(anyInt())).thenReturn(userRealm);
+        when(userRealm.getUserStoreManager()).thenReturn(userStoreManager);
+        when(userStoreManager.getTenantId()).thenReturn(TENANT_ID);
+        when(userStoreManager.getUserIDFromUserName(USERNAME)).thenReturn(USER_ID);
+        when(userStoreManager.getGroupListOfUser(USER_ID, null, null)).thenReturn(new ArrayList<>());
+        when(identityDataStoreService.isUserStoreBasedIdentityDataStore()).thenReturn(false);
+        mockLastPasswordUpdateTime(System.currentTimeMillis() - 35L * 24 * 60 * 60 * 1000);
+
+        mockConfiguration(PasswordPolicyConstants.CONNECTOR_CONFIG_ENABLE_PASSWORD_EXPIRY,
+                PasswordPolicyConstants.TRUE);
+        mockConfiguration(PasswordPolicyConstants.CONNECTOR_CONFIG_PASSWORD_EXPIRY_IN_DAYS,
+                String.valueOf(DEFAULT_EXPIRY_DAYS));
+        mockConfiguration(PasswordPolicyConstants.CONNECTOR_CONFIG_SKIP_IF_NO_APPLICABLE_RULES,
+                PasswordPolicyConstants.FALSE);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        mockedIdentityTenantUtil.close();
+        mockedIdentityUtil.close();
+        mockedUserCoreUtil.close();
+        mockedPasswordExpiryPolicyCache.close();
+        mockedPasswordExpiryUserAttributeCache.close();
+        policyCacheEntries.clear();
+        userAttributeCacheEntries.clear();
+        openedMocks.close();
+    }
+
+    @Test
+    public void testPolicyBuiltOncePerTenant() throws Exception {
+
+        mockRules("1,40,roles,eq," + EMPLOYEE_ROLE_ID);
+        mockUserRoles(EMPLOYEE_ROLE_ID);
+
+        for (int i = 0; i < EVALUATION_COUNT; i++) {
+            // Updated 35 days ago, the rule expires the password in 40 days.
+            assertFalse(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+        }
+
+        // The connector configs are read once for the tenant, not once per evaluation.
+        verify(identityGovernanceService, times(1)).getConnectorWithConfigs(TENANT_DOMAIN,
+                PasswordPolicyConstants.CONNECTOR_CONFIG_NAME);
+        verify(identityGovernanceService, times(1)).getConfiguration(
+                new String[]{PasswordPolicyConstants.CONNECTOR_CONFIG_PASSWORD_EXPIRY_IN_DAYS}, TENANT_DOMAIN);
+        assertNotNull(policyCacheEntries.get(TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testPolicyRebuiltOnResidentIdPUpdate() throws Exception {
+
+        mockRules("1,40,roles,eq," + EMPLOYEE_ROLE_ID);
+        mockUserRoles(EMPLOYEE_ROLE_ID);
+        assertFalse(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+
+        mockRules("1,20,roles,eq," + EMPLOYEE_ROLE_ID);
+        // The cached policy is used until the governance configs of the tenant are updated.
+        assertFalse(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+
+        new PasswordExpiryConfigIdPMgtListener().doPostUpdateResidentIdP(null, TENANT_DOMAIN);
+        assertNull(policyCacheEntries.get(TENANT_DOMAIN));
+        assertTrue(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+        verify(identityGovernanceService, times(2)).getConnectorWithConfigs(TENANT_DOMAIN,
+                PasswordPolicyConstants.CONNECTOR_CONFIG_NAME);
+    }
+
+    @Test
+    public void testRulesEvaluatedInPriorityOrder() throws Exception {
+
+        // The rules are not configured in the order of the priority.
+        mockRules("3,60,roles,eq," + EMPLOYEE_ROLE_ID, "1,20,roles,eq," + EMPLOYEE_ROLE_ID,
+                "2,0,roles,ne," + MANAGER_ROLE_ID);
+        mockUserRoles(EMPLOYEE_ROLE_ID);
+
+        List<Integer> priorities = new ArrayList<>();
+        PasswordPolicyUtils.getPasswordExpiryRules(TENANT_DOMAIN).forEach(rule -> priorities.add(rule.getPriority()));
+        assertEquals(priorities, Arrays.asList(1, 2, 3));
+
+        // The rule with the priority 1 expires the password in 20 days.
+        assertTrue(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+    }
+
+    @Test
+    public void testUserRolesFetchedOnceUntilMembershipChange() throws Exception {
+
+        mockRules("1,20,roles,eq," + MANAGER_ROLE_ID);
+        mockUserRoles(EMPLOYEE_ROLE_ID);
+
+        for (int i = 0; i < EVALUATION_COUNT; i++) {
+            // No rule applies, the default expiry of 30 days expires the password.
+            assertTrue(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+        }
+        verify(roleManagementService, times(1)).getRoleListOfUser(USER_ID, TENANT_DOMAIN);
+        verify(userStoreManager, times(1)).getGroupListOfUser(USER_ID, null, null);
+
+        // The role list of the user is updated, hence the cached roles of the user are cleared.
+        mockUserRoles(MANAGER_ROLE_ID);
+        new PasswordExpiryEventListener().doPostUpdateRoleListOfUserWithID(USER_ID, new String[0],
+                new String[]{"manager"}, userStoreManager);
+        assertNull(userAttributeCacheEntries.get(USER_ID));
+
+        assertTrue(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+        verify(roleManagementService, times(2)).getRoleListOfUser(USER_ID, TENANT_DOMAIN);
+
+        // The user is removed from a role, hence the cached roles of the user are cleared.
+        new PasswordExpiryEventListener().doPostUpdateUserListOfRoleWithID("manager", new String[]{USER_ID},
+                new String[0], userStoreManager);
+        assertNull(userAttributeCacheEntries.get(USER_ID));
+    }
+
+    @Test
+    public void testUserRolesNotCachedWhenDisabled() throws Exception {
+
+        mockedIdentityUtil.when(() -> IdentityUtil.getProperty(PasswordPolicyConstants.USER_ATTRIBUTE_CACHE_ENABLE))
+                .thenReturn(PasswordPolicyConstants.FALSE);
+        mockRules("1,40,roles,eq," + EMPLOYEE_ROLE_ID);
+        mockUserRoles(EMPLOYEE_ROLE_ID);
+
+        for (int i = 0; i < EVALUATION_COUNT; i++) {
+            assertFalse(PasswordPolicyUtils.isPasswordExpired(TENANT_DOMAIN, USERNAME));
+        }
+        verify(roleManagementService, times(EVALUATION_COUNT)).getRoleListOfUser(USER_ID, TENANT_DOMAIN);
+        assertTrue(userAttributeCacheEntries.isEmpty());
+    }
+
+    private void mockRules(String... rules) throws Exception {
+
+        Property[] properties = new Property[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            properties[i] = new Property();
+            properties[i].setName(PasswordPolicyConstants.PASSWORD_EXPIRY_RULES_PREFIX + (i + 1));
+            properties[i].setValue(rules[i]);
+        }
+        ConnectorConfig connectorConfig = new ConnectorConfig();
+        connectorConfig.setProperties(properties);
+        when(identityGovernanceService.getConnectorWithConfigs(TENANT_DOMAIN,
+                PasswordPolicyConstants.CONNECTOR_CONFIG_NAME)).thenReturn(connectorConfig);
+    }
+
+    private void mockUserRoles(String... roleIds) throws Exception {
+
+        List<RoleBasicInfo> roles = new ArrayList<>();
+        for (String roleId : roleIds) {
+            RoleBasicInfo role = new RoleBasicInfo();
+            role.setId(roleId);
+            roles.add(role);
+        }
+        when(roleManagementService.getRoleListOfUser(USER_ID, TENANT_DOMAIN)).thenReturn(roles);
+        when(roleManagementService.getRoleIdListOfGroups(any(), eq(TENANT_DOMAIN)))
+                .thenReturn(Collections.emptyList());
+    }
+
+    private void mockConfiguration(String name, String value) throws Exception {
+
+        Property property = new Property();
+        property.setName(name);
+        property.setValue(value);
+        when(identityGovernanceService.getConfiguration(new String[]{name}, TENANT_DOMAIN))
+                .thenReturn(new Property[]{property});
+    }
+
+    private void mockLastPasswordUpdateTime(long updateTime) throws Exception {
+
+        Map<String, String> claims = new HashMap<>();
+        claims.put(PasswordPolicyConstants.LAST_CREDENTIAL_UPDATE_TIMESTAMP_CLAIM, String.valueOf(updateTime));
+        when(userStoreManager.getUserClaimValues(anyString(),
+                eq(new String[]{PasswordPolicyConstants.LAST_CREDENTIAL_UPDATE_TIMESTAMP_CLAIM}), isNull()))
+                .thenReturn(claims);
+    }
+
+    private void mockPasswordExpiryPolicyCache() {
+
+        PasswordExpiryPolicyCache policyCache = mock(PasswordExpiryPolicyCache.class);
+        mockedPasswordExpiryPolicyCache = mockStatic(PasswordExpiryPolicyCache.class);
+        mockedPasswordExpiryPolicyCache.when(PasswordExpiryPolicyCache::getInstance).thenReturn(policyCache);
+        when(policyCache.getValueFromCache(any(PasswordExpiryPolicyCacheKey.class), anyString()))
+                .thenAnswer(invocation -> policyCacheEntries.get(
+                        ((PasswordExpiryPolicyCacheKey) invocation.getArgument(0)).getTenantDomain()));
+        doAnswer(invocation -> policyCacheEntries.put(
+                ((PasswordExpiryPolicyCacheKey) invocation.getArgument(0)).getTenantDomain(),
+                invocation.getArgument(1))).when(policyCache).addToCache(any(PasswordExpiryPolicyCacheKey.class),
+                any(PasswordExpiryPolicyCacheEntry.class), anyString());
+        doAnswer(invocation -> policyCacheEntries.remove(
+                ((PasswordExpiryPolicyCacheKey) invocation.getArgument(0)).getTenantDomain()))
+                .when(policyCache).clearCacheEntry(any(PasswordExpiryPolicyCacheKey.class), anyString());
+    }
+
+    private void mockPasswordExpiryUserAttributeCache() {
+
+        PasswordExpiryUserAttributeCache userAttributeCache = mock(PasswordExpiryUserAttributeCache.class);
+        mockedPasswordExpiryUserAttributeCache = mockStatic(PasswordExpiryUserAttributeCache.class);
+        mockedPasswordExpiryUserAttributeCache.when(PasswordExpiryUserAttributeCache::getInstance)
+                .thenReturn(userAttributeCache);
+        when(userAttributeCache.getValueFromCache(any(PasswordExpiryUserAttributeCacheKey.class), anyString()))
+                .thenAnswer(invocation -> userAttributeCacheEntries.get(
+                        ((PasswordExpiryUserAttributeCacheKey) invocation.getArgument(0)).getUserId()));
+        doAnswer(invocation -> userAttributeCacheEntries.put(
+                ((PasswordExpiryUserAttributeCacheKey) invocation.getArgument(0)).getUserId(),
+                invocation.getArgument(1))).when(userAttributeCache)
+                .addToCache(any(PasswordExpiryUserAttributeCacheKey.class),
+                        any(PasswordExpiryUserAttributeCacheEntry.class), anyString());
+        doAnswer(invocation -> userAttributeCacheEntries.remove(
+                ((PasswordExpiryUserAttributeCacheKey) invocation.getArgument(0)).getUserId()))
+                .when(userAttributeCache).clearCacheEntry(any(PasswordExpiryUserAttributeCacheKey.class),
+                        anyString());
+        doAnswer(invocation -> {
+            userAttributeCacheEntries.clear();
+            return null;
+        }).when(userAttributeCache).clear(anyString());
+    }
+}
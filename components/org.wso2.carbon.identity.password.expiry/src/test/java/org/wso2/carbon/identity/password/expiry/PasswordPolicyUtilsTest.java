@@ -23,7 +23,10 @@ import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.identity.core.ServiceURL;
 import org.wso2.carbon.identity.core.ServiceURLBuilder;
 import org.wso2.carbon.identity.core.URLBuilderException;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreService;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryPolicyCache;
+import org.wso2.carbon.identity.password.expiry.cache.PasswordExpiryUserAttributeCache;
 import org.wso2.carbon.identity.password.expiry.constants.PasswordPolicyConstants;
 import org.wso2.carbon.identity.password.expiry.exceptions.ExpiredPasswordIdentificationException;
 import org.wso2.carbon.identity.password.expiry.internal.EnforcePasswordResetComponentDataHolder;
@@ -70,6 +73,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
@@ -113,6 +117,9 @@ public class PasswordPolicyUtilsTest {
 
     private MockedStatic<UserCoreUtil> mockedStaticUserCoreUtil;
     private MockedStatic<ServiceURLBuilder> mockedStaticServiceURLBuilder;
+    private MockedStatic<IdentityUtil> mockedStaticIdentityUtil;
+    private MockedStatic<PasswordExpiryPolicyCache> mockedStaticPasswordExpiryPolicyCache;
+    private MockedStatic<PasswordExpiryUserAttributeCache> mockedStaticPasswordExpiryUserAttributeCache;
 
     private final String tenantDomain = "test.com";
     private final String tenantAwareUsername = "tom@gmail.com";
@@ -138,6 +145,15 @@ public class PasswordPolicyUtilsTest {
         mockedStaticIdentityTenantUtil = mockStatic(IdentityTenantUtil.class);
         mockedStaticUserCoreUtil = mockStatic(UserCoreUtil.class);
         mockedStaticServiceURLBuilder = mockStatic(ServiceURLBuilder.class);
+        mockedStaticIdentityUtil = mockStatic(IdentityUtil.class);
+
+        // Every test mocks its own configs, hence the caches always miss.
+        mockedStaticPasswordExpiryPolicyCache = mockStatic(PasswordExpiryPolicyCache.class);
+        mockedStaticPasswordExpiryPolicyCache.when(PasswordExpiryPolicyCache::getInstance)
+                .thenReturn(mock(PasswordExpiryPolicyCache.class));
+        mockedStaticPasswordExpiryUserAttributeCache = mockStatic(PasswordExpiryUserAttributeCache.class);
+        mockedStaticPasswordExpiryUserAttributeCache.when(PasswordExpiryUserAttributeCache::getInstance)
+                .thenReturn(mock(PasswordExpiryUserAttributeCache.class));
     }
 
     @AfterClass
@@ -145,6 +161,9 @@ public class PasswordPolicyUtilsTest {
 
         mockedStaticIdentityTenantUtil.close();
         mockedStaticUserCoreUtil.close();
+        mockedStaticIdentityUtil.close();
+        mockedStaticPasswordExpiryPolicyCache.close();
+        mockedStaticPasswordExpiryUserAttributeCache.close();
     }
 
     @BeforeMethod
@@ -32,8 +32,16 @@ public class PasswordHistoryConstants {
         public static final String LOAD_HISTORY_DATA = "SELECT * FROM IDN_PASSWORD_HISTORY_DATA WHERE USER_NAME= ? AND " +
                 "USER_DOMAIN = ? AND TENANT_ID = ? ORDER BY TIME_CREATED DESC  ";
 
+        public static final String LOAD_RECENT_HISTORY_DATA = "SELECT ID, SALT_VALUE, HASH, TIME_CREATED FROM " +
+                "IDN_PASSWORD_HISTORY_DATA WHERE USER_NAME = ? AND USER_DOMAIN = ? AND TENANT_ID = ? " +
+                "ORDER BY TIME_CREATED DESC, ID DESC";
+
         public static final String DELETE_HISTORY_RECORD = "DELETE FROM IDN_PASSWORD_HISTORY_DATA WHERE ID=?";
 
+        public static final String DELETE_OLDER_HISTORY_DATA = "DELETE FROM IDN_PASSWORD_HISTORY_DATA WHERE " +
+                "USER_NAME = ? AND USER_DOMAIN = ? AND TENANT_ID = ? AND (TIME_CREATED < ? OR " +
+                "(TIME_CREATED = ? AND ID <= ?))";
+
         public static final String DELETE_USER_HISTORY = "DELETE FROM IDN_PASSWORD_HISTORY_DATA WHERE USER_NAME = ? " +
                 "AND USER_DOMAIN =? AND TENANT_ID =?";
 
@@ -22,6 +22,7 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.governance.SecureRandomProvider;
 import org.wso2.carbon.identity.password.history.constants.PasswordHistoryConstants;
 import org.wso2.carbon.identity.password.history.exeption.IdentityPasswordHistoryException;
 import org.wso2.carbon.identity.password.history.store.PasswordHistoryDataStore;
@@ -31,21 +32,20 @@ import org.wso2.carbon.user.core.UserStoreException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * This interface provides to plug module for preferred persistence store.
  */
 public class DefaultPasswordHistoryDataStore implements PasswordHistoryDataStore {
-    private static final String RANDOM_ALG_DRBG = "DRBG";
+    private static final int SALT_LENGTH = 16;
     private static final Log log = LogFactory.getLog(DefaultPasswordHistoryDataStore.class);
     private String digestFunction;
     private int maxHistoryCount;
@@ -68,60 +68,94 @@ public class DefaultPasswordHistoryDataStore implements PasswordHistoryDataStore
             return;
         }
         String saltValue = generateSaltValue();
+        String hash = preparePassword(credential.toString(), saltValue);
+        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
 
         Connection connection = IdentityDatabaseUtil.getDBConnection();
-        List<Integer> recordsToDelete = new ArrayList<>();
-        int storedHistoryCount = 0;
-        PreparedStatement prepStmt1 = null;
-        PreparedStatement prepStmt2 = null;
-        PreparedStatement prepStmt3 = null;
-
-        ResultSet resultSet = null;
         try {
-            prepStmt1 = connection.prepareStatement(PasswordHistoryConstants.SQLQueries.LOAD_HISTORY_DATA);
-            prepStmt1.setString(1, user.getUserName());
-            prepStmt1.setString(2, user.getUserStoreDomain());
-            prepStmt1.setInt(3, IdentityTenantUtil.getTenantId(user.getTenantDomain()));
-
-            resultSet = prepStmt1.executeQuery();
-
-            while (resultSet.next()) {
-                storedHistoryCount++;
-                if (storedHistoryCount >= maxHistoryCount) {
-                    recordsToDelete.add(resultSet.getInt("ID"));
-                }
-            }
-
-            if (recordsToDelete.size() > 0) {
-                for (int i = 0; i < recordsToDelete.size(); i++) {
-                    prepStmt2 = connection.prepareStatement(
-                            PasswordHistoryConstants.SQLQueries.DELETE_HISTORY_RECORD);
-                    prepStmt2.setInt(1, recordsToDelete.get(i));
-                    prepStmt2.execute();
-                }
+            deleteOlderHistory(connection, user, tenantId);
+            try (PreparedStatement prepStmt = connection.prepareStatement(
+                    PasswordHistoryConstants.SQLQueries.STORE_HISTORY_DATA)) {
+                prepStmt.setString(1, user.getUserName());
+                prepStmt.setString(2, user.getUserStoreDomain().toUpperCase(Locale.ENGLISH));
+                prepStmt.setInt(3, tenantId);
+                prepStmt.setString(4, saltValue);
+                prepStmt.setString(5, hash);
+                prepStmt.setTimestamp(6, new Timestamp(new java.util.Date().getTime()));
+                prepStmt.execute();
             }
-
-            prepStmt3 = connection.prepareStatement(PasswordHistoryConstants.SQLQueries.STORE_HISTORY_DATA);
-            prepStmt3.setString(1, user.getUserName());
-            prepStmt3.setString(2, user.getUserStoreDomain().toUpperCase(Locale.ENGLISH));
-            prepStmt3.setInt(3, IdentityTenantUtil.getTenantId(user.getTenantDomain()));
-            prepStmt3.setString(4, saltValue);
-            prepStmt3.setString(5, preparePassword(credential.toString(), saltValue));
-            prepStmt3.setTimestamp(6, new Timestamp(new java.util.Date().getTime()));
-            prepStmt3.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw new IdentityPasswordHistoryException("Error while storing password history", e);
         } finally {
-            IdentityDatabaseUtil.closeStatement(prepStmt1);
-            IdentityDatabaseUtil.closeStatement(prepStmt2);
-            IdentityDatabaseUtil.closeStatement(prepStmt3);
-            IdentityDatabaseUtil.closeResultSet(resultSet);
             IdentityDatabaseUtil.closeConnection(connection);
         }
     }
 
+    /**
+     * Delete the history entries of the user which would exceed the history count after storing a new entry. Only
+     * the newest entries up to the history count are read to find the oldest entry to keep, and all the older entries
+     * are deleted with a single statement.
+     *
+     * @param connection Connection of the store transaction.
+     * @param user       User.
+     * @param tenantId   Tenant id of the user.
+     * @throws SQLException If an error occurred while deleting the entries.
+     */
+    private void deleteOlderHistory(Connection connection, User user, int tenantId) throws SQLException {
+
+        if (maxHistoryCount <= 1) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(
+                    PasswordHistoryConstants.SQLQueries.DELETE_USER_HISTORY)) {
+                prepStmt.setString(1, user.getUserName());
+                prepStmt.setString(2, user.getUserStoreDomain());
+                prepStmt.setInt(3, tenantId);
+                prepStmt.execute();
+            }
+            return;
+        }
+
+        long firstDeletedId = -1;
+        Timestamp firstDeletedTimeCreated = null;
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                PasswordHistoryConstants.SQLQueries.LOAD_RECENT_HISTORY_DATA)) {
+            prepStmt.setString(1, user.getUserName());
+            prepStmt.setString(2, user.getUserStoreDomain());
+            prepStmt.setInt(3, tenantId);
+            // The newest (maxHistoryCount - 1) entries are kept along with the new entry.
+            prepStmt.setMaxRows(maxHistoryCount);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                int storedHistoryCount = 0;
+                while (resultSet.next()) {
+                    storedHistoryCount++;
+                    if (storedHistoryCount == maxHistoryCount) {
+                        firstDeletedId = resultSet.getLong("ID");
+                        firstDeletedTimeCreated = resultSet.getTimestamp("TIME_CREATED");
+                    }
+                }
+            }
+        }
+        if (firstDeletedTimeCreated == null) {
+            return;
+        }
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                PasswordHistoryConstants.SQLQueries.DELETE_OLDER_HISTORY_DATA)) {
+            prepStmt.setString(1, user.getUserName());
+            prepStmt.setString(2, user.getUserStoreDomain());
+            prepStmt.setInt(3, tenantId);
+            prepStmt.setTimestamp(4, firstDeletedTimeCreated);
+            prepStmt.setTimestamp(5, firstDeletedTimeCreated);
+            prepStmt.setLong(6, firstDeletedId);
+            int deletedCount = prepStmt.executeUpdate();
+            if (log.isDebugEnabled()) {
+                log.debug("Deleted " + deletedCount + " password history entries of the user: " +
+                        user.getUserName() + " exceeding the history count: " + maxHistoryCount);
+            }
+        }
+    }
+
     @Override
     public void remove(User user) throws IdentityPasswordHistoryException {
         Connection connection = IdentityDatabaseUtil.getDBConnection();
@@ -178,65 +212,48 @@ public class DefaultPasswordHistoryDataStore implements PasswordHistoryDataStore
             return true;
         }
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
-        int storedHistoryCount = 0;
-        PreparedStatement prepStmt = null;
-        ResultSet resultSet = null;
-        try {
-            prepStmt = connection.prepareStatement(PasswordHistoryConstants.SQLQueries
-                    .LOAD_HISTORY_DATA);
+        if (maxHistoryCount <= 0) {
+            return true;
+        }
+
+        // The candidate is hashed only once per distinct salt of the recent entries.
+        Map<String, String> candidateHashes = new HashMap<>();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PasswordHistoryConstants.SQLQueries
+                     .LOAD_RECENT_HISTORY_DATA)) {
             prepStmt.setString(1, user.getUserName());
             prepStmt.setString(2, user.getUserStoreDomain());
             prepStmt.setInt(3, IdentityTenantUtil.getTenantId(user.getTenantDomain()));
+            prepStmt.setMaxRows(maxHistoryCount);
 
-            resultSet = prepStmt.executeQuery();
-
-            while (resultSet.next()) {
-                storedHistoryCount++;
-                if (storedHistoryCount <= maxHistoryCount) {
-                    if (isHistoryExists(resultSet.getString("SALT_VALUE"), resultSet.getString("HASH"), credential)) {
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    String saltValue = resultSet.getString("SALT_VALUE");
+                    String candidateHash = candidateHashes.get(saltValue);
+                    if (candidateHash == null) {
+                        candidateHash = preparePassword(credential.toString(), saltValue);
+                        candidateHashes.put(saltValue, candidateHash);
+                    }
+                    if (candidateHash.equals(resultSet.getString("HASH"))) {
                         return false;
                     }
                 }
             }
         } catch (SQLException e) {
             throw new IdentityPasswordHistoryException("Error while validating password history", e);
-        } finally {
-            IdentityDatabaseUtil.closeStatement(prepStmt);
-            IdentityDatabaseUtil.closeResultSet(resultSet);
-            IdentityDatabaseUtil.closeConnection(connection);
         }
         return true;
     }
 
-    private boolean isHistoryExists(String saltValue, String storedPassword, Object credential) throws
-            IdentityPasswordHistoryException {
-
-        String password;
-        password = this.preparePassword(credential.toString(), saltValue);
-        if ((storedPassword != null) && (storedPassword.equals(password))) {
-            return true;
-        }
-        return false;
-    }
-
     /**
      * This private method returns a saltValue using SecureRandom.
      *
      * @return saltValue
      */
     private String generateSaltValue() {
-        String saltValue;
-        try {
-            SecureRandom secureRandom = SecureRandom.getInstance(RANDOM_ALG_DRBG);
-            byte[] bytes = new byte[16];
-            //secureRandom is automatically seeded by calling nextBytes
-            secureRandom.nextBytes(bytes);
-            saltValue = Base64.encode(bytes);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("DRBG algorithm could not be found.");
-        }
-        return saltValue;
+
+        // The shared provider is automatically seeded and periodically replaces the DRBG instance of the thread.
+        return Base64.encode(SecureRandomProvider.generateRandomBytes(SALT_LENGTH));
     }
 
     /**
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.password.history.store.Impl;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mockStatic;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the default password history data store against an H2 database.
+ */
+public class DefaultPasswordHistoryDataStoreTest {
+
+    private static final String DB_URL = "jdbc:h2:mem:password_history;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    private static final String DIGEST_FUNCTION = "SHA-256";
+    private static final String USERNAME = "alex";
+    private static final String USER_STORE_DOMAIN = "PRIMARY";
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final int TENANT_ID = -1234;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        String scriptPath = Paths.get(System.getProperty("user.dir"), "src", "test", "resources", "dbscripts",
+                "h2.sql").toString();
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + scriptPath + "'");
+        }
+    }
+
+    @AfterClass
+    public void tearDownClass() throws Exception {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM IDN_PASSWORD_HISTORY_DATA");
+        }
+    }
+
+    @DataProvider(name = "historyCounts")
+    public Object[][] historyCounts() {
+
+        return new Object[][]{
+                {5},
+                {50}
+        };
+    }
+
+    @Test(dataProvider = "historyCounts")
+    public void testStoreKeepsOnlyHistoryCountEntries(int historyCount) throws Exception {
+
+        DefaultPasswordHistoryDataStore dataStore = new DefaultPasswordHistoryDataStore(DIGEST_FUNCTION,
+                historyCount);
+        User user = createUser(USERNAME);
+        int passwordCount = historyCount * 2 + 3;
+
+        withMockedDatabase(() -> {
+            for (int i = 0; i < passwordCount; i++) {
+                dataStore.store(user, password(i));
+            }
+            return null;
+        });
+
+        assertEquals(countHistoryEntries(USERNAME), historyCount);
+        withMockedDatabase(() -> {
+            // The recent passwords are rejected.
+            for (int i = passwordCount - historyCount; i < passwordCount; i++) {
+                assertFalse(dataStore.validate(user, password(i)), "Password " + i + " should be in the history.");
+            }
+            // The passwords older than the history count are allowed again.
+            for (int i = 0; i < passwordCount - historyCount; i++) {
+                assertTrue(dataStore.validate(user, password(i)), "Password " + i + " should not be in the history.");
+            }
+            assertTrue(dataStore.validate(user, "NewPassword"));
+            return null;
+        });
+    }
+
+    @Test
+    public void testHistoryOfOtherUsersIsNotDeleted() throws Exception {
+
+        DefaultPasswordHistoryDataStore dataStore = new DefaultPasswordHistoryDataStore(DIGEST_FUNCTION, 5);
+        User user = createUser(USERNAME);
+        User otherUser = createUser("kim");
+
+        withMockedDatabase(() -> {
+            for (int i = 0; i < 3; i++) {
+                dataStore.store(otherUser, password(i));
+            }
+            for (int i = 0; i < 20; i++) {
+                dataStore.store(user, password(i));
+            }
+            assertFalse(dataStore.validate(otherUser, password(0)));
+            return null;
+        });
+
+        assertEquals(countHistoryEntries(USERNAME), 5);
+        assertEquals(countHistoryEntries("kim"), 3);
+    }
+
+    @Test
+    public void testConcurrentPasswordChanges() throws Exception {
+
+        int historyCount = 5;
+        int threadCount = 8;
+        int changesPerThread = 10;
+        DefaultPasswordHistoryDataStore dataStore = new DefaultPasswordHistoryDataStore(DIGEST_FUNCTION,
+                historyCount);
+        User user = createUser(USERNAME);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++) {
+                int threadIndex = thread;
+                // Static mocks are thread local, hence each thread mocks the database access on its own.
+                futures.add(executor.submit(() -> withMockedDatabase(() -> {
+                    for (int i = 0; i < changesPerThread; i++) {
+                        dataStore.store(user, password(threadIndex * changesPerThread + i));
+                    }
+                    return null;
+                })));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Concurrent changes only delete entries older than the ones they have read, so at most one entry per
+        // concurrent change is retained in addition to the history count.
+        int retainedCount = countHistoryEntries(USERNAME);
+        assertTrue(retainedCount >= historyCount && retainedCount <= historyCount + threadCount - 1,
+                "Retained " + retainedCount + " history entries.");
+
+        withMockedDatabase(() -> {
+            dataStore.store(user, "LastPassword");
+            assertFalse(dataStore.validate(user, "LastPassword"));
+            return null;
+        });
+        assertEquals(countHistoryEntries(USERNAME), historyCount);
+    }
+
+    private static <T> T withMockedDatabase(Callable<T> callable) throws Exception {
+
+        try (MockedStatic<IdentityDatabaseUtil> identityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class);
+             MockedStatic<IdentityTenantUtil> identityTenantUtil = mockStatic(IdentityTenantUtil.class)) {
+            identityDatabaseUtil.when(IdentityDatabaseUtil::getDBConnection).thenAnswer(invocation -> {
+                Connection connection = DriverManager.getConnection(DB_URL);
+                connection.setAutoCommit(false);
+                return connection;
+            });
+            identityDatabaseUtil.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                    .thenAnswer(invocation -> {
+                        Connection connection = DriverManager.getConnection(DB_URL);
+                        connection.setAutoCommit(false);
+                        return connection;
+                    });
+            identityDatabaseUtil.when(() -> IdentityDatabaseUtil.commitTransaction(any(Connection.class)))
+                    .thenAnswer(invocation -> {
+                        ((Connection) invocation.getArgument(0)).commit();
+                        return null;
+                    });
+            identityDatabaseUtil.when(() -> IdentityDatabaseUtil.rollbackTransaction(any(Connection.class)))
+                    .thenAnswer(invocation -> {
+                        ((Connection) invocation.getArgument(0)).rollback();
+                        return null;
+                    });
+            identityDatabaseUtil.when(() -> IdentityDatabaseUtil.closeConnection(any(Connection.class)))
+                    .thenAnswer(invocation -> {
+                        ((Connection) invocation.getArgument(0)).close();
+                        return null;
+                    });
+            identityTenantUtil.when(() -> IdentityTenantUtil.getTenantId(anyString())).thenReturn(TENANT_ID);
+            return callable.call();
+        }
+    }
+
+    private static int countHistoryEntries(String username) throws Exception {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM IDN_PASSWORD_HISTORY_DATA WHERE " +
+                     "USER_NAME = '" + username + "'")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static User createUser(String username) {
+
+        User user = new User();
+        user.setUserName(username);
+        user.setUserStoreDomain(USER_STORE_DOMAIN);
+        user.setTenantDomain(TENANT_DOMAIN);
+        return user;
+    }
+
+    private static String password(int index) {
+
+        return "Password_" + index;
+    }
+}
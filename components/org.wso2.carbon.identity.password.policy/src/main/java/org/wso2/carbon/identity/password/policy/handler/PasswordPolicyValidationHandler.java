@@ -44,15 +44,24 @@ import org.wso2.carbon.identity.password.policy.util.Utils;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PasswordPolicyValidationHandler extends AbstractEventHandler implements IdentityConnectorConfig {
 
     private static final Log log = LogFactory.getLog(PasswordPolicyValidationHandler.class);
 
+    /**
+     * Password policy configs keyed by the tenant domain, with the policy classes loaded. The configs are immutable,
+     * while the policies keep the state of a validation, hence the policies are created for each validation.
+     */
+    private final Map<String, TenantPolicyConfig> policyConfigCache = new ConcurrentHashMap<>();
+
     @Override
     public void handleEvent(Event event) throws IdentityEventException {
 
@@ -127,45 +136,8 @@ public class PasswordPolicyValidationHandler extends AbstractEventHandler implem
             }
         }
 
-        PolicyRegistry policyRegistry = new PolicyRegistry();
-
-        String pwLengthPolicyCls = configs.getModuleProperties().
-                getProperty(PasswordPolicyConstants.PW_POLICY_LENGTH_CLASS);
-        String pwNamePolicyCls = configs.getModuleProperties().
-                getProperty(PasswordPolicyConstants.PW_POLICY_NAME_CLASS);
-        String pwPatternPolicyCls = configs.getModuleProperties().
-                getProperty(PasswordPolicyConstants.PW_POLICY_PATTERN_CLASS);
-        try {
-            if (StringUtils.isNotBlank(pwLengthPolicyCls)) {
-                DefaultPasswordLengthPolicy defaultPasswordLengthPolicy = (DefaultPasswordLengthPolicy) Class.
-                        forName(pwLengthPolicyCls).newInstance();
-                HashMap pwPolicyLengthParams = new HashMap<String, String>();
-                pwPolicyLengthParams.put("min.length", pwMinLength);
-                pwPolicyLengthParams.put("max.length", pwMaxLength);
-                defaultPasswordLengthPolicy.init(pwPolicyLengthParams);
-                policyRegistry.addPolicy(defaultPasswordLengthPolicy);
-            }
-
-            if (StringUtils.isNotBlank(pwNamePolicyCls)) {
-                DefaultPasswordNamePolicy defaultPasswordNamePolicy = (DefaultPasswordNamePolicy) Class.
-                        forName(pwNamePolicyCls).newInstance();
-                policyRegistry.addPolicy(defaultPasswordNamePolicy);
-            }
-
-            if (StringUtils.isNotBlank(pwPatternPolicyCls)) {
-                DefaultPasswordPatternPolicy defaultPasswordPatternPolicy = (DefaultPasswordPatternPolicy) Class.
-                        forName(pwPatternPolicyCls).newInstance();
-                HashMap pwPolicyPatternParams = new HashMap<String, String>();
-                pwPolicyPatternParams.put("pattern", pwPattern);
-                pwPolicyPatternParams.put("errorMsg", errorMsg);
-                defaultPasswordPatternPolicy.init(pwPolicyPatternParams);
-                policyRegistry.addPolicy(defaultPasswordPatternPolicy);
-            }
-        } catch (Exception e) {
-            throw Utils.handleEventException(
-                    PasswordPolicyConstants.ErrorMessages.ERROR_CODE_LOADING_PASSWORD_POLICY_CLASSES, null, e);
-        }
-
+        PolicyRegistry policyRegistry = getPolicyRegistry(tenantDomain, pwMinLength, pwMaxLength, pwPattern,
+                errorMsg);
         try {
             policyRegistry.enforcePasswordPolicies(credentials.toString(), userName);
         } catch (PolicyViolationException e) {
@@ -178,6 +150,40 @@ public class PasswordPolicyValidationHandler extends AbstractEventHandler implem
         }
     }
 
+    /**
+     * Get a new policy registry for the given password policy config. The loaded policy classes of a tenant are
+     * reused until the password policy connector properties or the policy classes change.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param pwMinLength  Minimum password length.
+     * @param pwMaxLength  Maximum password length.
+     * @param pwPattern    Password pattern regex.
+     * @param errorMsg     Error message on pattern violation.
+     * @return Policy registry with new policy instances.
+     * @throws IdentityEventException If the policy classes cannot be loaded or instantiated.
+     */
+    private PolicyRegistry getPolicyRegistry(String tenantDomain, String pwMinLength, String pwMaxLength,
+                                             String pwPattern, String errorMsg) throws IdentityEventException {
+
+        List<String> policyConfig = Arrays.asList(
+                configs.getModuleProperties().getProperty(PasswordPolicyConstants.PW_POLICY_LENGTH_CLASS),
+                configs.getModuleProperties().getProperty(PasswordPolicyConstants.PW_POLICY_NAME_CLASS),
+                configs.getModuleProperties().getProperty(PasswordPolicyConstants.PW_POLICY_PATTERN_CLASS),
+                pwMinLength, pwMaxLength, pwPattern, errorMsg);
+
+        TenantPolicyConfig tenantPolicyConfig = tenantDomain == null ? null : policyConfigCache.get(tenantDomain);
+        if (tenantPolicyConfig == null || !tenantPolicyConfig.policyConfig.equals(policyConfig)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Loading the password policy classes of the tenant: " + tenantDomain);
+            }
+            tenantPolicyConfig = new TenantPolicyConfig(policyConfig);
+            if (tenantDomain != null) {
+                policyConfigCache.put(tenantDomain, tenantPolicyConfig);
+            }
+        }
+        return tenantPolicyConfig.createPolicyRegistry();
+    }
+
     @Override
     public String getName() {
 
@@ -240,6 +246,7 @@ public class PasswordPolicyValidationHandler extends AbstractEventHandler implem
     public void init(InitConfig configuration) throws IdentityRuntimeException {
 
         super.init(configuration);
+        policyConfigCache.clear();
     }
 
     public String[] getPropertyNames() {
@@ -277,4 +284,77 @@ public class PasswordPolicyValidationHandler extends AbstractEventHandler implem
 
         return null;
     }
+
+    /**
+     * Immutable password policy config of a tenant, with the policy classes loaded.
+     */
+    private static final class TenantPolicyConfig {
+
+        private final List<String> policyConfig;
+        private final Class<? extends DefaultPasswordLengthPolicy> lengthPolicyClass;
+        private final Class<? extends DefaultPasswordNamePolicy> namePolicyClass;
+        private final Class<? extends DefaultPasswordPatternPolicy> patternPolicyClass;
+        private final Map<String, String> lengthPolicyParams;
+        private final Map<String, String> patternPolicyParams;
+
+        private TenantPolicyConfig(List<String> policyConfig) throws IdentityEventException {
+
+            this.policyConfig = policyConfig;
+            try {
+                lengthPolicyClass = loadPolicyClass(policyConfig.get(0), DefaultPasswordLengthPolicy.class);
+                namePolicyClass = loadPolicyClass(policyConfig.get(1), DefaultPasswordNamePolicy.class);
+                patternPolicyClass = loadPolicyClass(policyConfig.get(2), DefaultPasswordPatternPolicy.class);
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw Utils.handleEventException(
+                        PasswordPolicyConstants.ErrorMessages.ERROR_CODE_LOADING_PASSWORD_POLICY_CLASSES, null, e);
+            }
+            Map<String, String> lengthParams = new HashMap<>();
+            lengthParams.put("min.length", policyConfig.get(3));
+            lengthParams.put("max.length", policyConfig.get(4));
+            lengthPolicyParams = Collections.unmodifiableMap(lengthParams);
+            Map<String, String> patternParams = new HashMap<>();
+            patternParams.put("pattern", policyConfig.get(5));
+            patternParams.put("errorMsg", policyConfig.get(6));
+            patternPolicyParams = Collections.unmodifiableMap(patternParams);
+        }
+
+        /**
+         * Create a policy registry with new instances of the policies, as a policy keeps the state of a validation.
+         *
+         * @return Policy registry.
+         * @throws IdentityEventException If a policy class cannot be instantiated.
+         */
+        private PolicyRegistry createPolicyRegistry() throws IdentityEventException {
+
+            PolicyRegistry policyRegistry = new PolicyRegistry();
+            try {
+                if (lengthPolicyClass != null) {
+                    DefaultPasswordLengthPolicy defaultPasswordLengthPolicy = lengthPolicyClass.newInstance();
+                    defaultPasswordLengthPolicy.init(new HashMap<>(lengthPolicyParams));
+                    policyRegistry.addPolicy(defaultPasswordLengthPolicy);
+                }
+                if (namePolicyClass != null) {
+                    policyRegistry.addPolicy(namePolicyClass.newInstance());
+                }
+                if (patternPolicyClass != null) {
+                    DefaultPasswordPatternPolicy defaultPasswordPatternPolicy = patternPolicyClass.newInstance();
+                    defaultPasswordPatternPolicy.init(new HashMap<>(patternPolicyParams));
+                    policyRegistry.addPolicy(defaultPasswordPatternPolicy);
+                }
+            } catch (Exception e) {
+                throw Utils.handleEventException(
+                        PasswordPolicyConstants.ErrorMessages.ERROR_CODE_LOADING_PASSWORD_POLICY_CLASSES, null, e);
+            }
+            return policyRegistry;
+        }
+
+        private static <T> Class<? extends T> loadPolicyClass(String className, Class<T> policyType)
+                throws ClassNotFoundException {
+
+            if (StringUtils.isBlank(className)) {
+                return null;
+            }
+            return Class.forName(className).asSubclass(policyType);
+        }
+    }
 }
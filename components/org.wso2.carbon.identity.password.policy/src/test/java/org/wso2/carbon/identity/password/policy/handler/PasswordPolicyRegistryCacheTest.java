@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.password.policy.handler;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.bean.ModuleConfiguration;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.governance.IdentityGovernanceService;
+import org.wso2.carbon.identity.mgt.policy.password.DefaultPasswordLengthPolicy;
+import org.wso2.carbon.identity.mgt.policy.password.DefaultPasswordNamePolicy;
+import org.wso2.carbon.identity.mgt.policy.password.DefaultPasswordPatternPolicy;
+import org.wso2.carbon.identity.password.policy.constants.PasswordPolicyConstants;
+import org.wso2.carbon.identity.password.policy.internal.IdentityPasswordPolicyServiceDataHolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for the caching of the password policy configs of the tenants in the password policy validation handler.
+ */
+public class PasswordPolicyRegistryCacheTest {
+
+    private static final String SUPER_TENANT_DOMAIN = "carbon.super";
+    private static final String TENANT_DOMAIN = "wso2.com";
+    private static final String USERNAME = "alex";
+    private static final String VALID_PASSWORD = "Passw0rd";
+    private static final String LONG_PASSWORD = "LongPassw0rd123";
+    private static final String PATTERN_VIOLATING_PASSWORD = "passw0rd";
+    private static final String ERROR_MESSAGE = "Password pattern policy violated.";
+    private static final String TENANT_ERROR_MESSAGE = "Password should contain an upper case letter.";
+    private static final String PASSWORD_PATTERN = "^((?=.*\\d)(?=.*[a-z])(?=.*[A-Z])).{0,100}$";
+    private static final int VALIDATION_COUNT = 10000;
+
+    private static final AtomicInteger lengthPolicyCount = new AtomicInteger();
+    private static final AtomicInteger namePolicyCount = new AtomicInteger();
+    private static final AtomicInteger patternPolicyCount = new AtomicInteger();
+
+    private final Map<String, Map<String, String>> tenantConfigs = new ConcurrentHashMap<>();
+    private PasswordPolicyValidationHandler passwordPolicyValidationHandler;
+    private IdentityGovernanceService previousGovernanceService;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        lengthPolicyCount.set(0);
+        namePolicyCount.set(0);
+        patternPolicyCount.set(0);
+        tenantConfigs.put(SUPER_TENANT_DOMAIN, policyConfig("12"));
+        tenantConfigs.put(TENANT_DOMAIN, policyConfig("12"));
+
+        IdentityGovernanceService identityGovernanceService = mock(IdentityGovernanceService.class);
+        when(identityGovernanceService.getConfiguration(any(String[].class), anyString())).thenAnswer(invocation -> {
+            Map<String, String> tenantConfig = tenantConfigs.get((String) invocation.getArgument(1));
+            Property[] properties = new Property[tenantConfig.size()];
+            int index = 0;
+            for (Map.Entry<String, String> entry : tenantConfig.entrySet()) {
+                Property property = new Property();
+                property.setName(entry.getKey());
+                property.setValue(entry.getValue());
+                properties[index++] = property;
+            }
+            return properties;
+        });
+        IdentityPasswordPolicyServiceDataHolder dataHolder = IdentityPasswordPolicyServiceDataHolder.getInstance();
+        previousGovernanceService = dataHolder.getIdentityGovernanceService();
+        dataHolder.setIdentityGovernanceService(identityGovernanceService);
+
+        Properties moduleProperties = new Properties();
+        moduleProperties.setProperty(PasswordPolicyConstants.PW_POLICY_LENGTH_CLASS,
+                CountingLengthPolicy.class.getName());
+        moduleProperties.setProperty(PasswordPolicyConstants.PW_POLICY_NAME_CLASS, CountingNamePolicy.class.getName());
+        moduleProperties.setProperty(PasswordPolicyConstants.PW_POLICY_PATTERN_CLASS,
+                CountingPatternPolicy.class.getName());
+        passwordPolicyValidationHandler = new PasswordPolicyValidationHandler();
+        passwordPolicyValidationHandler.init(new ModuleConfiguration(moduleProperties, new ArrayList<>()));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        IdentityPasswordPolicyServiceDataHolder.getInstance().setIdentityGovernanceService(previousGovernanceService);
+    }
+
+    @Test
+    public void testConcurrentValidationsDoNotSharePolicies() throws Exception {
+
+        tenantConfigs.put(TENANT_DOMAIN, policyConfig("12", TENANT_ERROR_MESSAGE));
+        ExecutorService validationExecutor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> validations = new ArrayList<>();
+            for (int i = 0; i < VALIDATION_COUNT; i++) {
+                String tenantDomain = i % 2 == 0 ? SUPER_TENANT_DOMAIN : TENANT_DOMAIN;
+                String password = i % 3 == 0 ? PATTERN_VIOLATING_PASSWORD : VALID_PASSWORD;
+                validations.add(validationExecutor.submit(() -> validate(tenantDomain, password)));
+            }
+            for (int i = 0; i < VALIDATION_COUNT; i++) {
+                String expectedError = i % 3 != 0 ? null : i % 2 == 0 ? ERROR_MESSAGE : TENANT_ERROR_MESSAGE;
+                assertEquals(validations.get(i).get(1, TimeUnit.MINUTES), expectedError);
+            }
+        } finally {
+            validationExecutor.shutdownNow();
+        }
+
+        // Each validation gets its own policies, as a policy keeps the state of a validation.
+        assertEquals(lengthPolicyCount.get(), VALIDATION_COUNT);
+        assertEquals(namePolicyCount.get(), VALIDATION_COUNT);
+        assertEquals(patternPolicyCount.get(), VALIDATION_COUNT);
+    }
+
+    @Test
+    public void testConfigChangeIsAppliedImmediately() throws Exception {
+
+        assertPolicyViolation(SUPER_TENANT_DOMAIN, LONG_PASSWORD);
+        assertPolicyViolation(TENANT_DOMAIN, LONG_PASSWORD);
+
+        tenantConfigs.put(TENANT_DOMAIN, policyConfig("20"));
+        passwordPolicyValidationHandler.handleEvent(passwordUpdateEvent(TENANT_DOMAIN, LONG_PASSWORD));
+        // The config of the other tenant is unchanged.
+        assertPolicyViolation(SUPER_TENANT_DOMAIN, LONG_PASSWORD);
+
+        tenantConfigs.put(TENANT_DOMAIN, policyConfig("12", TENANT_ERROR_MESSAGE));
+        assertPolicyViolation(TENANT_DOMAIN, LONG_PASSWORD);
+        assertEquals(validate(TENANT_DOMAIN, PATTERN_VIOLATING_PASSWORD), TENANT_ERROR_MESSAGE);
+    }
+
+    @Test
+    public void testDisabledPolicySkipsValidation() throws Exception {
+
+        Map<String, String> disabledConfig = policyConfig("12");
+        disabledConfig.put(PasswordPolicyConstants.PW_POLICY_ENABLE, "false");
+        tenantConfigs.put(TENANT_DOMAIN, disabledConfig);
+
+        passwordPolicyValidationHandler.handleEvent(passwordUpdateEvent(TENANT_DOMAIN, LONG_PASSWORD));
+        assertEquals(lengthPolicyCount.get(), 0);
+    }
+
+    private String validate(String tenantDomain, String password) {
+
+        try {
+            passwordPolicyValidationHandler.handleEvent(passwordUpdateEvent(tenantDomain, password));
+            return null;
+        } catch (IdentityEventException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void assertPolicyViolation(String tenantDomain, String password) {
+
+        try {
+            passwordPolicyValidationHandler.handleEvent(passwordUpdateEvent(tenantDomain, password));
+            fail("Password policy violation is expected for the tenant: " + tenantDomain);
+        } catch (IdentityEventException e) {
+            // Expected.
+        }
+    }
+
+    private static Map<String, String> policyConfig(String maxLength) {
+
+        return policyConfig(maxLength, ERROR_MESSAGE);
+    }
+
+    private static Map<String, String> policyConfig(String maxLength, String errorMessage) {
+
+        Map<String, String> config = new HashMap<>();
+        config.put(PasswordPolicyConstants.PW_POLICY_ENABLE, "true");
+        config.put(PasswordPolicyConstants.PW_POLICY_MIN_LENGTH, "6");
+        config.put(PasswordPolicyConstants.PW_POLICY_MAX_LENGTH, maxLength);
+        config.put(PasswordPolicyConstants.PW_POLICY_PATTERN, PASSWORD_PATTERN);
+        config.put(PasswordPolicyConstants.PW_POLICY_ERROR_MSG, errorMessage);
+        return config;
+    }
+
+    private static Event passwordUpdateEvent(String tenantDomain, String password) {
+
+        Map<String, Object> eventProperties = new HashMap<>();
+        eventProperties.put(IdentityEventConstants.EventProperty.USER_NAME, USERNAME);
+        eventProperties.put(IdentityEventConstants.EventProperty.TENANT_DOMAIN, tenantDomain);
+        eventProperties.put(IdentityEventConstants.EventProperty.CREDENTIAL, password);
+        return new Event(IdentityEventConstants.Event.PRE_UPDATE_CREDENTIAL_BY_ADMIN, eventProperties);
+    }
+
+    /**
+     * Password length policy which counts its instances.
+     */
+    public static class CountingLengthPolicy extends DefaultPasswordLengthPolicy {
+
+        public CountingLengthPolicy() {
+
+            lengthPolicyCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Password name policy which counts its instances.
+     */
+    public static class CountingNamePolicy extends DefaultPasswordNamePolicy {
+
+        public CountingNamePolicy() {
+
+            namePolicyCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Password pattern policy which counts its instances.
+     */
+    public static class CountingPatternPolicy extends DefaultPasswordPatternPolicy {
+
+        public CountingPatternPolicy() {
+
+            patternPolicyCount.incrementAndGet();
+        }
+    }
+}
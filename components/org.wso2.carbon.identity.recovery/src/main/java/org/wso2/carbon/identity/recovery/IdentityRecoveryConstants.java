@@ -193,6 +193,17 @@ public class IdentityRecoveryConstants {
     // Recovery code given at the username and password recovery initiation.
     public static final int RECOVERY_CODE_DEFAULT_EXPIRY_TIME = 1;
     public static final int RESEND_CODE_DEFAULT_EXPIRY_TIME = 1;
+    // Time a recovery code lookup is served from the code lookup cache.
+    public static final int RECOVERY_CODE_LOOKUP_CACHE_DEFAULT_TIME_TO_LIVE = 5;
+    // Defaults of the expired recovery data purge.
+    public static final int RECOVERY_DATA_PURGE_DEFAULT_INTERVAL = 60;
+    public static final int RECOVERY_DATA_PURGE_DEFAULT_BATCH_SIZE = 1000;
+    public static final int RECOVERY_DATA_PURGE_DEFAULT_GRACE_PERIOD = 60;
+    public static final int RECOVERY_DATA_PURGE_DEFAULT_TENANT_RANGE_COUNT = 8;
+    public static final int RECOVERY_DATA_PURGE_LEASE_TIME = 5;
+    // Defaults of the concurrent user store search of the account recovery.
+    public static final int USER_STORE_FAN_OUT_DEFAULT_POOL_SIZE = 8;
+    public static final int USER_STORE_FAN_OUT_DEFAULT_QUEUE_CAPACITY = 100;
 
     public static final String RECOVERY_QUESTION_PASSWORD_SKIP_ON_INSUFFICIENT_ANSWERS =
             "Recovery.Question.Password.SkipOnInsufficientAnswers";
@@ -605,6 +616,17 @@ public class IdentityRecoveryConstants {
         public static final String PASSWORD_RECOVERY_SMS_OTP_REGEX = "Recovery.Notification.Password.smsOtp.Regex";
         public static final String RESEND_CODE_EXPIRY_TIME = "Recovery.Notification.ExpiryTime.ResendCode";
         public static final String RECOVERY_CODE_EXPIRY_TIME = "Recovery.Notification.ExpiryTime.RecoveryCode";
+        public static final String RECOVERY_CODE_LOOKUP_CACHE_ENABLE = "Recovery.CodeLookupCache.Enable";
+        public static final String RECOVERY_CODE_LOOKUP_CACHE_TIME_TO_LIVE =
+                "Recovery.CodeLookupCache.TimeToLiveInSeconds";
+        public static final String RECOVERY_DATA_PURGE_ENABLE = "Recovery.DataPurge.Enable";
+        public static final String RECOVERY_DATA_PURGE_INTERVAL = "Recovery.DataPurge.IntervalInMinutes";
+        public static final String RECOVERY_DATA_PURGE_BATCH_SIZE = "Recovery.DataPurge.BatchSize";
+        public static final String RECOVERY_DATA_PURGE_GRACE_PERIOD = "Recovery.DataPurge.GracePeriodInMinutes";
+        public static final String RECOVERY_DATA_PURGE_TENANT_RANGE_COUNT = "Recovery.DataPurge.TenantRangeCount";
+        public static final String USER_STORE_FAN_OUT_ENABLE = "Recovery.UserStoreFanOut.Enable";
+        public static final String USER_STORE_FAN_OUT_POOL_SIZE = "Recovery.UserStoreFanOut.PoolSize";
+        public static final String USER_STORE_FAN_OUT_QUEUE_CAPACITY = "Recovery.UserStoreFanOut.QueueCapacity";
         public static final String ENABLE_ACCOUNT_LOCK_FOR_VERIFIED_PREFERRED_CHANNEL =
                 "SelfRegistration.EnableAccountLockForVerifiedPreferredChannel";
         public static final String PASSWORD_RECOVERY_SEND_OTP_IN_EMAIL = "Recovery.Notification.Password.OTP.SendOTPInEmail";
@@ -855,6 +877,41 @@ public class IdentityRecoveryConstants {
 
         public static final String INVALIDATE_BY_RECOVERY_FLOW_ID = "DELETE FROM IDN_RECOVERY_FLOW_DATA WHERE " +
                 "RECOVERY_FLOW_ID = ?";
+
+        public static final String LIST_EXPIRY_CANDIDATE_GROUPS = "SELECT DISTINCT TENANT_ID, SCENARIO, STEP FROM " +
+                "IDN_RECOVERY_DATA WHERE TIME_CREATED < ?";
+
+        private static final String EXPIRED_RECOVERY_DATA_CONDITION = "TENANT_ID = ? AND SCENARIO = ? AND " +
+                "STEP = ? AND TIME_CREATED < ?";
+
+        public static final String PURGE_EXPIRED_RECOVERY_DATA_H2 = "DELETE FROM IDN_RECOVERY_DATA WHERE " +
+                EXPIRED_RECOVERY_DATA_CONDITION + " FETCH FIRST ? ROWS ONLY";
+
+        public static final String PURGE_EXPIRED_RECOVERY_DATA_MYSQL = "DELETE FROM IDN_RECOVERY_DATA WHERE " +
+                EXPIRED_RECOVERY_DATA_CONDITION + " LIMIT ?";
+
+        public static final String PURGE_EXPIRED_RECOVERY_DATA_POSTGRESQL = "DELETE FROM IDN_RECOVERY_DATA WHERE " +
+                "CODE IN (SELECT CODE FROM IDN_RECOVERY_DATA WHERE " + EXPIRED_RECOVERY_DATA_CONDITION + " LIMIT ?)";
+
+        public static final String PURGE_EXPIRED_RECOVERY_DATA_MSSQL = "DELETE TOP (?) FROM IDN_RECOVERY_DATA " +
+                "WHERE " + EXPIRED_RECOVERY_DATA_CONDITION;
+
+        public static final String PURGE_EXPIRED_RECOVERY_DATA_ORACLE = "DELETE FROM IDN_RECOVERY_DATA WHERE " +
+                EXPIRED_RECOVERY_DATA_CONDITION + " AND ROWNUM <= ?";
+
+        public static final String LIST_EXPIRED_RECOVERY_CODES = "SELECT CODE FROM IDN_RECOVERY_DATA WHERE " +
+                EXPIRED_RECOVERY_DATA_CONDITION;
+
+        public static final String DELETE_RECOVERY_DATA_BY_CODE = "DELETE FROM IDN_RECOVERY_DATA WHERE CODE = ?";
+
+        public static final String RENEW_RECOVERY_DATA_PURGE_LEASE = "UPDATE IDN_RECOVERY_PURGE_LEASE SET " +
+                "NODE_ID = ?, LEASE_EXPIRY = ? WHERE RANGE_ID = ? AND (NODE_ID = ? OR LEASE_EXPIRY < ?)";
+
+        public static final String ACQUIRE_RECOVERY_DATA_PURGE_LEASE = "INSERT INTO IDN_RECOVERY_PURGE_LEASE " +
+                "(RANGE_ID, NODE_ID, LEASE_EXPIRY) VALUES (?, ?, ?)";
+
+        public static final String RELEASE_RECOVERY_DATA_PURGE_LEASE = "DELETE FROM IDN_RECOVERY_PURGE_LEASE WHERE " +
+                "RANGE_ID = ? AND NODE_ID = ?";
     }
 
     public static class Questions {
@@ -30,6 +30,7 @@ import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.governance.IdentityMgtConstants;
+import org.wso2.carbon.identity.governance.SecureRandomProvider;
 import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
@@ -42,7 +43,6 @@ import org.wso2.carbon.identity.recovery.util.Utils;
 import org.wso2.carbon.user.core.UserStoreException;
 import org.wso2.carbon.user.core.UserStoreManager;
 
-import java.security.SecureRandom;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -50,6 +50,8 @@ import java.util.UUID;
 public class AdminForcedPasswordResetHandler extends UserEmailVerificationHandler {
 
     private static final Log log = LogFactory.getLog(AdminForcedPasswordResetHandler.class);
+    private static final String OTP_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int OTP_LENGTH = 6;
 
     @Override
     public void handleEvent(Event event) throws IdentityEventException {
@@ -391,12 +393,6 @@ public class AdminForcedPasswordResetHandler extends UserEmailVerificationHandle
     }
 
     private String generateOTPValue() {
-        char[] chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
-        SecureRandom rnd = new SecureRandom();
-        StringBuilder sb = new StringBuilder("");
-        for (int i = 0; i < 6; i++) {
-            sb.append(chars[rnd.nextInt(chars.length)]);
-        }
-        return sb.toString();
+        return SecureRandomProvider.generateRandomString(OTP_CHARACTERS, OTP_LENGTH);
     }
 }
@@ -23,6 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.application.authentication.framework.context.AuthenticationContext;
 import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
 import org.wso2.carbon.identity.core.bean.context.MessageContext;
 import org.wso2.carbon.identity.core.handler.InitConfig;
@@ -44,7 +45,9 @@ import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This event handler is used to handle events related to user meta data updates.
@@ -54,6 +57,16 @@ public class IdentityUserMetadataMgtHandler extends AbstractEventHandler {
     private static final Log log = LogFactory.getLog(IdentityUserMetadataMgtHandler.class);
     private static final String ENABLE_IDENTITY_USER_METADATA_MGT_HANDLER = "identityUserMetadataMgtHandler.enable";
     private static final String PRE_SET_USER_CLAIM_VALUES = "PreSetUserClaimValues";
+    private static final String ENABLE_LAST_LOGIN_TIME_WRITE_BEHIND =
+            "identityUserMetadataMgtHandler.lastLoginTime.writeBehind.enable";
+    private static final String LAST_LOGIN_TIME_MAX_STALENESS =
+            "identityUserMetadataMgtHandler.lastLoginTime.writeBehind.maxStalenessInSeconds";
+    private static final String LAST_LOGIN_TIME_MAX_BUFFER_SIZE =
+            "identityUserMetadataMgtHandler.lastLoginTime.writeBehind.maxBufferSize";
+    private static final long DEFAULT_LAST_LOGIN_TIME_MAX_STALENESS_SECONDS = 60L;
+    private static final int DEFAULT_LAST_LOGIN_TIME_MAX_BUFFER_SIZE = 10000;
+
+    private volatile LastLoginTimeWriteBehindBuffer lastLoginTimeBuffer;
 
     @Override
     public void handleEvent(Event event) throws IdentityEventException {
@@ -106,6 +119,14 @@ public class IdentityUserMetadataMgtHandler extends AbstractEventHandler {
                 return;
             }
         }
+        LastLoginTimeWriteBehindBuffer buffer = lastLoginTimeBuffer;
+        if (buffer != null && StringUtils.isNotBlank(authenticatedUser.getUserStoreDomain())) {
+            // The last login time is written by the buffer within the configured maximum staleness.
+            buffer.add(new LastLoginTimeWriteBehindBuffer.BufferedUser(authenticatedUser.getTenantDomain(),
+                    authenticatedUser.getUserStoreDomain(), authenticatedUser.getUserName()),
+                    System.currentTimeMillis());
+            return;
+        }
         try {
             UserStoreManager userStoreManager = getUserStoreManager(authenticatedUser);
             if (userStoreManager == null) {
@@ -221,6 +242,96 @@ public class IdentityUserMetadataMgtHandler extends AbstractEventHandler {
     public void init(InitConfig configuration) throws IdentityRuntimeException {
 
         super.init(configuration);
+        if (lastLoginTimeBuffer == null && Boolean.parseBoolean(configs.getModuleProperties().getProperty(
+                ENABLE_LAST_LOGIN_TIME_WRITE_BEHIND))) {
+            long maxStalenessSeconds = parsePositiveLong(configs.getModuleProperties().getProperty(
+                    LAST_LOGIN_TIME_MAX_STALENESS), DEFAULT_LAST_LOGIN_TIME_MAX_STALENESS_SECONDS);
+            int maxBufferSize = (int) parsePositiveLong(configs.getModuleProperties().getProperty(
+                    LAST_LOGIN_TIME_MAX_BUFFER_SIZE), DEFAULT_LAST_LOGIN_TIME_MAX_BUFFER_SIZE);
+            LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(this::writeLastLoginTimes,
+                    TimeUnit.SECONDS.toMillis(maxStalenessSeconds), maxBufferSize);
+            buffer.start();
+            lastLoginTimeBuffer = buffer;
+        }
+    }
+
+    /**
+     * Write the buffered last login times, if the write-behind buffer is enabled, and stop the buffer.
+     */
+    public void shutdown() {
+
+        LastLoginTimeWriteBehindBuffer buffer = lastLoginTimeBuffer;
+        lastLoginTimeBuffer = null;
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    /**
+     * Persist the buffered last login times of the users of a user store. Each user is removed from the batch once
+     * its last login time is persisted. A user whose last login time could not be persisted is left in the batch, so
+     * that the failure does not stop the writes of the other users.
+     *
+     * @param tenantDomain    Tenant domain of the users.
+     * @param userStoreDomain User store domain of the users.
+     * @param lastLoginTimes  Buffered last login times, by user.
+     * @throws Exception Error while loading the user store of the users.
+     */
+    private void writeLastLoginTimes(String tenantDomain, String userStoreDomain,
+                                     Map<LastLoginTimeWriteBehindBuffer.BufferedUser, Long> lastLoginTimes)
+            throws Exception {
+
+        AuthenticatedUser userStoreUser = new AuthenticatedUser();
+        userStoreUser.setUserStoreDomain(userStoreDomain);
+        userStoreUser.setTenantDomain(tenantDomain);
+        try {
+            FrameworkUtils.startTenantFlow(tenantDomain);
+            UserStoreManager userStoreManager = getUserStoreManager(userStoreUser);
+            if (userStoreManager == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("User store manager is null for user store: " + userStoreDomain +
+                            " in tenant domain: " + tenantDomain + ". Skipped the buffered last login times.");
+                }
+                lastLoginTimes.clear();
+                return;
+            }
+            Iterator<Map.Entry<LastLoginTimeWriteBehindBuffer.BufferedUser, Long>> iterator =
+                    lastLoginTimes.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<LastLoginTimeWriteBehindBuffer.BufferedUser, Long> entry = iterator.next();
+                AuthenticatedUser authenticatedUser = new AuthenticatedUser();
+                authenticatedUser.setUserName(entry.getKey().getUsername());
+                authenticatedUser.setUserStoreDomain(userStoreDomain);
+                authenticatedUser.setTenantDomain(tenantDomain);
+                Map<String, String> userClaims = new HashMap<>();
+                userClaims.put(IdentityMgtConstants.LAST_LOGIN_TIME, Long.toString(entry.getValue()));
+                try {
+                    setUserMetadataValues(userStoreManager, authenticatedUser, userClaims,
+                            IdentityEventConstants.EventName.AUTHENTICATION_SUCCESS.name());
+                    iterator.remove();
+                } catch (IdentityEventException e) {
+                    log.error("Error while writing the buffered last login time of user: " +
+                            entry.getKey().getUsername() + " in tenant domain: " + tenantDomain, e);
+                }
+            }
+        } finally {
+            FrameworkUtils.endTenantFlow();
+        }
+    }
+
+    private long parsePositiveLong(String value, long defaultValue) {
+
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            long parsedValue = Long.parseLong(value.trim());
+            return parsedValue > 0 ? parsedValue : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: " + value + " configured for the identity user metadata management handler. " +
+                    "Using the default value: " + defaultValue);
+            return defaultValue;
+        }
     }
 
     public String getFriendlyName() {
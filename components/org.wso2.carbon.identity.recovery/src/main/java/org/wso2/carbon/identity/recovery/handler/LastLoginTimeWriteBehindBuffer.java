@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.handler;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for the last login time of users. Repeated logins of the same user are coalesced to the
+ * latest timestamp and the buffered values are written in batches per user store, at least once within the
+ * configured maximum staleness, when the buffer reaches its maximum size and when the buffer is shut down. Values
+ * which could not be written are buffered again for the next flush, unless a newer value is already buffered.
+ */
+public class LastLoginTimeWriteBehindBuffer {
+
+    private static final Log log = LogFactory.getLog(LastLoginTimeWriteBehindBuffer.class);
+    private static final long MIN_FLUSH_INTERVAL_MILLIS = 1000L;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10L;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final Map<BufferedUser, Long> pendingLastLoginTimes = new ConcurrentHashMap<>();
+    // Number of failed writes of the users whose value is buffered again. Only accessed while flushing.
+    private final Map<BufferedUser, Integer> failedWriteAttempts = new HashMap<>();
+    private final LastLoginTimeWriter writer;
+    private final long maxStalenessMillis;
+    private final int maxBufferSize;
+    private final ScheduledExecutorService flushExecutor;
+    private volatile boolean flushScheduled;
+
+    /**
+     * Writer which persists the last login times of the users of a user store.
+     */
+    public interface LastLoginTimeWriter {
+
+        /**
+         * Persist the last login times of the users of a user store. The writer removes each user from the batch
+         * once its value is persisted and leaves the users whose value could not be persisted, so that only those
+         * values are buffered again and charged a failed write. If the writer fails, all the values left in the
+         * batch are buffered again.
+         *
+         * @param tenantDomain    Tenant domain of the users.
+         * @param userStoreDomain User store domain of the users.
+         * @param lastLoginTimes  Last login times in milliseconds, by user.
+         * @throws Exception If an error occurred while persisting the values.
+         */
+        void write(String tenantDomain, String userStoreDomain, Map<BufferedUser, Long> lastLoginTimes)
+                throws Exception;
+    }
+
+    /**
+     * Create a write-behind buffer.
+     *
+     * @param writer             Writer used to persist the buffered values.
+     * @param maxStalenessMillis Maximum time a buffered value can stay unwritten.
+     * @param maxBufferSize      Number of buffered users which triggers a flush before the staleness bound.
+     */
+    public LastLoginTimeWriteBehindBuffer(LastLoginTimeWriter writer, long maxStalenessMillis, int maxBufferSize) {
+
+        this.writer = writer;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.maxBufferSize = maxBufferSize;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LastLoginTimeWriteBehindBuffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start the periodic flush. Values are flushed at half of the maximum staleness, so that a value is written
+     * within the bound even if a flush cycle takes time.
+     */
+    public void start() {
+
+        long flushInterval = Math.max(MIN_FLUSH_INTERVAL_MILLIS, maxStalenessMillis / 2);
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval,
+                TimeUnit.MILLISECONDS);
+        if (log.isDebugEnabled()) {
+            log.debug("Started last login time write-behind buffer with flush interval: " + flushInterval +
+                    "ms and maximum buffer size: " + maxBufferSize);
+        }
+    }
+
+    /**
+     * Buffer the last login time of a user. The latest timestamp is kept if the user is already buffered.
+     *
+     * @param user          User.
+     * @param lastLoginTime Last login time in milliseconds.
+     */
+    public void add(BufferedUser user, long lastLoginTime) {
+
+        pendingLastLoginTimes.merge(user, lastLoginTime, Math::max);
+        if (pendingLastLoginTimes.size() >= maxBufferSize && !flushScheduled) {
+            flushScheduled = true;
+            try {
+                flushExecutor.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushScheduled = false;
+                log.debug("Last login time write-behind buffer is shut down. Skipped the size based flush.");
+            }
+        }
+    }
+
+    /**
+     * Get the buffered last login time of a user which is not yet written.
+     *
+     * @param user User.
+     * @return Buffered last login time, or null if there is no pending value for the user.
+     */
+    public Long getPendingLastLoginTime(BufferedUser user) {
+
+        return pendingLastLoginTimes.get(user);
+    }
+
+    /**
+     * Write all the buffered values, in a batch per user store.
+     *
+     * @return Number of users written.
+     */
+    public synchronized int flush() {
+
+        flushScheduled = false;
+        Map<UserStoreKey, Map<BufferedUser, Long>> batches = new HashMap<>();
+        for (BufferedUser user : pendingLastLoginTimes.keySet()) {
+            Long lastLoginTime = pendingLastLoginTimes.remove(user);
+            if (lastLoginTime != null) {
+                batches.computeIfAbsent(new UserStoreKey(user.getTenantDomain(), user.getUserStoreDomain()),
+                        key -> new HashMap<>()).put(user, lastLoginTime);
+            }
+        }
+        int writtenCount = 0;
+        for (Map.Entry<UserStoreKey, Map<BufferedUser, Long>> batch : batches.entrySet()) {
+            UserStoreKey userStoreKey = batch.getKey();
+            Map<BufferedUser, Long> lastLoginTimes = batch.getValue();
+            Set<BufferedUser> users = new HashSet<>(lastLoginTimes.keySet());
+            try {
+                writer.write(userStoreKey.tenantDomain, userStoreKey.userStoreDomain, lastLoginTimes);
+            } catch (Exception e) {
+                log.error("Error while writing the buffered last login times of user store: " +
+                        userStoreKey.userStoreDomain + " in tenant domain: " + userStoreKey.tenantDomain, e);
+            }
+            users.removeAll(lastLoginTimes.keySet());
+            failedWriteAttempts.keySet().removeAll(users);
+            writtenCount += users.size();
+            requeue(lastLoginTimes);
+        }
+        if (log.isDebugEnabled() && writtenCount > 0) {
+            log.debug("Flushed last login time of " + writtenCount + " users.");
+        }
+        return writtenCount;
+    }
+
+    /**
+     * Stop the periodic flush and write the remaining buffered values.
+     */
+    public void shutdown() {
+
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                flushExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flushExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pendingLastLoginTimes.isEmpty()) {
+            log.warn("Last login time of " + pendingLastLoginTimes.size() + " users could not be written before " +
+                    "the write-behind buffer was shut down.");
+        }
+    }
+
+    /**
+     * Buffer again the values which could not be written. A value written by a newer login is kept, and a value
+     * which failed to be written {@link #MAX_WRITE_ATTEMPTS} times is dropped.
+     *
+     * @param lastLoginTimes Values which could not be written, by user.
+     */
+    private void requeue(Map<BufferedUser, Long> lastLoginTimes) {
+
+        for (Map.Entry<BufferedUser, Long> entry : lastLoginTimes.entrySet()) {
+            BufferedUser user = entry.getKey();
+            int attempts = failedWriteAttempts.merge(user, 1, Integer::sum);
+            if (attempts >= MAX_WRITE_ATTEMPTS) {
+                failedWriteAttempts.remove(user);
+                log.error("Dropped the buffered last login time of user: " + user.getUsername() +
+                        " in tenant domain: " + user.getTenantDomain() + " after " + attempts + " failed writes.");
+                continue;
+            }
+            pendingLastLoginTimes.merge(user, entry.getValue(), Math::max);
+        }
+    }
+
+    private void flushQuietly() {
+
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the scheduled flush alive for the next cycle.
+            log.error("Error while flushing the last login time write-behind buffer.", e);
+        }
+    }
+
+    /**
+     * Key of the user store of a batch.
+     */
+    private static final class UserStoreKey {
+
+        private final String tenantDomain;
+        private final String userStoreDomain;
+
+        private UserStoreKey(String tenantDomain, String userStoreDomain) {
+
+            this.tenantDomain = tenantDomain;
+            this.userStoreDomain = userStoreDomain;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            UserStoreKey that = (UserStoreKey) o;
+            return Objects.equals(tenantDomain, that.tenantDomain) &&
+                    Objects.equals(userStoreDomain, that.userStoreDomain);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantDomain, userStoreDomain);
+        }
+    }
+
+    /**
+     * Key of a buffered user.
+     */
+    public static final class BufferedUser {
+
+        private final String tenantDomain;
+        private final String userStoreDomain;
+        private final String username;
+
+        public BufferedUser(String tenantDomain, String userStoreDomain, String username) {
+
+            this.tenantDomain = tenantDomain;
+            this.userStoreDomain = userStoreDomain;
+            this.username = username;
+        }
+
+        public String getTenantDomain() {
+
+            return tenantDomain;
+        }
+
+        public String getUserStoreDomain() {
+
+            return userStoreDomain;
+        }
+
+        public String getUsername() {
+
+            return username;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BufferedUser that = (BufferedUser) o;
+            return Objects.equals(tenantDomain, that.tenantDomain) &&
+                    Objects.equals(userStoreDomain, that.userStoreDomain) && Objects.equals(username, that.username);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantDomain, userStoreDomain, username);
+        }
+    }
+}
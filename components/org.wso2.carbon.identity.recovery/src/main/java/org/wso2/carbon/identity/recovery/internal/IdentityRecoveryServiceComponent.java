@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.recovery.internal;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
@@ -35,10 +36,12 @@ import org.wso2.carbon.identity.claim.metadata.mgt.ClaimMetadataManagementServic
 import org.wso2.carbon.identity.configuration.mgt.core.ConfigurationManager;
 import org.wso2.carbon.identity.consent.mgt.services.ConsentUtilityService;
 import org.wso2.carbon.identity.core.persistence.registry.RegistryResourceMgtService;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
 import org.wso2.carbon.identity.event.services.IdentityEventService;
 import org.wso2.carbon.identity.flow.execution.engine.graph.Executor;
 import org.wso2.carbon.identity.flow.execution.engine.listener.FlowExecutionListener;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
 import org.wso2.carbon.identity.governance.common.IdentityConnectorConfig;
 import org.wso2.carbon.identity.governance.service.IdentityDataStoreService;
@@ -47,6 +50,7 @@ import org.wso2.carbon.identity.handler.event.account.lock.service.AccountLockSe
 import org.wso2.carbon.identity.input.validation.mgt.services.InputValidationManagementService;
 import org.wso2.carbon.identity.input.validation.mgt.services.InputValidationManagementServiceImpl;
 import org.wso2.carbon.identity.multi.attribute.login.mgt.MultiAttributeLoginService;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
 import org.wso2.carbon.identity.recovery.confirmation.ResendConfirmationManager;
 import org.wso2.carbon.identity.recovery.connector.AdminForcedPasswordResetConfigImpl;
 import org.wso2.carbon.identity.recovery.connector.LiteRegistrationConfigImpl;
@@ -65,17 +69,21 @@ import org.wso2.carbon.identity.recovery.handler.MobileNumberVerificationHandler
 import org.wso2.carbon.identity.recovery.handler.TenantRegistrationVerificationHandler;
 import org.wso2.carbon.identity.recovery.handler.UserEmailVerificationHandler;
 import org.wso2.carbon.identity.recovery.handler.UserSelfRegistrationHandler;
+import org.wso2.carbon.identity.recovery.internal.service.impl.UserStoreFanOutExecutor;
 import org.wso2.carbon.identity.recovery.internal.service.impl.password.PasswordRecoveryManagerImpl;
 import org.wso2.carbon.identity.recovery.internal.service.impl.username.UsernameRecoveryManagerImpl;
+import org.wso2.carbon.identity.recovery.listener.RecoveryConfigIdPMgtListener;
 import org.wso2.carbon.identity.recovery.listener.SelfRegistrationCompletionListener;
 import org.wso2.carbon.identity.recovery.listener.TenantManagementListener;
 import org.wso2.carbon.identity.recovery.password.NotificationPasswordRecoveryManager;
 import org.wso2.carbon.identity.recovery.services.password.PasswordRecoveryManager;
 import org.wso2.carbon.identity.recovery.services.username.UsernameRecoveryManager;
 import org.wso2.carbon.identity.recovery.signup.UserSelfRegistrationManager;
+import org.wso2.carbon.identity.recovery.store.RecoveryDataPurgeService;
 import org.wso2.carbon.identity.recovery.username.NotificationUsernameRecoveryManager;
 import org.wso2.carbon.identity.user.functionality.mgt.UserFunctionalityManager;
 import org.wso2.carbon.identity.user.profile.mgt.association.federation.FederatedAssociationManager;
+import org.wso2.carbon.idp.mgt.listener.IdentityProviderMgtListener;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
 import org.wso2.carbon.user.core.service.RealmService;
 
@@ -87,6 +95,9 @@ public class IdentityRecoveryServiceComponent {
     private static final Log log = LogFactory.getLog(IdentityRecoveryServiceComponent.class);
 
     private IdentityRecoveryServiceDataHolder dataHolder = IdentityRecoveryServiceDataHolder.getInstance();
+    private IdentityUserMetadataMgtHandler identityUserMetadataMgtHandler;
+    private RecoveryDataPurgeService recoveryDataPurgeService;
+    private UserStoreFanOutExecutor userStoreFanOutExecutor;
 
     @Activate
     protected void activate(ComponentContext context) {
@@ -115,7 +126,8 @@ public class IdentityRecoveryServiceComponent {
                     , null);
             bundleContext.registerService(AbstractEventHandler.class.getName(),
                     new TenantRegistrationVerificationHandler(), null);
-            bundleContext.registerService(AbstractEventHandler.class.getName(), new IdentityUserMetadataMgtHandler(),
+            identityUserMetadataMgtHandler = new IdentityUserMetadataMgtHandler();
+            bundleContext.registerService(AbstractEventHandler.class.getName(), identityUserMetadataMgtHandler,
                     null);
             bundleContext.registerService(IdentityConnectorConfig.class.getName(), new RecoveryConfigImpl(), null);
             bundleContext.registerService(IdentityConnectorConfig.class.getName(), new SelfRegistrationConfigImpl(),
@@ -144,6 +156,11 @@ public class IdentityRecoveryServiceComponent {
                     new ConfirmationCodeValidationExecutor(), null);
             bundleContext.registerService(Executor.class.getName(),
                     new PasswordProvisioningExecutor(), null);
+            // Clears the recovery code expiry policy of a tenant when the governance configurations change.
+            bundleContext.registerService(IdentityProviderMgtListener.class, new RecoveryConfigIdPMgtListener(),
+                    null);
+            startRecoveryDataPurge();
+            initUserStoreFanOutExecutor();
         } catch (Exception e) {
             log.error("Error while activating identity governance component.", e);
         }
@@ -155,11 +172,66 @@ public class IdentityRecoveryServiceComponent {
     @Deactivate
     protected void deactivate(ComponentContext context) {
 
+        if (identityUserMetadataMgtHandler != null) {
+            // Write the last login times buffered by the handler before the bundle goes down.
+            identityUserMetadataMgtHandler.shutdown();
+        }
+        if (recoveryDataPurgeService != null) {
+            recoveryDataPurgeService.shutdown();
+        }
+        if (userStoreFanOutExecutor != null) {
+            dataHolder.setUserStoreFanOutExecutor(null);
+            userStoreFanOutExecutor.shutdown();
+        }
         if (log.isDebugEnabled()) {
             log.debug("Identity Management bundle is de-activated");
         }
     }
 
+    /**
+     * Start the periodic purge of the expired recovery data, if it is enabled.
+     */
+    private void startRecoveryDataPurge() {
+
+        if (!Boolean.parseBoolean(IdentityUtil.getProperty(
+                IdentityRecoveryConstants.ConnectorConfig.RECOVERY_DATA_PURGE_ENABLE))) {
+            return;
+        }
+        recoveryDataPurgeService = new RecoveryDataPurgeService(
+                ExecutorConfigUtil.getPositiveIntProperty(
+                        IdentityRecoveryConstants.ConnectorConfig.RECOVERY_DATA_PURGE_BATCH_SIZE,
+                        IdentityRecoveryConstants.RECOVERY_DATA_PURGE_DEFAULT_BATCH_SIZE),
+                ExecutorConfigUtil.getNonNegativeIntProperty(
+                        IdentityRecoveryConstants.ConnectorConfig.RECOVERY_DATA_PURGE_GRACE_PERIOD,
+                        IdentityRecoveryConstants.RECOVERY_DATA_PURGE_DEFAULT_GRACE_PERIOD),
+                ExecutorConfigUtil.getPositiveIntProperty(
+                        IdentityRecoveryConstants.ConnectorConfig.RECOVERY_DATA_PURGE_TENANT_RANGE_COUNT,
+                        IdentityRecoveryConstants.RECOVERY_DATA_PURGE_DEFAULT_TENANT_RANGE_COUNT));
+        recoveryDataPurgeService.start(ExecutorConfigUtil.getPositiveIntProperty(
+                IdentityRecoveryConstants.ConnectorConfig.RECOVERY_DATA_PURGE_INTERVAL,
+                IdentityRecoveryConstants.RECOVERY_DATA_PURGE_DEFAULT_INTERVAL));
+    }
+
+    /**
+     * Create the executor which searches the userstore domains concurrently at account recovery, unless it is
+     * disabled.
+     */
+    private void initUserStoreFanOutExecutor() {
+
+        String enabled = IdentityUtil.getProperty(IdentityRecoveryConstants.ConnectorConfig.USER_STORE_FAN_OUT_ENABLE);
+        if (StringUtils.isNotBlank(enabled) && !Boolean.parseBoolean(enabled.trim())) {
+            return;
+        }
+        userStoreFanOutExecutor = new UserStoreFanOutExecutor(
+                ExecutorConfigUtil.getPositiveIntProperty(
+                        IdentityRecoveryConstants.ConnectorConfig.USER_STORE_FAN_OUT_POOL_SIZE,
+                        IdentityRecoveryConstants.USER_STORE_FAN_OUT_DEFAULT_POOL_SIZE),
+                ExecutorConfigUtil.getPositiveIntProperty(
+                        IdentityRecoveryConstants.ConnectorConfig.USER_STORE_FAN_OUT_QUEUE_CAPACITY,
+                        IdentityRecoveryConstants.USER_STORE_FAN_OUT_DEFAULT_QUEUE_CAPACITY));
+        dataHolder.setUserStoreFanOutExecutor(userStoreFanOutExecutor);
+    }
+
     @Reference(
             name = "realm.service",
             service = org.wso2.carbon.user.core.service.RealmService.class,
@@ -32,6 +32,7 @@ import org.wso2.carbon.identity.governance.service.otp.OTPGenerator;
 import org.wso2.carbon.identity.handler.event.account.lock.service.AccountLockService;
 import org.wso2.carbon.identity.input.validation.mgt.services.InputValidationManagementService;
 import org.wso2.carbon.identity.multi.attribute.login.mgt.MultiAttributeLoginService;
+import org.wso2.carbon.identity.recovery.internal.service.impl.UserStoreFanOutExecutor;
 import org.wso2.carbon.identity.user.functionality.mgt.UserFunctionalityManager;
 import org.wso2.carbon.identity.user.profile.mgt.association.federation.FederatedAssociationManager;
 import org.wso2.carbon.idp.mgt.IdpManager;
@@ -62,6 +63,7 @@ public class IdentityRecoveryServiceDataHolder {
     private FederatedAssociationManager federatedAssociationManager;
     private IdentityDataStoreService identityDataStoreService;
     private ApplicationManagementService applicationManagementService;
+    private UserStoreFanOutExecutor userStoreFanOutExecutor;
     private static Map<Integer, UserOperationEventListener> userOperationEventListeners = new TreeMap<>();
     public static IdentityRecoveryServiceDataHolder getInstance() {
 
@@ -344,4 +346,14 @@ public class IdentityRecoveryServiceDataHolder {
 
         this.applicationManagementService = applicationManagementService;
     }
+
+    public UserStoreFanOutExecutor getUserStoreFanOutExecutor() {
+
+        return userStoreFanOutExecutor;
+    }
+
+    public void setUserStoreFanOutExecutor(UserStoreFanOutExecutor userStoreFanOutExecutor) {
+
+        this.userStoreFanOutExecutor = userStoreFanOutExecutor;
+    }
 }
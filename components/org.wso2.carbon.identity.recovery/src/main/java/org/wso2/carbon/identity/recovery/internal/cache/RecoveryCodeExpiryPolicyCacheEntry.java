@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.internal.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable expiry policy table of a tenant, which maps a recovery scenario, step and verification channel to the
+ * expiry time of the code in minutes. A policy with an additional mapping is created with
+ * {@link #withExpiryTime(String, int)}, so a cached table is never modified.
+ */
+public class RecoveryCodeExpiryPolicyCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = 2790151364120874106L;
+    private final Map<String, Integer> expiryTimes;
+
+    public RecoveryCodeExpiryPolicyCacheEntry() {
+
+        this.expiryTimes = Collections.emptyMap();
+    }
+
+    private RecoveryCodeExpiryPolicyCacheEntry(Map<String, Integer> expiryTimes) {
+
+        this.expiryTimes = Collections.unmodifiableMap(expiryTimes);
+    }
+
+    /**
+     * Get the expiry time of the given policy key.
+     *
+     * @param policyKey Key built from the recovery scenario, step and verification channel.
+     * @return Expiry time in minutes, or null if the policy key is not resolved yet.
+     */
+    public Integer getExpiryTime(String policyKey) {
+
+        return expiryTimes.get(policyKey);
+    }
+
+    /**
+     * Create a copy of the policy with the expiry time of the given policy key.
+     *
+     * @param policyKey           Key built from the recovery scenario, step and verification channel.
+     * @param expiryTimeInMinutes Expiry time in minutes.
+     * @return Expiry policy with the additional mapping.
+     */
+    public RecoveryCodeExpiryPolicyCacheEntry withExpiryTime(String policyKey, int expiryTimeInMinutes) {
+
+        Map<String, Integer> newExpiryTimes = new HashMap<>(expiryTimes);
+        newExpiryTimes.put(policyKey, expiryTimeInMinutes);
+        return new RecoveryCodeExpiryPolicyCacheEntry(newExpiryTimes);
+    }
+}
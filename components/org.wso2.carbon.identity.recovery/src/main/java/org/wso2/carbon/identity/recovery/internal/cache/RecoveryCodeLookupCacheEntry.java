@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.internal.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+/**
+ * Result of a recovery code lookup. An entry without a user name records that the code does not exist. The raw
+ * values of the recovery data row are kept, so that a new recovery data object is built for every cache hit.
+ */
+public class RecoveryCodeLookupCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = -5170946523802276418L;
+    private final String userName;
+    private final String tenantDomain;
+    private final String userStoreDomain;
+    private final String scenario;
+    private final String step;
+    private final long timeCreated;
+    private final String remainingSets;
+    private final String recoveryFlowId;
+    private final long cachedTime;
+
+    private RecoveryCodeLookupCacheEntry(String userName, String tenantDomain, String userStoreDomain,
+                                         String scenario, String step, long timeCreated, String remainingSets,
+                                         String recoveryFlowId) {
+
+        this.userName = userName;
+        this.tenantDomain = tenantDomain;
+        this.userStoreDomain = userStoreDomain;
+        this.scenario = scenario;
+        this.step = step;
+        this.timeCreated = timeCreated;
+        this.remainingSets = remainingSets;
+        this.recoveryFlowId = recoveryFlowId;
+        this.cachedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Create an entry for an existing recovery code.
+     *
+     * @param userName        User name.
+     * @param tenantDomain    Tenant domain of the user.
+     * @param userStoreDomain User store domain of the user.
+     * @param scenario        Recovery scenario.
+     * @param step            Recovery step.
+     * @param timeCreated     Created time of the code in milliseconds.
+     * @param remainingSets   Remaining sets of the recovery data.
+     * @param recoveryFlowId  Recovery flow id.
+     * @return Cache entry.
+     */
+    public static RecoveryCodeLookupCacheEntry found(String userName, String tenantDomain, String userStoreDomain,
+                                                     String scenario, String step, long timeCreated,
+                                                     String remainingSets, String recoveryFlowId) {
+
+        return new RecoveryCodeLookupCacheEntry(userName, tenantDomain, userStoreDomain, scenario, step,
+                timeCreated, remainingSets, recoveryFlowId);
+    }
+
+    /**
+     * Create an entry for a non-existing recovery code.
+     *
+     * @return Cache entry.
+     */
+    public static RecoveryCodeLookupCacheEntry notFound() {
+
+        return new RecoveryCodeLookupCacheEntry(null, null, null, null, null, 0, null, null);
+    }
+
+    public boolean isFound() {
+
+        return userName != null;
+    }
+
+    /**
+     * Check whether the entry is older than the given time to live.
+     *
+     * @param timeToLiveMillis Time to live in milliseconds.
+     * @return True if the entry should not be served anymore.
+     */
+    public boolean isStale(long timeToLiveMillis) {
+
+        return System.currentTimeMillis() - cachedTime > timeToLiveMillis;
+    }
+
+    public String getUserName() {
+
+        return userName;
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public String getUserStoreDomain() {
+
+        return userStoreDomain;
+    }
+
+    public String getScenario() {
+
+        return scenario;
+    }
+
+    public String getStep() {
+
+        return step;
+    }
+
+    public long getTimeCreated() {
+
+        return timeCreated;
+    }
+
+    public String getRemainingSets() {
+
+        return remainingSets;
+    }
+
+    public String getRecoveryFlowId() {
+
+        return recoveryFlowId;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.internal.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheKey;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Key for the RecoveryCodeLookupCache, contains the hash of the recovery code. The code itself is not kept in the key,
+ * since the keys of a distributed cache are visible to the other nodes of the cluster.
+ */
+public class RecoveryCodeLookupCacheKey extends CacheKey {
+
+    private static final long serialVersionUID = -3075284671900384513L;
+    private static final String HASHING_ALGORITHM = "SHA-256";
+    private final String codeHash;
+
+    public RecoveryCodeLookupCacheKey(String code) {
+
+        this.codeHash = hash(code);
+    }
+
+    public String getCodeHash() {
+
+        return codeHash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        RecoveryCodeLookupCacheKey that = (RecoveryCodeLookupCacheKey) o;
+
+        return codeHash.equals(that.codeHash);
+    }
+
+    @Override
+    public int hashCode() {
+
+        int result = super.hashCode();
+        result = 31 * result + codeHash.hashCode();
+        return result;
+    }
+
+    private static String hash(String code) {
+
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(HASHING_ALGORITHM);
+            return Base64.getEncoder().encodeToString(messageDigest.digest(code.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException("Error while hashing the recovery code.", e);
+        }
+    }
+}
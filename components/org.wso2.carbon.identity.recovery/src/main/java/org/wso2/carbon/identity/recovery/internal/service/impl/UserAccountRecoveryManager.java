@@ -70,6 +70,7 @@ import org.wso2.carbon.user.core.util.UserCoreUtil;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -435,11 +436,8 @@ public class UserAccountRecoveryManager {
                         abstractUserStoreManager);
             } else {
                 // If a userstore domain is not specified in the request, consider all userstores.
-                List<String> userStoreDomainNames = getDomainNames(tenantId);
-                for (String domain : userStoreDomainNames) {
-                    populateUserListFromClaimsForDomain(tenantId, claims, domain, resultedUserList,
-                            abstractUserStoreManager);
-                }
+                populateUserListFromClaimsForAllDomains(tenantId, claims, resultedUserList,
+                        abstractUserStoreManager);
             }
             // Return empty when no users are found.
             if (resultedUserList.isEmpty()) {
@@ -517,11 +515,8 @@ public class UserAccountRecoveryManager {
                         abstractUserStoreManager);
             } else {
                 // If a userstore domain is not specified in the request, consider all userstores.
-                List<String> userStoreDomainNames = getDomainNames(tenantId);
-                for (String domain : userStoreDomainNames) {
-                    populateUserListFromClaimsForDomain(tenantId, claims, domain, resultedUserList,
-                            abstractUserStoreManager);
-                }
+                populateUserListFromClaimsForAllDomains(tenantId, claims, resultedUserList,
+                        abstractUserStoreManager);
             }
             return resultedUserList;
         } catch (org.wso2.carbon.user.core.UserStoreException e) {
@@ -612,6 +607,64 @@ public class UserAccountRecoveryManager {
         }
     }
 
+    /**
+     * Get the users for the given claim set from all the userstore domains of the tenant and populate the user list.
+     * When a fan-out executor is available, the domains are searched concurrently and the users are added in the
+     * order of the domains.
+     *
+     * @param tenantId                 Tenant ID.
+     * @param claims                   List of UserClaims.
+     * @param userList                 List of users.
+     * @param abstractUserStoreManager Abstract user store manager.
+     * @throws IdentityRecoveryClientException Error if multiple users exist for the given claims set.
+     * @throws IdentityRecoveryServerException Error while getting the userstore domains.
+     * @throws UserStoreException Error while searching the users.
+     */
+    private void populateUserListFromClaimsForAllDomains(int tenantId, Map<String, String> claims,
+                                                         ArrayList<org.wso2.carbon.user.core.common.User> userList,
+                                                         AbstractUserStoreManager abstractUserStoreManager)
+            throws UserStoreException, IdentityRecoveryClientException, IdentityRecoveryServerException {
+
+        List<String> userStoreDomainNames = getDomainNames(tenantId);
+        UserStoreFanOutExecutor fanOutExecutor = IdentityRecoveryServiceDataHolder.getInstance()
+                .getUserStoreFanOutExecutor();
+        if (fanOutExecutor == null || userStoreDomainNames.size() < 2) {
+            for (String domain : userStoreDomainNames) {
+                populateUserListFromClaimsForDomain(tenantId, claims, domain, userList, abstractUserStoreManager);
+            }
+            return;
+        }
+
+        // Build the conditions in the caller thread, so that only the user store searches run concurrently.
+        RealmService realmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
+        ClaimManager claimManager = (ClaimManager) realmService.getTenantUserRealm(tenantId).getClaimManager();
+        Map<String, Condition> conditionsByDomain = new LinkedHashMap<>();
+        for (String domain : userStoreDomainNames) {
+            List<ExpressionCondition> expressionConditionList = getExpressionConditionList(claims, domain,
+                    claimManager);
+            if (!expressionConditionList.isEmpty()) {
+                conditionsByDomain.put(domain, getOperationalCondition(expressionConditionList));
+            }
+        }
+        if (conditionsByDomain.isEmpty()) {
+            return;
+        }
+        boolean nonUniqueUsernameEnabled = Boolean.parseBoolean(IdentityUtil.getProperty(
+                IdentityRecoveryConstants.ConnectorConfig.USERNAME_RECOVERY_NON_UNIQUE_USERNAME));
+        int limit = nonUniqueUsernameEnabled ? MAX_VALUE : 2;
+        userList.addAll(fanOutExecutor.search(new ArrayList<>(conditionsByDomain.keySet()),
+                domain -> abstractUserStoreManager.getUserListWithID(conditionsByDomain.get(domain), domain,
+                        UserCoreConstants.DEFAULT_PROFILE, limit, 1, null, null),
+                nonUniqueUsernameEnabled ? MAX_VALUE : 1));
+
+        // If multiple users are found for the given claim set and the config is not enabled, throw an exception.
+        if (userList.size() > 1 && !nonUniqueUsernameEnabled) {
+            log.warn("Multiple users matched for given claims set: " + claims.keySet());
+            throw Utils.handleClientException(
+                    IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_MULTIPLE_MATCHING_USERS, null);
+        }
+    }
+
     /**
      * Get the expression conditions for the claim set.
      *
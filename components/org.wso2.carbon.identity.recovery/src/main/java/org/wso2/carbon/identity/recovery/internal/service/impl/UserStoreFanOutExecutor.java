@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.internal.service.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.common.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches users in multiple user store domains concurrently. The searches run on a bounded pool in the tenant
+ * flow of the caller. When the pool is saturated or shut down, the search of a domain runs in the caller thread
+ * instead of waiting, so a request is never blocked by the searches of other requests. The results are merged in
+ * the order of the given domains, so the merged list does not depend on which user store responds first.
+ */
+public class UserStoreFanOutExecutor {
+
+    private static final Log log = LogFactory.getLog(UserStoreFanOutExecutor.class);
+    private static final long SHUTDOWN_WAIT_SECONDS = 10L;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Search of the users of one user store domain.
+     */
+    public interface DomainSearch {
+
+        /**
+         * Search the users of the given user store domain.
+         *
+         * @param domain User store domain.
+         * @return Matching users of the domain.
+         * @throws UserStoreException If an error occurred while searching the user store.
+         */
+        List<User> search(String domain) throws UserStoreException;
+    }
+
+    /**
+     * Create a user store fan-out executor.
+     *
+     * @param poolSize      Maximum number of concurrent user store searches.
+     * @param queueCapacity Maximum number of searches waiting for a pool thread.
+     */
+    public UserStoreFanOutExecutor(int poolSize, int queueCapacity) {
+
+        if (poolSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Pool size and queue capacity of the user store fan-out executor " +
+                    "should be positive.");
+        }
+        this.executor = ExecutorConfigUtil.createCallerRunsExecutor("UserStoreFanOutExecutor", poolSize, queueCapacity);
+    }
+
+    /**
+     * Search the given domains concurrently and merge the results in the order of the domains. The remaining
+     * searches are cancelled as soon as more than the given number of users are found, since the result is already
+     * known to be ambiguous.
+     *
+     * @param domains      User store domains to search.
+     * @param domainSearch Search of a single domain.
+     * @param maxUsers     Number of users after which the search is short-circuited.
+     * @return Merged users. The list has more than maxUsers users if the search was short-circuited.
+     * @throws UserStoreException If the search of a domain failed.
+     */
+    public List<User> search(List<String> domains, DomainSearch domainSearch, int maxUsers)
+            throws UserStoreException {
+
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        int tenantId = carbonContext.getTenantId();
+        String tenantDomain = carbonContext.getTenantDomain();
+
+        CompletionService<List<User>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<List<User>>> futures = new ArrayList<>(domains.size());
+        List<List<User>> resultsByDomain = new ArrayList<>(domains.size());
+        for (String domain : domains) {
+            futures.add(completionService.submit(() -> searchInTenantFlow(tenantId, tenantDomain, domain,
+                    domainSearch)));
+            resultsByDomain.add(null);
+        }
+
+        int foundUsers = 0;
+        try {
+            for (int completed = 0; completed < domains.size(); completed++) {
+                Future<List<User>> future = completionService.take();
+                List<User> users = getResult(future);
+                resultsByDomain.set(futures.indexOf(future), users);
+                foundUsers += users.size();
+                if (foundUsers > maxUsers) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Found " + foundUsers + " users after searching " + (completed + 1) + " of " +
+                                domains.size() + " user store domains. Cancelling the remaining searches.");
+                    }
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserStoreException("Interrupted while searching the user store domains.", e);
+        } finally {
+            for (Future<List<User>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        List<User> mergedUsers = new ArrayList<>(foundUsers);
+        for (List<User> users : resultsByDomain) {
+            if (users != null) {
+                mergedUsers.addAll(users);
+            }
+        }
+        return mergedUsers;
+    }
+
+    /**
+     * Stop the pool threads. Searches submitted afterwards run in the caller thread.
+     */
+    public void shutdown() {
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<User> searchInTenantFlow(int tenantId, String tenantDomain, String domain,
+                                          DomainSearch domainSearch) throws UserStoreException {
+
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(tenantId);
+            carbonContext.setTenantDomain(tenantDomain);
+            List<User> users = domainSearch.search(domain);
+            return users != null ? users : new ArrayList<>();
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private List<User> getResult(Future<List<User>> future) throws UserStoreException, InterruptedException {
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UserStoreException) {
+                throw (UserStoreException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new UserStoreException("Error while searching the user store domains.", cause);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.apache.commons.lang.NotImplementedException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
@@ -35,9 +36,16 @@ import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 import org.wso2.carbon.identity.recovery.RecoveryScenarios;
 import org.wso2.carbon.identity.recovery.RecoverySteps;
 import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeExpiryPolicyCache;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeExpiryPolicyCacheEntry;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeExpiryPolicyCacheKey;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeLookupCache;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeLookupCacheEntry;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeLookupCacheKey;
 import org.wso2.carbon.identity.recovery.model.UserRecoveryData;
 import org.wso2.carbon.identity.recovery.model.UserRecoveryFlowData;
 import org.wso2.carbon.identity.recovery.util.Utils;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -50,6 +58,7 @@ import java.util.TimeZone;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.wso2.carbon.identity.event.IdentityEventConstants.Event.POST_GET_USER_RECOVERY_DATA;
 import static org.wso2.carbon.identity.event.IdentityEventConstants.Event.PRE_GET_USER_RECOVERY_DATA;
@@ -70,6 +79,8 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
     private static UserRecoveryDataStore jdbcRecoveryDataStore = new JDBCRecoveryDataStore();
     private static final Log log = LogFactory.getLog(JDBCRecoveryDataStore.class);
     private static final String UTC = "UTC";
+    // Incremented on every removal of cached code lookups, to detect lookups loaded before a concurrent removal.
+    private final AtomicLong codeLookupGeneration = new AtomicLong();
 
     private JDBCRecoveryDataStore() {
 
@@ -100,6 +111,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt.setString(9, recoveryDataDO.getRecoveryFlowId());
             prepStmt.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookup(recoveryDataDO.getSecret(), recoveryDataDO.getUser().getTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(
@@ -141,6 +153,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt1.execute();
 
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookup(recoveryDataDO.getSecret(), recoveryDataDO.getUser().getTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(
@@ -178,6 +191,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt1.execute();
             prepStmt2.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookup(recoveryDataDO.getSecret(), recoveryDataDO.getUser().getTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(
@@ -311,36 +325,52 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
 
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = null;
 
         User user = null;
         UserRecoveryData userRecoveryData = null;
         Boolean isOperationSuccess = false;
         Enum description = ERROR_CODE_INVALID_CODE;
         try {
-            String sql = IdentityRecoveryConstants.SQLQueries.LOAD_RECOVERY_DATA_FROM_CODE;
-
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, code);
-
-            resultSet = prepStmt.executeQuery();
+            RecoveryCodeLookupCacheEntry codeLookup = getCachedCodeLookup(code);
+            if (codeLookup == null) {
+                long generation = codeLookupGeneration.get();
+                connection = IdentityDatabaseUtil.getDBConnection(false);
+                String sql = IdentityRecoveryConstants.SQLQueries.LOAD_RECOVERY_DATA_FROM_CODE;
+
+                prepStmt = connection.prepareStatement(sql);
+                prepStmt.setString(1, code);
+
+                resultSet = prepStmt.executeQuery();
+
+                if (resultSet.next()) {
+                    codeLookup = RecoveryCodeLookupCacheEntry.found(resultSet.getString("USER_NAME"),
+                            IdentityTenantUtil.getTenantDomain(resultSet.getInt("TENANT_ID")),
+                            resultSet.getString("USER_DOMAIN"), resultSet.getString("SCENARIO"),
+                            resultSet.getString("STEP"), resultSet.getTimestamp("TIME_CREATED",
+                                    Calendar.getInstance(TimeZone.getTimeZone(UTC))).getTime(),
+                            resultSet.getString("REMAINING_SETS"),
+                            resultSet.getString(IdentityRecoveryConstants.DBConstants.RECOVERY_FLOW_ID));
+                } else {
+                    codeLookup = RecoveryCodeLookupCacheEntry.notFound();
+                }
+                addCodeLookupToCache(code, codeLookup, generation);
+            }
 
-            if (resultSet.next()) {
+            if (codeLookup.isFound()) {
                 user = new User();
-                user.setUserName(resultSet.getString("USER_NAME"));
-                user.setTenantDomain(IdentityTenantUtil.getTenantDomain(resultSet.getInt("TENANT_ID")));
-                user.setUserStoreDomain(resultSet.getString("USER_DOMAIN"));
-
-                Enum recoveryScenario = RecoveryScenarios.valueOf(resultSet.getString("SCENARIO"));
-                Enum recoveryStep = RecoverySteps.valueOf(resultSet.getString("STEP"));
-                Timestamp timeCreated = resultSet.getTimestamp("TIME_CREATED",
-                        Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                String recoveryFlowId = resultSet.getString(IdentityRecoveryConstants.DBConstants.RECOVERY_FLOW_ID);
-
-                userRecoveryData = new UserRecoveryData(user, recoveryFlowId, code, recoveryScenario, recoveryStep,
-                        timeCreated);
-                if (StringUtils.isNotBlank(resultSet.getString("REMAINING_SETS"))) {
-                    userRecoveryData.setRemainingSetIds(resultSet.getString("REMAINING_SETS"));
+                user.setUserName(codeLookup.getUserName());
+                user.setTenantDomain(codeLookup.getTenantDomain());
+                user.setUserStoreDomain(codeLookup.getUserStoreDomain());
+
+                Enum recoveryScenario = RecoveryScenarios.valueOf(codeLookup.getScenario());
+                Enum recoveryStep = RecoverySteps.valueOf(codeLookup.getStep());
+                Timestamp timeCreated = new Timestamp(codeLookup.getTimeCreated());
+
+                userRecoveryData = new UserRecoveryData(user, codeLookup.getRecoveryFlowId(), code, recoveryScenario,
+                        recoveryStep, timeCreated);
+                if (StringUtils.isNotBlank(codeLookup.getRemainingSets())) {
+                    userRecoveryData.setRemainingSetIds(codeLookup.getRemainingSets());
                 }
                 long createdTimeStamp = timeCreated.getTime();
                 boolean isCodeExpired = isCodeExpired(user.getTenantDomain(), userRecoveryData.getRecoveryScenario(),
@@ -516,6 +546,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt.setString(1, code);
             prepStmt.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookup(code, getContextTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
@@ -789,6 +820,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt.setInt(3, IdentityTenantUtil.getTenantId(user.getTenantDomain()));
             prepStmt.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookups(user.getTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
@@ -819,6 +851,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt.setInt(5, IdentityTenantUtil.getTenantId(user.getTenantDomain()));
             prepStmt.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookups(user.getTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
@@ -842,6 +875,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt.execute();
 
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookups(getContextTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
@@ -867,6 +901,8 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt.setString(4, oldCode);
             prepStmt.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookup(oldCode, getContextTenantDomain());
+            clearCodeLookup(code, getContextTenantDomain());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_UNEXPECTED, null, e);
@@ -897,6 +933,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             prepStmt.setInt(1, tenantId);
             prepStmt.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            clearCodeLookups(IdentityTenantUtil.getTenantDomain(tenantId));
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw Utils.handleServerException(
@@ -922,6 +959,81 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
     private boolean isCodeExpired(String tenantDomain, Enum recoveryScenario, Enum recoveryStep, long createdTimestamp,
             String recoveryData) throws IdentityRecoveryServerException {
 
+        int notificationExpiryTimeInMinutes = getExpiryTimeInMinutes(tenantDomain, recoveryScenario, recoveryStep,
+                recoveryData);
+        long expiryTime = createdTimestamp + TimeUnit.MINUTES.toMillis(notificationExpiryTimeInMinutes);
+        return System.currentTimeMillis() > expiryTime;
+    }
+
+    /**
+     * Get the expiry time of a code from the expiry policy table of the tenant. The table maps the recovery
+     * scenario, step and verification channel to the expiry time, so the recovery configurations are read only
+     * when a combination is seen for the first time after the configurations of the tenant change.
+     *
+     * @param tenantDomain     Tenant domain.
+     * @param recoveryScenario Recovery scenario.
+     * @param recoveryStep     Recovery step.
+     * @param recoveryData     Additional data for validate the code.
+     * @return Expiry time of the code in minutes.
+     * @throws IdentityRecoveryServerException Error while reading the configs.
+     */
+    private int getExpiryTimeInMinutes(String tenantDomain, Enum recoveryScenario, Enum recoveryStep,
+                                       String recoveryData) throws IdentityRecoveryServerException {
+
+        String verificationChannel = getVerificationChannel(recoveryData);
+        if (StringUtils.isBlank(tenantDomain)) {
+            return resolveExpiryTimeInMinutes(tenantDomain, recoveryScenario, recoveryStep, verificationChannel);
+        }
+
+        String policyKey = recoveryScenario + ":" + recoveryStep + ":" + verificationChannel;
+        RecoveryCodeExpiryPolicyCache expiryPolicyCache = RecoveryCodeExpiryPolicyCache.getInstance();
+        RecoveryCodeExpiryPolicyCacheKey cacheKey = new RecoveryCodeExpiryPolicyCacheKey(tenantDomain);
+        RecoveryCodeExpiryPolicyCacheEntry expiryPolicy = expiryPolicyCache.getValueFromCache(cacheKey,
+                tenantDomain);
+        if (expiryPolicy == null) {
+            expiryPolicy = new RecoveryCodeExpiryPolicyCacheEntry();
+        } else {
+            Integer expiryTime = expiryPolicy.getExpiryTime(policyKey);
+            if (expiryTime != null) {
+                return expiryTime;
+            }
+        }
+        int expiryTime = resolveExpiryTimeInMinutes(tenantDomain, recoveryScenario, recoveryStep,
+                verificationChannel);
+        expiryPolicyCache.addToCache(cacheKey, expiryPolicy.withExpiryTime(policyKey, expiryTime), tenantDomain);
+        return expiryTime;
+    }
+
+    /**
+     * Get the verification channel which decides the expiry time of a code, from the additional data of the code.
+     *
+     * @param recoveryData Additional data for validate the code.
+     * @return Email or SMS channel type, or null if the data does not denote a verification channel.
+     */
+    private String getVerificationChannel(String recoveryData) {
+
+        if (NotificationChannels.EMAIL_CHANNEL.getChannelType().equalsIgnoreCase(recoveryData)) {
+            return NotificationChannels.EMAIL_CHANNEL.getChannelType();
+        }
+        if (NotificationChannels.SMS_CHANNEL.getChannelType().equals(recoveryData)) {
+            return NotificationChannels.SMS_CHANNEL.getChannelType();
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the expiry time of a code from the recovery configurations.
+     *
+     * @param tenantDomain     Tenant domain
+     * @param recoveryScenario Recovery scenario
+     * @param recoveryStep     Recovery step
+     * @param recoveryData     Verification channel of the code
+     * @return Expiry time of the code in minutes
+     * @throws IdentityRecoveryServerException Error while reading the configs
+     */
+    private int resolveExpiryTimeInMinutes(String tenantDomain, Enum recoveryScenario, Enum recoveryStep,
+                                           String recoveryData) throws IdentityRecoveryServerException {
+
         int notificationExpiryTimeInMinutes = 0;
         // Self sign up scenario has two sub scenarios as verification via email or verification via SMS.
         if (RecoveryScenarios.SELF_SIGN_UP.equals(recoveryScenario) && RecoverySteps.CONFIRM_SIGN_UP
@@ -1042,8 +1154,7 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
             // Make the code valid infinitely in case of negative value.
             notificationExpiryTimeInMinutes = Integer.MAX_VALUE;
         }
-        long expiryTime = createdTimestamp + TimeUnit.MINUTES.toMillis(notificationExpiryTimeInMinutes);
-        return System.currentTimeMillis() > expiryTime;
+        return notificationExpiryTimeInMinutes;
     }
 
     /**
@@ -1058,6 +1169,22 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
     private boolean isRecoveryFlowIdExpired(String tenantDomain, long createdTimestamp, String recoveryData)
             throws IdentityRecoveryServerException {
 
+        int recoveryFlowIdExpiryTime = getRecoveryFlowIdExpiryTimeInMinutes(tenantDomain, recoveryData);
+        long expiryTime = createdTimestamp + TimeUnit.MINUTES.toMillis(recoveryFlowIdExpiryTime);
+        return System.currentTimeMillis() > expiryTime;
+    }
+
+    /**
+     * Get the expiry time of a recovery flow id.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param recoveryData Additional data for validate the code.
+     * @return Expiry time of the recovery flow id in minutes.
+     * @throws IdentityRecoveryServerException Error while reading the configs.
+     */
+    private int getRecoveryFlowIdExpiryTimeInMinutes(String tenantDomain, String recoveryData)
+            throws IdentityRecoveryServerException {
+
         int codeExpiryTime;
         int allowedResendAttempts;
         int recoveryFlowIdExpiryTime;
@@ -1075,9 +1202,32 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
         if (recoveryFlowIdExpiryTime < 1) {
             recoveryFlowIdExpiryTime = IdentityRecoveryConstants.RECOVERY_FLOW_ID_DEFAULT_EXPIRY_TIME;
         }
+        return recoveryFlowIdExpiryTime;
+    }
 
-        long expiryTime = createdTimestamp + TimeUnit.MINUTES.toMillis(recoveryFlowIdExpiryTime);
-        return System.currentTimeMillis() > expiryTime;
+    /**
+     * Get the longest time a recovery data row of the given scenario and step can stay valid, considering the
+     * expiry times of all the verification channels and of the recovery flow id which may refer to the row.
+     *
+     * @param tenantDomain     Tenant domain.
+     * @param recoveryScenario Recovery scenario.
+     * @param recoveryStep     Recovery step.
+     * @return Maximum validity period in minutes, or Integer.MAX_VALUE if the rows never expire.
+     * @throws IdentityRecoveryServerException Error while reading the configs.
+     */
+    int getMaximumValidityInMinutes(String tenantDomain, Enum recoveryScenario, Enum recoveryStep)
+            throws IdentityRecoveryServerException {
+
+        int maximumValidity = 0;
+        String[] verificationChannels = {NotificationChannels.EMAIL_CHANNEL.getChannelType(),
+                NotificationChannels.SMS_CHANNEL.getChannelType(), null};
+        for (String verificationChannel : verificationChannels) {
+            maximumValidity = Math.max(maximumValidity, getExpiryTimeInMinutes(tenantDomain, recoveryScenario,
+                    recoveryStep, verificationChannel));
+            maximumValidity = Math.max(maximumValidity, getRecoveryFlowIdExpiryTimeInMinutes(tenantDomain,
+                    verificationChannel));
+        }
+        return maximumValidity;
     }
 
     /**
@@ -1130,6 +1280,121 @@ public class JDBCRecoveryDataStore implements UserRecoveryDataStore {
         }
     }
 
+    /**
+     * Get the cached lookup of a recovery code, if the code lookup cache is enabled and the entry is not stale. The
+     * lookups are cached in the space of the tenant in context.
+     *
+     * @param code Recovery code.
+     * @return Cached lookup, or null if the code should be loaded from the database.
+     */
+    private RecoveryCodeLookupCacheEntry getCachedCodeLookup(String code) {
+
+        if (!isCodeLookupCacheEnabled() || StringUtils.isEmpty(code)) {
+            return null;
+        }
+        RecoveryCodeLookupCacheEntry codeLookup = RecoveryCodeLookupCache.getInstance().getValueFromCache(
+                new RecoveryCodeLookupCacheKey(code), getContextTenantDomain());
+        if (codeLookup == null || codeLookup.isStale(getCodeLookupCacheTimeToLive())) {
+            return null;
+        }
+        return codeLookup;
+    }
+
+    /**
+     * Cache the lookup of a recovery code in the space of the tenant in context. A lookup of a code of another tenant
+     * is not cached, since the removals of the code are done in the space of the tenant of the code. A lookup loaded
+     * before a removal of cached lookups is not cached either, as it may have read the data the removal replaced.
+     *
+     * @param code       Recovery code.
+     * @param codeLookup Lookup loaded from the database.
+     * @param generation Generation of the cached lookups before the lookup was loaded.
+     */
+    private void addCodeLookupToCache(String code, RecoveryCodeLookupCacheEntry codeLookup, long generation) {
+
+        if (!isCodeLookupCacheEnabled() || StringUtils.isEmpty(code)) {
+            return;
+        }
+        String tenantDomain = getContextTenantDomain();
+        if (codeLookup.isFound() && !tenantDomain.equals(codeLookup.getTenantDomain())) {
+            return;
+        }
+        if (codeLookupGeneration.get() != generation) {
+            return;
+        }
+        RecoveryCodeLookupCacheKey cacheKey = new RecoveryCodeLookupCacheKey(code);
+        RecoveryCodeLookupCache.getInstance().addToCache(cacheKey, codeLookup, tenantDomain);
+        if (codeLookupGeneration.get() != generation) {
+            // The lookups were removed while the entry was being added.
+            RecoveryCodeLookupCache.getInstance().clearCacheEntry(cacheKey, tenantDomain);
+        }
+    }
+
+    /**
+     * Remove the cached lookup of a recovery code from the space of the given tenant, and from the space of the
+     * tenant in context where a lookup of a non-existing code may have been cached.
+     *
+     * @param code         Recovery code.
+     * @param tenantDomain Tenant domain of the code.
+     */
+    private void clearCodeLookup(String code, String tenantDomain) {
+
+        if (!isCodeLookupCacheEnabled() || StringUtils.isEmpty(code)) {
+            return;
+        }
+        codeLookupGeneration.incrementAndGet();
+        RecoveryCodeLookupCacheKey cacheKey = new RecoveryCodeLookupCacheKey(code);
+        String contextTenantDomain = getContextTenantDomain();
+        if (StringUtils.isNotEmpty(tenantDomain) && !tenantDomain.equals(contextTenantDomain)) {
+            RecoveryCodeLookupCache.getInstance().clearCacheEntry(cacheKey, tenantDomain);
+        }
+        RecoveryCodeLookupCache.getInstance().clearCacheEntry(cacheKey, contextTenantDomain);
+    }
+
+    /**
+     * Clear all the cached code lookups of a tenant. Used when recovery data is removed without knowing the affected
+     * codes.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    private void clearCodeLookups(String tenantDomain) {
+
+        if (!isCodeLookupCacheEnabled()) {
+            return;
+        }
+        codeLookupGeneration.incrementAndGet();
+        RecoveryCodeLookupCache.getInstance().clear(StringUtils.isNotEmpty(tenantDomain) ? tenantDomain :
+                getContextTenantDomain());
+    }
+
+    private String getContextTenantDomain() {
+
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        return StringUtils.isNotEmpty(tenantDomain) ? tenantDomain : MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+    }
+
+    private boolean isCodeLookupCacheEnabled() {
+
+        return Boolean.parseBoolean(IdentityUtil.getProperty(
+                IdentityRecoveryConstants.ConnectorConfig.RECOVERY_CODE_LOOKUP_CACHE_ENABLE));
+    }
+
+    private long getCodeLookupCacheTimeToLive() {
+
+        String timeToLive = IdentityUtil.getProperty(
+                IdentityRecoveryConstants.ConnectorConfig.RECOVERY_CODE_LOOKUP_CACHE_TIME_TO_LIVE);
+        if (StringUtils.isNotBlank(timeToLive)) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Integer.parseInt(timeToLive.trim()));
+            } catch (NumberFormatException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Invalid recovery code lookup cache time to live: " + timeToLive + ". Using the " +
+                            "default value.");
+                }
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(IdentityRecoveryConstants.RECOVERY_CODE_LOOKUP_CACHE_DEFAULT_TIME_TO_LIVE);
+    }
+
     private void handleRecoveryDataEventPublishing(String eventName, String scenario, Boolean status, Enum description,
                                                    String code, User user, UserRecoveryData userRecoveryData)
             throws IdentityRecoveryException {
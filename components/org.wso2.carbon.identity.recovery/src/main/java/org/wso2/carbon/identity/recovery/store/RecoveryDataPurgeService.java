@@ -0,0 +1,622 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.store;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+import org.wso2.carbon.identity.recovery.RecoveryScenarios;
+import org.wso2.carbon.identity.recovery.RecoverySteps;
+import org.wso2.carbon.identity.recovery.util.Utils;
+import org.wso2.carbon.utils.dbcreator.DatabaseCreator;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.identity.recovery.IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_UNEXPECTED;
+
+/**
+ * Periodically deletes the recovery data rows which are past their expiry time. The expiry time of a row depends on
+ * the tenant, scenario and step, so the rows are purged per such group, in batches of a bounded size. A row is
+ * deleted only after the longest validity of its group and a grace period have passed, so that codes which are still
+ * usable are never removed.
+ * <p>
+ * Tenants are split into ranges by their id. When the IDN_RECOVERY_PURGE_LEASE table is available, a node purges a
+ * range only while it holds the lease of the range, so the nodes of a cluster do not purge the same tenants at the
+ * same time. Without the table, every node purges all the ranges, which is still safe as the deletes are idempotent.
+ */
+public class RecoveryDataPurgeService {
+
+    private static final Log log = LogFactory.getLog(RecoveryDataPurgeService.class);
+    private static final String LEASE_TABLE = "IDN_RECOVERY_PURGE_LEASE";
+    private static final String UTC = "UTC";
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS = "23";
+    private static final long SHUTDOWN_WAIT_SECONDS = 10L;
+
+    private static final String H2 = "h2";
+    private static final String MYSQL = "mysql";
+    private static final String MARIADB = "mariadb";
+    private static final String POSTGRE_SQL = "postgresql";
+    private static final String MSSQL = "mssql";
+    private static final String MSSQL_PRODUCT_NAME = "microsoft sql server";
+    private static final String ORACLE = "oracle";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final int gracePeriodInMinutes;
+    private final int tenantRangeCount;
+    private final AtomicLong purgedRowCount = new AtomicLong();
+    private ScheduledExecutorService purgeExecutor;
+    private volatile String databaseType;
+    private volatile Boolean leaseTableAvailable;
+
+    /**
+     * Create a recovery data purge service.
+     *
+     * @param batchSize            Maximum number of rows deleted in one transaction.
+     * @param gracePeriodInMinutes Time a row is kept after its expiry.
+     * @param tenantRangeCount     Number of tenant ranges which can be purged by different nodes.
+     */
+    public RecoveryDataPurgeService(int batchSize, int gracePeriodInMinutes, int tenantRangeCount) {
+
+        if (batchSize <= 0 || tenantRangeCount <= 0) {
+            throw new IllegalArgumentException("Batch size and tenant range count of the recovery data purge " +
+                    "should be positive.");
+        }
+        this.batchSize = batchSize;
+        this.gracePeriodInMinutes = Math.max(0, gracePeriodInMinutes);
+        this.tenantRangeCount = tenantRangeCount;
+    }
+
+    /**
+     * Start purging the expired recovery data periodically.
+     *
+     * @param intervalInMinutes Time between two purge runs.
+     */
+    public synchronized void start(long intervalInMinutes) {
+
+        if (purgeExecutor != null) {
+            return;
+        }
+        purgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RecoveryDataPurgeService");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeExecutor.scheduleWithFixedDelay(this::purgeQuietly, intervalInMinutes, intervalInMinutes,
+                TimeUnit.MINUTES);
+        if (log.isDebugEnabled()) {
+            log.debug("Started recovery data purge on node: " + nodeId + " with interval: " + intervalInMinutes +
+                    " minutes and batch size: " + batchSize);
+        }
+    }
+
+    /**
+     * Stop the periodic purge. A running purge stops after its current batch.
+     */
+    public synchronized void shutdown() {
+
+        if (purgeExecutor == null) {
+            return;
+        }
+        purgeExecutor.shutdownNow();
+        try {
+            if (!purgeExecutor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Recovery data purge did not stop within " + SHUTDOWN_WAIT_SECONDS + " seconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        purgeExecutor = null;
+    }
+
+    /**
+     * Delete the expired recovery data of all the tenant ranges whose lease can be acquired by this node.
+     *
+     * @return Number of deleted rows.
+     * @throws IdentityRecoveryServerException Error while accessing the database.
+     */
+    public long purge() throws IdentityRecoveryServerException {
+
+        long startTime = System.currentTimeMillis();
+        AtomicLong purgedRows = new AtomicLong();
+        Map<Integer, List<PurgeGroup>> groupsByTenantRange = getExpiryCandidateGroups(
+                startTime - TimeUnit.MINUTES.toMillis(gracePeriodInMinutes));
+        for (Map.Entry<Integer, List<PurgeGroup>> tenantRange : groupsByTenantRange.entrySet()) {
+            int rangeId = tenantRange.getKey();
+            if (!acquireLease(rangeId)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Recovery data of tenant range: " + rangeId + " is purged by another node.");
+                }
+                continue;
+            }
+            try {
+                boolean leaseHeld = true;
+                List<PurgeGroup> groups = tenantRange.getValue();
+                for (int i = 0; i < groups.size() && leaseHeld && !Thread.currentThread().isInterrupted(); i++) {
+                    // The lease is renewed before each group, as well as between the batches of a group.
+                    leaseHeld = (i == 0 || renewLease(rangeId)) &&
+                            purgeGroup(rangeId, groups.get(i), startTime, purgedRows);
+                }
+                if (!leaseHeld) {
+                    log.warn("Lost the recovery data purge lease of tenant range: " + rangeId + ". Stopped purging " +
+                            "the recovery data of the tenant range.");
+                }
+            } finally {
+                releaseLease(rangeId);
+            }
+        }
+        if (purgedRows.get() > 0) {
+            log.info("Purged " + purgedRows.get() + " expired recovery data rows in " +
+                    (System.currentTimeMillis() - startTime) + "ms.");
+        } else if (log.isDebugEnabled()) {
+            log.debug("No expired recovery data to purge.");
+        }
+        return purgedRows.get();
+    }
+
+    /**
+     * Get the number of rows deleted by this service since it was created.
+     *
+     * @return Number of deleted rows.
+     */
+    public long getPurgedRowCount() {
+
+        return purgedRowCount.get();
+    }
+
+    private void purgeQuietly() {
+
+        try {
+            purge();
+        } catch (IdentityRecoveryServerException | RuntimeException e) {
+            // Keep the scheduled purge alive for the next run.
+            log.error("Error while purging the expired recovery data.", e);
+        }
+    }
+
+    /**
+     * Get the tenant, scenario and step groups which have rows older than the given time, by tenant range.
+     *
+     * @param createdBefore Rows created before this time are considered.
+     * @return Groups by the tenant range id.
+     * @throws IdentityRecoveryServerException Error while reading the groups.
+     */
+    private Map<Integer, List<PurgeGroup>> getExpiryCandidateGroups(long createdBefore)
+            throws IdentityRecoveryServerException {
+
+        Map<Integer, List<PurgeGroup>> groupsByTenantRange = new TreeMap<>();
+        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                IdentityRecoveryConstants.SQLQueries.LIST_EXPIRY_CANDIDATE_GROUPS)) {
+            prepStmt.setTimestamp(1, new Timestamp(createdBefore), getUTCCalendar());
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    int tenantId = resultSet.getInt("TENANT_ID");
+                    groupsByTenantRange.computeIfAbsent(Math.floorMod(tenantId, tenantRangeCount),
+                            key -> new ArrayList<>()).add(new PurgeGroup(tenantId, resultSet.getString("SCENARIO"),
+                            resultSet.getString("STEP")));
+                }
+            }
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+        return groupsByTenantRange;
+    }
+
+    /**
+     * Delete the expired rows of a group in batches, renewing the lease of the tenant range between the batches.
+     *
+     * @param rangeId    Tenant range id.
+     * @param group      Tenant, scenario and step group.
+     * @param startTime  Start time of the purge run.
+     * @param purgedRows Number of rows deleted by the purge run, which is incremented by the deleted rows.
+     * @return False if the lease of the tenant range was lost, in which case the range should not be purged further.
+     * @throws IdentityRecoveryServerException Error while deleting the rows.
+     */
+    private boolean purgeGroup(int rangeId, PurgeGroup group, long startTime, AtomicLong purgedRows)
+            throws IdentityRecoveryServerException {
+
+        Long createdBefore = getExpiryThreshold(group, startTime);
+        if (createdBefore == null) {
+            return true;
+        }
+        long groupPurgedRows = 0;
+        boolean leaseHeld = true;
+        int deletedRows;
+        do {
+            deletedRows = deleteExpiredBatch(group, createdBefore);
+            groupPurgedRows += deletedRows;
+            purgedRowCount.addAndGet(deletedRows);
+            purgedRows.addAndGet(deletedRows);
+            if (deletedRows >= batchSize) {
+                leaseHeld = renewLease(rangeId);
+            }
+        } while (leaseHeld && deletedRows >= batchSize && !Thread.currentThread().isInterrupted());
+        if (log.isDebugEnabled() && groupPurgedRows > 0) {
+            log.debug("Purged " + groupPurgedRows + " expired recovery data rows of tenant: " + group.tenantId +
+                    ", scenario: " + group.scenario + " and step: " + group.step);
+        }
+        return leaseHeld;
+    }
+
+    /**
+     * Get the time before which the rows of a group are expired.
+     *
+     * @param group     Tenant, scenario and step group.
+     * @param startTime Start time of the purge run.
+     * @return Expiry threshold in milliseconds, or null if the rows of the group should not be purged.
+     */
+    private Long getExpiryThreshold(PurgeGroup group, long startTime) {
+
+        RecoveryScenarios scenario;
+        RecoverySteps step;
+        try {
+            scenario = RecoveryScenarios.valueOf(group.scenario);
+            step = RecoverySteps.valueOf(group.step);
+        } catch (IllegalArgumentException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Skipped purging the recovery data of unknown scenario: " + group.scenario +
+                        " and step: " + group.step);
+            }
+            return null;
+        }
+
+        int validityInMinutes;
+        try {
+            String tenantDomain = IdentityTenantUtil.getTenantDomain(group.tenantId);
+            validityInMinutes = ((JDBCRecoveryDataStore) JDBCRecoveryDataStore.getInstance())
+                    .getMaximumValidityInMinutes(tenantDomain, scenario, step);
+        } catch (IdentityRecoveryServerException | RuntimeException e) {
+            log.warn("Error while resolving the expiry time of the recovery data of tenant: " + group.tenantId +
+                    ", scenario: " + group.scenario + " and step: " + group.step + ". Skipped purging them.", e);
+            return null;
+        }
+        if (validityInMinutes == Integer.MAX_VALUE) {
+            // The codes of the group are valid infinitely.
+            return null;
+        }
+        return startTime - TimeUnit.MINUTES.toMillis((long) validityInMinutes + gracePeriodInMinutes);
+    }
+
+    /**
+     * Delete a batch of expired rows of a group in a transaction.
+     *
+     * @param group         Tenant, scenario and step group.
+     * @param createdBefore Rows created before this time are deleted.
+     * @return Number of deleted rows.
+     * @throws IdentityRecoveryServerException Error while deleting the rows.
+     */
+    private int deleteExpiredBatch(PurgeGroup group, long createdBefore) throws IdentityRecoveryServerException {
+
+        Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+        try {
+            String type = getDatabaseType(connection);
+            String purgeQuery = getPurgeQuery(type);
+            int deletedRows = purgeQuery != null ?
+                    deleteExpiredBatch(connection, purgeQuery, MSSQL.equals(type), group, createdBefore) :
+                    deleteExpiredBatchByCode(connection, group, createdBefore);
+            IdentityDatabaseUtil.commitTransaction(connection);
+            return deletedRows;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
+    private int deleteExpiredBatch(Connection connection, String purgeQuery, boolean rowLimitFirst, PurgeGroup group,
+                                   long createdBefore) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(purgeQuery)) {
+            int parameterIndex = 1;
+            if (rowLimitFirst) {
+                // The row limit precedes the conditions in the MSSQL query.
+                prepStmt.setInt(parameterIndex++, batchSize);
+            }
+            prepStmt.setInt(parameterIndex++, group.tenantId);
+            prepStmt.setString(parameterIndex++, group.scenario);
+            prepStmt.setString(parameterIndex++, group.step);
+            prepStmt.setTimestamp(parameterIndex++, new Timestamp(createdBefore), getUTCCalendar());
+            if (!rowLimitFirst) {
+                prepStmt.setInt(parameterIndex, batchSize);
+            }
+            return prepStmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Delete a batch of expired rows by their codes. Used for the databases which do not have a row limited delete.
+     */
+    private int deleteExpiredBatchByCode(Connection connection, PurgeGroup group, long createdBefore)
+            throws SQLException {
+
+        List<String> codes = new ArrayList<>();
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                IdentityRecoveryConstants.SQLQueries.LIST_EXPIRED_RECOVERY_CODES)) {
+            prepStmt.setMaxRows(batchSize);
+            prepStmt.setInt(1, group.tenantId);
+            prepStmt.setString(2, group.scenario);
+            prepStmt.setString(3, group.step);
+            prepStmt.setTimestamp(4, new Timestamp(createdBefore), getUTCCalendar());
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    codes.add(resultSet.getString("CODE"));
+                }
+            }
+        }
+        if (codes.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                IdentityRecoveryConstants.SQLQueries.DELETE_RECOVERY_DATA_BY_CODE)) {
+            for (String code : codes) {
+                prepStmt.setString(1, code);
+                prepStmt.addBatch();
+            }
+            prepStmt.executeBatch();
+        }
+        return codes.size();
+    }
+
+    /**
+     * Get the database type of the connection, resolved from the database product name.
+     *
+     * @param connection Database connection.
+     * @return Database type, or an empty string if the type cannot be resolved.
+     */
+    private String getDatabaseType(Connection connection) {
+
+        String type = databaseType;
+        if (type == null) {
+            try {
+                type = DatabaseCreator.getDatabaseType(connection);
+            } catch (Exception e) {
+                type = getDatabaseTypeFromProductName(connection);
+                if (StringUtils.isEmpty(type)) {
+                    log.warn("Error while resolving the database type. Expired recovery data will be deleted by " +
+                            "code.", e);
+                }
+            }
+            databaseType = type;
+        }
+        return type;
+    }
+
+    private static String getDatabaseTypeFromProductName(Connection connection) {
+
+        try {
+            String productName = StringUtils.lowerCase(connection.getMetaData().getDatabaseProductName(),
+                    Locale.ENGLISH);
+            if (StringUtils.contains(productName, MSSQL_PRODUCT_NAME)) {
+                return MSSQL;
+            }
+            for (String type : new String[]{H2, MARIADB, MYSQL, POSTGRE_SQL, ORACLE}) {
+                if (StringUtils.contains(productName, type)) {
+                    return type;
+                }
+            }
+        } catch (SQLException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error while reading the database product name.", e);
+            }
+        }
+        return StringUtils.EMPTY;
+    }
+
+    private static String getPurgeQuery(String type) {
+
+        switch (type) {
+            case H2:
+                return IdentityRecoveryConstants.SQLQueries.PURGE_EXPIRED_RECOVERY_DATA_H2;
+            case MYSQL:
+            case MARIADB:
+                return IdentityRecoveryConstants.SQLQueries.PURGE_EXPIRED_RECOVERY_DATA_MYSQL;
+            case POSTGRE_SQL:
+                return IdentityRecoveryConstants.SQLQueries.PURGE_EXPIRED_RECOVERY_DATA_POSTGRESQL;
+            case MSSQL:
+                return IdentityRecoveryConstants.SQLQueries.PURGE_EXPIRED_RECOVERY_DATA_MSSQL;
+            case ORACLE:
+                return IdentityRecoveryConstants.SQLQueries.PURGE_EXPIRED_RECOVERY_DATA_ORACLE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Acquire the lease of a tenant range. An expired lease or a lease already held by this node is taken over,
+     * otherwise a new lease is inserted. The lease table is created by the dbscripts/identity/recovery-purge scripts.
+     *
+     * @param rangeId Tenant range id.
+     * @return True if this node holds the lease of the range.
+     * @throws IdentityRecoveryServerException Error while accessing the lease table.
+     */
+    private boolean acquireLease(int rangeId) throws IdentityRecoveryServerException {
+
+        Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+        try {
+            if (!isLeaseTableAvailable(connection)) {
+                return true;
+            }
+            boolean acquired = renewLease(connection, rangeId);
+            if (!acquired) {
+                // A failed insert aborts the whole transaction on some databases such as PostgreSQL, hence the
+                // insert is rolled back to a savepoint when another node has inserted the lease.
+                Savepoint savepoint = connection.setSavepoint();
+                try (PreparedStatement prepStmt = connection.prepareStatement(
+                        IdentityRecoveryConstants.SQLQueries.ACQUIRE_RECOVERY_DATA_PURGE_LEASE)) {
+                    prepStmt.setInt(1, rangeId);
+                    prepStmt.setString(2, nodeId);
+                    prepStmt.setTimestamp(3, getLeaseExpiry(), getUTCCalendar());
+                    prepStmt.executeUpdate();
+                    acquired = true;
+                } catch (SQLException e) {
+                    if (!isIntegrityConstraintViolation(e)) {
+                        throw e;
+                    }
+                    // Another node holds a valid lease of the range.
+                    connection.rollback(savepoint);
+                }
+            }
+            IdentityDatabaseUtil.commitTransaction(connection);
+            return acquired;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
+    private boolean renewLease(int rangeId) throws IdentityRecoveryServerException {
+
+        if (Boolean.FALSE.equals(leaseTableAvailable)) {
+            return true;
+        }
+        Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+        try {
+            boolean renewed = renewLease(connection, rangeId);
+            IdentityDatabaseUtil.commitTransaction(connection);
+            return renewed;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw Utils.handleServerException(ERROR_CODE_UNEXPECTED, null, e);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
+    private boolean renewLease(Connection connection, int rangeId) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                IdentityRecoveryConstants.SQLQueries.RENEW_RECOVERY_DATA_PURGE_LEASE)) {
+            prepStmt.setString(1, nodeId);
+            prepStmt.setTimestamp(2, getLeaseExpiry(), getUTCCalendar());
+            prepStmt.setInt(3, rangeId);
+            prepStmt.setString(4, nodeId);
+            prepStmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()), getUTCCalendar());
+            return prepStmt.executeUpdate() > 0;
+        }
+    }
+
+    private void releaseLease(int rangeId) {
+
+        if (Boolean.FALSE.equals(leaseTableAvailable)) {
+            return;
+        }
+        Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                IdentityRecoveryConstants.SQLQueries.RELEASE_RECOVERY_DATA_PURGE_LEASE)) {
+            prepStmt.setInt(1, rangeId);
+            prepStmt.setString(2, nodeId);
+            prepStmt.executeUpdate();
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            // The lease expires by itself, so the range is purged by a node in a later run.
+            log.warn("Error while releasing the recovery data purge lease of tenant range: " + rangeId, e);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
+    private boolean isLeaseTableAvailable(Connection connection) throws SQLException {
+
+        Boolean tableAvailable = leaseTableAvailable;
+        if (tableAvailable == null) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            tableAvailable = false;
+            for (String tableName : new String[]{LEASE_TABLE, LEASE_TABLE.toLowerCase(Locale.ENGLISH)}) {
+                try (ResultSet resultSet = metaData.getTables(null, null, tableName, new String[]{"TABLE"})) {
+                    if (resultSet.next()) {
+                        tableAvailable = true;
+                        break;
+                    }
+                }
+            }
+            if (!tableAvailable) {
+                log.info(LEASE_TABLE + " table is not available. Expired recovery data will be purged without " +
+                        "coordinating with the other nodes.");
+            }
+            leaseTableAvailable = tableAvailable;
+        }
+        return tableAvailable;
+    }
+
+    private Timestamp getLeaseExpiry() {
+
+        return new Timestamp(System.currentTimeMillis() +
+                TimeUnit.MINUTES.toMillis(IdentityRecoveryConstants.RECOVERY_DATA_PURGE_LEASE_TIME));
+    }
+
+    private static Calendar getUTCCalendar() {
+
+        return Calendar.getInstance(TimeZone.getTimeZone(UTC));
+    }
+
+    private static boolean isIntegrityConstraintViolation(SQLException e) {
+
+        return e instanceof SQLIntegrityConstraintViolationException ||
+                StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS);
+    }
+
+    /**
+     * Recovery data rows of a tenant with the same scenario and step, which share the same expiry time.
+     */
+    private static final class PurgeGroup {
+
+        private final int tenantId;
+        private final String scenario;
+        private final String step;
+
+        private PurgeGroup(int tenantId, String scenario, String step) {
+
+            this.tenantId = tenantId;
+            this.scenario = scenario;
+            this.step = step;
+        }
+    }
+}
@@ -46,6 +46,7 @@ import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.governance.IdentityGovernanceException;
 import org.wso2.carbon.identity.governance.IdentityGovernanceService;
+import org.wso2.carbon.identity.governance.SecureRandomProvider;
 import org.wso2.carbon.identity.governance.exceptions.otp.OTPGeneratorException;
 import org.wso2.carbon.identity.governance.service.notification.NotificationChannelManager;
 import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
@@ -86,7 +87,6 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -111,6 +111,8 @@ public class Utils {
 
     private static final Log AUDIT_LOG = CarbonConstants.AUDIT_LOG;
     private static final Log log = LogFactory.getLog(Utils.class);
+    private static final String RANDOM_PASSWORD_CHARACTERS = "abcdefghjkmnpqrstuvwxyzABCDEFGHJKMNPQRSTUVWXYZ23456789+@";
+    private static final String RANDOM_PASSWORD_SUFFIX = "A$g0";
 
     //This is used to pass the arbitrary properties from self user manager to self user handler
     private static ThreadLocal<org.wso2.carbon.identity.recovery.model.Property[]> arbitraryProperties = new
@@ -1626,16 +1628,11 @@ public class Utils {
      */
     public static char[] generateRandomPassword(int passwordLength) {
 
-        String letters = "abcdefghjkmnpqrstuvwxyzABCDEFGHJKMNPQRSTUVWXYZ23456789+@";
-        StringBuilder pw = new StringBuilder();
-        SecureRandom random = new SecureRandom();
-        for (int i = 0; i < (passwordLength - 4); i++) {
-            int index = (int) (random.nextDouble() * letters.length());
-            pw.append(letters.substring(index, index + 1));
-        }
-        pw.append("A$g0");
-        char[] password = new char[pw.length()];
-        pw.getChars(0, pw.length(), password, 0);
+        String randomCharacters = SecureRandomProvider.generateRandomString(RANDOM_PASSWORD_CHARACTERS,
+                passwordLength - RANDOM_PASSWORD_SUFFIX.length());
+        char[] password = new char[randomCharacters.length() + RANDOM_PASSWORD_SUFFIX.length()];
+        randomCharacters.getChars(0, randomCharacters.length(), password, 0);
+        RANDOM_PASSWORD_SUFFIX.getChars(0, RANDOM_PASSWORD_SUFFIX.length(), password, randomCharacters.length());
         return password;
     }
 
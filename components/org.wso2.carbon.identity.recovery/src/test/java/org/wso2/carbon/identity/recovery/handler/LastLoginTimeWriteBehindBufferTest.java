@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.handler;
+
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests for the last login time write-behind buffer.
+ */
+public class LastLoginTimeWriteBehindBufferTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String USER_STORE_DOMAIN = "PRIMARY";
+    private static final String SECONDARY_USER_STORE_DOMAIN = "SECONDARY";
+    private static final int USER_COUNT = 1000;
+    private static final int LOGIN_COUNT = 100000;
+
+    @Test
+    public void testRepeatedLoginsAreCoalesced() {
+
+        AtomicInteger writeCount = new AtomicInteger();
+        Map<String, Long> writtenLastLoginTimes = new ConcurrentHashMap<>();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(perUserWriter((user, time) -> {
+            writeCount.incrementAndGet();
+            writtenLastLoginTimes.put(user.getUsername(), time);
+        }), TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE);
+
+        for (int i = 0; i < LOGIN_COUNT; i++) {
+            buffer.add(getUser(i % USER_COUNT), i);
+        }
+        assertEquals(writeCount.get(), 0);
+
+        buffer.shutdown();
+
+        assertEquals(writeCount.get(), USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            // The last login of each user is the latest index mapped to the user.
+            assertEquals(writtenLastLoginTimes.get("user" + i).longValue(), LOGIN_COUNT - USER_COUNT + i);
+        }
+    }
+
+    @Test
+    public void testOlderTimestampDoesNotOverrideLatest() {
+
+        Map<String, Long> writtenLastLoginTimes = new ConcurrentHashMap<>();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(perUserWriter((user, time) ->
+                writtenLastLoginTimes.put(user.getUsername(), time)), TimeUnit.HOURS.toMillis(1), 10);
+
+        buffer.add(getUser(1), 200L);
+        buffer.add(getUser(1), 100L);
+        assertEquals(buffer.getPendingLastLoginTime(getUser(1)).longValue(), 200L);
+
+        assertEquals(buffer.flush(), 1);
+        assertNull(buffer.getPendingLastLoginTime(getUser(1)));
+        assertEquals(writtenLastLoginTimes.get("user1").longValue(), 200L);
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testFlushWithinMaxStaleness() throws Exception {
+
+        AtomicInteger writeCount = new AtomicInteger();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(perUserWriter((user, time) ->
+                writeCount.incrementAndGet()), TimeUnit.SECONDS.toMillis(2), Integer.MAX_VALUE);
+        buffer.start();
+
+        buffer.add(getUser(1), System.currentTimeMillis());
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(2);
+        while (writeCount.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(writeCount.get(), 1);
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testFlushWhenBufferIsFull() throws Exception {
+
+        AtomicInteger writeCount = new AtomicInteger();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(perUserWriter((user, time) ->
+                writeCount.incrementAndGet()), TimeUnit.HOURS.toMillis(1), 100);
+
+        for (int i = 0; i < 100; i++) {
+            buffer.add(getUser(i), i);
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (writeCount.get() < 100 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(writeCount.get(), 100);
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testFailedWriteIsRetried() {
+
+        Map<String, Integer> writeAttempts = new ConcurrentHashMap<>();
+        Map<String, Long> writtenLastLoginTimes = new ConcurrentHashMap<>();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(perUserWriter((user, time) -> {
+            int attempts = writeAttempts.merge(user.getUsername(), 1, Integer::sum);
+            // The write of user3 always fails, and the write of user7 fails once.
+            if ("user3".equals(user.getUsername()) || ("user7".equals(user.getUsername()) && attempts == 1)) {
+                throw new Exception("Simulated write failure.");
+            }
+            writtenLastLoginTimes.put(user.getUsername(), time);
+        }), TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE);
+
+        for (int i = 0; i < 10; i++) {
+            buffer.add(getUser(i), i);
+        }
+        // The failed writes do not stop the writes of the other users.
+        assertEquals(buffer.flush(), 8);
+        assertEquals(writtenLastLoginTimes.size(), 8);
+        assertFalse(writtenLastLoginTimes.containsKey("user3"));
+        assertFalse(writtenLastLoginTimes.containsKey("user7"));
+        assertEquals(buffer.getPendingLastLoginTime(getUser(3)).longValue(), 3L);
+        assertEquals(buffer.getPendingLastLoginTime(getUser(7)).longValue(), 7L);
+
+        // A login after the failed write is kept over the value of the failed write.
+        buffer.add(getUser(7), 100L);
+        assertEquals(buffer.flush(), 1);
+        assertEquals(writtenLastLoginTimes.get("user7").longValue(), 100L);
+        assertNull(buffer.getPendingLastLoginTime(getUser(7)));
+        assertEquals(buffer.getPendingLastLoginTime(getUser(3)).longValue(), 3L);
+
+        // Only the user which failed every write is dropped, after the maximum write attempts.
+        assertEquals(buffer.flush(), 0);
+        assertNull(buffer.getPendingLastLoginTime(getUser(3)));
+        assertEquals(buffer.flush(), 0);
+        assertEquals(writtenLastLoginTimes.size(), 9);
+        assertFalse(writtenLastLoginTimes.containsKey("user3"));
+        for (int i = 0; i < 10; i++) {
+            int expectedAttempts = i == 3 ? 3 : i == 7 ? 2 : 1;
+            assertEquals(writeAttempts.get("user" + i).intValue(), expectedAttempts, "Write attempts of user" + i);
+        }
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testFailedBatchIsRetried() {
+
+        AtomicInteger failureCount = new AtomicInteger(1);
+        Map<String, Long> writtenLastLoginTimes = new ConcurrentHashMap<>();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(
+                (tenantDomain, userStoreDomain, lastLoginTimes) -> {
+                    if (failureCount.getAndDecrement() > 0) {
+                        throw new Exception("Simulated user store failure.");
+                    }
+                    lastLoginTimes.forEach((user, time) -> writtenLastLoginTimes.put(user.getUsername(), time));
+                    lastLoginTimes.clear();
+                }, TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE);
+
+        for (int i = 0; i < 10; i++) {
+            buffer.add(getUser(i), i);
+        }
+        assertEquals(buffer.flush(), 0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(buffer.getPendingLastLoginTime(getUser(i)).longValue(), i);
+        }
+        assertEquals(buffer.flush(), 10);
+        assertEquals(writtenLastLoginTimes.size(), 10);
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testNewerLoginKeptOverFailedWrite() {
+
+        AtomicInteger failureCount = new AtomicInteger(1);
+        Map<String, Long> writtenLastLoginTimes = new ConcurrentHashMap<>();
+        AtomicReference<LastLoginTimeWriteBehindBuffer> bufferReference = new AtomicReference<>();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(perUserWriter((user, time) -> {
+            if (failureCount.getAndDecrement() > 0) {
+                // A newer login of the user arrives while its older value is being written.
+                bufferReference.get().add(user, 300L);
+                throw new Exception("Simulated write failure.");
+            }
+            writtenLastLoginTimes.put(user.getUsername(), time);
+        }), TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE);
+        bufferReference.set(buffer);
+
+        buffer.add(getUser(1), 200L);
+        assertEquals(buffer.flush(), 0);
+        assertEquals(buffer.getPendingLastLoginTime(getUser(1)).longValue(), 300L);
+        assertEquals(buffer.flush(), 1);
+        assertEquals(writtenLastLoginTimes.get("user1").longValue(), 300L);
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testFailingWriteDroppedAfterMaxAttempts() {
+
+        AtomicInteger attemptCount = new AtomicInteger();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(perUserWriter((user, time) -> {
+            attemptCount.incrementAndGet();
+            throw new Exception("Simulated write failure.");
+        }), TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE);
+
+        buffer.add(getUser(1), 100L);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(buffer.flush(), 0);
+        }
+        assertEquals(attemptCount.get(), 3);
+        assertNull(buffer.getPendingLastLoginTime(getUser(1)));
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testValuesWrittenInBatchPerUserStore() {
+
+        Map<String, Integer> batchSizes = new ConcurrentHashMap<>();
+        LastLoginTimeWriteBehindBuffer buffer = new LastLoginTimeWriteBehindBuffer(
+                (tenantDomain, userStoreDomain, lastLoginTimes) -> {
+                    for (LastLoginTimeWriteBehindBuffer.BufferedUser user : lastLoginTimes.keySet()) {
+                        assertEquals(user.getTenantDomain(), tenantDomain);
+                        assertEquals(user.getUserStoreDomain(), userStoreDomain);
+                    }
+                    assertNull(batchSizes.put(tenantDomain + "/" + userStoreDomain, lastLoginTimes.size()));
+                    lastLoginTimes.clear();
+                }, TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE);
+
+        for (int i = 0; i < 100; i++) {
+            buffer.add(getUser(i), i);
+            buffer.add(new LastLoginTimeWriteBehindBuffer.BufferedUser(TENANT_DOMAIN, SECONDARY_USER_STORE_DOMAIN,
+                    "user" + i), i);
+            buffer.add(new LastLoginTimeWriteBehindBuffer.BufferedUser("tenant" + (i % 2), USER_STORE_DOMAIN,
+                    "user" + i), i);
+        }
+        assertEquals(buffer.flush(), 300);
+
+        Map<String, Integer> expectedBatchSizes = new HashMap<>();
+        expectedBatchSizes.put(TENANT_DOMAIN + "/" + USER_STORE_DOMAIN, 100);
+        expectedBatchSizes.put(TENANT_DOMAIN + "/" + SECONDARY_USER_STORE_DOMAIN, 100);
+        expectedBatchSizes.put("tenant0/" + USER_STORE_DOMAIN, 50);
+        expectedBatchSizes.put("tenant1/" + USER_STORE_DOMAIN, 50);
+        assertEquals(batchSizes, expectedBatchSizes);
+        buffer.shutdown();
+    }
+
+    /**
+     * Create a writer which writes the users of a batch one by one and leaves the users which failed in the batch,
+     * as the metadata handler does.
+     *
+     * @param userWriter Writer of a single user.
+     * @return Batch writer.
+     */
+    private LastLoginTimeWriteBehindBuffer.LastLoginTimeWriter perUserWriter(UserWriter userWriter) {
+
+        return (tenantDomain, userStoreDomain, lastLoginTimes) -> {
+            Iterator<Map.Entry<LastLoginTimeWriteBehindBuffer.BufferedUser, Long>> iterator =
+                    lastLoginTimes.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<LastLoginTimeWriteBehindBuffer.BufferedUser, Long> entry = iterator.next();
+                try {
+                    userWriter.write(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                } catch (Exception e) {
+                    // Left in the batch to be buffered again.
+                }
+            }
+        };
+    }
+
+    private LastLoginTimeWriteBehindBuffer.BufferedUser getUser(int index) {
+
+        return new LastLoginTimeWriteBehindBuffer.BufferedUser(TENANT_DOMAIN, USER_STORE_DOMAIN, "user" + index);
+    }
+
+    private interface UserWriter {
+
+        void write(LastLoginTimeWriteBehindBuffer.BufferedUser user, long lastLoginTime) throws Exception;
+    }
+}
@@ -53,6 +53,7 @@ import org.wso2.carbon.identity.recovery.store.UserRecoveryDataStore;
 import org.wso2.carbon.identity.recovery.util.Utils;
 import org.wso2.carbon.user.api.RealmConfiguration;
 import org.wso2.carbon.user.api.UserRealm;
+import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.UserStoreException;
 import org.wso2.carbon.user.core.claim.ClaimManager;
 import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
@@ -61,9 +62,12 @@ import org.wso2.carbon.user.core.service.RealmService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.ArgumentMatchers.eq;
@@ -872,6 +876,64 @@ public class UserAccountRecoveryManagerTest {
                 RecoveryScenarios.USERNAME_RECOVERY, null);
     }
 
+    /**
+     * Tests that the users of all the user store domains are searched through the fan-out executor and are merged in
+     * the order of the domains.
+     *
+     * @throws Exception if there is an issue with mocking or method invocation.
+     */
+    @Test
+    public void testGetUserListByClaimsSearchesDomainsThroughFanOutExecutor() throws Exception {
+
+        mockUserstoreManager();
+        when(identityRecoveryServiceDataHolder.getMultiAttributeLoginService())
+                .thenReturn(multiAttributeLoginService);
+        when(multiAttributeLoginService.isEnabled(anyString())).thenReturn(false);
+        when(claimManager.getAttributeName(anyString(), anyString()))
+                .thenReturn("http://wso2.org/claims/mockedClaim");
+        mockedIdentityUtil.when(() -> IdentityUtil.getProperty(
+                        IdentityRecoveryConstants.ConnectorConfig.USERNAME_RECOVERY_NON_UNIQUE_USERNAME))
+                .thenReturn("true");
+
+        AbstractUserStoreManager secondaryUserStoreManager = mock(AbstractUserStoreManager.class);
+        RealmConfiguration secondaryRealmConfiguration = mock(RealmConfiguration.class);
+        when(secondaryRealmConfiguration.getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME))
+                .thenReturn("LDAP1");
+        when(secondaryUserStoreManager.getRealmConfiguration()).thenReturn(secondaryRealmConfiguration);
+        when(abstractUserStoreManager.getSecondaryUserStoreManager()).thenReturn(secondaryUserStoreManager);
+
+        Map<String, String> searchThreads = new ConcurrentHashMap<>();
+        when(abstractUserStoreManager.getUserListWithID(any(Condition.class), anyString(), anyString(),
+                anyInt(), anyInt(), isNull(), isNull())).thenAnswer(invocation -> {
+            String domain = invocation.getArgument(1);
+            searchThreads.put(domain, Thread.currentThread().getName());
+            org.wso2.carbon.user.core.common.User user = new org.wso2.carbon.user.core.common.User(
+                    UUID.randomUUID().toString(), "user-" + domain, "user-" + domain);
+            user.setUserStoreDomain(domain);
+            return Collections.singletonList(user);
+        });
+
+        UserStoreFanOutExecutor fanOutExecutor = new UserStoreFanOutExecutor(4, 10);
+        when(identityRecoveryServiceDataHolder.getUserStoreFanOutExecutor()).thenReturn(fanOutExecutor);
+        try {
+            ArrayList<org.wso2.carbon.user.core.common.User> users = userAccountRecoveryManager
+                    .getUserListByClaims(userClaims, MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+
+            assertEquals(users.size(), 2);
+            assertEquals(users.get(0).getUserStoreDomain(), UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            assertEquals(users.get(1).getUserStoreDomain(), "LDAP1");
+            assertEquals(searchThreads.size(), 2);
+            for (String threadName : searchThreads.values()) {
+                assertTrue(threadName.startsWith("UserStoreFanOutExecutor-"),
+                        "User store was searched in the thread: " + threadName);
+            }
+        } finally {
+            when(identityRecoveryServiceDataHolder.getUserStoreFanOutExecutor()).thenReturn(null);
+            when(abstractUserStoreManager.getSecondaryUserStoreManager()).thenReturn(null);
+            fanOutExecutor.shutdown();
+        }
+    }
+
     /**
      * Tests that an IdentityRecoveryException is thrown when loading user recovery data
      * from a recovery flow ID and different error codes are simulated.
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.internal.service.impl;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.common.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for the concurrent user store search of the account recovery.
+ */
+public class UserStoreFanOutExecutorTest {
+
+    private static final int TENANT_ID = 5;
+    private static final String TENANT_DOMAIN = "wso2.com";
+
+    private UserStoreFanOutExecutor fanOutExecutor;
+
+    @BeforeClass
+    public void setUp() {
+
+        String carbonHome = UserStoreFanOutExecutorTest.class.getResource("/").getFile();
+        System.setProperty(CarbonBaseConstants.CARBON_HOME, carbonHome);
+        fanOutExecutor = new UserStoreFanOutExecutor(8, 100);
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        fanOutExecutor.shutdown();
+    }
+
+    @Test
+    public void testUserStoresAreSearchedConcurrently() throws Exception {
+
+        // Each search waits until all the searches have started, which only completes if the searches run at the
+        // same time.
+        List<String> domains = Arrays.asList("PRIMARY", "LDAP1", "LDAP2", "LDAP3");
+        CountDownLatch startedLatch = new CountDownLatch(domains.size());
+        List<User> users = fanOutExecutor.search(domains, domain -> {
+            startedLatch.countDown();
+            try {
+                if (!startedLatch.await(10, TimeUnit.SECONDS)) {
+                    throw new UserStoreException("User stores were not searched concurrently.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UserStoreException("Interrupted.", e);
+            }
+            return "LDAP2".equals(domain) ? Collections.singletonList(user("alex", domain)) :
+                    Collections.emptyList();
+        }, 1);
+
+        assertEquals(users.size(), 1);
+        assertEquals(users.get(0).getUsername(), "alex");
+    }
+
+    @Test
+    public void testUsersAreMergedInDomainOrder() throws Exception {
+
+        Map<String, SlowUserStore> userStores = new HashMap<>();
+        userStores.put("PRIMARY", new SlowUserStore(300, user("alex", "PRIMARY")));
+        userStores.put("LDAP1", new SlowUserStore(0, user("bob", "LDAP1"), user("carol", "LDAP1")));
+        userStores.put("LDAP2", new SlowUserStore(150, user("dave", "LDAP2")));
+        List<String> domains = Arrays.asList("PRIMARY", "LDAP1", "LDAP2");
+
+        for (int i = 0; i < 5; i++) {
+            List<User> users = fanOutExecutor.search(domains, domain -> userStores.get(domain).search(),
+                    Integer.MAX_VALUE);
+            List<String> usernames = new ArrayList<>();
+            for (User user : users) {
+                usernames.add(user.getUsername());
+            }
+            assertEquals(usernames, Arrays.asList("alex", "bob", "carol", "dave"));
+        }
+    }
+
+    @Test
+    public void testShortCircuitOnAmbiguousResult() throws Exception {
+
+        CountDownLatch interruptedLatch = new CountDownLatch(1);
+        Map<String, SlowUserStore> userStores = new HashMap<>();
+        userStores.put("PRIMARY", new SlowUserStore(0, user("alex", "PRIMARY")));
+        userStores.put("LDAP1", new SlowUserStore(50, user("alex", "LDAP1")));
+        List<String> domains = Arrays.asList("PRIMARY", "LDAP1", "LDAP2");
+
+        long startTime = System.nanoTime();
+        List<User> users = fanOutExecutor.search(domains, domain -> {
+            if ("LDAP2".equals(domain)) {
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                    interruptedLatch.countDown();
+                }
+                return Collections.emptyList();
+            }
+            return userStores.get(domain).search();
+        }, 1);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertEquals(users.size(), 2);
+        // The search does not wait for the slow user store.
+        assertTrue(elapsedMillis < TimeUnit.SECONDS.toMillis(5), "Search took " + elapsedMillis + "ms.");
+        assertTrue(interruptedLatch.await(5, TimeUnit.SECONDS), "The remaining search was not cancelled.");
+    }
+
+    @Test
+    public void testUserStoreErrorIsPropagated() throws Exception {
+
+        try {
+            fanOutExecutor.search(Arrays.asList("PRIMARY", "LDAP1"), domain -> {
+                if ("LDAP1".equals(domain)) {
+                    throw new UserStoreException("Connection timed out.");
+                }
+                return Collections.emptyList();
+            }, 1);
+            fail("The error of the user store should be propagated.");
+        } catch (UserStoreException e) {
+            assertEquals(e.getMessage(), "Connection timed out.");
+        }
+    }
+
+    @Test
+    public void testSearchesRunInTenantFlowOfCaller() throws Exception {
+
+        Map<String, String> tenantDomains = new ConcurrentHashMap<>();
+        List<String> domains = Arrays.asList("PRIMARY", "LDAP1", "LDAP2");
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(TENANT_ID);
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(TENANT_DOMAIN);
+            fanOutExecutor.search(domains, domain -> {
+                PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                tenantDomains.put(domain, carbonContext.getTenantId() + ":" + carbonContext.getTenantDomain());
+                return Collections.emptyList();
+            }, 1);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+
+        assertEquals(tenantDomains.size(), domains.size());
+        for (String tenant : tenantDomains.values()) {
+            assertEquals(tenant, TENANT_ID + ":" + TENANT_DOMAIN);
+        }
+    }
+
+    @Test
+    public void testSaturatedPoolRunsSearchesInCaller() throws Exception {
+
+        UserStoreFanOutExecutor saturatedExecutor = new UserStoreFanOutExecutor(1, 1);
+        Thread callerThread = Thread.currentThread();
+        Map<String, Thread> searchThreads = new ConcurrentHashMap<>();
+        // The searches of the pool thread wait for both searches in the caller, so the single pool thread and queue
+        // slot stay occupied until the remaining searches are rejected to the caller.
+        CountDownLatch callerSearchLatch = new CountDownLatch(2);
+        try {
+            List<String> domains = Arrays.asList("PRIMARY", "LDAP1", "LDAP2", "LDAP3");
+            List<User> users = saturatedExecutor.search(domains, domain -> {
+                searchThreads.put(domain, Thread.currentThread());
+                if (Thread.currentThread() == callerThread) {
+                    callerSearchLatch.countDown();
+                } else {
+                    try {
+                        if (!callerSearchLatch.await(10, TimeUnit.SECONDS)) {
+                            throw new UserStoreException("Searches did not run in the caller.");
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new UserStoreException("Interrupted.", e);
+                    }
+                }
+                return Collections.singletonList(user("alex", domain));
+            }, Integer.MAX_VALUE);
+            assertEquals(users.size(), domains.size());
+            for (int i = 0; i < domains.size(); i++) {
+                assertEquals(users.get(i).getUserStoreDomain(), domains.get(i));
+            }
+            assertNotSame(searchThreads.get("PRIMARY"), callerThread);
+            assertNotSame(searchThreads.get("LDAP1"), callerThread);
+            assertSame(searchThreads.get("LDAP2"), callerThread);
+            assertSame(searchThreads.get("LDAP3"), callerThread);
+        } finally {
+            saturatedExecutor.shutdown();
+        }
+
+        // Searches after the shutdown run in the caller.
+        searchThreads.clear();
+        List<User> users = saturatedExecutor.search(Arrays.asList("PRIMARY", "LDAP1"), domain -> {
+            searchThreads.put(domain, Thread.currentThread());
+            return Collections.singletonList(user("alex", domain));
+        }, Integer.MAX_VALUE);
+        assertEquals(users.size(), 2);
+        assertSame(searchThreads.get("PRIMARY"), callerThread);
+        assertSame(searchThreads.get("LDAP1"), callerThread);
+    }
+
+    private static User user(String username, String domain) {
+
+        User user = new User(username + "-" + domain, username, username);
+        user.setUserStoreDomain(domain);
+        return user;
+    }
+
+    /**
+     * In-memory user store which responds after a fixed latency.
+     */
+    private static final class SlowUserStore {
+
+        private final long latencyMillis;
+        private final List<User> users;
+
+        private SlowUserStore(long latencyMillis, User... users) {
+
+            this.latencyMillis = latencyMillis;
+            this.users = Arrays.asList(users);
+        }
+
+        private List<User> search() throws UserStoreException {
+
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UserStoreException("Interrupted.", e);
+            }
+            return new ArrayList<>(users);
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
@@ -37,6 +38,13 @@ import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 import org.wso2.carbon.identity.recovery.RecoveryScenarios;
 import org.wso2.carbon.identity.recovery.RecoverySteps;
 import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeExpiryPolicyCache;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeExpiryPolicyCacheEntry;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeExpiryPolicyCacheKey;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeLookupCache;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeLookupCacheEntry;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeLookupCacheKey;
+import org.wso2.carbon.identity.recovery.listener.RecoveryConfigIdPMgtListener;
 import org.wso2.carbon.identity.recovery.model.UserRecoveryData;
 import org.wso2.carbon.identity.recovery.util.Utils;
 
@@ -46,6 +54,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Calendar;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -53,14 +63,19 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -86,17 +101,27 @@ public class JDBCRecoveryDataStoreTest {
     @Mock
     private IdentityEventService identityEventService;
 
+    @Mock
+    private PrivilegedCarbonContext privilegedCarbonContext;
+
     private MockedStatic<IdentityDatabaseUtil> mockedIdentityDatabaseUtil;
     private MockedStatic<IdentityTenantUtil> mockedIdentityTenantUtils;
     private MockedStatic<IdentityUtil> mockedIdentityUtil;
     private MockedStatic<Utils> mockedUtils;
     private MockedStatic<IdentityRecoveryServiceDataHolder> mockedIdentityRecoveryServiceDataHolder;
+    private MockedStatic<RecoveryCodeExpiryPolicyCache> mockedRecoveryCodeExpiryPolicyCache;
+    private MockedStatic<RecoveryCodeLookupCache> mockedRecoveryCodeLookupCache;
+    private MockedStatic<PrivilegedCarbonContext> mockedPrivilegedCarbonContext;
+    private final Map<String, RecoveryCodeExpiryPolicyCacheEntry> expiryPolicyCacheEntries = new ConcurrentHashMap<>();
+    private final Map<String, RecoveryCodeLookupCacheEntry> codeLookupCacheEntries = new ConcurrentHashMap<>();
 
     private static final int TEST_TENANT_ID = 12;
     private static final String TEST_TENANT_DOMAIN = "test.com";
+    private static final String OTHER_TENANT_DOMAIN = "other.com";
     private static final String TEST_USER_NAME = "testUser";
     private static final String TEST_USER_STORE_DOMAIN = "testUserStore";
     private static final String TEST_SECRET_CODE = "test-sec";
+    private static final int CODE_VALIDATION_COUNT = 10000;
 
     @BeforeMethod
     public void setUp() throws Exception {
@@ -119,8 +144,15 @@ public class JDBCRecoveryDataStoreTest {
         mockedIdentityUtil.when(() -> IdentityUtil.isUserStoreCaseSensitive(anyString(), anyInt()))
                 .thenReturn(true);
 
+        mockedPrivilegedCarbonContext = mockStatic(PrivilegedCarbonContext.class);
+        mockedPrivilegedCarbonContext.when(PrivilegedCarbonContext::getThreadLocalCarbonContext)
+                .thenReturn(privilegedCarbonContext);
+        when(privilegedCarbonContext.getTenantDomain()).thenReturn(TEST_TENANT_DOMAIN);
+
         when(identityRecoveryServiceDataHolder.getIdentityEventService()).thenReturn(identityEventService);
         when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        mockRecoveryCodeExpiryPolicyCache();
+        mockRecoveryCodeLookupCache();
     }
 
     @AfterMethod
@@ -131,6 +163,11 @@ public class JDBCRecoveryDataStoreTest {
         mockedIdentityUtil.close();
         mockedUtils.close();
         mockedIdentityRecoveryServiceDataHolder.close();
+        mockedRecoveryCodeExpiryPolicyCache.close();
+        mockedRecoveryCodeLookupCache.close();
+        mockedPrivilegedCarbonContext.close();
+        expiryPolicyCacheEntries.clear();
+        codeLookupCacheEntries.clear();
 
         reset(mockConnection, mockPreparedStatement, mockResultSet);
     }
@@ -237,6 +274,217 @@ public class JDBCRecoveryDataStoreTest {
         }
     }
 
+    @Test
+    public void testExpiryPolicyResolvedOncePerTenant() throws Exception {
+
+        mockRecoveryDataRow(RecoveryScenarios.EMAIL_VERIFICATION_ON_UPDATE, RecoverySteps.VERIFY_EMAIL,
+                System.currentTimeMillis() - 60000);
+        mockExpiryTimes();
+
+        for (int i = 0; i < CODE_VALIDATION_COUNT; i++) {
+            UserRecoveryData result = userRecoveryDataStore.load(TEST_SECRET_CODE + i, false);
+            assertEquals(result.getRecoveryScenario(), RecoveryScenarios.EMAIL_VERIFICATION_ON_UPDATE);
+        }
+
+        // The recovery configuration is read once for the tenant, not once per validated code.
+        mockedUtils.verify(() -> Utils.getRecoveryConfigs(IdentityRecoveryConstants.ConnectorConfig
+                .EMAIL_VERIFICATION_ON_UPDATE_EXPIRY_TIME, TEST_TENANT_DOMAIN), times(1));
+        assertNotNull(expiryPolicyCacheEntries.get(TEST_TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testExpiryPolicyRebuiltOnConfigurationChange() throws Exception {
+
+        mockRecoveryDataRow(RecoveryScenarios.EMAIL_VERIFICATION_ON_UPDATE, RecoverySteps.VERIFY_EMAIL,
+                System.currentTimeMillis() - 600000);
+        mockExpiryTimes();
+        mockedUtils.when(() -> Utils.getRecoveryConfigs(IdentityRecoveryConstants
+                        .ConnectorConfig.EMAIL_VERIFICATION_ON_UPDATE_EXPIRY_TIME, TEST_TENANT_DOMAIN))
+                .thenReturn("20");
+        assertNotNull(userRecoveryDataStore.load(TEST_SECRET_CODE, false));
+
+        // Reduce the expiry time and notify the resident IdP update, as done by the governance service.
+        mockedUtils.when(() -> Utils.getRecoveryConfigs(IdentityRecoveryConstants
+                        .ConnectorConfig.EMAIL_VERIFICATION_ON_UPDATE_EXPIRY_TIME, TEST_TENANT_DOMAIN))
+                .thenReturn("5");
+        assertNotNull(userRecoveryDataStore.load(TEST_SECRET_CODE, false));
+        new RecoveryConfigIdPMgtListener().doPostUpdateResidentIdP(null, TEST_TENANT_DOMAIN);
+        assertNull(expiryPolicyCacheEntries.get(TEST_TENANT_DOMAIN));
+
+        mockUtilsErrors();
+        try {
+            userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+            fail("Expected the code to be expired after the configuration change.");
+        } catch (IdentityRecoveryClientException e) {
+            // Expected as the code was created 10 minutes ago.
+        }
+    }
+
+    @Test
+    public void testCodeLookupCache() throws Exception {
+
+        mockedIdentityUtil.when(() -> IdentityUtil.getProperty(IdentityRecoveryConstants.ConnectorConfig
+                .RECOVERY_CODE_LOOKUP_CACHE_ENABLE)).thenReturn("true");
+        mockRecoveryDataRow(RecoveryScenarios.EMAIL_VERIFICATION_ON_UPDATE, RecoverySteps.VERIFY_EMAIL,
+                System.currentTimeMillis() - 60000);
+        mockExpiryTimes();
+
+        UserRecoveryData firstResult = userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+        UserRecoveryData secondResult = userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+        assertEquals(secondResult.getUser().getUserName(), TEST_USER_NAME);
+        assertEquals(secondResult.getRecoveryScenario(), firstResult.getRecoveryScenario());
+        assertEquals(secondResult.getTimeCreated(), firstResult.getTimeCreated());
+        verify(mockPreparedStatement, times(1)).executeQuery();
+        // Events are published for every lookup, including the cached ones.
+        verify(identityEventService, times(4)).handleEvent(any());
+
+        // Invalidating the code removes the cached lookup.
+        userRecoveryDataStore.invalidate(TEST_SECRET_CODE);
+        assertNull(getCachedCodeLookup(TEST_TENANT_DOMAIN, TEST_SECRET_CODE));
+        userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+        verify(mockPreparedStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    public void testCodeLookupCacheKeyDoesNotContainCode() {
+
+        RecoveryCodeLookupCacheKey cacheKey = new RecoveryCodeLookupCacheKey(TEST_SECRET_CODE);
+        assertFalse(cacheKey.getCodeHash().contains(TEST_SECRET_CODE));
+        assertEquals(cacheKey, new RecoveryCodeLookupCacheKey(TEST_SECRET_CODE));
+        assertNotEquals(cacheKey, new RecoveryCodeLookupCacheKey(TEST_SECRET_CODE + "-other"));
+    }
+
+    @Test
+    public void testCodeLookupNotCachedForOtherTenant() throws Exception {
+
+        mockedIdentityUtil.when(() -> IdentityUtil.getProperty(IdentityRecoveryConstants.ConnectorConfig
+                .RECOVERY_CODE_LOOKUP_CACHE_ENABLE)).thenReturn("true");
+        when(privilegedCarbonContext.getTenantDomain()).thenReturn(OTHER_TENANT_DOMAIN);
+        mockRecoveryDataRow(RecoveryScenarios.EMAIL_VERIFICATION_ON_UPDATE, RecoverySteps.VERIFY_EMAIL,
+                System.currentTimeMillis() - 60000);
+        mockExpiryTimes();
+
+        userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+        userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+        // The code belongs to another tenant than the one in context, hence it is not cached in either space.
+        verify(mockPreparedStatement, times(2)).executeQuery();
+        assertTrue(codeLookupCacheEntries.isEmpty());
+    }
+
+    @Test
+    public void testCodeLookupNotCachedAfterConcurrentInvalidation() throws Exception {
+
+        mockedIdentityUtil.when(() -> IdentityUtil.getProperty(IdentityRecoveryConstants.ConnectorConfig
+                .RECOVERY_CODE_LOOKUP_CACHE_ENABLE)).thenReturn("true");
+        mockRecoveryDataRow(RecoveryScenarios.EMAIL_VERIFICATION_ON_UPDATE, RecoverySteps.VERIFY_EMAIL,
+                System.currentTimeMillis() - 60000);
+        mockExpiryTimes();
+        // The code is invalidated after the lookup read it, but before the lookup is cached.
+        when(mockPreparedStatement.executeQuery()).thenAnswer(invocation -> {
+            userRecoveryDataStore.invalidate(TEST_SECRET_CODE);
+            return mockResultSet;
+        }).thenReturn(mockResultSet);
+
+        userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+        assertNull(getCachedCodeLookup(TEST_TENANT_DOMAIN, TEST_SECRET_CODE));
+
+        userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+        assertNotNull(getCachedCodeLookup(TEST_TENANT_DOMAIN, TEST_SECRET_CODE));
+        verify(mockPreparedStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    public void testCodeLookupCacheForNonExistingCode() throws Exception {
+
+        mockedIdentityUtil.when(() -> IdentityUtil.getProperty(IdentityRecoveryConstants.ConnectorConfig
+                .RECOVERY_CODE_LOOKUP_CACHE_ENABLE)).thenReturn("true");
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+        mockUtilsErrors();
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                userRecoveryDataStore.load(TEST_SECRET_CODE, false);
+                fail("Expected IdentityRecoveryClientException was not thrown.");
+            } catch (IdentityRecoveryClientException e) {
+                // Expected for a non-existing code.
+            }
+        }
+        verify(mockPreparedStatement, times(1)).executeQuery();
+        assertNotNull(getCachedCodeLookup(TEST_TENANT_DOMAIN, TEST_SECRET_CODE));
+
+        // Storing the code removes the cached negative lookup.
+        userRecoveryDataStore.store(createSampleUserRecoveryData());
+        assertNull(getCachedCodeLookup(TEST_TENANT_DOMAIN, TEST_SECRET_CODE));
+    }
+
+    private void mockRecoveryDataRow(RecoveryScenarios recoveryScenario, RecoverySteps recoveryStep,
+                                     long timeCreated) throws SQLException {
+
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getString("USER_NAME")).thenReturn(TEST_USER_NAME);
+        when(mockResultSet.getInt("TENANT_ID")).thenReturn(TEST_TENANT_ID);
+        when(mockResultSet.getString("USER_DOMAIN")).thenReturn(TEST_USER_STORE_DOMAIN);
+        when(mockResultSet.getString("SCENARIO")).thenReturn(recoveryScenario.name());
+        when(mockResultSet.getString("STEP")).thenReturn(recoveryStep.name());
+        when(mockResultSet.getTimestamp(eq("TIME_CREATED"), any(Calendar.class)))
+                .thenReturn(new Timestamp(timeCreated));
+        mockedIdentityTenantUtils.when(() -> IdentityTenantUtil.getTenantDomain(TEST_TENANT_ID))
+                .thenReturn(TEST_TENANT_DOMAIN);
+    }
+
+    private void mockRecoveryCodeExpiryPolicyCache() {
+
+        RecoveryCodeExpiryPolicyCache expiryPolicyCache = mock(RecoveryCodeExpiryPolicyCache.class);
+        mockedRecoveryCodeExpiryPolicyCache = mockStatic(RecoveryCodeExpiryPolicyCache.class);
+        mockedRecoveryCodeExpiryPolicyCache.when(RecoveryCodeExpiryPolicyCache::getInstance)
+                .thenReturn(expiryPolicyCache);
+        when(expiryPolicyCache.getValueFromCache(any(RecoveryCodeExpiryPolicyCacheKey.class), anyString()))
+                .thenAnswer(invocation -> expiryPolicyCacheEntries.get(
+                        ((RecoveryCodeExpiryPolicyCacheKey) invocation.getArgument(0)).getTenantDomain()));
+        doAnswer(invocation -> expiryPolicyCacheEntries.put(
+                ((RecoveryCodeExpiryPolicyCacheKey) invocation.getArgument(0)).getTenantDomain(),
+                invocation.getArgument(1))).when(expiryPolicyCache)
+                .addToCache(any(RecoveryCodeExpiryPolicyCacheKey.class), any(RecoveryCodeExpiryPolicyCacheEntry.class),
+                        anyString());
+        doAnswer(invocation -> expiryPolicyCacheEntries.remove(
+                ((RecoveryCodeExpiryPolicyCacheKey) invocation.getArgument(0)).getTenantDomain()))
+                .when(expiryPolicyCache).clearCacheEntry(any(RecoveryCodeExpiryPolicyCacheKey.class), anyString());
+    }
+
+    private void mockRecoveryCodeLookupCache() {
+
+        RecoveryCodeLookupCache codeLookupCache = mock(RecoveryCodeLookupCache.class);
+        mockedRecoveryCodeLookupCache = mockStatic(RecoveryCodeLookupCache.class);
+        mockedRecoveryCodeLookupCache.when(RecoveryCodeLookupCache::getInstance).thenReturn(codeLookupCache);
+        when(codeLookupCache.getValueFromCache(any(RecoveryCodeLookupCacheKey.class), anyString()))
+                .thenAnswer(invocation -> codeLookupCacheEntries.get(getCodeLookupCacheKey(invocation.getArgument(1),
+                        invocation.getArgument(0))));
+        doAnswer(invocation -> codeLookupCacheEntries.put(getCodeLookupCacheKey(invocation.getArgument(2),
+                invocation.getArgument(0)), invocation.getArgument(1)))
+                .when(codeLookupCache).addToCache(any(RecoveryCodeLookupCacheKey.class),
+                        any(RecoveryCodeLookupCacheEntry.class), anyString());
+        doAnswer(invocation -> codeLookupCacheEntries.remove(getCodeLookupCacheKey(invocation.getArgument(1),
+                invocation.getArgument(0))))
+                .when(codeLookupCache).clearCacheEntry(any(RecoveryCodeLookupCacheKey.class), anyString());
+        doAnswer(invocation -> {
+            String tenantPrefix = invocation.getArgument(0) + ":";
+            codeLookupCacheEntries.keySet().removeIf(key -> key.startsWith(tenantPrefix));
+            return null;
+        }).when(codeLookupCache).clear(anyString());
+    }
+
+    private RecoveryCodeLookupCacheEntry getCachedCodeLookup(String tenantDomain, String code) {
+
+        return codeLookupCacheEntries.get(getCodeLookupCacheKey(tenantDomain, new RecoveryCodeLookupCacheKey(code)));
+    }
+
+    private static String getCodeLookupCacheKey(String tenantDomain, RecoveryCodeLookupCacheKey cacheKey) {
+
+        return tenantDomain + ":" + cacheKey.getCodeHash();
+    }
+
     private void mockExpiryTimes() {
 
         mockedUtils.when(() -> Utils.getRecoveryConfigs(IdentityRecoveryConstants
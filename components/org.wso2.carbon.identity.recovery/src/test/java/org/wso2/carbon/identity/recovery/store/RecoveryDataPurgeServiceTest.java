@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.recovery.store;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
+import org.wso2.carbon.identity.recovery.RecoveryScenarios;
+import org.wso2.carbon.identity.recovery.RecoverySteps;
+import org.wso2.carbon.identity.recovery.internal.cache.RecoveryCodeExpiryPolicyCache;
+import org.wso2.carbon.identity.recovery.util.Utils;
+import org.wso2.carbon.utils.dbcreator.DatabaseCreator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for the expired recovery data purge against an H2 database.
+ */
+public class RecoveryDataPurgeServiceTest {
+
+    private static final String DB_URL = "jdbc:h2:mem:recovery_data_purge;DB_CLOSE_DELAY=-1";
+    private static final String OTHER_NODE_ID = "other-node";
+    private static final String EXPIRY_TIME_IN_MINUTES = "10";
+    private static final int BATCH_SIZE = 5000;
+    private static final int GRACE_PERIOD_IN_MINUTES = 60;
+    private static final int TENANT_RANGE_COUNT = 4;
+    private static final int TENANT_COUNT = 16;
+    private static final int SEEDED_EXPIRED_ROW_COUNT = 200000;
+    private static final int SEEDED_VALID_ROW_COUNT = 1000;
+
+    private MockedStatic<IdentityDatabaseUtil> mockedIdentityDatabaseUtil;
+    private MockedStatic<IdentityTenantUtil> mockedIdentityTenantUtil;
+    private MockedStatic<IdentityUtil> mockedIdentityUtil;
+    private MockedStatic<Utils> mockedUtils;
+    private MockedStatic<DatabaseCreator> mockedDatabaseCreator;
+    private MockedStatic<RecoveryCodeExpiryPolicyCache> mockedRecoveryCodeExpiryPolicyCache;
+    private int seededRowCount;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        String scriptPath = Paths.get(System.getProperty("user.dir"), "src", "test", "resources", "dbscripts",
+                "h2.sql").toString();
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + scriptPath + "'");
+        }
+    }
+
+    @AfterClass
+    public void tearDownClass() throws Exception {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        executeUpdate("DELETE FROM IDN_RECOVERY_DATA");
+        executeUpdate("DELETE FROM IDN_RECOVERY_PURGE_LEASE");
+        seededRowCount = 0;
+
+        mockedIdentityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class);
+        mockedIdentityDatabaseUtil.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> {
+                    Connection connection = DriverManager.getConnection(DB_URL);
+                    connection.setAutoCommit(false);
+                    return connection;
+                });
+        mockedIdentityDatabaseUtil.when(() -> IdentityDatabaseUtil.commitTransaction(any(Connection.class)))
+                .thenAnswer(invocation -> {
+                    ((Connection) invocation.getArgument(0)).commit();
+                    return null;
+                });
+        mockedIdentityDatabaseUtil.when(() -> IdentityDatabaseUtil.rollbackTransaction(any(Connection.class)))
+                .thenAnswer(invocation -> {
+                    ((Connection) invocation.getArgument(0)).rollback();
+                    return null;
+                });
+        mockedIdentityDatabaseUtil.when(() -> IdentityDatabaseUtil.closeConnection(any(Connection.class)))
+                .thenAnswer(invocation -> {
+                    ((Connection) invocation.getArgument(0)).close();
+                    return null;
+                });
+
+        mockedIdentityTenantUtil = mockStatic(IdentityTenantUtil.class);
+        mockedIdentityTenantUtil.when(() -> IdentityTenantUtil.getTenantDomain(anyInt()))
+                .thenAnswer(invocation -> "tenant" + invocation.getArgument(0));
+        mockedIdentityUtil = mockStatic(IdentityUtil.class);
+
+        mockedUtils = mockStatic(Utils.class);
+        mockedUtils.when(() -> Utils.getRecoveryConfigs(anyString(), anyString())).thenReturn(EXPIRY_TIME_IN_MINUTES);
+        // Ask password codes never expire.
+        mockedUtils.when(() -> Utils.getRecoveryConfigs(
+                eq(IdentityRecoveryConstants.ConnectorConfig.ASK_PASSWORD_EXPIRY_TIME), anyString())).thenReturn("-1");
+
+        mockedDatabaseCreator = mockStatic(DatabaseCreator.class);
+        mockedDatabaseCreator.when(() -> DatabaseCreator.getDatabaseType(any(Connection.class))).thenReturn("h2");
+
+        mockedRecoveryCodeExpiryPolicyCache = mockStatic(RecoveryCodeExpiryPolicyCache.class);
+        mockedRecoveryCodeExpiryPolicyCache.when(RecoveryCodeExpiryPolicyCache::getInstance)
+                .thenReturn(mock(RecoveryCodeExpiryPolicyCache.class));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        mockedIdentityDatabaseUtil.close();
+        mockedIdentityTenantUtil.close();
+        mockedIdentityUtil.close();
+        mockedUtils.close();
+        mockedDatabaseCreator.close();
+        mockedRecoveryCodeExpiryPolicyCache.close();
+    }
+
+    @Test
+    public void testPurgeExpiredRecoveryData() throws Exception {
+
+        long now = System.currentTimeMillis();
+        seedRecoveryData(RecoveryScenarios.NOTIFICATION_BASED_PW_RECOVERY.name(),
+                RecoverySteps.UPDATE_PASSWORD.name(), SEEDED_EXPIRED_ROW_COUNT, now - TimeUnit.DAYS.toMillis(2));
+        // The longest validity is the SMS recovery flow id expiry of 10 * 10 minutes, so these rows are kept.
+        seedRecoveryData(RecoveryScenarios.NOTIFICATION_BASED_PW_RECOVERY.name(),
+                RecoverySteps.UPDATE_PASSWORD.name(), SEEDED_VALID_ROW_COUNT, now - TimeUnit.MINUTES.toMillis(90));
+        seedRecoveryData(RecoveryScenarios.ASK_PASSWORD.name(), RecoverySteps.UPDATE_PASSWORD.name(),
+                SEEDED_VALID_ROW_COUNT, now - TimeUnit.DAYS.toMillis(2));
+        seedRecoveryData("UNKNOWN_SCENARIO", RecoverySteps.UPDATE_PASSWORD.name(), SEEDED_VALID_ROW_COUNT,
+                now - TimeUnit.DAYS.toMillis(2));
+
+        RecoveryDataPurgeService purgeService = new RecoveryDataPurgeService(BATCH_SIZE, GRACE_PERIOD_IN_MINUTES,
+                TENANT_RANGE_COUNT);
+        assertEquals(purgeService.purge(), SEEDED_EXPIRED_ROW_COUNT);
+        assertEquals(purgeService.getPurgedRowCount(), SEEDED_EXPIRED_ROW_COUNT);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_DATA"), 3 * SEEDED_VALID_ROW_COUNT);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_PURGE_LEASE"), 0,
+                "Leases should be released after the purge.");
+
+        assertEquals(purgeService.purge(), 0);
+        assertEquals(purgeService.getPurgedRowCount(), SEEDED_EXPIRED_ROW_COUNT);
+    }
+
+    @Test
+    public void testPurgeSkipsTenantRangeLeasedByAnotherNode() throws Exception {
+
+        int rowCount = 4000;
+        long now = System.currentTimeMillis();
+        seedRecoveryData(RecoveryScenarios.NOTIFICATION_BASED_PW_RECOVERY.name(),
+                RecoverySteps.UPDATE_PASSWORD.name(), rowCount, now - TimeUnit.DAYS.toMillis(2));
+        insertLease(1, OTHER_NODE_ID, now + TimeUnit.MINUTES.toMillis(10));
+
+        RecoveryDataPurgeService purgeService = new RecoveryDataPurgeService(BATCH_SIZE, GRACE_PERIOD_IN_MINUTES,
+                TENANT_RANGE_COUNT);
+        int leasedRangeRowCount = rowCount / TENANT_RANGE_COUNT;
+        assertEquals(purgeService.purge(), rowCount - leasedRangeRowCount);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_DATA WHERE MOD(TENANT_ID, " +
+                TENANT_RANGE_COUNT + ") = 1"), leasedRangeRowCount);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_PURGE_LEASE"), 1);
+
+        // An expired lease of another node is taken over.
+        executeUpdate("DELETE FROM IDN_RECOVERY_PURGE_LEASE");
+        insertLease(1, OTHER_NODE_ID, now - TimeUnit.MINUTES.toMillis(1));
+        assertEquals(purgeService.purge(), leasedRangeRowCount);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_DATA"), 0);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_PURGE_LEASE"), 0);
+    }
+
+    @Test
+    public void testLeaseConflictDoesNotAbortTransaction() throws Exception {
+
+        int rowCount = 4000;
+        long now = System.currentTimeMillis();
+        seedRecoveryData(RecoveryScenarios.NOTIFICATION_BASED_PW_RECOVERY.name(),
+                RecoverySteps.UPDATE_PASSWORD.name(), rowCount, now - TimeUnit.DAYS.toMillis(2));
+        RecoveryDataPurgeService purgeService = new RecoveryDataPurgeService(BATCH_SIZE, GRACE_PERIOD_IN_MINUTES,
+                TENANT_RANGE_COUNT);
+        mockedIdentityDatabaseUtil.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> {
+                    Connection connection = DriverManager.getConnection(DB_URL);
+                    connection.setAutoCommit(false);
+                    // Another node inserts the lease of a range after this node found no lease to renew. Like
+                    // PostgreSQL, the failed insert of the lease by this node aborts its transaction.
+                    return abortTransactionOnError(connection, () -> {
+                        if (countRows("SELECT COUNT(*) FROM IDN_RECOVERY_PURGE_LEASE WHERE RANGE_ID = 2") == 0) {
+                            insertLease(2, OTHER_NODE_ID, now + TimeUnit.MINUTES.toMillis(10));
+                        }
+                    });
+                });
+
+        int leasedRangeRowCount = rowCount / TENANT_RANGE_COUNT;
+        assertEquals(purgeService.purge(), rowCount - leasedRangeRowCount);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_DATA WHERE MOD(TENANT_ID, " +
+                TENANT_RANGE_COUNT + ") = 2"), leasedRangeRowCount);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_PURGE_LEASE WHERE NODE_ID = '" + OTHER_NODE_ID +
+                "'"), 1);
+    }
+
+    @Test
+    public void testPurgeStopsTenantRangeWhenLeaseIsLost() throws Exception {
+
+        int rowCount = 4000;
+        int batchSize = 100;
+        long now = System.currentTimeMillis();
+        seedRecoveryData(RecoveryScenarios.NOTIFICATION_BASED_PW_RECOVERY.name(),
+                RecoverySteps.UPDATE_PASSWORD.name(), rowCount, now - TimeUnit.DAYS.toMillis(2));
+        RecoveryDataPurgeService purgeService = new RecoveryDataPurgeService(batchSize, GRACE_PERIOD_IN_MINUTES,
+                TENANT_RANGE_COUNT);
+        mockedIdentityDatabaseUtil.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> {
+                    Connection connection = DriverManager.getConnection(DB_URL);
+                    connection.setAutoCommit(false);
+                    // Another node takes over the lease of range 0 while this node purges its first batch.
+                    return runBeforeLeaseRenewal(connection, () -> executeUpdate("UPDATE IDN_RECOVERY_PURGE_LEASE " +
+                            "SET NODE_ID = '" + OTHER_NODE_ID + "' WHERE RANGE_ID = 0"));
+                });
+
+        // Only the first batch of range 0 is purged, and none of the other tenants of the range.
+        int rangeRowCount = rowCount / TENANT_RANGE_COUNT;
+        assertEquals(purgeService.purge(), rowCount - rangeRowCount + batchSize);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_DATA WHERE MOD(TENANT_ID, " +
+                TENANT_RANGE_COUNT + ") = 0"), rangeRowCount - batchSize);
+        assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_DATA"), rangeRowCount - batchSize);
+    }
+
+    @Test
+    public void testPurgeWithGracePeriodOfZero() throws Exception {
+
+        long now = System.currentTimeMillis();
+        // Expired 20 minutes after the longest validity of 100 minutes.
+        seedRecoveryData(RecoveryScenarios.NOTIFICATION_BASED_PW_RECOVERY.name(),
+                RecoverySteps.UPDATE_PASSWORD.name(), 100, now - TimeUnit.MINUTES.toMillis(120));
+
+        assertEquals(new RecoveryDataPurgeService(BATCH_SIZE, GRACE_PERIOD_IN_MINUTES, TENANT_RANGE_COUNT).purge(),
+                0);
+        assertEquals(new RecoveryDataPurgeService(BATCH_SIZE, 0, TENANT_RANGE_COUNT).purge(), 100);
+    }
+
+    @Test
+    public void testPurgeWithoutLeaseTable() throws Exception {
+
+        int rowCount = 1000;
+        seedRecoveryData(RecoveryScenarios.NOTIFICATION_BASED_PW_RECOVERY.name(),
+                RecoverySteps.UPDATE_PASSWORD.name(), rowCount,
+                System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+        executeUpdate("ALTER TABLE IDN_RECOVERY_PURGE_LEASE RENAME TO IDN_RECOVERY_PURGE_LEASE_BACKUP");
+        try {
+            RecoveryDataPurgeService purgeService = new RecoveryDataPurgeService(100, GRACE_PERIOD_IN_MINUTES,
+                    TENANT_RANGE_COUNT);
+            assertEquals(purgeService.purge(), rowCount);
+            assertEquals(countRows("SELECT COUNT(*) FROM IDN_RECOVERY_DATA"), 0);
+        } finally {
+            executeUpdate("ALTER TABLE IDN_RECOVERY_PURGE_LEASE_BACKUP RENAME TO IDN_RECOVERY_PURGE_LEASE");
+        }
+    }
+
+    private void seedRecoveryData(String scenario, String step, int rowCount, long timeCreated)
+            throws SQLException {
+
+        String query = "INSERT INTO IDN_RECOVERY_DATA (USER_NAME, USER_DOMAIN, TENANT_ID, CODE, SCENARIO, STEP, " +
+                "TIME_CREATED, REMAINING_SETS) SELECT CONCAT('user', X), 'PRIMARY', MOD(X, " + TENANT_COUNT +
+                "), CONCAT('code', X), ?, ?, CAST(? AS TIMESTAMP), 'SMS' FROM SYSTEM_RANGE(?, ?)";
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             PreparedStatement prepStmt = connection.prepareStatement(query)) {
+            prepStmt.setString(1, scenario);
+            prepStmt.setString(2, step);
+            prepStmt.setTimestamp(3, new Timestamp(timeCreated), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+            prepStmt.setInt(4, seededRowCount + 1);
+            prepStmt.setInt(5, seededRowCount + rowCount);
+            prepStmt.executeUpdate();
+        }
+        seededRowCount += rowCount;
+    }
+
+    private void insertLease(int rangeId, String nodeId, long leaseExpiry) throws SQLException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "INSERT INTO IDN_RECOVERY_PURGE_LEASE (RANGE_ID, NODE_ID, LEASE_EXPIRY) VALUES (?, ?, ?)")) {
+            prepStmt.setInt(1, rangeId);
+            prepStmt.setString(2, nodeId);
+            prepStmt.setTimestamp(3, new Timestamp(leaseExpiry), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+            prepStmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Wrap the connection so that a failed statement aborts the transaction as on PostgreSQL. Statements and the
+     * commit fail until the transaction or the savepoint before the failed statement is rolled back.
+     *
+     * @param connection   Connection to wrap.
+     * @param beforeInsert Action run before each lease insert.
+     * @return Wrapped connection.
+     */
+    private Connection abortTransactionOnError(Connection connection, SQLAction beforeInsert) {
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("rollback".equals(method.getName())) {
+                        aborted.set(false);
+                    } else if ("commit".equals(method.getName()) && aborted.get()) {
+                        connection.rollback();
+                        aborted.set(false);
+                        throw new SQLException("The transaction is aborted and cannot be committed.", "25P02");
+                    } else if ("prepareStatement".equals(method.getName())) {
+                        PreparedStatement prepStmt = (PreparedStatement) invoke(method, connection, args);
+                        boolean leaseInsert = ((String) args[0]).startsWith("INSERT INTO IDN_RECOVERY_PURGE_LEASE");
+                        return abortTransactionOnError(prepStmt, aborted, leaseInsert ? beforeInsert : null);
+                    }
+                    return invoke(method, connection, args);
+                });
+    }
+
+    /**
+     * Wrap the connection so that an action runs before each renewal of a lease.
+     *
+     * @param connection   Connection to wrap.
+     * @param beforeRenew  Action run before each lease renewal.
+     * @return Wrapped connection.
+     */
+    private Connection runBeforeLeaseRenewal(Connection connection, SQLAction beforeRenew) {
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(method, connection, args);
+                    if ("prepareStatement".equals(method.getName()) &&
+                            ((String) args[0]).startsWith("UPDATE IDN_RECOVERY_PURGE_LEASE")) {
+                        beforeRenew.run();
+                    }
+                    return result;
+                });
+    }
+
+    private PreparedStatement abortTransactionOnError(PreparedStatement prepStmt, AtomicBoolean aborted,
+                                                      SQLAction beforeExecute) {
+
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(method, prepStmt, args);
+                    }
+                    if (aborted.get()) {
+                        throw new SQLException("The transaction is aborted.", "25P02");
+                    }
+                    if (beforeExecute != null) {
+                        beforeExecute.run();
+                    }
+                    try {
+                        return invoke(method, prepStmt, args);
+                    } catch (SQLException e) {
+                        aborted.set(true);
+                        throw e;
+                    }
+                });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int countRows(String query) throws SQLException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private void executeUpdate(String query) throws SQLException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(query);
+        }
+    }
+
+    /**
+     * Database action of the tests.
+     */
+    private interface SQLAction {
+
+        void run() throws SQLException;
+    }
+}
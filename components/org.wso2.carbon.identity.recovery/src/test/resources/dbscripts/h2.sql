@@ -0,0 +1,28 @@
+-- -----------------------------------------------------
+-- Table IDN_RECOVERY_DATA
+-- -----------------------------------------------------
+CREATE TABLE IDN_RECOVERY_DATA (
+            USER_NAME VARCHAR(255) NOT NULL,
+            USER_DOMAIN VARCHAR(127) NOT NULL,
+            TENANT_ID INTEGER DEFAULT -1,
+            CODE VARCHAR(255) NOT NULL,
+            SCENARIO VARCHAR(255) NOT NULL,
+            STEP VARCHAR(127) NOT NULL,
+            TIME_CREATED TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+            REMAINING_SETS VARCHAR(2500) DEFAULT NULL,
+            RECOVERY_FLOW_ID VARCHAR(255),
+            PRIMARY KEY (USER_NAME, USER_DOMAIN, TENANT_ID, SCENARIO, STEP),
+            UNIQUE (CODE)
+);
+
+CREATE INDEX IDX_RECOVERY_DATA_EXPIRY ON IDN_RECOVERY_DATA (TENANT_ID, SCENARIO, STEP, TIME_CREATED);
+
+-- -----------------------------------------------------
+-- Table IDN_RECOVERY_PURGE_LEASE
+-- -----------------------------------------------------
+CREATE TABLE IDN_RECOVERY_PURGE_LEASE (
+            RANGE_ID INTEGER NOT NULL,
+            NODE_ID VARCHAR(255) NOT NULL,
+            LEASE_EXPIRY TIMESTAMP NOT NULL,
+            PRIMARY KEY (RANGE_ID)
+);
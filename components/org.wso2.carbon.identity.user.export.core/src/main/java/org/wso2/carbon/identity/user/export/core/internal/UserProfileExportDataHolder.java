@@ -19,6 +19,7 @@
 package org.wso2.carbon.identity.user.export.core.internal;
 
 import org.wso2.carbon.consent.mgt.core.ConsentManager;
+import org.wso2.carbon.identity.user.export.core.internal.service.impl.UserInformationProviderExecutor;
 import org.wso2.carbon.identity.user.export.core.service.UserInformationProvider;
 import org.wso2.carbon.identity.user.profile.mgt.association.federation.FederatedAssociationManager;
 import org.wso2.carbon.user.core.service.RealmService;
@@ -34,6 +35,7 @@ public class UserProfileExportDataHolder {
     private static RealmService realmService;
     private static FederatedAssociationManager federatedAssociationManager;
     private static ConsentManager consentManager;
+    private static volatile UserInformationProviderExecutor userInformationProviderExecutor;
 
     public static List<UserInformationProvider> getUserInformationProviders() {
 
@@ -108,4 +110,25 @@ public class UserProfileExportDataHolder {
 
         UserProfileExportDataHolder.consentManager = consentManager;
     }
+
+    /**
+     * Get the executor which invokes the user information providers concurrently.
+     *
+     * @return User information provider executor, or null if the providers are invoked one after another.
+     */
+    public static UserInformationProviderExecutor getUserInformationProviderExecutor() {
+
+        return userInformationProviderExecutor;
+    }
+
+    /**
+     * Set the executor which invokes the user information providers concurrently.
+     *
+     * @param userInformationProviderExecutor User information provider executor.
+     */
+    public static void setUserInformationProviderExecutor(
+            UserInformationProviderExecutor userInformationProviderExecutor) {
+
+        UserProfileExportDataHolder.userInformationProviderExecutor = userInformationProviderExecutor;
+    }
 }
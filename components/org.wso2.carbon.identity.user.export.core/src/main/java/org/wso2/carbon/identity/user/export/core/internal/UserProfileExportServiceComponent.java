@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.user.export.core.internal;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.ComponentContext;
@@ -28,9 +29,12 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 import org.wso2.carbon.consent.mgt.core.ConsentManager;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
 import org.wso2.carbon.identity.user.export.core.internal.service.impl.BasicUserInformationProvider;
 import org.wso2.carbon.identity.user.export.core.internal.service.impl.ConsentInformationProvider;
 import org.wso2.carbon.identity.user.export.core.internal.service.impl.SecurityInformationProvider;
+import org.wso2.carbon.identity.user.export.core.internal.service.impl.UserInformationProviderExecutor;
 import org.wso2.carbon.identity.user.export.core.internal.service.impl.UserInformationServiceImpl;
 import org.wso2.carbon.identity.user.export.core.service.UserInformationProvider;
 import org.wso2.carbon.identity.user.export.core.service.UserInformationService;
@@ -50,6 +54,19 @@ public class UserProfileExportServiceComponent {
 
     private static final Log LOG = LogFactory.getLog(UserProfileExportServiceComponent.class);
 
+    // Configs of the concurrent invocation of the user information providers.
+    private static final String PROVIDER_EXECUTOR_ENABLE = "UserInformationExport.ProviderExecutor.Enable";
+    private static final String PROVIDER_EXECUTOR_POOL_SIZE = "UserInformationExport.ProviderExecutor.PoolSize";
+    private static final String PROVIDER_EXECUTOR_QUEUE_CAPACITY =
+            "UserInformationExport.ProviderExecutor.QueueCapacity";
+    private static final String PROVIDER_EXECUTOR_PROVIDER_TIMEOUT =
+            "UserInformationExport.ProviderExecutor.ProviderTimeout";
+    private static final int DEFAULT_PROVIDER_EXECUTOR_POOL_SIZE = 10;
+    private static final int DEFAULT_PROVIDER_EXECUTOR_QUEUE_CAPACITY = 100;
+    private static final int DEFAULT_PROVIDER_EXECUTOR_PROVIDER_TIMEOUT = 30000;
+
+    private UserInformationProviderExecutor userInformationProviderExecutor;
+
     @Activate
     protected void activate(ComponentContext ctxt) {
 
@@ -77,6 +94,7 @@ public class UserProfileExportServiceComponent {
             SecurityInformationProvider securityInformationProvider = new SecurityInformationProvider();
             ctxt.getBundleContext().registerService(UserInformationProvider.class.getName(), securityInformationProvider,
                     null);
+            initUserInformationProviderExecutor();
         } catch (Exception e) {
             LOG.error("Error while activating UserProfileExportServiceComponent", e);
         }
@@ -85,9 +103,33 @@ public class UserProfileExportServiceComponent {
     @Deactivate
     protected void deactivate(ComponentContext ctxt) {
 
+        if (userInformationProviderExecutor != null) {
+            UserProfileExportDataHolder.setUserInformationProviderExecutor(null);
+            userInformationProviderExecutor.shutdown();
+        }
         LOG.debug("User profile export service bundle is deactivated.");
     }
 
+    /**
+     * Create the executor which invokes the user information providers of an export concurrently, unless it is
+     * disabled.
+     */
+    private void initUserInformationProviderExecutor() {
+
+        String enabled = IdentityUtil.getProperty(PROVIDER_EXECUTOR_ENABLE);
+        if (StringUtils.isNotBlank(enabled) && !Boolean.parseBoolean(enabled.trim())) {
+            return;
+        }
+        userInformationProviderExecutor = new UserInformationProviderExecutor(
+                ExecutorConfigUtil.getPositiveIntProperty(PROVIDER_EXECUTOR_POOL_SIZE,
+                        DEFAULT_PROVIDER_EXECUTOR_POOL_SIZE),
+                ExecutorConfigUtil.getPositiveIntProperty(PROVIDER_EXECUTOR_QUEUE_CAPACITY,
+                        DEFAULT_PROVIDER_EXECUTOR_QUEUE_CAPACITY),
+                ExecutorConfigUtil.getPositiveIntProperty(PROVIDER_EXECUTOR_PROVIDER_TIMEOUT,
+                        DEFAULT_PROVIDER_EXECUTOR_PROVIDER_TIMEOUT));
+        UserProfileExportDataHolder.setUserInformationProviderExecutor(userInformationProviderExecutor);
+    }
+
     @Reference(
             name = "user.realm.service",
             service = RealmService.class,
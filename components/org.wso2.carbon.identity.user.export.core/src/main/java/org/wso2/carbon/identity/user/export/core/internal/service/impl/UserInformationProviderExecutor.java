@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.user.export.core.internal.service.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.governance.ExecutorConfigUtil;
+import org.wso2.carbon.identity.user.export.core.UserExportException;
+import org.wso2.carbon.identity.user.export.core.dto.UserInformationDTO;
+import org.wso2.carbon.identity.user.export.core.model.RetainedUserInformation;
+import org.wso2.carbon.identity.user.export.core.service.UserInformationProvider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the user information providers of an export concurrently on a bounded pool, in the tenant flow of the caller.
+ * When the pool is saturated or shut down, a provider runs in the caller thread instead of waiting. The information
+ * of the providers which do not respond within the provider timeout is left out and reported as incomplete, while a
+ * provider failure fails the export. The information is collected in the order of the given providers, so the
+ * result does not depend on which provider responds first.
+ */
+public class UserInformationProviderExecutor {
+
+    private static final Log log = LogFactory.getLog(UserInformationProviderExecutor.class);
+    private static final long SHUTDOWN_WAIT_SECONDS = 10L;
+
+    private final ThreadPoolExecutor executor;
+    private final long providerTimeoutMillis;
+
+    /**
+     * Create a user information provider executor.
+     *
+     * @param poolSize              Maximum number of concurrent provider invocations.
+     * @param queueCapacity         Maximum number of provider invocations waiting for a pool thread.
+     * @param providerTimeoutMillis Time in milliseconds, from the start of an export, within which a provider should
+     *                              respond.
+     */
+    public UserInformationProviderExecutor(int poolSize, int queueCapacity, long providerTimeoutMillis) {
+
+        if (poolSize <= 0 || queueCapacity <= 0 || providerTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Pool size, queue capacity and provider timeout of the user " +
+                    "information provider executor should be positive.");
+        }
+        this.executor = ExecutorConfigUtil.createCallerRunsExecutor("UserInformationProviderExecutor", poolSize,
+                queueCapacity);
+        this.providerTimeoutMillis = providerTimeoutMillis;
+    }
+
+    /**
+     * Retrieve the retained information of the user from the given providers concurrently.
+     *
+     * @param providers       Enabled user information providers, in the order of the result.
+     * @param username        Username of the user.
+     * @param userStoreDomain User store domain of the user.
+     * @param tenantId        Tenant id of the user.
+     * @return Retained user information and the types of the providers which timed out.
+     * @throws UserExportException If a provider failed to retrieve the information.
+     */
+    public RetainedUserInformation execute(List<UserInformationProvider> providers, String username,
+                                           String userStoreDomain, int tenantId) throws UserExportException {
+
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        int callerTenantId = carbonContext.getTenantId();
+        String callerTenantDomain = carbonContext.getTenantDomain();
+        String callerUsername = carbonContext.getUsername();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(providerTimeoutMillis);
+        List<Future<UserInformationDTO>> futures = new ArrayList<>(providers.size());
+        for (UserInformationProvider provider : providers) {
+            futures.add(executor.submit(() -> retrieveInTenantFlow(callerTenantId, callerTenantDomain,
+                    callerUsername, provider, username, userStoreDomain, tenantId)));
+        }
+
+        Map<String, Object> userInformation = new LinkedHashMap<>();
+        List<String> incompleteTypes = new ArrayList<>();
+        try {
+            for (int i = 0; i < providers.size(); i++) {
+                String type = providers.get(i).getType();
+                UserInformationDTO retainedUserInformation;
+                try {
+                    retainedUserInformation = getResult(futures.get(i), deadline);
+                } catch (TimeoutException e) {
+                    futures.get(i).cancel(true);
+                    incompleteTypes.add(type);
+                    log.warn("User information provider of the type: " + type + " did not respond within " +
+                            providerTimeoutMillis + "ms. The information of the type is not exported.");
+                    continue;
+                }
+                if (retainedUserInformation != null && retainedUserInformation.isInformationAvailable()) {
+                    userInformation.put(type, retainedUserInformation.getData());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserExportException("Interrupted while retrieving the user information.", e);
+        } finally {
+            for (Future<UserInformationDTO> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return new RetainedUserInformation(userInformation, incompleteTypes);
+    }
+
+    /**
+     * Stop the pool threads. Providers invoked afterwards run in the caller thread.
+     */
+    public void shutdown() {
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private UserInformationDTO retrieveInTenantFlow(int callerTenantId, String callerTenantDomain,
+                                                    String callerUsername, UserInformationProvider provider,
+                                                    String username, String userStoreDomain, int tenantId)
+            throws UserExportException {
+
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(callerTenantId);
+            carbonContext.setTenantDomain(callerTenantDomain);
+            carbonContext.setUsername(callerUsername);
+            return provider.getRetainedUserInformation(username, userStoreDomain, tenantId);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private UserInformationDTO getResult(Future<UserInformationDTO> future, long deadline)
+            throws UserExportException, InterruptedException, TimeoutException {
+
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UserExportException) {
+                throw (UserExportException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new UserExportException("Error while retrieving the user information.", cause);
+        }
+    }
+}
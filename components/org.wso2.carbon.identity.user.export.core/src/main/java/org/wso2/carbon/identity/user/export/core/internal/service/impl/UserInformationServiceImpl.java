@@ -21,10 +21,15 @@ package org.wso2.carbon.identity.user.export.core.internal.service.impl;
 import org.wso2.carbon.identity.user.export.core.UserExportException;
 import org.wso2.carbon.identity.user.export.core.dto.UserInformationDTO;
 import org.wso2.carbon.identity.user.export.core.internal.UserProfileExportDataHolder;
+import org.wso2.carbon.identity.user.export.core.model.RetainedUserInformation;
 import org.wso2.carbon.identity.user.export.core.service.UserInformationProvider;
 import org.wso2.carbon.identity.user.export.core.service.UserInformationService;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,23 +37,61 @@ import java.util.Map;
  */
 public class UserInformationServiceImpl implements UserInformationService {
 
-
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The export fails if a provider does not respond within the provider timeout, since the callers of this method
+     * cannot tell a partial export from a complete one.
+     */
     @Override
     public Map<String, Object> getRetainedUserInformation(String username, String userStoreDomain, int tenantId)
             throws UserExportException {
 
-        Map<String, Object> userInformation = new HashMap<>();
+        RetainedUserInformation retainedUserInformation =
+                getRetainedUserInformationWithStatus(username, userStoreDomain, tenantId);
+        if (!retainedUserInformation.isComplete()) {
+            throw new UserExportException("Information of the types: " + retainedUserInformation.getIncompleteTypes()
+                    + " could not be retrieved in time.", null);
+        }
+        return retainedUserInformation.getUserInformation();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The enabled providers are invoked concurrently when the provider executor is available. The information is
+     * ordered by the type of the information.
+     */
+    @Override
+    public RetainedUserInformation getRetainedUserInformationWithStatus(String username, String userStoreDomain,
+                                                                        int tenantId) throws UserExportException {
+
+        List<UserInformationProvider> enabledProviders = new ArrayList<>();
         for (UserInformationProvider userInformationProvider :
-                UserProfileExportDataHolder.getUserInformationProviders()) {
+                new ArrayList<>(UserProfileExportDataHolder.getUserInformationProviders())) {
             if (userInformationProvider.isEnabled()) {
-                UserInformationDTO retainedUserInformation =
-                        userInformationProvider.getRetainedUserInformation(username, userStoreDomain, tenantId);
-                if (retainedUserInformation != null && retainedUserInformation.isInformationAvailable()) {
-                    String type = userInformationProvider.getType();
-                    userInformation.put(type, retainedUserInformation.getData());
-                }
+                enabledProviders.add(userInformationProvider);
+            }
+        }
+        // Stable sort, hence a later registered provider of the same type still replaces the information.
+        enabledProviders.sort(Comparator.comparing(UserInformationProvider::getType,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        UserInformationProviderExecutor providerExecutor =
+                UserProfileExportDataHolder.getUserInformationProviderExecutor();
+        if (providerExecutor != null && enabledProviders.size() > 1) {
+            return providerExecutor.execute(enabledProviders, username, userStoreDomain, tenantId);
+        }
+
+        Map<String, Object> userInformation = new LinkedHashMap<>();
+        for (UserInformationProvider userInformationProvider : enabledProviders) {
+            UserInformationDTO retainedUserInformation =
+                    userInformationProvider.getRetainedUserInformation(username, userStoreDomain, tenantId);
+            if (retainedUserInformation != null && retainedUserInformation.isInformationAvailable()) {
+                String type = userInformationProvider.getType();
+                userInformation.put(type, retainedUserInformation.getData());
             }
         }
-        return userInformation;
+        return new RetainedUserInformation(userInformation, Collections.emptyList());
     }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.user.export.core.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retained information of a user, keyed by the type of the information, along with the types of information which
+ * could not be retrieved before the provider timeout.
+ */
+public class RetainedUserInformation {
+
+    private final Map<String, Object> userInformation;
+    private final List<String> incompleteTypes;
+
+    /**
+     * @param userInformation Retained user information, keyed by the type of the information.
+     * @param incompleteTypes Types of information which could not be retrieved in time.
+     */
+    public RetainedUserInformation(Map<String, Object> userInformation, List<String> incompleteTypes) {
+
+        this.userInformation = userInformation;
+        this.incompleteTypes = Collections.unmodifiableList(incompleteTypes);
+    }
+
+    public Map<String, Object> getUserInformation() {
+
+        return userInformation;
+    }
+
+    public List<String> getIncompleteTypes() {
+
+        return incompleteTypes;
+    }
+
+    /**
+     * Check whether every type of information was retrieved.
+     *
+     * @return True if no provider timed out.
+     */
+    public boolean isComplete() {
+
+        return incompleteTypes.isEmpty();
+    }
+}
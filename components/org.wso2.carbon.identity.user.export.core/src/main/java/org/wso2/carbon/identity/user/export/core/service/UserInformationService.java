@@ -19,7 +19,9 @@
 package org.wso2.carbon.identity.user.export.core.service;
 
 import org.wso2.carbon.identity.user.export.core.UserExportException;
+import org.wso2.carbon.identity.user.export.core.model.RetainedUserInformation;
 
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -27,4 +29,21 @@ import java.util.Map;
  */
 public interface UserInformationService {
     Map<String, Object> getRetainedUserInformation(String username, String userStoreDomain, int tenantId) throws UserExportException;
+
+    /**
+     * Retrieve the retained information of the user, along with the types of information which could not be
+     * retrieved in time.
+     *
+     * @param username        Username of the user.
+     * @param userStoreDomain User store domain of the user.
+     * @param tenantId        Tenant id of the user.
+     * @return Retained user information.
+     * @throws UserExportException If a provider failed to retrieve the information.
+     */
+    default RetainedUserInformation getRetainedUserInformationWithStatus(String username, String userStoreDomain,
+                                                                         int tenantId) throws UserExportException {
+
+        return new RetainedUserInformation(getRetainedUserInformation(username, userStoreDomain, tenantId),
+                Collections.emptyList());
+    }
 }
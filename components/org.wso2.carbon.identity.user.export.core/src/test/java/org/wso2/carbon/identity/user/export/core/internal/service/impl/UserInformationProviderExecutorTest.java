@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.user.export.core.internal.service.impl;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.identity.user.export.core.UserExportException;
+import org.wso2.carbon.identity.user.export.core.dto.UserInformationDTO;
+import org.wso2.carbon.identity.user.export.core.internal.UserProfileExportDataHolder;
+import org.wso2.carbon.identity.user.export.core.model.RetainedUserInformation;
+import org.wso2.carbon.identity.user.export.core.service.UserInformationProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for the concurrent invocation of the user information providers of an export.
+ */
+public class UserInformationProviderExecutorTest {
+
+    private static final String USERNAME = "alex";
+    private static final String USER_STORE_DOMAIN = "PRIMARY";
+    private static final int TENANT_ID = -1234;
+    private static final List<String> SORTED_TYPES =
+            Arrays.asList("basic", "consents", "linkedAccounts", "security", "userProfile");
+    private static final long PROVIDER_TIMEOUT_MILLIS = 10000;
+    private static final long SHORT_PROVIDER_TIMEOUT_MILLIS = 500;
+    private static final long HANGING_PROVIDER_MILLIS = 30000;
+
+    private List<UserInformationProvider> previousProviders;
+    private UserInformationProviderExecutor providerExecutor;
+
+    @BeforeClass
+    public void setUpClass() {
+
+        String carbonHome = UserInformationProviderExecutorTest.class.getResource("/").getFile();
+        System.setProperty(CarbonBaseConstants.CARBON_HOME, carbonHome);
+    }
+
+    @BeforeMethod
+    public void setUp() {
+
+        previousProviders = UserProfileExportDataHolder.getUserInformationProviders();
+        providerExecutor = new UserInformationProviderExecutor(8, 100, PROVIDER_TIMEOUT_MILLIS);
+        UserProfileExportDataHolder.setUserInformationProviderExecutor(providerExecutor);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        UserProfileExportDataHolder.setUserInformationProviders(previousProviders);
+        UserProfileExportDataHolder.setUserInformationProviderExecutor(null);
+        providerExecutor.shutdown();
+    }
+
+    @Test
+    public void testProvidersRunConcurrently() throws Exception {
+
+        // Each provider waits until all the providers have started, which only completes in time if the providers
+        // run at the same time.
+        CountDownLatch startedLatch = new CountDownLatch(SORTED_TYPES.size());
+        List<UserInformationProvider> providers = new ArrayList<>();
+        for (String type : SORTED_TYPES) {
+            providers.add(new StubProvider(type, 0) {
+
+                @Override
+                public UserInformationDTO getRetainedUserInformation(String username, String userStoreDomain,
+                                                                     int tenantId) throws UserExportException {
+
+                    startedLatch.countDown();
+                    try {
+                        if (!startedLatch.await(PROVIDER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                            throw new UserExportException("Providers did not run concurrently.", null);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new UserExportException("Interrupted while waiting for the providers.", e);
+                    }
+                    return super.getRetainedUserInformation(username, userStoreDomain, tenantId);
+                }
+            });
+        }
+        Collections.reverse(providers);
+        setProviders(providers.toArray(new UserInformationProvider[0]));
+
+        RetainedUserInformation retainedUserInformation = new UserInformationServiceImpl()
+                .getRetainedUserInformationWithStatus(USERNAME, USER_STORE_DOMAIN, TENANT_ID);
+
+        assertTrue(retainedUserInformation.isComplete());
+        assertEquals(new ArrayList<>(retainedUserInformation.getUserInformation().keySet()), SORTED_TYPES);
+    }
+
+    @Test
+    public void testOutputOrderIsDeterministic() throws Exception {
+
+        Random random = new Random(7);
+        for (int i = 0; i < 5; i++) {
+            List<UserInformationProvider> providers = new ArrayList<>();
+            for (String type : SORTED_TYPES) {
+                providers.add(new StubProvider(type, random.nextInt(100)));
+            }
+            Collections.shuffle(providers, random);
+            setProviders(providers.toArray(new UserInformationProvider[0]));
+
+            Map<String, Object> userInformation = new UserInformationServiceImpl()
+                    .getRetainedUserInformation(USERNAME, USER_STORE_DOMAIN, TENANT_ID);
+            assertEquals(new ArrayList<>(userInformation.keySet()), SORTED_TYPES);
+        }
+    }
+
+    @Test
+    public void testTimedOutProviderIsReportedAsIncomplete() throws Exception {
+
+        CountDownLatch interruptedLatch = new CountDownLatch(1);
+        setProviders(new StubProvider("basic", 100), new HangingProvider("security", interruptedLatch),
+                new StubProvider("consents", 300));
+        useProviderExecutor(SHORT_PROVIDER_TIMEOUT_MILLIS);
+
+        long startTime = System.nanoTime();
+        RetainedUserInformation retainedUserInformation = new UserInformationServiceImpl()
+                .getRetainedUserInformationWithStatus(USERNAME, USER_STORE_DOMAIN, TENANT_ID);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertFalse(retainedUserInformation.isComplete());
+        assertEquals(retainedUserInformation.getIncompleteTypes(), Collections.singletonList("security"));
+        assertEquals(new ArrayList<>(retainedUserInformation.getUserInformation().keySet()),
+                Arrays.asList("basic", "consents"));
+        // The export waits for the provider timeout, but not for the hanging provider.
+        assertTrue(elapsedMillis >= SHORT_PROVIDER_TIMEOUT_MILLIS && elapsedMillis < HANGING_PROVIDER_MILLIS,
+                "Export took " + elapsedMillis + "ms.");
+        assertTrue(interruptedLatch.await(5, TimeUnit.SECONDS), "The timed out provider was not cancelled.");
+    }
+
+    @Test
+    public void testTimedOutProviderFailsLegacyExport() throws Exception {
+
+        setProviders(new StubProvider("basic", 100), new HangingProvider("security", new CountDownLatch(1)));
+        useProviderExecutor(SHORT_PROVIDER_TIMEOUT_MILLIS);
+
+        try {
+            new UserInformationServiceImpl().getRetainedUserInformation(USERNAME, USER_STORE_DOMAIN, TENANT_ID);
+            fail("Export should fail when a provider does not respond in time.");
+        } catch (UserExportException e) {
+            assertTrue(e.getMessage().contains("security"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testProviderErrorIsPropagated() throws Exception {
+
+        StubProvider failingProvider = new StubProvider("consents", 50) {
+
+            @Override
+            public UserInformationDTO getRetainedUserInformation(String username, String userStoreDomain,
+                                                                 int tenantId) throws UserExportException {
+
+                throw new UserExportException("Consent store is not reachable.", null);
+            }
+        };
+        setProviders(new StubProvider("basic", 100), failingProvider);
+
+        try {
+            new UserInformationServiceImpl().getRetainedUserInformation(USERNAME, USER_STORE_DOMAIN, TENANT_ID);
+            fail("Export should fail when a provider fails.");
+        } catch (UserExportException e) {
+            assertEquals(e.getMessage(), "Consent store is not reachable.");
+        }
+    }
+
+    private void useProviderExecutor(long providerTimeoutMillis) {
+
+        providerExecutor.shutdown();
+        providerExecutor = new UserInformationProviderExecutor(8, 100, providerTimeoutMillis);
+        UserProfileExportDataHolder.setUserInformationProviderExecutor(providerExecutor);
+    }
+
+    private static void setProviders(UserInformationProvider... providers) {
+
+        UserProfileExportDataHolder.setUserInformationProviders(new ArrayList<>(Arrays.asList(providers)));
+    }
+
+    /**
+     * User information provider which responds after the given latency.
+     */
+    private static class StubProvider extends AbstractUserInformationProvider {
+
+        private final String type;
+        private final long latencyMillis;
+
+        StubProvider(String type, long latencyMillis) {
+
+            this.type = type;
+            this.latencyMillis = latencyMillis;
+        }
+
+        long getLatencyMillis() {
+
+            return latencyMillis;
+        }
+
+        @Override
+        public UserInformationDTO getRetainedUserInformation(String username, String userStoreDomain, int tenantId)
+                throws UserExportException {
+
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UserExportException("Interrupted while retrieving " + type + " information.", e);
+            }
+            return new UserInformationDTO(Collections.singletonMap("type", type));
+        }
+
+        @Override
+        public String getType() {
+
+            return type;
+        }
+
+        @Override
+        public boolean isEnabled() {
+
+            return true;
+        }
+    }
+
+    /**
+     * User information provider which does not respond until it is interrupted.
+     */
+    private static class HangingProvider extends StubProvider {
+
+        private final CountDownLatch interruptedLatch;
+
+        HangingProvider(String type, CountDownLatch interruptedLatch) {
+
+            super(type, HANGING_PROVIDER_MILLIS);
+            this.interruptedLatch = interruptedLatch;
+        }
+
+        @Override
+        public UserInformationDTO getRetainedUserInformation(String username, String userStoreDomain, int tenantId) {
+
+            try {
+                Thread.sleep(getLatencyMillis());
+            } catch (InterruptedException e) {
+                interruptedLatch.countDown();
+            }
+            return new UserInformationDTO();
+        }
+    }
+}
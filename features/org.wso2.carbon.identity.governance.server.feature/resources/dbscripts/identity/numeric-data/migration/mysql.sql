@@ -0,0 +1,19 @@
+-- Back fill of the numeric values of the epoch time valued identity data of an existing identity database. Run this
+-- script after the numeric-data/mysql.sql script. The server back fills the rows this script does not copy, and indexes
+-- the rows written later without the identity data store, in the background.
+
+INSERT INTO IDN_IDENTITY_USER_DATA_NUMERIC (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE)
+SELECT D.TENANT_ID, D.USER_NAME, D.DATA_KEY, CAST(TRIM(D.DATA_VALUE) AS SIGNED) FROM IDN_IDENTITY_USER_DATA D
+WHERE D.DATA_KEY IN (
+    'http://wso2.org/claims/identity/lastLogonTime',
+    'http://wso2.org/claims/identity/lastLoginTime',
+    'http://wso2.org/claims/identity/lastPasswordUpdateTime',
+    'http://wso2.org/claims/identity/accountLockedTime')
+AND TRIM(D.DATA_VALUE) REGEXP '^-?[0-9]{1,18}$'
+AND NOT EXISTS (SELECT 1 FROM IDN_IDENTITY_USER_DATA_NUMERIC N WHERE N.TENANT_ID = D.TENANT_ID AND
+    N.USER_NAME = D.USER_NAME AND N.DATA_KEY = D.DATA_KEY);
+
+-- Range filters of all the nodes use the numeric values once the back fill is recorded.
+INSERT INTO IDN_IDENTITY_DATA_NUM_STATE (STATE_KEY, STATE_VALUE) VALUES ('BACKFILL_COMPLETED', 'MIGRATION');
+
+COMMIT;
@@ -0,0 +1,20 @@
+-- Numeric values of the epoch time valued identity data, which the range filters of the JDBC identity data store
+-- compare with an index. Run this script on the identity database before the server is started.
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_IDENTITY_USER_DATA_NUMERIC]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_IDENTITY_USER_DATA_NUMERIC (
+    TENANT_ID INTEGER DEFAULT -1234,
+    USER_NAME VARCHAR(255) NOT NULL,
+    DATA_KEY VARCHAR(255) NOT NULL,
+    DATA_VALUE BIGINT NOT NULL,
+    PRIMARY KEY (TENANT_ID, USER_NAME, DATA_KEY)
+);
+
+CREATE INDEX IDX_IDN_ID_USER_DATA_NUM_VAL ON IDN_IDENTITY_USER_DATA_NUMERIC (TENANT_ID, DATA_KEY, DATA_VALUE);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_IDENTITY_DATA_NUM_STATE]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_IDENTITY_DATA_NUM_STATE (
+    STATE_KEY VARCHAR(255) NOT NULL,
+    STATE_VALUE VARCHAR(255),
+    PRIMARY KEY (STATE_KEY)
+);
@@ -0,0 +1,13 @@
+-- Lease table of the recovery data purge, which keeps the nodes of a cluster from purging the same tenants at the
+-- same time, and the index the purge deletes the expired recovery data with. Run this script on the identity database
+-- before the recovery data purge is enabled.
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_RECOVERY_PURGE_LEASE]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_RECOVERY_PURGE_LEASE (
+    RANGE_ID INTEGER NOT NULL,
+    NODE_ID VARCHAR(255) NOT NULL,
+    LEASE_EXPIRY DATETIME NOT NULL,
+    PRIMARY KEY (RANGE_ID)
+);
+
+CREATE INDEX IDX_RECOVERY_DATA_EXPIRY ON IDN_RECOVERY_DATA (TENANT_ID, SCENARIO, STEP, TIME_CREATED);
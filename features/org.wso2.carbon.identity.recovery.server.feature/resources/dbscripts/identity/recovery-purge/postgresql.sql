@@ -0,0 +1,12 @@
+-- Lease table of the recovery data purge, which keeps the nodes of a cluster from purging the same tenants at the
+-- same time, and the index the purge deletes the expired recovery data with. Run this script on the identity database
+-- before the recovery data purge is enabled.
+
+CREATE TABLE IF NOT EXISTS IDN_RECOVERY_PURGE_LEASE (
+    RANGE_ID INTEGER NOT NULL,
+    NODE_ID VARCHAR(255) NOT NULL,
+    LEASE_EXPIRY TIMESTAMP NOT NULL,
+    PRIMARY KEY (RANGE_ID)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_RECOVERY_DATA_EXPIRY ON IDN_RECOVERY_DATA (TENANT_ID, SCENARIO, STEP, TIME_CREATED);